@@ -0,0 +1,117 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl;
+
+import g4ltl.utility.ResultLTLSynthesis;
+import g4ltl.utility.SynthesisEngine;
+import g4ltl.utility.bdd.DecisionDiagramFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Compare the BDD backends on specification files: every file is solved with
+ * the BDD-based engines (Buechi and symbolic co-Buechi) on each backend, and
+ * the median running time is reported.
+ *
+ * Usage: java g4ltl.BDDBenchmark [-runs n] [-threads n] [-unroll n] file...
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class BDDBenchmark {
+
+    private static final String[] BACKEND_NAMES = {"JDD", "off-heap", "parallel"};
+    private static final int[] BACKENDS = {DecisionDiagramFactory.JDD_BACKEND,
+        DecisionDiagramFactory.OFF_HEAP_BACKEND, DecisionDiagramFactory.PARALLEL_BACKEND};
+    private static final String[] TECHNIQUE_NAMES = {"Buechi", "symbolic co-Buechi"};
+    private static final int[] TECHNIQUES = {SynthesisEngine.BUECHI_SOLVER,
+        SynthesisEngine.SYMBOLIC_COBUECHI_SOLVER};
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int runs = 3;
+        int unrollSteps = 2;
+        int first = 0;
+        while (first < args.length && args[first].startsWith("-")) {
+            if (args[first].equals("-runs")) {
+                runs = Integer.parseInt(args[first + 1]);
+            } else if (args[first].equals("-threads")) {
+                DecisionDiagramFactory.THREADS = Integer.parseInt(args[first + 1]);
+            } else if (args[first].equals("-unroll")) {
+                unrollSteps = Integer.parseInt(args[first + 1]);
+            }
+            first += 2;
+        }
+
+        PrintStream out = System.out;
+        out.print("specification\tengine");
+        for (String name : BACKEND_NAMES) {
+            out.print("\t" + name + " [ms]");
+        }
+        out.println();
+        int backend = DecisionDiagramFactory.BACKEND;
+        try {
+            for (int f = first; f < args.length; f++) {
+                File file = new File(args[f]);
+                for (int t = 0; t < TECHNIQUES.length; t++) {
+                    StringBuilder line = new StringBuilder(file.getName() + "\t" + TECHNIQUE_NAMES[t]);
+                    Boolean verdict = null;
+                    for (int b = 0; b < BACKENDS.length; b++) {
+                        DecisionDiagramFactory.BACKEND = BACKENDS[b];
+                        long[] times = new long[runs];
+                        for (int r = 0; r < runs; r++) {
+                            // The engines report on standard output; keep only the timing.
+                            System.setOut(new PrintStream(new ByteArrayOutputStream()));
+                            long start = System.nanoTime();
+                            ResultLTLSynthesis result;
+                            try {
+                                result = new SolverUtility().synthesizeFromFile(file, TECHNIQUES[t], unrollSteps,
+                                        SynthesisEngine.OUTPUT_PSUEDO_CODE, true);
+                            } finally {
+                                System.setOut(out);
+                            }
+                            times[r] = (System.nanoTime() - start) / 1000000;
+                            if (verdict == null) {
+                                verdict = Boolean.valueOf(result.isStrategyFound());
+                            } else if (verdict.booleanValue() != result.isStrategyFound()) {
+                                line.append(" (verdict differs on ").append(BACKEND_NAMES[b]).append(")");
+                            }
+                        }
+                        Arrays.sort(times);
+                        line.append("\t").append(times[runs / 2]);
+                    }
+                    out.println(line.toString() + (verdict.booleanValue() ? "\trealizable" : "\tno strategy"));
+                }
+            }
+        } finally {
+            DecisionDiagramFactory.BACKEND = backend;
+        }
+    }
+}
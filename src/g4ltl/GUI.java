@@ -28,12 +28,24 @@
 package g4ltl;
 
 import g4ltl.utility.AssumptionCandidate;
+import g4ltl.utility.AssumptionMiningEngine;
 import g4ltl.utility.CompositionalProblemDescription;
 import g4ltl.utility.CompressibilityCheck;
 import g4ltl.utility.DefaultFileFilter;
 import g4ltl.utility.ProblemDescription;
 import g4ltl.utility.PtolemyTemplate;
+import g4ltl.utility.SynthesisCancelledException;
 import g4ltl.utility.SynthesisEngine;
+import g4ltl.utility.SynthesisEvent;
+import g4ltl.utility.SynthesisListener;
+import g4ltl.utility.SynthesisRace;
+import g4ltl.utility.ltl.GR1Specification;
+import g4ltl.utility.ltl.LTL2BuchiTranslator;
+import g4ltl.utility.ltl.LTLParseException;
+import g4ltl.utility.ltl.LTLSpecification;
+import g4ltl.utility.ltl.LTLTranslator;
+import g4ltl.utility.ltl.PortfolioTranslator;
+import g4ltl.utility.ltl.TableauTranslator;
 import java.awt.image.BufferedImage;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -42,8 +54,12 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
@@ -60,6 +76,38 @@ import javax.swing.SwingUtilities;
 public class GUI extends javax.swing.JFrame {
 
     protected String lastDir = null;
+    /**
+     * Interval in milliseconds between two counts of the BDD nodes in the status line.
+     */
+    private static final long NODE_COUNT_INTERVAL = 1000;
+    /**
+     * Executes the queued synthesis runs one after the other.
+     */
+    private final ExecutorService synthesisWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "G4LTL synthesis");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    /**
+     * Engine of the running synthesis, or null.
+     */
+    private volatile SynthesisEngine runningEngine;
+    /**
+     * Race of the running synthesis, or null if it proves a single direction.
+     */
+    private volatile SynthesisRace runningRace;
+    /**
+     * Status of the running synthesis, or null; accessed on the event dispatch thread.
+     */
+    private String runningStatus;
+    /**
+     * Number of queued and running syntheses; accessed on the event dispatch thread.
+     */
+    private int pendingRuns = 0;
+    private int numberOfRuns = 0;
 
     /**
      * Creates new GUI
@@ -102,11 +150,14 @@ public class GUI extends javax.swing.JFrame {
         jPanelResult = new javax.swing.JPanel();
         jScrollPane1 = new javax.swing.JScrollPane();
         jTextAreaResult = new javax.swing.JTextArea();
+        jLabelStatus = new javax.swing.JLabel();
         jButtonSynthesize = new javax.swing.JButton();
         jButtonClear = new javax.swing.JButton();
+        jButtonCancel = new javax.swing.JButton();
         jPanelFrontEnd = new javax.swing.JPanel();
         jRadioButtonLTLBuchi = new javax.swing.JRadioButton();
-        jRadioButtonLTL2BA = new javax.swing.JRadioButton();
+        jRadioButtonTableau = new javax.swing.JRadioButton();
+        jRadioButtonPortfolio = new javax.swing.JRadioButton();
         jPanelOutputFormat = new javax.swing.JPanel();
         jRadioButtonSAL = new javax.swing.JRadioButton();
         jRadioButtonPsuedoCode = new javax.swing.JRadioButton();
@@ -115,6 +166,7 @@ public class GUI extends javax.swing.JFrame {
         jPanelFeature = new javax.swing.JPanel();
         jRadioButtonFind = new javax.swing.JRadioButton();
         jRadioButtonDisprove = new javax.swing.JRadioButton();
+        jRadioButtonRace = new javax.swing.JRadioButton();
         jMenuBar = new javax.swing.JMenuBar();
         jMenuFile = new javax.swing.JMenu();
         jMenuItemLoadLTL = new javax.swing.JMenuItem();
@@ -220,13 +272,18 @@ public class GUI extends javax.swing.JFrame {
         jTextAreaResult.setRows(5);
         jScrollPane1.setViewportView(jTextAreaResult);
 
+        jLabelStatus.setFont(jLabelStatus.getFont().deriveFont(jLabelStatus.getFont().getSize()-1f));
+        jLabelStatus.setText("Idle");
+
         org.jdesktop.layout.GroupLayout jPanelResultLayout = new org.jdesktop.layout.GroupLayout(jPanelResult);
         jPanelResult.setLayout(jPanelResultLayout);
         jPanelResultLayout.setHorizontalGroup(
             jPanelResultLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.LEADING)
             .add(jPanelResultLayout.createSequentialGroup()
                 .addContainerGap()
-                .add(jScrollPane1, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, 660, Short.MAX_VALUE)
+                .add(jPanelResultLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.LEADING)
+                    .add(jScrollPane1, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, 660, Short.MAX_VALUE)
+                    .add(jLabelStatus, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, 660, Short.MAX_VALUE))
                 .addContainerGap())
         );
         jPanelResultLayout.setVerticalGroup(
@@ -234,6 +291,8 @@ public class GUI extends javax.swing.JFrame {
             .add(jPanelResultLayout.createSequentialGroup()
                 .addContainerGap()
                 .add(jScrollPane1, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE, 184, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(org.jdesktop.layout.LayoutStyle.RELATED)
+                .add(jLabelStatus)
                 .addContainerGap(12, Short.MAX_VALUE))
         );
 
@@ -253,6 +312,15 @@ public class GUI extends javax.swing.JFrame {
             }
         });
 
+        jButtonCancel.setFont(jButtonCancel.getFont().deriveFont(jButtonCancel.getFont().getSize()-1f));
+        jButtonCancel.setText("Cancel");
+        jButtonCancel.setEnabled(false);
+        jButtonCancel.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jButtonCancelActionPerformed(evt);
+            }
+        });
+
         jPanelFrontEnd.setBorder(javax.swing.BorderFactory.createTitledBorder("Front-end Translator"));
 
         buttonGroupFrontEnd.add(jRadioButtonLTLBuchi);
@@ -260,9 +328,13 @@ public class GUI extends javax.swing.JFrame {
         jRadioButtonLTLBuchi.setSelected(true);
         jRadioButtonLTLBuchi.setText("LTL2Buchi (Java)");
 
-        buttonGroupFrontEnd.add(jRadioButtonLTL2BA);
-        jRadioButtonLTL2BA.setFont(jRadioButtonLTL2BA.getFont().deriveFont(jRadioButtonLTL2BA.getFont().getSize()-3f));
-        jRadioButtonLTL2BA.setText("LTL2BA (limited platform)");
+        buttonGroupFrontEnd.add(jRadioButtonTableau);
+        jRadioButtonTableau.setFont(jRadioButtonTableau.getFont().deriveFont(jRadioButtonTableau.getFont().getSize()-3f));
+        jRadioButtonTableau.setText("Tableau (Java)");
+
+        buttonGroupFrontEnd.add(jRadioButtonPortfolio);
+        jRadioButtonPortfolio.setFont(jRadioButtonPortfolio.getFont().deriveFont(jRadioButtonPortfolio.getFont().getSize()-3f));
+        jRadioButtonPortfolio.setText("Portfolio (smallest)");
 
         org.jdesktop.layout.GroupLayout jPanelFrontEndLayout = new org.jdesktop.layout.GroupLayout(jPanelFrontEnd);
         jPanelFrontEnd.setLayout(jPanelFrontEndLayout);
@@ -271,8 +343,10 @@ public class GUI extends javax.swing.JFrame {
             .add(jPanelFrontEndLayout.createSequentialGroup()
                 .add(jRadioButtonLTLBuchi)
                 .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
-                .add(jRadioButtonLTL2BA)
-                .addContainerGap(263, Short.MAX_VALUE))
+                .add(jRadioButtonTableau)
+                .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
+                .add(jRadioButtonPortfolio)
+                .addContainerGap(103, Short.MAX_VALUE))
         );
         jPanelFrontEndLayout.setVerticalGroup(
             jPanelFrontEndLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.LEADING)
@@ -280,7 +354,8 @@ public class GUI extends javax.swing.JFrame {
                 .add(0, 0, Short.MAX_VALUE)
                 .add(jPanelFrontEndLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.BASELINE)
                     .add(jRadioButtonLTLBuchi)
-                    .add(jRadioButtonLTL2BA)))
+                    .add(jRadioButtonTableau)
+                    .add(jRadioButtonPortfolio)))
         );
 
         jPanelOutputFormat.setBorder(javax.swing.BorderFactory.createTitledBorder("Output format"));
@@ -351,6 +426,11 @@ public class GUI extends javax.swing.JFrame {
             }
         });
 
+        buttonGroupFeature.add(jRadioButtonRace);
+        jRadioButtonRace.setFont(jRadioButtonRace.getFont().deriveFont(jRadioButtonRace.getFont().getSize()-3f));
+        jRadioButtonRace.setText("Race both");
+        jRadioButtonRace.setToolTipText("Find strategy and prove non-existence concurrently; the first verdict wins");
+
         org.jdesktop.layout.GroupLayout jPanelFeatureLayout = new org.jdesktop.layout.GroupLayout(jPanelFeature);
         jPanelFeature.setLayout(jPanelFeatureLayout);
         jPanelFeatureLayout.setHorizontalGroup(
@@ -359,13 +439,16 @@ public class GUI extends javax.swing.JFrame {
                 .add(jRadioButtonFind)
                 .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
                 .add(jRadioButtonDisprove)
+                .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
+                .add(jRadioButtonRace)
                 .addContainerGap(21, Short.MAX_VALUE))
         );
         jPanelFeatureLayout.setVerticalGroup(
             jPanelFeatureLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.LEADING)
             .add(jPanelFeatureLayout.createParallelGroup(org.jdesktop.layout.GroupLayout.BASELINE)
                 .add(jRadioButtonDisprove)
-                .add(jRadioButtonFind))
+                .add(jRadioButtonFind)
+                .add(jRadioButtonRace))
         );
 
         jMenuFile.setText("File");
@@ -412,7 +495,7 @@ public class GUI extends javax.swing.JFrame {
 
         jMenuSetting.setText("Setting");
 
-        jMenuItemGroupNumber.setText("Number of grouped guarantees");
+        jMenuItemGroupNumber.setText("Size of grouped guarantees");
         jMenuItemGroupNumber.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 jMenuItemGroupNumberActionPerformed(evt);
@@ -457,10 +540,12 @@ public class GUI extends javax.swing.JFrame {
                         .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
                         .add(layout.createParallelGroup(org.jdesktop.layout.GroupLayout.LEADING)
                             .add(layout.createSequentialGroup()
-                                .add(36, 36, 36)
+                                .add(12, 12, 12)
                                 .add(jButtonSynthesize)
                                 .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
-                                .add(jButtonClear, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE, 76, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE))
+                                .add(jButtonClear, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE, 76, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE)
+                                .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
+                                .add(jButtonCancel, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE, 76, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE))
                             .add(jPanelFeature, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
                     .add(org.jdesktop.layout.GroupLayout.LEADING, jPanelResult, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addContainerGap())
@@ -477,7 +562,8 @@ public class GUI extends javax.swing.JFrame {
                         .addPreferredGap(org.jdesktop.layout.LayoutStyle.UNRELATED)
                         .add(layout.createParallelGroup(org.jdesktop.layout.GroupLayout.BASELINE)
                             .add(jButtonSynthesize)
-                            .add(jButtonClear)))
+                            .add(jButtonClear)
+                            .add(jButtonCancel)))
                     .add(layout.createSequentialGroup()
                         .add(jPanelFrontEnd, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE, org.jdesktop.layout.GroupLayout.DEFAULT_SIZE, org.jdesktop.layout.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(org.jdesktop.layout.LayoutStyle.RELATED)
@@ -496,9 +582,13 @@ public class GUI extends javax.swing.JFrame {
         // Icon which is used in the dialog
         ImageIcon icon = new ImageIcon("src/g4ltl/G4LTL.png");
 
-        if (jRadioButtonLTL2BA.isSelected()) {
-            JOptionPane.showMessageDialog(null, "Using LTL2BA is not supported under the BSD version.", "G4LTL", 0, icon);
-            return;
+        LTLTranslator translator;
+        if (jRadioButtonTableau.isSelected()) {
+            translator = new TableauTranslator();
+        } else if (jRadioButtonPortfolio.isSelected()) {
+            translator = new PortfolioTranslator();
+        } else {
+            translator = new LTL2BuchiTranslator();
         }
 
 
@@ -533,27 +623,27 @@ public class GUI extends javax.swing.JFrame {
             }
         }
 
-        System.out.println("Rewritten input");
-        System.out.println(input.toString());
-        
-        System.out.println("Rewritten output");
-        System.out.println(output.toString());
-        
-        System.out.println("Rewritten spec");
-        System.out.println(spec.toString());
-        
+        LTLSpecification ltlSpecification;
+        try {
+            ltlSpecification = SolverUtility.parseLTLspecification(spec.toString());
+        } catch (LTLParseException ex) {
+            JOptionPane.showMessageDialog(null, "Syntax error in the LTL specification.\n" + ex.getMessage(), "G4LTL", 0, icon);
+            return;
+        }
+
         CompositionalProblemDescription prob = new CompositionalProblemDescription(SolverUtility.getSignals(input.toString()),
                 SolverUtility.getSignals(output.toString()),
                 SolverUtility.getSignals(jTextFieldTimerVariable.getText()),
-                SolverUtility.parseLTLspecification(SolverUtility.changeSpecToInternalFormat(spec.toString())),
+                ltlSpecification.getFormula(),
                 Integer.parseInt(jTextFieldUnroll.getText()),
-                SolverUtility.parseCompositionalLTLspecification(SolverUtility.changeSpecToInternalFormat(spec.toString())));
+                SolverUtility.parseCompositionalLTLspecification(ltlSpecification,
+                SolverUtility.getSignals(output.toString())));
 
         /*
         ProblemDescription prob = new ProblemDescription(
         SolverUtility.getSignals(jTextFieldInputSignal.getText()),
         SolverUtility.getSignals(jTextFieldOutputSignal.getText()),
-        SolverUtility.parseLTLspecification(SolverUtility.changeSpecToInternalFormat(jTextAreaLTLSpec.getText())),
+        SolverUtility.parseLTLspecification(jTextAreaLTLSpec.getText()).getFormula(),
         Integer.parseInt(jTextFieldUnroll.getText()));
          */
 
@@ -575,9 +665,11 @@ public class GUI extends javax.swing.JFrame {
          * 
          */
         
-        jTextAreaResult.setText("");
-             
-        
+        // Results of earlier runs are kept while runs are pending.
+        if (pendingRuns == 0) {
+            jTextAreaResult.setText("");
+        }
+
         int outputOption = SynthesisEngine.OUTPUT_PSUEDO_CODE;
         if (jRadioButtonSAL.isSelected()) {
             outputOption = SynthesisEngine.OUTPUT_SAL;
@@ -604,11 +696,10 @@ public class GUI extends javax.swing.JFrame {
         prob.getOutputVariables().addAll(check.getNewOutputVariables());
         
         // Set new specification
-        prob.setLtlSpecification(SolverUtility.parseLTLspecification(
-        SolverUtility.changeSpecToInternalFormat(check.getRewrittenSpecification())));
+        LTLSpecification rewritten = SolverUtility.parseLTLspecification(check.getRewrittenSpecification());
+        prob.setLtlFormula(rewritten.getFormula());
         // Partition into subspecifications (for compositional synthesis)
-        prob.setPartialSpecification(SolverUtility.parseCompositionalLTLspecification(
-        SolverUtility.changeSpecToInternalFormat(check.getRewrittenSpecification())));
+        prob.setPartialSpecification(SolverUtility.parseCompositionalLTLspecification(rewritten, prob.getOutputVariables()));
         
         // Print the translation scheme
         jTextAreaResult.append("----- Rewritten specification -----\n");
@@ -636,64 +727,260 @@ public class GUI extends javax.swing.JFrame {
          * 
          */
 
-        // Invoke the engine, and redirect the synthesized result to the result panel.
-        SynthesisEngine engine = new SynthesisEngine();
+        // The dialogs are shown here, the engine is invoked by the synthesis worker.
+        if (!jRadioButtonDisprove.isSelected() && jTextFieldTimerVariable.getText().trim().equals("")
+                && GR1Specification.detect(prob.getLtlFormula(), prob.getInputVariables(), prob.getOutputVariables()) != null) {
+            int dialogGR1 = JOptionPane.showConfirmDialog(null,
+                    "The specification is in the GR(1) fragment.\n"
+                    + "Use the GR(1) solver?", "G4LTL",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.QUESTION_MESSAGE, icon);
+            if (dialogGR1 == JOptionPane.YES_OPTION) {
+                optionTechnique = SynthesisEngine.GR1_SOLVER;
+            }
+        }
+
+        int dialogCompositional = -1;
+        if (optionTechnique == 0 && jRadioButtonFind.isSelected()) {
+            // Enforce to use LTL2Buchi when NEXT operator is used.
+            Object[] options = {"Compositional [Y/N]",
+                "Compositional",
+                "Monolithic"};
+            dialogCompositional = JOptionPane.showOptionDialog(null,
+                    "Perform compositional synthesis?",
+                    "G4LTL",
+                    JOptionPane.YES_NO_CANCEL_OPTION,
+                    JOptionPane.QUESTION_MESSAGE, icon,
+                    options, options[1]);
+        }
+
+        queueSynthesis(prob, translator, outputOption, optionTechnique, dialogCompositional,
+                jRadioButtonFind.isSelected(), jRadioButtonRace.isSelected(),
+                input.toString(), output.toString(), spec.toString());
+    }//GEN-LAST:event_jButtonSynthesizeActionPerformed
+
+    /**
+     * Queue a synthesis run. The runs are executed one after the other on the
+     * synthesis worker, such that the window stays responsive; the running one
+     * reports its progress in the status line and can be cancelled.
+     *
+     * @param dialogCompositional answer to the compositional synthesis dialog, or -1 if it was not shown
+     * @param raceBoth prove existence and non-existence concurrently (see SynthesisRace)
+     */
+    private void queueSynthesis(final CompositionalProblemDescription prob, final LTLTranslator translator,
+            final int outputOption, final int optionTechnique, final int dialogCompositional,
+            final boolean proveExistence, final boolean raceBoth, final String input, final String output,
+            final String spec) {
+        final int run = ++numberOfRuns;
+        pendingRuns++;
+        if (pendingRuns > 1) {
+            jTextAreaResult.append("\nRun " + run + " queued.\n");
+        }
+        updateStatus();
+        synthesisWorker.execute(new Runnable() {
+
+            public void run() {
+                runSynthesis(run, prob, translator, outputOption, optionTechnique, dialogCompositional,
+                        proveExistence, raceBoth, input, output, spec);
+            }
+        });
+    }
 
-        String synthesisResult=new String();
-        if (optionTechnique == 0) {
+    /**
+     * Execute a queued synthesis run; called on the synthesis worker.
+     */
+    private void runSynthesis(final int run, CompositionalProblemDescription prob, LTLTranslator translator,
+            int outputOption, int optionTechnique, int dialogCompositional, boolean proveExistence,
+            boolean raceBoth, String input, String output, String spec) {
+        // Printed from the synthesis worker, in order with the reports of the engine.
+        System.out.println("Rewritten input");
+        System.out.println(input);
 
-            if (jRadioButtonFind.isSelected()) {
-                // Enforce to use LTL2Buchi when NEXT operator is used.
-                Object[] options = {"Compositional [Y/N]",
-                    "Compositional",
-                    "Monolithic"};
-                int dialogCompositional = JOptionPane.showOptionDialog(null,
-                        "Perform compositional synthesis?",
-                        "G4LTL",
-                        JOptionPane.YES_NO_CANCEL_OPTION,
-                        JOptionPane.QUESTION_MESSAGE, icon,
-                        options, options[1]);
+        System.out.println("Rewritten output");
+        System.out.println(output);
 
+        System.out.println("Rewritten spec");
+        System.out.println(spec);
 
+        // In a race, the engine proving existence is kept for assumption mining.
+        SynthesisRace race = raceBoth ? new SynthesisRace() : null;
+        SynthesisEngine engine = raceBoth ? race.getExistenceEngine() : new SynthesisEngine();
+        if (raceBoth) {
+            race.addSynthesisListener(new StatusListener(run, engine));
+        } else {
+            engine.addSynthesisListener(new StatusListener(run, engine));
+        }
+        runningRace = race;
+        runningEngine = engine;
+        SwingUtilities.invokeLater(new Runnable() {
 
+            public void run() {
+                runningStatus = "Run " + run + " started";
+                jButtonCancel.setEnabled(true);
+                updateStatus();
+            }
+        });
+        try {
+            // Invoke the engine, and redirect the synthesized result to the result panel.
+            String synthesisResult;
+            if (raceBoth) {
+                synthesisResult = race.invoke(prob, translator, outputOption, optionTechnique).getMessage1();
+            } else if (optionTechnique == SynthesisEngine.GR1_SOLVER) {
+                synthesisResult = engine.invokeGR1Engine(prob,
+                        translator, outputOption,
+                        proveExistence).getMessage1();
+            } else if (optionTechnique == 0) {
                 if (dialogCompositional == 0 || dialogCompositional == 1) {
                     boolean isShownStrategy = (dialogCompositional == 0) ? false : true;
-                    synthesisResult=engine.invokeCompositionalCoBuechiEngine(prob,
-                            jRadioButtonLTLBuchi.isSelected(), outputOption,
-                            jRadioButtonFind.isSelected(), isShownStrategy).getMessage1();
-                    jTextAreaResult.append("\n" + synthesisResult);
+                    synthesisResult = engine.invokeCompositionalCoBuechiEngine(prob,
+                            translator, outputOption,
+                            proveExistence, isShownStrategy).getMessage1();
                 } else {
-                    synthesisResult=engine.invokeMonolithicCoBuechiEngine(prob,
-                            jRadioButtonLTLBuchi.isSelected(), outputOption,
-                            jRadioButtonFind.isSelected()).getMessage1();
-                    jTextAreaResult.append("\n" + synthesisResult);
+                    synthesisResult = engine.invokeMonolithicCoBuechiEngine(prob,
+                            translator, outputOption,
+                            proveExistence).getMessage1();
                 }
             } else {
-                synthesisResult=engine.invokeMonolithicCoBuechiEngine(prob,
-                            jRadioButtonLTLBuchi.isSelected(), outputOption,
-                            jRadioButtonFind.isSelected()).getMessage1();
-                jTextAreaResult.append("\n" + synthesisResult);
+                synthesisResult = engine.invokeMonolithicBuechiEngine(prob,
+                        translator, outputOption,
+                        proveExistence).getMessage1();
             }
+            updateTextArea("\n" + synthesisResult);
+
+            //Assumption learning
+            if (synthesisResult.equals("Co-Buechi + safety game engine unable to find the controler")) {
+                ArrayList<AssumptionCandidate> assumptionCandidates;
+                System.out.print("\nGenerating Assumption Candidate\n");
+                BitSet losingPlayInputs = new AssumptionMiningEngine(engine).getLosingPlayInputs(SolverUtility.getSignals(input),
+                        SolverUtility.getSignals(output), prob.getUnrollSteps());
+                assumptionCandidates = engine.listAllAssumptionCandidate(SolverUtility.getSignals(input), losingPlayInputs);
+                engine.assumptionLearning(assumptionCandidates, SolverUtility.getSignals(input),
+                        SolverUtility.getSignals(output), prob, translator);
+            }
+        } catch (SynthesisCancelledException ex) {
+            updateTextArea("\nRun " + run + " cancelled.\n");
+        } catch (final RuntimeException ex) {
+            SwingUtilities.invokeLater(new Runnable() {
 
-        } else {
-            synthesisResult=engine.invokeMonolithicBuechiEngine(prob,
-                    jRadioButtonLTLBuchi.isSelected(), outputOption,
-                    jRadioButtonFind.isSelected()).getMessage1();
-            jTextAreaResult.append("\n" + synthesisResult);
+                public void run() {
+                    printErrorToResult(ex);
+                }
+            });
+        } finally {
+            runningRace = null;
+            runningEngine = null;
+            engine.releaseLastSafetyGameArena();
+            SwingUtilities.invokeLater(new Runnable() {
+
+                public void run() {
+                    pendingRuns--;
+                    runningStatus = null;
+                    jButtonCancel.setEnabled(false);
+                    updateStatus();
+                }
+            });
         }
-        //Assumption learning
-        if(synthesisResult.equals("Co-Buechi + safety game engine unable to find the controler")){
-            ArrayList<AssumptionCandidate> assumptionCandidates;
-            System.out.print("\nGenerating Assumption Candidate\n");
-            assumptionCandidates=engine.listAllAssumptionCandidate(SolverUtility.getSignals(input.toString()));
-            engine.assumptionLearning(assumptionCandidates,SolverUtility.getSignals(input.toString()),
-                    SolverUtility.getSignals(output.toString()),prob);
+    }
+
+    private void jButtonCancelActionPerformed(java.awt.event.ActionEvent evt) {
+        SynthesisRace race = runningRace;
+        if (race != null) {
+            race.cancel();
         }
-        
-        
-        
-        
-    }//GEN-LAST:event_jButtonSynthesizeActionPerformed
+        SynthesisEngine engine = runningEngine;
+        if (engine != null) {
+            engine.cancel();
+            jButtonCancel.setEnabled(false);
+            runningStatus = "Cancelling";
+            updateStatus();
+        }
+    }
+
+    /**
+     * Show the status of the running synthesis and the number of queued runs;
+     * called on the event dispatch thread.
+     */
+    private void updateStatus() {
+        int queued = runningStatus == null ? pendingRuns : pendingRuns - 1;
+        String text = runningStatus == null ? (pendingRuns == 0 ? "Idle" : "Waiting") : runningStatus;
+        if (queued > 0) {
+            text += " (" + queued + " queued)";
+        }
+        jLabelStatus.setText(text);
+    }
+
+    /**
+     * Shows the progress of a synthesis run in the status line.
+     */
+    private class StatusListener implements SynthesisListener {
+
+        private final int run;
+        /**
+         * The engine of the run (the existence engine in a race); events are
+         * only shown while it is the running engine.
+         */
+        private final SynthesisEngine engine;
+        private int liveNodes = -1;
+        private long lastNodeCount = 0;
+
+        StatusListener(int run, SynthesisEngine engine) {
+            this.run = run;
+            this.engine = engine;
+        }
+
+        public void phaseStarted(SynthesisEvent event) {
+            show(event, "");
+        }
+
+        public void phaseFinished(SynthesisEvent event) {
+            show(event, ", done in " + event.getElapsedTime() + " ms");
+        }
+
+        public void progress(SynthesisEvent event) {
+            // Counting the nodes may scan the whole node table, hence it is done rarely.
+            long now = System.currentTimeMillis();
+            if (now - lastNodeCount >= NODE_COUNT_INTERVAL) {
+                int count = event.getLiveNodes();
+                if (count >= 0) {
+                    liveNodes = count;
+                    lastNodeCount = now;
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            if (event.getUnrollDepth() >= 0) {
+                text.append(", depth ").append(event.getUnrollDepth());
+            }
+            if (event.getIteration() >= 0) {
+                text.append(", iteration ").append(event.getIteration());
+            }
+            if (liveNodes >= 0) {
+                text.append(", ").append(liveNodes).append(" BDD nodes");
+            }
+            text.append(", ").append(event.getElapsedTime() / 1000).append(" s");
+            show(event, text.toString());
+        }
+
+        private void show(SynthesisEvent event, String details) {
+            StringBuilder text = new StringBuilder("Run " + run + ": " + event.getPhase());
+            if (event.getArenaSize() >= 0) {
+                text.append(", arena ").append(event.getArenaSize()).append(" vertices");
+            }
+            text.append(details);
+            final String status = text.toString();
+            final SynthesisEngine source = (SynthesisEngine) event.getSource();
+            SwingUtilities.invokeLater(new Runnable() {
+
+                public void run() {
+                    // A late event of a finished run must not overwrite the status of the next one,
+                    // and the losing engine of a race may still report while it stops.
+                    if (runningEngine == engine && !engine.isCancelled() && !source.isCancelled()) {
+                        runningStatus = status;
+                        updateStatus();
+                    }
+                }
+            });
+        }
+    }
 
     private void updateTextArea(final String text) {
         SwingUtilities.invokeLater(new Runnable() {
@@ -945,11 +1232,19 @@ private void jMenuItemNumericalActionPerformed(java.awt.event.ActionEvent evt) {
             return;
     }
 
+    LTLSpecification ltlSpecification;
+    try {
+        ltlSpecification = SolverUtility.parseLTLspecification(jTextAreaLTLSpec.getText());
+    } catch (LTLParseException ex) {
+        JOptionPane.showMessageDialog(null, "Syntax error in the LTL specification.\n" + ex.getMessage());
+        return;
+    }
+
     ProblemDescription prob = new ProblemDescription(
             SolverUtility.getSignals(jTextFieldInputVariable.getText()),
             SolverUtility.getSignals(jTextFieldOutputVariable.getText()),
             SolverUtility.getSignals(jTextFieldTimerVariable.getText()),
-            SolverUtility.parseLTLspecification(SolverUtility.changeSpecToInternalFormat(jTextAreaLTLSpec.getText())),
+            ltlSpecification.getFormula(),
             Integer.parseInt(jTextFieldUnroll.getText()));
 
     Object[] possibilities = {"1", "2", "3", "4", "5", "6", "7", "8"};
@@ -978,20 +1273,21 @@ private void jMenuItemNumericalActionPerformed(java.awt.event.ActionEvent evt) {
 private void jMenuItemGroupNumberActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemGroupNumberActionPerformed
 // TODO add your handling code here:
     Object[] options = {"No change",
-        "1",
-        "2",
-        "3",
-        "4"
+        "4",
+        "16",
+        "64",
+        "256"
     };
     int dialogNumber = JOptionPane.showOptionDialog(null,
-            "Current number: " + SolverUtility.MAX_ASSEMBLY_GUARANTEES + ".\n Select to change the value",
+            "Current maximum predicted automaton size of a group of guarantees: "
+            + SolverUtility.MAX_ASSEMBLY_AUTOMATON_SIZE + ".\n Select to change the value",
             "G4LTL",
             JOptionPane.YES_NO_CANCEL_OPTION,
             JOptionPane.QUESTION_MESSAGE, new ImageIcon("src/g4ltl/G4LTL.png"),
-            options, options[1]);
+            options, options[2]);
 
     if (dialogNumber > 0) {
-        SolverUtility.setMaxGuaranteeGroupedElements(dialogNumber);
+        SolverUtility.setMaxGroupAutomatonSize(Integer.parseInt((String) options[dialogNumber]));
     }
 }//GEN-LAST:event_jMenuItemGroupNumberActionPerformed
 
@@ -1032,11 +1328,13 @@ private void jTextFieldUnrollActionPerformed(java.awt.event.ActionEvent evt) {//
     private javax.swing.ButtonGroup buttonGroupFeature;
     private javax.swing.ButtonGroup buttonGroupFrontEnd;
     private javax.swing.ButtonGroup buttonGroupOutput;
+    private javax.swing.JButton jButtonCancel;
     private javax.swing.JButton jButtonClear;
     private javax.swing.JButton jButtonSynthesize;
     private javax.swing.JLabel jLabelInputSignal;
     private javax.swing.JLabel jLabelLTLSpec;
     private javax.swing.JLabel jLabelOutputVariable;
+    private javax.swing.JLabel jLabelStatus;
     private javax.swing.JLabel jLabelTimerVariable;
     private javax.swing.JLabel jLabelUnroll;
     private javax.swing.JMenuBar jMenuBar;
@@ -1058,12 +1356,14 @@ private void jTextFieldUnrollActionPerformed(java.awt.event.ActionEvent evt) {//
     private javax.swing.JPanel jPanelSpec;
     private javax.swing.JRadioButton jRadioButtonDisprove;
     private javax.swing.JRadioButton jRadioButtonFind;
-    private javax.swing.JRadioButton jRadioButtonLTL2BA;
     private javax.swing.JRadioButton jRadioButtonLTLBuchi;
+    private javax.swing.JRadioButton jRadioButtonPortfolio;
     private javax.swing.JRadioButton jRadioButtonPsuedoCode;
     private javax.swing.JRadioButton jRadioButtonPtolemy;
+    private javax.swing.JRadioButton jRadioButtonRace;
     private javax.swing.JRadioButton jRadioButtonSAL;
     private javax.swing.JRadioButton jRadioButtonST;
+    private javax.swing.JRadioButton jRadioButtonTableau;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JScrollPane jScrollPane3;
     private javax.swing.JTextArea jTextAreaLTLSpec;
@@ -32,6 +32,12 @@ import g4ltl.utility.ProblemDescription;
 import g4ltl.utility.PtolemyTemplate;
 import g4ltl.utility.ResultLTLSynthesis;
 import g4ltl.utility.SynthesisEngine;
+import g4ltl.utility.SynthesisRace;
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.ltl.LTLParseException;
+import g4ltl.utility.ltl.LTLParser;
+import g4ltl.utility.ltl.LTLSpecification;
+import g4ltl.utility.ltl.SizeBasedTranslator;
 import java.awt.GraphicsEnvironment;
 import java.io.BufferedReader;
 import java.io.File;
@@ -58,28 +64,14 @@ public class SolverUtility {
     static String OUTPUT = "OUTPUT";
     static String TIMER = "TIMER";
     static String ASSUME = "ASSUME";
-    static int MAX_ASSEMBLY_GUARANTEES = 2;
+    static int MAX_ASSEMBLY_AUTOMATON_SIZE = 16;
 
     public static ImageIcon getIcon() {
         return G4LTL_ICON;
     }
 
-    public static void setMaxGuaranteeGroupedElements(int number) {
-        MAX_ASSEMBLY_GUARANTEES = number;
-    }
-
-    /*
-    public String getOutputMultiplexer() {
-    return outputMultiplexer;
-    }
-     * 
-     */
-    static String changeSpecToInternalFormat(String spec) {
-        spec = spec.replaceAll("ALWAYS", " [] ");
-        spec = spec.replaceAll("EVENTUALLY", " <> ");
-        spec = spec.replaceAll("UNTIL", " U ");
-        spec = spec.replaceAll("NEXT", " X ");
-        return spec;
+    public static void setMaxGroupAutomatonSize(int size) {
+        MAX_ASSEMBLY_AUTOMATON_SIZE = size;
     }
 
     /**
@@ -148,122 +140,30 @@ public class SolverUtility {
     }
 
     /**
-     * Generate the LTL formula from the specification, where logical implications
-     * are used to replace assumptions stated in the spec.
+     * Parse the LTL specification (the lines of a specification file other than
+     * the signal declarations). Assumption lines start with ASSUME.
      * 
      * @param ltlSpec LTL specification under analysis
-     * @return an LTL formula which can be understood by ltlbuchi or ltl2ba
+     * @return the parsed specification; its formula is the conjunction of the
+     * assumptions implying the conjunction of the guarantees
+     * @throws LTLParseException if a line is not a well-formed LTL formula
      */
-    static String parseLTLspecification(String ltlSpec) {
-        String[] lines = ltlSpec.split("\\n");
-        StringBuilder resultGuarantee = new StringBuilder("");
-        StringBuilder resultAssume = new StringBuilder("");
-        boolean firstLineGuarantee = true;
-        boolean firstLineAssume = true;
-        boolean hasAssume = false;
-        for (String line : lines) {
-            if (line.trim().startsWith("##") == false && line.trim().startsWith("!--") == false
-                    && line.trim().equals("") == false) {
-                if (line.trim().startsWith(ASSUME)) {
-                    hasAssume = true;
-                    // Cover the line to the spec
-                    if (firstLineAssume) {
-                        resultAssume.append("(").append(line.trim().substring(ASSUME.length())).append(")");
-                        firstLineAssume = false;
-                    } else {
-                        resultAssume.append(" && (").append(line.trim().substring(ASSUME.length())).append(")");
-                    }
-                } else {
-                    // Cover the line to the spec
-                    if (firstLineGuarantee) {
-                        resultGuarantee.append("(").append(line.trim()).append(")");
-                        firstLineGuarantee = false;
-                    } else {
-                        resultGuarantee.append(" && (").append(line.trim()).append(")");
-                    }
-                }
-            }
-        }
-        if (hasAssume) {
-            return "(" + resultAssume.toString() + " ) -> (" + resultGuarantee.toString() + ")";
-        } else {
-            return resultGuarantee.toString();
-        }
+    static LTLSpecification parseLTLspecification(String ltlSpec) throws LTLParseException {
+        return new LTLParser().parseSpecification(ltlSpec);
     }
 
     /**
-     * Generate the LTL formula from the specification, where logical implications
-     * are used to replace assumptions stated in the spec.
+     * Split the specification into sub-specifications for compositional synthesis:
+     * guarantees sharing output signals are grouped, as long as the predicted
+     * automaton size of a group is at most MAX_ASSEMBLY_AUTOMATON_SIZE. Every
+     * sub-specification contains all assumptions.
      * 
-     * @param ltlSpec LTL specification under analysis
-     * @return an LTL formula which can be understood by ltlbuchi or ltl2ba
+     * @param ltlSpec parsed LTL specification
+     * @param outputs output signals
+     * @return formulas of the sub-specifications
      */
-    static ArrayList<String> parseCompositionalLTLspecification(String ltlSpec) {
-
-        String[] lines = ltlSpec.split("\\n");
-
-        StringBuilder resultAssume = new StringBuilder("");
-        ArrayList<StringBuilder> subGuaranteeList = new ArrayList<StringBuilder>();
-
-        boolean firstLineAssume = true;
-        boolean hasAssume = false;
-        for (String line : lines) {
-            if (line.trim().startsWith("##") == false && line.trim().startsWith("!--") == false
-                    && line.trim().equals("") == false) {
-                if (line.trim().startsWith(ASSUME)) {
-                    hasAssume = true;
-                    // Cover the line to the spec
-                    if (firstLineAssume) {
-                        resultAssume.append("(").append(line.trim().substring(ASSUME.length())).append(")");
-                        firstLineAssume = false;
-                    } else {
-                        resultAssume.append(" && (").append(line.trim().substring(ASSUME.length())).append(")");
-                    }
-                }
-            }
-        }
-
-
-        int currentAssembly = 0;
-        StringBuilder guarantee = new StringBuilder("");
-
-        for (String line : lines) {
-            if (line.trim().startsWith("##") == false && line.trim().startsWith("!--") == false
-                    && line.trim().equals("") == false) {
-                if (!line.trim().startsWith(ASSUME)) {
-                    // Cover the line to the spec
-                    if (currentAssembly == 0) {
-                        guarantee.append("(").append(line.trim()).append(")");
-                    } else {
-                        guarantee.append(" && (").append(line.trim()).append(")");
-                    }
-                    currentAssembly++;
-                    if (currentAssembly == MAX_ASSEMBLY_GUARANTEES) {
-                        subGuaranteeList.add(guarantee);
-                        guarantee = new StringBuilder("");
-                        currentAssembly = 0;
-                    }
-                }
-            }
-        }
-        if (!guarantee.toString().equalsIgnoreCase("")) {
-            // Add the remaining part back
-            subGuaranteeList.add(guarantee);
-        }
-
-
-        ArrayList<String> result = new ArrayList<String>();
-        if (hasAssume) {
-            for (StringBuilder s : subGuaranteeList) {
-                result.add("(" + resultAssume.toString() + " ) -> (" + s.toString() + ")");
-            }
-        } else {
-            for (StringBuilder s : subGuaranteeList) {
-                result.add(s.toString());
-            }
-
-        }
-        return result;
+    static ArrayList<LTLFormula> parseCompositionalLTLspecification(LTLSpecification ltlSpec, ArrayList<String> outputs) {
+        return ltlSpec.getSubSpecifications(outputs, MAX_ASSEMBLY_AUTOMATON_SIZE);
     }
 
     /**
@@ -279,6 +179,28 @@ public class SolverUtility {
      */
     public ResultLTLSynthesis synthesizeFromFile(File selectedFile, int optionTechnique, int unrollSteps,
             int outputFormat, boolean isStrategyFinding) throws Exception {
+        return synthesizeFromFile(selectedFile, optionTechnique, unrollSteps, outputFormat, isStrategyFinding, false);
+    }
+
+    /**
+     * Perform LTL synthesis by reading a file, proving existence and
+     * non-existence concurrently; the first definite verdict is returned (see
+     * SynthesisRace).
+     * 
+     * @param selectedFile File to be parsed. 
+     * @param optionTechnique Synthesis algorithm 
+     * @param unrollSteps Unroll steps for Co-Buechi solver
+     * @param outputFormat Desired output format 
+     * @return Strategy if the specification is realizable, otherwise the verdict in textural form.
+     * @throws Exception 
+     */
+    public ResultLTLSynthesis raceFromFile(File selectedFile, int optionTechnique, int unrollSteps,
+            int outputFormat) throws Exception {
+        return synthesizeFromFile(selectedFile, optionTechnique, unrollSteps, outputFormat, true, true);
+    }
+
+    private ResultLTLSynthesis synthesizeFromFile(File selectedFile, int optionTechnique, int unrollSteps,
+            int outputFormat, boolean isStrategyFinding, boolean isRace) throws Exception {
 
         ResultLTLSynthesis result = new ResultLTLSynthesis();
 
@@ -291,7 +213,7 @@ public class SolverUtility {
                 getSignals(map.get(INPUT)),
                 getSignals(map.get(OUTPUT)),
                  getSignals(map.get(TIMER)),
-                SolverUtility.parseLTLspecification(changeSpecToInternalFormat(map.get(LTL))),
+                parseLTLspecification(map.get(LTL)).getFormula(),
                 unrollSteps);
 
 
@@ -337,21 +259,14 @@ public class SolverUtility {
                         // Set new output variables
                         prob.setOutputVariables(check.getNewOutputVariables());
                         // Set new specification
-                        prob.setLtlSpecification(SolverUtility.parseLTLspecification(
-                                SolverUtility.changeSpecToInternalFormat(check.getRewrittenSpecification())));
+                        prob.setLtlFormula(parseLTLspecification(check.getRewrittenSpecification()).getFormula());
                     }
                 }
             }
 
 
             // Invoke the engine, and redirect the synthesized result to the result panel.
-            SynthesisEngine engine = new SynthesisEngine();
-
-            if (optionTechnique == SynthesisEngine.COBUECHI_SOLVER) {
-                result = engine.invokeMonolithicCoBuechiEngine(prob, false, outputFormat, isStrategyFinding);
-            } else {
-                result = engine.invokeMonolithicBuechiEngine(prob, false, outputFormat, isStrategyFinding);
-            }
+            result = invokeEngine(prob, optionTechnique, outputFormat, isStrategyFinding, isRace);
 
             if (outputFormat == SynthesisEngine.OUTPUT_FSM_ACTOR_PTOLEMY) {
                 if (result.isStrategyFound()) {
@@ -368,19 +283,31 @@ public class SolverUtility {
         } else {
 
             // Invoke the engine, and redirect the synthesized result to the result panel.
-            SynthesisEngine engine = new SynthesisEngine();
-
-            if (optionTechnique == SynthesisEngine.COBUECHI_SOLVER) {
-                result = engine.invokeMonolithicCoBuechiEngine(prob, false, outputFormat, isStrategyFinding);
-            } else {
-                result = engine.invokeMonolithicBuechiEngine(prob, false, outputFormat, isStrategyFinding);
-            }
+            result = invokeEngine(prob, optionTechnique, outputFormat, isStrategyFinding, isRace);
         }
 
 
         return result;
     }
 
+    private ResultLTLSynthesis invokeEngine(ProblemDescription prob, int optionTechnique, int outputFormat,
+            boolean isStrategyFinding, boolean isRace) {
+        if (isRace) {
+            return new SynthesisRace().invoke(prob, new SizeBasedTranslator(), outputFormat, optionTechnique);
+        }
+        SynthesisEngine engine = new SynthesisEngine();
+
+        if (optionTechnique == SynthesisEngine.COBUECHI_SOLVER) {
+            return engine.invokeMonolithicCoBuechiEngine(prob, new SizeBasedTranslator(), outputFormat, isStrategyFinding);
+        } else if (optionTechnique == SynthesisEngine.SYMBOLIC_COBUECHI_SOLVER) {
+            return engine.invokeSymbolicCoBuechiEngine(prob, new SizeBasedTranslator(), outputFormat, isStrategyFinding);
+        } else if (optionTechnique == SynthesisEngine.GR1_SOLVER) {
+            return engine.invokeGR1Engine(prob, new SizeBasedTranslator(), outputFormat, isStrategyFinding);
+        } else {
+            return engine.invokeMonolithicBuechiEngine(prob, new SizeBasedTranslator(), outputFormat, isStrategyFinding);
+        }
+    }
+
     public static String getPolynomialSpecificationFromFile(File selectedFile) {
 
         StringBuilder polynomialSpec = new StringBuilder("");
@@ -0,0 +1,209 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.arena;
+
+import java.util.BitSet;
+
+/**
+ * CompactGameArena.java Purpose: Game arena created from a Buechi automaton,
+ * stored in compressed sparse row form. For automaton state s and input vector
+ * (ordinal) in, the environment vertex has index s * (number of input vectors
+ * + 1) and the control vertex reached by in has index env(s) + 1 + in. The
+ * environment edges are therefore implicit. The control edges of control
+ * vertex c (with control ordinal s * (number of input vectors) + in) occupy
+ * the range [edgeOffset[c], edgeOffset[c+1]) of edgeTarget; each edge carries
+ * the set of output vectors leading to its target as a bit set of output
+ * ordinals, stored in labelWords consecutive longs of outputLabel.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/04
+ */
+public class CompactGameArena {
+
+    private final int numberOfStates;
+    private final int numberOfInputVariables;
+    private final int numberOfOutputVariables;
+    private final int numberOfInputVectors;
+    private final int numberOfOutputVectors;
+    private final int initialState;
+    private final BitSet finalStates;
+    private final int[] edgeOffset;
+    private final int[] edgeTarget;
+    private final long[] outputLabel;
+    private final int labelWords;
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfStates number of states in the automaton
+     * @param numberOfInputVariables number of input variables
+     * @param numberOfOutputVariables number of output variables
+     * @param initialState initial state of the automaton
+     * @param finalStates final (accepting) states of the automaton
+     * @param edgeOffset start of the edges of each control vertex, indexed by control ordinal (one extra entry at the end)
+     * @param edgeTarget destination (environment vertex) of each control edge
+     * @param outputLabel output label of each control edge, labelWords(numberOfOutputVariables) longs per edge
+     */
+    public CompactGameArena(int numberOfStates, int numberOfInputVariables, int numberOfOutputVariables,
+            int initialState, BitSet finalStates, int[] edgeOffset, int[] edgeTarget, long[] outputLabel) {
+        this.numberOfStates = numberOfStates;
+        this.numberOfInputVariables = numberOfInputVariables;
+        this.numberOfOutputVariables = numberOfOutputVariables;
+        this.numberOfInputVectors = 1 << numberOfInputVariables;
+        this.numberOfOutputVectors = 1 << numberOfOutputVariables;
+        this.initialState = initialState;
+        this.finalStates = finalStates;
+        this.edgeOffset = edgeOffset;
+        this.edgeTarget = edgeTarget;
+        this.outputLabel = outputLabel;
+        this.labelWords = labelWords(numberOfOutputVariables);
+    }
+
+    /**
+     * Number of longs used to store the output label of a single edge.
+     */
+    public static int labelWords(int numberOfOutputVariables) {
+        return ((1 << numberOfOutputVariables) + 63) >>> 6;
+    }
+
+    public int getNumberOfStates() {
+        return numberOfStates;
+    }
+
+    public int getNumberOfVertices() {
+        return numberOfStates * (numberOfInputVectors + 1);
+    }
+
+    public int getNumberOfEdges() {
+        return edgeOffset[edgeOffset.length - 1];
+    }
+
+    public int getNumberOfInputVariables() {
+        return numberOfInputVariables;
+    }
+
+    public int getNumberOfOutputVariables() {
+        return numberOfOutputVariables;
+    }
+
+    public int getNumberOfInputVectors() {
+        return numberOfInputVectors;
+    }
+
+    public int getNumberOfOutputVectors() {
+        return numberOfOutputVectors;
+    }
+
+    public boolean isEnvironmentVertex(int vertex) {
+        return vertex % (numberOfInputVectors + 1) == 0;
+    }
+
+    public int getEnvironmentVertex(int state) {
+        return state * (numberOfInputVectors + 1);
+    }
+
+    public int getControlVertex(int state, int input) {
+        return state * (numberOfInputVectors + 1) + 1 + input;
+    }
+
+    /**
+     * @return the automaton state an (environment or control) vertex belongs to
+     */
+    public int getStateOfVertex(int vertex) {
+        return vertex / (numberOfInputVectors + 1);
+    }
+
+    /**
+     * @return the input ordinal leading to a control vertex
+     */
+    public int getInputOfVertex(int vertex) {
+        return vertex % (numberOfInputVectors + 1) - 1;
+    }
+
+    public int getInitialVertex() {
+        return getEnvironmentVertex(initialState);
+    }
+
+    public boolean isFinalVertex(int vertex) {
+        return isEnvironmentVertex(vertex) && finalStates.get(getStateOfVertex(vertex));
+    }
+
+    private int controlOrdinal(int controlVertex) {
+        int block = numberOfInputVectors + 1;
+        return (controlVertex / block) * numberOfInputVectors + controlVertex % block - 1;
+    }
+
+    /**
+     * @return index of the first edge of a control vertex
+     */
+    public int getFirstEdge(int controlVertex) {
+        return edgeOffset[controlOrdinal(controlVertex)];
+    }
+
+    /**
+     * @return index after the last edge of a control vertex
+     */
+    public int getEndEdge(int controlVertex) {
+        return edgeOffset[controlOrdinal(controlVertex) + 1];
+    }
+
+    /**
+     * @return destination (environment vertex) of an edge
+     */
+    public int getEdgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * @return true if the output vector (ordinal) is in the label of the edge
+     */
+    public boolean hasOutput(int edge, int output) {
+        return (outputLabel[edge * labelWords + (output >>> 6)] & (1L << output)) != 0;
+    }
+
+    /**
+     * @return the smallest output ordinal not smaller than from in the label of the edge, or -1
+     */
+    public int nextOutput(int edge, int from) {
+        if (from >= numberOfOutputVectors) {
+            return -1;
+        }
+        int base = edge * labelWords;
+        int word = from >>> 6;
+        long bits = outputLabel[base + word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == labelWords) {
+                return -1;
+            }
+            bits = outputLabel[base + word];
+        }
+    }
+}
@@ -27,12 +27,14 @@
  */
 package g4ltl.gametranslation.cobuechi;
 
-import g4ltl.arena.EdgeElement;
-import g4ltl.arena.GameArena;
-import g4ltl.arena.VertexEdgeSet;
+import g4ltl.arena.CompactGameArena;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.TreeSet;
 
 /**
  * CoBuechiSafetyReduction.java Purpose: Perform the translation from a CoBuechi
@@ -52,6 +54,15 @@ public class CoBuechiSafetyReduction {
      * Store the set of vertices in the equivalence graph (for game creation)
      */
     private ArrayList<EquivalenceClass> equiGraph;
+    /**
+     * If not null, the vertices are stored in memory-mapped files instead of
+     * equiGraphEnv and equiGraph; only the worklist stays on the heap.
+     */
+    private MappedReductionGraph mappedGraph;
+    /**
+     * If not null, notified when the unrolling reaches a new depth.
+     */
+    private ExpansionMonitor monitor;
     /**
      * Initial vertex of the generated safety game.
      */
@@ -63,17 +74,17 @@ public class CoBuechiSafetyReduction {
     /**
      * Original Co-Buechi arena.
      */
-    GameArena game;
-    /**
-     * Corresponding id-VertexEdgeSet map of the original Co-Buechi game for
-     * fast accessing the vertex.
-     */
-    HashMap<Integer, VertexEdgeSet> gameVertexMap;
+    CompactGameArena game;
     /**
      * The set of final states in the original Co-Buechi game (which is
      * considered to be risk).
      */
     ArrayList<Integer> riskStates;
+    /**
+     * Given a vertex in the original game, return its index in riskStates (or
+     * -1 if it is not a risk state).
+     */
+    int[] riskIndex;
     /**
      * An array of environment states in the Co-Buechi game.
      */
@@ -85,31 +96,41 @@ public class CoBuechiSafetyReduction {
      * depthList is used to store the corresponding depth of the vertex (for
      * on-the-fly expansion).
      */
-    ArrayList<EquivalenceClass> worklist;
-    ArrayList<Integer> depthList;
+    LinkedList<EquivalenceClass> worklist;
+    LinkedList<Integer> depthList;
     /**
      * The dimension of the score function.
      */
-    static public int sizeOfScoreArray;
+    public int sizeOfScoreArray;
     /**
      * The dimension of the accumulator.
      */
-    static public int sizeOfAccumulatorArray;
+    public int sizeOfAccumulatorArray;
     /**
      * The number of environment variables.
      */
-    static public int sizeOfEnvVertices;
+    public int sizeOfEnvVertices;
     /**
      * The size of input domain.
      */
-    static public int sizeOfInputDomain;
-    HashMap<Integer, HashSet<Integer>> vertexOutputDestinationMap;
-    // Applying this factor means that the maximum allowed output variable bits is limited to 6
-    static int FACTOR = 128;
-    // Caching to avoid redundant computation
-    HashMap<String, HashSet<Integer>> successorVertexMap;
+    public int sizeOfInputDomain;
     // globalIndex for the translated safety game
     int vertexIndex = 0;
+    /**
+     * For the control vertex under expansion, the class of each output vector;
+     * two output vectors share a class iff they enable the same edges.
+     */
+    private int[] outputClass;
+    /**
+     * Scratch table of refineOutputClasses(), indexed by (class, enabled bit).
+     */
+    private int[] refinedClass;
+    /**
+     * Scratch buffer used to merge the counters of a successor vertex; each entry
+     * packs (score index, counter) into a long so that sorting groups the
+     * counters of the same index, the largest one last.
+     */
+    private long[] scoreBuffer = new long[16];
 
     /**
      * Constructor.
@@ -117,114 +138,123 @@ public class CoBuechiSafetyReduction {
      * @param game the arena of the Co-Buechi game.
      * @param riskStates the set of final states (i.e., risk states) in the
      * Co-Buechi game.
-     * @param sizeOfInput the number of possible input combinations in LTL
-     * synthesis.
      */
-    public CoBuechiSafetyReduction(GameArena game, ArrayList<Integer> riskStates, int sizeOfInput, ArrayList<String> inputVector, ArrayList<String> outputVector) {
+    public CoBuechiSafetyReduction(CompactGameArena game, ArrayList<Integer> riskStates) {
         vertexIndex = 0;
         this.equiGraphEnv = new HashMap<EquivalenceClass, EquivalenceClass>();
         this.equiGraph = new ArrayList<EquivalenceClass>();
         this.game = game;
         this.riskStates = riskStates;
         sizeOfScoreArray = riskStates.size();
-        sizeOfAccumulatorArray = (int) Math.ceil(game.vertexList.size() / 32.0);
-        this.gameVertexMap = new HashMap<Integer, VertexEdgeSet>();
+        riskIndex = new int[game.getNumberOfVertices()];
+        Arrays.fill(riskIndex, -1);
+        for (int j = riskStates.size() - 1; j >= 0; j--) {
+            riskIndex[riskStates.get(j).intValue()] = j;
+        }
+        sizeOfAccumulatorArray = (int) Math.ceil(game.getNumberOfVertices() / 32.0);
         this.environmentStates = new ArrayList<Integer>();
-        for (VertexEdgeSet v : game.vertexList) {
-            if (v.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT
-                    || v.getVertexProperty() == VertexEdgeSet.NONINITIAL_PLANT) {
-                this.environmentStates.add(Integer.valueOf(v.getVertexID()));
-            }
-            this.gameVertexMap.put(Integer.valueOf(v.getVertexID()), v);
+        for (int state = 0; state < game.getNumberOfStates(); state++) {
+            this.environmentStates.add(Integer.valueOf(game.getEnvironmentVertex(state)));
         }
 
-        environmentStatesIndex = new int[game.vertexList.size()];
+        environmentStatesIndex = new int[game.getNumberOfVertices()];
         for (int i = 0; i < environmentStates.size(); i++) {
             environmentStatesIndex[environmentStates.get(i).intValue()] = i;
         }
         sizeOfEnvVertices = this.environmentStates.size();
-        sizeOfInputDomain = sizeOfInput;
-
-        vertexOutputDestinationMap = new HashMap<Integer, HashSet<Integer>>();
-        for (VertexEdgeSet v : this.game.vertexList) {
-            if (v.getVertexProperty() == VertexEdgeSet.NONINITIAL_CONTROL
-                    || v.getVertexProperty() == VertexEdgeSet.INITIAL_CONTROL) {
-                for (String output : outputVector) {
-                    HashSet<Integer> set = new HashSet<Integer>();
-                    for (EdgeElement e : v.edgeSet) {
-                        if (e.getEdgeLabel().contains(output)) {
-                            set.add(Integer.valueOf(e.getDestVertexID()));
-                        }
-                    }
-                    vertexOutputDestinationMap.put(Integer.valueOf(v.getVertexID() * FACTOR + Integer.valueOf(output, 2)), set);
-                }
-            }
-        }
+        sizeOfInputDomain = game.getNumberOfInputVectors();
+        outputClass = new int[game.getNumberOfOutputVectors()];
+        refinedClass = new int[2 * game.getNumberOfOutputVectors()];
 
+        // The successors of a vertex are read directly from the packed arena: an environment
+        // vertex moves under input vector (ordinal) in to the control vertex env + 1 + in, and
+        // the destinations of a control vertex under an output are the edges labeled with it.
+    }
 
-        // Caching the successor vertices for all environment vertices
-        successorVertexMap = new HashMap<String, HashSet<Integer>>();
-        for (Integer i : gameVertexMap.keySet()) {
-            if (gameVertexMap.get(i).getVertexProperty() == VertexEdgeSet.NONINITIAL_PLANT
-                    || gameVertexMap.get(i).getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
+    /**
+     * Store the vertices of the generated safety game in memory-mapped files
+     * (see MappedReductionGraph) rather than on the heap. Must be called
+     * before the game is created.
+     *
+     * @param directory directory of the files, or null for the default temporary directory
+     * @throws IOException if the files can not be created
+     */
+    public void setDiskStorage(File directory) throws IOException {
+        mappedGraph = new MappedReductionGraph(directory);
+    }
 
-                for (String input : inputVector) {
-                    HashSet<Integer> set = new HashSet<Integer>();
-                    VertexEdgeSet v = gameVertexMap.get(i);
-                    for (EdgeElement e : v.edgeSet) {
-                        if (e.getEdgeLabel().contains(input)) {
-                            set.add(e.getDestVertexID());
-                            break;
-                        }
-                    }
-                    successorVertexMap.put(String.valueOf(i) + input, set);
-                }
-            }
+    /**
+     * Release the disk storage of an expansion which did not complete, e.g.,
+     * because it was cancelled; a completed safety game is disposed by its user.
+     */
+    public void dispose() {
+        if (mappedGraph != null) {
+            mappedGraph.dispose();
         }
     }
 
+    public void setExpansionMonitor(ExpansionMonitor monitor) {
+        this.monitor = monitor;
+    }
+
     /**
-     * Generate the safety game arena via an un-the-fly expansion.
+     * Generate the safety game arena via an un-the-fly expansion; the vertices
+     * are kept on the heap.
      *
      * @return The safety game arena
      */
-    public ArrayList<EquivalenceClass> createReductionGraph(String initialVertexID, int unrollingOption,
-            int unrollDepth, int riskBound, ArrayList<String> inputVectors, ArrayList<String> outputVectors) {
+    public ArrayList<EquivalenceClass> createReductionGraph(int initialVertexID, int unrollingOption,
+            int unrollDepth, int riskBound) {
+        if (mappedGraph != null) {
+            throw new IllegalStateException("The vertices are stored on disk; use createSafetyGame()");
+        }
+        expand(initialVertexID, unrollDepth, riskBound);
+        return equiGraph;
+    }
+
+    /**
+     * Generate the safety game arena via an un-the-fly expansion, stored on the
+     * heap or on disk (see setDiskStorage()).
+     *
+     * @return The safety game arena
+     */
+    public SafetyGameGraph createSafetyGame(int initialVertexID, int unrollingOption,
+            int unrollDepth, int riskBound) {
+        expand(initialVertexID, unrollDepth, riskBound);
+        if (mappedGraph != null) {
+            return mappedGraph;
+        }
+        return new EquivalenceClassGraph(equiGraph);
+    }
+
+    private void expand(int initialVertexID, int unrollDepth, int riskBound) {
 
         // Create the worklist
-        worklist = new ArrayList<EquivalenceClass>();
-        depthList = new ArrayList<Integer>();
+        worklist = new LinkedList<EquivalenceClass>();
+        depthList = new LinkedList<Integer>();
 
         // Create the equivalence class of the initial vertex
         initialVertex = new EquivalenceClass(true);
-        setAccumulator(initialVertex, Integer.parseInt(initialVertexID));
+        setAccumulator(initialVertex, initialVertexID);
 
-        for (int i = 0; i < riskStates.size(); i++) {
-            if (riskStates.contains(Integer.valueOf(initialVertexID))) {
-                int sourceEnvVertex = (Integer.parseInt(initialVertexID) / (sizeOfInputDomain + 1));
-                initialVertex.score[sourceEnvVertex][riskStates.indexOf(Integer.valueOf(initialVertexID))] = 1;
-            }
+        if (riskIndex[initialVertexID] >= 0) {
+            initialVertex.scoreIndex = new int[]{environmentStatesIndex[initialVertexID] * sizeOfScoreArray + riskIndex[initialVertexID]};
+            initialVertex.score = new int[]{1};
         }
-        initialVertex.id = vertexIndex++;
-
-        equiGraphEnv.put(initialVertex, initialVertex);
-        equiGraph.add(initialVertex);
+        addVertex(initialVertex);
 
         // Create the risk vertex (as env vertex)
-        riskVertex = new EquivalenceClass(true);
+        riskVertex = new EquivalenceClass(true, new int[riskStates.size()], new int[riskStates.size()]);
         for (int i = 0; i < riskStates.size(); i++) {
-            riskVertex.score[i][i] = riskBound;
+            riskVertex.scoreIndex[i] = i * sizeOfScoreArray + i;
+            riskVertex.score[i] = riskBound;
         }
-        riskVertex.id = vertexIndex++;
-        equiGraphEnv.put(riskVertex, riskVertex);
-        equiGraph.add(riskVertex);
+        addVertex(riskVertex);
 
         // Unroll the graph partially
         worklist.add(initialVertex);
         depthList.add(Integer.valueOf(0));
-        unrollOnTheFly(unrollDepth, riskBound, inputVectors, outputVectors);
-
-        return equiGraph;
+        unrollOnTheFly(unrollDepth, riskBound);
 
         //  ArrayList<EquivalenceClass> list = new ArrayList<EquivalenceClass>();
 
@@ -245,6 +275,47 @@ public class CoBuechiSafetyReduction {
         // return list;
     }
 
+    /**
+     * Assign the next id to a new vertex and store it; environment vertices are
+     * also registered for detecting duplicates.
+     */
+    private void addVertex(EquivalenceClass element) {
+        element.id = vertexIndex++;
+        if (mappedGraph != null) {
+            mappedGraph.add(element);
+        } else {
+            equiGraph.add(element);
+            if (element.isEnv) {
+                equiGraphEnv.put(element, element);
+            }
+        }
+    }
+
+    /**
+     * @return the id of the stored environment vertex equal to the given one, or -1
+     */
+    private int findEnvironmentVertex(EquivalenceClass element) {
+        if (mappedGraph != null) {
+            return mappedGraph.find(element);
+        }
+        EquivalenceClass existing = equiGraphEnv.get(element);
+        return existing == null ? -1 : existing.id;
+    }
+
+    /**
+     * Store the successors of an expanded vertex, given by their ids (-1 for none).
+     */
+    private void setSuccessors(EquivalenceClass element, int[] successor) {
+        if (mappedGraph != null) {
+            mappedGraph.setSuccessors(element.id, successor);
+        } else {
+            element.successor = new EquivalenceClass[successor.length];
+            for (int k = 0; k < successor.length; k++) {
+                element.successor[k] = successor[k] < 0 ? null : equiGraph.get(successor[k]);
+            }
+        }
+    }
+
     private void setAccumulator(EquivalenceClass element, int vertex) {
         element.accumulator.add(Integer.valueOf(vertex));
         // int quotient = vertex / 32;
@@ -259,9 +330,101 @@ public class CoBuechiSafetyReduction {
         // element.controlVertex[quotient] = element.controlVertex[quotient] | (1 << remainder);
     }
 
-    private void setControlVertices(EquivalenceClass element, HashSet<Integer> vertices) {
-        element.controlVertex.addAll(vertices);
+    /**
+     * Partition the output vectors by the set of edges (leaving the given control
+     * vertices) they enable. Starting from a single class, every edge splits each
+     * class into the outputs in its label and those not in it; classes are
+     * numbered in the order of their smallest output vector.
+     *
+     * @param controlVertices control vertices of the original Co-Buechi game
+     * @return the number of classes; the class of each output is in outputClass
+     */
+    private int refineOutputClasses(TreeSet<Integer> controlVertices) {
+        int numberOfOutputVectors = outputClass.length;
+        Arrays.fill(outputClass, 0);
+        int numberOfClasses = 1;
+        for (Integer i : controlVertices) {
+            for (int edge = game.getFirstEdge(i.intValue()); edge < game.getEndEdge(i.intValue()); edge++) {
+                if (numberOfClasses == numberOfOutputVectors) {
+                    return numberOfClasses;
+                }
+                Arrays.fill(refinedClass, 0, 2 * numberOfClasses, -1);
+                int next = 0;
+                for (int output = 0; output < numberOfOutputVectors; output++) {
+                    int key = 2 * outputClass[output] + (game.hasOutput(edge, output) ? 1 : 0);
+                    if (refinedClass[key] < 0) {
+                        refinedClass[key] = next++;
+                    }
+                    outputClass[output] = refinedClass[key];
+                }
+                numberOfClasses = next;
+            }
+        }
+        return numberOfClasses;
+    }
+
+    /**
+     * Locate the first counter of a vertex whose score index is at least the
+     * given one.
+     *
+     * @param scoreIndex the (ascending) score indices of a vertex
+     * @param index score index to search
+     * @return the position of the first score index not less than index
+     */
+    private static int lowerBound(int[] scoreIndex, int index) {
+        int low = 0;
+        int high = scoreIndex.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scoreIndex[middle] < index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int appendScore(int size, int index, int value) {
+        if (size == scoreBuffer.length) {
+            scoreBuffer = Arrays.copyOf(scoreBuffer, 2 * size);
+        }
+        scoreBuffer[size] = ((long) index << 32) | value;
+        return size + 1;
+    }
 
+    /**
+     * Collapse the counters in the scratch buffer to the maximum per score index
+     * and store them in the given vertex.
+     *
+     * @param element vertex to receive the counters
+     * @param size number of entries in the scratch buffer
+     * @param riskBound the bound on the number of visits to a risk state
+     * @return true if some counter reaches riskBound
+     */
+    private boolean storeScore(EquivalenceClass element, int size, int riskBound) {
+        Arrays.sort(scoreBuffer, 0, size);
+        int distinct = 0;
+        for (int k = 0; k < size; k++) {
+            if (k + 1 == size || (int) (scoreBuffer[k] >>> 32) != (int) (scoreBuffer[k + 1] >>> 32)) {
+                distinct++;
+            }
+        }
+        element.scoreIndex = new int[distinct];
+        element.score = new int[distinct];
+        boolean exceedsBound = false;
+        distinct = 0;
+        for (int k = 0; k < size; k++) {
+            if (k + 1 == size || (int) (scoreBuffer[k] >>> 32) != (int) (scoreBuffer[k + 1] >>> 32)) {
+                element.scoreIndex[distinct] = (int) (scoreBuffer[k] >>> 32);
+                element.score[distinct] = (int) scoreBuffer[k];
+                if (element.score[distinct] >= riskBound) {
+                    exceedsBound = true;
+                }
+                distinct++;
+            }
+        }
+        return exceedsBound;
     }
 
     /**
@@ -269,22 +432,36 @@ public class CoBuechiSafetyReduction {
      *
      * @param maxiDepth user-specifed depth
      * @param riskBound
-     * @param inputVectors all possible input vector in LTL synthesis
-     * @param outputVectors all possible output vector in LTL synthesis
      */
-    private void unrollOnTheFly(int maxiDepth, int riskBound, ArrayList<String> inputVectors, ArrayList<String> outputVectors) {
+    private void unrollOnTheFly(int maxiDepth, int riskBound) {
+        int numberOfInputVectors = game.getNumberOfInputVectors();
+        int numberOfOutputVectors = game.getNumberOfOutputVectors();
+        int reachedDepth = -1;
         do {
             if (worklist.isEmpty() == true) {
                 break;
             }
 
             // Take out the element from the list, together with the current depth.
-            EquivalenceClass currentEqivClass = worklist.remove(0);
-            int depth = depthList.remove(0).intValue();
+            EquivalenceClass currentEqivClass = worklist.removeFirst();
+            int depth = depthList.removeFirst().intValue();
+            if (monitor != null && depth > reachedDepth) {
+                reachedDepth = depth;
+                monitor.depthReached(depth, worklist.size() + 1, vertexIndex);
+            }
 
             if (currentEqivClass.isEnv == false) {                                                
                 // Control vertex
-                for (String output : outputVectors) {
+                int[] successor = new int[numberOfOutputVectors];
+                // Output vectors enabling the same edges lead to the same successor, so only the
+                // first output vector of each class is expanded.
+                int[] classSuccessor = new int[refineOutputClasses(currentEqivClass.controlVertex)];
+                Arrays.fill(classSuccessor, -1);
+                for (int output = 0; output < numberOfOutputVectors; output++) {
+                    if (classSuccessor[outputClass[output]] >= 0) {
+                        successor[output] = classSuccessor[outputClass[output]];
+                        continue;
+                    }
                     // Create its successor vertex (environment vertex)
                     EquivalenceClass succVertex = new EquivalenceClass(true);
                     
@@ -304,136 +481,91 @@ public class CoBuechiSafetyReduction {
                     // plus the effect whether such a destination vertex is a bad final state 
                     // (if so then we need to add 1,  but only once)
 
-                   // boolean isFirst = true;
-
+                    int scoreSize = 0;
                     for (Integer i : currentEqivClass.controlVertex) {
-                        VertexEdgeSet v = gameVertexMap.get(i);
-                        int sourceEnvVertex = (v.getVertexID() / (sizeOfInputDomain + 1)) * (sizeOfInputDomain + 1);
-
-                        for (Integer dest : vertexOutputDestinationMap.get(Integer.valueOf(v.getVertexID() * FACTOR + Integer.valueOf(output, 2)))) {
-                     
-                            /*
-                            if (isFirst) {
-                                for (int j = 0; j < riskStates.size(); j++) {
-                                    System.arraycopy(currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]], 0,
-                                            succVertex.score[environmentStatesIndex[dest.intValue()]], 0, currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]].length);
-                                }
-                                isFirst = false;
-                            } 
-                             * 
-                             */
-                             
+                        int sourceEnvVertex = (i.intValue() / (sizeOfInputDomain + 1)) * (sizeOfInputDomain + 1);
+                        int sourceBase = environmentStatesIndex[sourceEnvVertex] * sizeOfScoreArray;
+                        // The counters of the source env vertex form a contiguous range.
+                        int sourceFrom = lowerBound(currentEqivClass.scoreIndex, sourceBase);
+                        int sourceTo = lowerBound(currentEqivClass.scoreIndex, sourceBase + sizeOfScoreArray);
+
+                        for (int edge = game.getFirstEdge(i.intValue()); edge < game.getEndEdge(i.intValue()); edge++) {
+                            if (!game.hasOutput(edge, output)) {
+                                continue;
+                            }
+                            int dest = game.getEdgeTarget(edge);
 
                             // Set the vertex to be visited 
-                            setAccumulator(succVertex, dest.intValue());
-                            // Compare the current score value with the possible value derived from the source. 
-
-                            if (riskStates.contains(dest)) {
-                                for (int j = 0; j < riskStates.size(); j++) {
-                                    if (j == riskStates.indexOf(dest)) {
-                                        /*
-                                        succVertex.score[environmentStatesIndex[dest.intValue()]][j] = Math.max(succVertex.score[environmentStatesIndex[dest.intValue()]][j], 
-                                        currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j]+1);                                        
-                                        */
-                                        if (succVertex.score[environmentStatesIndex[dest.intValue()]][j]
-                                                < currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j] + 1) {
-                                            succVertex.score[environmentStatesIndex[dest.intValue()]][j] = currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j] + 1;
-                                        }
-
-                                    } else {
-                                        /*
-                                        succVertex.score[environmentStatesIndex[dest.intValue()]][j] = Math.max(succVertex.score[environmentStatesIndex[dest.intValue()]][j], 
-                                        currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j]);                                        
-                                         * 
-                                         */
-                                        if (succVertex.score[environmentStatesIndex[dest.intValue()]][j]
-                                                < currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j]) {
-                                            succVertex.score[environmentStatesIndex[dest.intValue()]][j] = currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j];
-                                        }
-                                    }
-                                }
-                            } else {
-                                for (int j = 0; j < riskStates.size(); j++) {
-                                    /*
-                                    succVertex.score[environmentStatesIndex[dest.intValue()]][j] = Math.max(succVertex.score[environmentStatesIndex[dest.intValue()]][j], 
-                                    currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j]);                                    
-                                     */
-                                    if (succVertex.score[environmentStatesIndex[dest.intValue()]][j]
-                                            < currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j]) {
-                                        succVertex.score[environmentStatesIndex[dest.intValue()]][j] = currentEqivClass.score[environmentStatesIndex[sourceEnvVertex]][j];
-                                    }
+                            setAccumulator(succVertex, dest);
+                            // Copy the counters of the source to the destination, adding one for the
+                            // destination itself if it is a risk state; storeScore() keeps the max.
+                            int destBase = environmentStatesIndex[dest] * sizeOfScoreArray;
+                            int destRisk = riskIndex[dest];
+                            boolean counted = false;
+                            for (int k = sourceFrom; k < sourceTo; k++) {
+                                int j = currentEqivClass.scoreIndex[k] - sourceBase;
+                                if (j == destRisk) {
+                                    scoreSize = appendScore(scoreSize, destBase + j, currentEqivClass.score[k] + 1);
+                                    counted = true;
+                                } else {
+                                    scoreSize = appendScore(scoreSize, destBase + j, currentEqivClass.score[k]);
                                 }
                             }
+                            if (destRisk >= 0 && !counted) {
+                                scoreSize = appendScore(scoreSize, destBase + destRisk, 1);
+                            }
                         }
                     }
 
                     // variable used for detecting such a vertex can be replaced by risk.
-                    boolean replaceByRisk = false;
-
-                    outer:
-                    for (int i = 0; i < this.environmentStates.size(); i++) {
-                        for (Integer risk : riskStates) {
-                            if (succVertex.score[i][riskStates.indexOf(risk)] >= riskBound) {
-                                replaceByRisk = true;
-                                break outer;
-                            }
-                        }
-                    }
+                    boolean replaceByRisk = storeScore(succVertex, scoreSize, riskBound);
 
                     if (replaceByRisk) {
-                        currentEqivClass.successor.put(output, riskVertex);
+                        successor[output] = riskVertex.id;
                     } else {
-                        if (equiGraphEnv.get(succVertex) != null) {
-                            currentEqivClass.successor.put(output, equiGraphEnv.get(succVertex));
+                        int existing = findEnvironmentVertex(succVertex);
+                        if (existing >= 0) {
+                            successor[output] = existing;
                         } else {
                             if (depth + 1 > maxiDepth) {
                                 // This vertex can not be fully expanded, replace it by risk
-                                currentEqivClass.successor.put(output, riskVertex);
+                                successor[output] = riskVertex.id;
                             } else {
-                                succVertex.id = vertexIndex++;
-                                equiGraphEnv.put(succVertex, succVertex);
-                                equiGraph.add(succVertex);
-                                currentEqivClass.successor.put(output, succVertex);
+                                addVertex(succVertex);
+                                successor[output] = succVertex.id;
                                 worklist.add(succVertex);
                                 depthList.add(Integer.valueOf(depth + 1));
                             }
                         }
                     }
+                    classSuccessor[outputClass[output]] = successor[output];
                 }
+                setSuccessors(currentEqivClass, successor);
 
             } else {
 
                 // Environment vertex                             
-                for (String input : inputVectors) {
+                int[] successor = new int[numberOfInputVectors];
+                Arrays.fill(successor, -1);
+                for (int input = 0; input < numberOfInputVectors; input++) {
 
                     if (depth + 1 > maxiDepth) {
-                        currentEqivClass.successor.put(input, riskVertex);
+                        successor[input] = riskVertex.id;
                         // As currentEqivClass is an environment vertex, we just stop adding further edges.
                         break;
 
                     } else {
 
-                        EquivalenceClass succVertex = new EquivalenceClass(false);
-                        succVertex.score = currentEqivClass.score;
+                        EquivalenceClass succVertex = new EquivalenceClass(false, currentEqivClass.scoreIndex,
+                                currentEqivClass.score);
                         succVertex.inputVector = input;
 
                         for (Integer i : currentEqivClass.accumulator) {
 
-                            // With caching
-                            setControlVertices(succVertex, successorVertexMap.get(String.valueOf(i) + input));
-
-                            // Without caching
-                            // It contains vertex i, then compute all of its successors via input vector.
-                        /*
-                            VertexEdgeSet v = gameVertexMap.get(i);
-                            for (EdgeElement e : v.edgeSet) {
-                            if (e.getEdgeLabel().contains(input)) {
-                            setControlVertex(succVertex, e.getDestVertexID());
-                            // For the control vertex, the score is just the duplication of the score in the source.
-                            }
-                            }
-                             * 
-                             */
+                            // It contains vertex i, then its successor via the input vector is the 
+                            // corresponding control vertex. For the control vertex, the score is just 
+                            // the duplication of the score in the source.
+                            setControlVertex(succVertex, i.intValue() + 1 + input);
 
                         }
 
@@ -445,14 +577,14 @@ public class CoBuechiSafetyReduction {
                         // } else {
 
                         // equiGraphCtrl.put(succVertex, succVertex);
-                        succVertex.id = vertexIndex++;
-                        equiGraph.add(succVertex);
-                        currentEqivClass.successor.put(input, succVertex);
+                        addVertex(succVertex);
+                        successor[input] = succVertex.id;
                         worklist.add(succVertex);
                         depthList.add(Integer.valueOf(depth + 1));
                     }
                     // }
                 }
+                setSuccessors(currentEqivClass, successor);
             }
         } while (true);
 
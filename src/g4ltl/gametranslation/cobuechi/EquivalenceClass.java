@@ -28,7 +28,6 @@
 package g4ltl.gametranslation.cobuechi;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.TreeSet;
 
 /**
@@ -52,13 +51,16 @@ public class EquivalenceClass {
      */
     public boolean isEnv;
     /**
-     * The current visited number, for each unsafe states. score[number of
-     * vertices in Co-buechi][number of final (bad) vertices in Co-buechi].
-     * score[i][j] means that for the current env state [i] (if isEnv == false
-     * then for the one-step predecessor env state), the number of visited times
-     * for final vertex indexed j.
+     * The current visited number, for each unsafe states, stored sparsely.
+     * Conceptually score[i][j] is, for the env state indexed i (if isEnv ==
+     * false then for the one-step predecessor env state), the number of visited
+     * times for the final vertex indexed j. Only non-zero counters are kept:
+     * scoreIndex holds i * (number of final vertices) + j in ascending order,
+     * and score the corresponding counter. As only accumulated states carry
+     * counters, the size is bounded by the accumulator, not by the automaton.
      */
-    public int[][] score;
+    public int[] scoreIndex;
+    public int[] score;
     /**
      * The currently visited env vertex.
      */
@@ -69,49 +71,45 @@ public class EquivalenceClass {
      */
     public TreeSet<Integer> controlVertex;
     /**
-     * Successor of the current node.
+     * Successor of the current node, indexed by the ordinal of the input vector
+     * (if isEnv == true) or of the output vector (if isEnv == false); null if
+     * there is no successor under the vector.
      */
-    public HashMap<String, EquivalenceClass> successor;
+    public EquivalenceClass[] successor;
     /**
-     * If isEnv == true, what is the curresponding input vector.
+     * If isEnv == false, the ordinal of the input vector leading to the node;
+     * -1 otherwise.
      */
-    String inputVector = "";
+    int inputVector = -1;
+
+    private static final EquivalenceClass[] NO_SUCCESSOR = new EquivalenceClass[0];
+
+    private static final int[] NO_SCORE = new int[0];
 
     public EquivalenceClass(boolean isEnv) {
-        this.isEnv = isEnv;
-        score = new int[CoBuechiSafetyReduction.sizeOfEnvVertices][CoBuechiSafetyReduction.sizeOfScoreArray];
-        accumulator = new TreeSet<Integer>(); //new int[CoBuechiSafetyReduction.sizeOfAccumulatorArray];
-        controlVertex = new TreeSet<Integer>(); //new int[CoBuechiSafetyReduction.sizeOfAccumulatorArray];
-        successor = new HashMap<String, EquivalenceClass>();
+        this(isEnv, NO_SCORE, NO_SCORE);
     }
 
-    
-    public EquivalenceClass(boolean isEnv, int[][] score) {
+    public EquivalenceClass(boolean isEnv, int[] scoreIndex, int[] score) {
         this.isEnv = isEnv;
-        this.score = new int[CoBuechiSafetyReduction.sizeOfEnvVertices][CoBuechiSafetyReduction.sizeOfScoreArray];
-        for (int i = 0; i < CoBuechiSafetyReduction.sizeOfEnvVertices; i++) {
-            System.arraycopy(score, 0, this.score, 0, CoBuechiSafetyReduction.sizeOfScoreArray);
-        }
+        this.scoreIndex = scoreIndex;
+        this.score = score;
         accumulator = new TreeSet<Integer>(); //new int[CoBuechiSafetyReduction.sizeOfAccumulatorArray];
         controlVertex = new TreeSet<Integer>(); //new int[CoBuechiSafetyReduction.sizeOfAccumulatorArray];
-        successor = new HashMap<String, EquivalenceClass>();
-    } 
+        successor = NO_SUCCESSOR;
+    }
 
     @Override
     public boolean equals(Object obj) {
         // Whenever a.equals(b), then a.hashCode() must be same as b.hashCode().
         if (isEnv == ((EquivalenceClass) obj).isEnv
-                && inputVector.equals(((EquivalenceClass) obj).inputVector)
+                && inputVector == ((EquivalenceClass) obj).inputVector
                 && accumulator.equals(((EquivalenceClass) obj).accumulator)
                 // && Arrays.equals(accumulator, ((EquivalenceClass) obj).accumulator)
                 && controlVertex.equals(((EquivalenceClass) obj).controlVertex) // && Arrays.equals(controlVertex, ((EquivalenceClass) obj).controlVertex)
                 ) {
-            for (int i = 0; i < score.length; i++) {
-                if (!Arrays.equals(score[i], ((EquivalenceClass) obj).score[i])) {
-                    return false;
-                }
-            }
-            return true;
+            return Arrays.equals(scoreIndex, ((EquivalenceClass) obj).scoreIndex)
+                    && Arrays.equals(score, ((EquivalenceClass) obj).score);
         }
         return false;
     }
@@ -129,6 +127,8 @@ public class EquivalenceClass {
         // for (int i = 0; i < controlVertex.length; i++) {
         //     hash += controlVertex[i];
         // }
+        hash = 31 * hash + Arrays.hashCode(scoreIndex);
+        hash = 31 * hash + Arrays.hashCode(score);
         if (isEnv) {
             return hash;
         } else {
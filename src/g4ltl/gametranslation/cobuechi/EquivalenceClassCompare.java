@@ -45,16 +45,14 @@ public class EquivalenceClassCompare implements Serializable, Comparator<Equival
 
     public int compare(EquivalenceClass one, EquivalenceClass two) {
         if (one.isEnv == two.isEnv
-                && one.inputVector.equals(two.inputVector)
+                && one.inputVector == two.inputVector
                 && one.accumulator.equals(two.accumulator)
                 && one.controlVertex.equals(two.controlVertex)
                 //&& Arrays.equals(one.accumulator, two.accumulator)
                 // && Arrays.equals(one.controlVertex, two.controlVertex)
             ) {
-            for (int i = 0; i < one.score.length; i++) {
-                if (!Arrays.equals(one.score[i], two.score[i])) {
-                    return -1;
-                }
+            if (!Arrays.equals(one.scoreIndex, two.scoreIndex) || !Arrays.equals(one.score, two.score)) {
+                return -1;
             }
             return 0;
         } else {
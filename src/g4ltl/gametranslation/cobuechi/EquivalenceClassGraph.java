@@ -0,0 +1,71 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.gametranslation.cobuechi;
+
+import java.util.ArrayList;
+
+/**
+ * EquivalenceClassGraph.java Purpose: Safety game whose vertices are kept on
+ * the heap as EquivalenceClass objects, indexed by their id.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class EquivalenceClassGraph implements SafetyGameGraph {
+
+    private ArrayList<EquivalenceClass> vertices;
+
+    public EquivalenceClassGraph(ArrayList<EquivalenceClass> vertices) {
+        this.vertices = vertices;
+    }
+
+    public ArrayList<EquivalenceClass> getVertices() {
+        return vertices;
+    }
+
+    public int getNumberOfVertices() {
+        return vertices.size();
+    }
+
+    public boolean isEnvironmentVertex(int vertex) {
+        return vertices.get(vertex).isEnv;
+    }
+
+    public int getNumberOfSuccessors(int vertex) {
+        return vertices.get(vertex).successor.length;
+    }
+
+    public int getSuccessor(int vertex, int k) {
+        EquivalenceClass succ = vertices.get(vertex).successor[k];
+        return succ == null ? -1 : succ.id;
+    }
+
+    public void dispose() {
+        vertices = new ArrayList<EquivalenceClass>();
+    }
+}
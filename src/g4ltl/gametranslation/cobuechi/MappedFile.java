@@ -0,0 +1,110 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.gametranslation.cobuechi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * MappedFile.java Purpose: A temporary file of ints and longs accessed via
+ * memory-mapped segments, growing on demand. Ints are stored at positions
+ * divisible by 4, longs at positions divisible by 8, so that no value crosses
+ * a segment. The operating system pages the segments in and out, hence the
+ * file may be much larger than the heap.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+class MappedFile {
+
+    private static final int SEGMENT_BITS = 26;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+
+    /**
+     * @param directory directory of the file, or null for the default temporary directory
+     * @param prefix prefix of the file name
+     */
+    MappedFile(File directory, String prefix) throws IOException {
+        file = File.createTempFile(prefix, ".bin", directory);
+        file.deleteOnExit();
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+    }
+
+    private MappedByteBuffer segment(long position) {
+        int index = (int) (position >>> SEGMENT_BITS);
+        try {
+            while (segments.size() <= index) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to map " + file, ex);
+        }
+        return segments.get(index);
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt((int) (position & (SEGMENT_SIZE - 1)), value);
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong((int) (position & (SEGMENT_SIZE - 1)), value);
+    }
+
+    /**
+     * Close and delete the file. The mapped segments are released by the
+     * garbage collector; if the file can not be deleted before, it is deleted
+     * on exit.
+     */
+    void dispose() {
+        segments.clear();
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException ex) {
+            // The file is deleted on exit.
+        }
+        file.delete();
+    }
+}
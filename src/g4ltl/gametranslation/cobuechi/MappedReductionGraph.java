@@ -0,0 +1,246 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.gametranslation.cobuechi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * MappedReductionGraph.java Purpose: Safety game of CoBuechiSafetyReduction
+ * stored in memory-mapped files, such that the unroll depth is bounded by the
+ * disk rather than by the heap. Three files are used:
+ *
+ * - the index holds, per vertex id, whether it is an environment vertex, and
+ *   the positions of its successor list and of its content;
+ * - the successor lists (length, then the successor ids, -1 for none);
+ * - the contents of the environment vertices (accumulator, control vertices,
+ *   counters), which are only needed to detect duplicates.
+ *
+ * Duplicates are detected by an open-addressing hash table of (id + 1, hash
+ * code) pairs in a direct buffer, i.e., outside of the heap; a hit is
+ * confirmed by comparing the stored content. Control vertices are never
+ * merged, so only their successors are stored.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class MappedReductionGraph implements SafetyGameGraph {
+
+    /**
+     * Bytes per vertex in the index: flags, successor position, content position.
+     */
+    private static final int INDEX_RECORD_SIZE = 24;
+    private MappedFile index;
+    private MappedFile successors;
+    private MappedFile contents;
+    private long successorsSize;
+    private long contentsSize;
+    private int numberOfVertices;
+    private IntBuffer table;
+    private int tableMask;
+    private int tableEntries;
+    /**
+     * Scratch buffer for the encoded content of a vertex.
+     */
+    private int[] encoded = new int[64];
+
+    /**
+     * @param directory directory of the files, or null for the default temporary directory
+     */
+    public MappedReductionGraph(File directory) throws IOException {
+        index = new MappedFile(directory, "g4ltl-index");
+        successors = new MappedFile(directory, "g4ltl-successors");
+        contents = new MappedFile(directory, "g4ltl-contents");
+        table = allocateTable(1 << 16);
+        tableMask = (1 << 16) - 1;
+    }
+
+    private static IntBuffer allocateTable(int slots) {
+        return ByteBuffer.allocateDirect(slots * 8).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Find the stored environment vertex equal to the given one.
+     *
+     * @return the id of the vertex, or -1 if there is none
+     */
+    public int find(EquivalenceClass vertex) {
+        int length = encode(vertex);
+        int hash = vertex.hashCode();
+        for (int slot = mix(hash) & tableMask;; slot = (slot + 1) & tableMask) {
+            int id = table.get(2 * slot) - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (table.get(2 * slot + 1) == hash && sameContent(id, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Store a new vertex; its id must be the number of vertices stored so far.
+     */
+    public void add(EquivalenceClass vertex) {
+        if (vertex.id != numberOfVertices) {
+            throw new IllegalArgumentException("Vertex " + vertex.id + " added at position " + numberOfVertices);
+        }
+        long record = (long) vertex.id * INDEX_RECORD_SIZE;
+        index.putLong(record, vertex.isEnv ? 1 : 0);
+        index.putLong(record + 8, -1);
+        index.putLong(record + 16, -1);
+        numberOfVertices++;
+        if (!vertex.isEnv) {
+            return;
+        }
+        int length = encode(vertex);
+        index.putLong(record + 16, contentsSize);
+        contents.putInt(contentsSize, length);
+        for (int k = 0; k < length; k++) {
+            contents.putInt(contentsSize + 4 + 4L * k, encoded[k]);
+        }
+        contentsSize += 4 + 4L * length;
+
+        if (2 * (tableEntries + 1) > tableMask + 1) {
+            rehash();
+        }
+        insert(vertex.id, vertex.hashCode());
+        tableEntries++;
+    }
+
+    /**
+     * Store the successors of a vertex.
+     *
+     * @param vertex id of the vertex
+     * @param successor the successor ids, -1 for none
+     */
+    public void setSuccessors(int vertex, int[] successor) {
+        index.putLong((long) vertex * INDEX_RECORD_SIZE + 8, successorsSize);
+        successors.putInt(successorsSize, successor.length);
+        for (int k = 0; k < successor.length; k++) {
+            successors.putInt(successorsSize + 4 + 4L * k, successor[k]);
+        }
+        successorsSize += 4 + 4L * successor.length;
+    }
+
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    public boolean isEnvironmentVertex(int vertex) {
+        return index.getLong((long) vertex * INDEX_RECORD_SIZE) == 1;
+    }
+
+    public int getNumberOfSuccessors(int vertex) {
+        long position = index.getLong((long) vertex * INDEX_RECORD_SIZE + 8);
+        return position < 0 ? 0 : successors.getInt(position);
+    }
+
+    public int getSuccessor(int vertex, int k) {
+        long position = index.getLong((long) vertex * INDEX_RECORD_SIZE + 8);
+        return successors.getInt(position + 4 + 4L * k);
+    }
+
+    public void dispose() {
+        index.dispose();
+        successors.dispose();
+        contents.dispose();
+        table = null;
+    }
+
+    private void insert(int id, int hash) {
+        int slot = mix(hash) & tableMask;
+        while (table.get(2 * slot) != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table.put(2 * slot, id + 1);
+        table.put(2 * slot + 1, hash);
+    }
+
+    private void rehash() {
+        IntBuffer old = table;
+        int oldSlots = tableMask + 1;
+        table = allocateTable(2 * oldSlots);
+        tableMask = 2 * oldSlots - 1;
+        for (int slot = 0; slot < oldSlots; slot++) {
+            if (old.get(2 * slot) != 0) {
+                insert(old.get(2 * slot) - 1, old.get(2 * slot + 1));
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    private boolean sameContent(int id, int length) {
+        long position = index.getLong((long) id * INDEX_RECORD_SIZE + 16);
+        if (contents.getInt(position) != length) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            if (contents.getInt(position + 4 + 4L * k) != encoded[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encode the content of an environment vertex into the scratch buffer.
+     *
+     * @return the number of ints
+     */
+    private int encode(EquivalenceClass vertex) {
+        int length = 4 + vertex.accumulator.size() + vertex.controlVertex.size() + 2 * vertex.score.length;
+        if (encoded.length < length) {
+            encoded = new int[Math.max(length, 2 * encoded.length)];
+        }
+        int k = 0;
+        encoded[k++] = vertex.inputVector;
+        encoded[k++] = vertex.accumulator.size();
+        for (Integer v : vertex.accumulator) {
+            encoded[k++] = v.intValue();
+        }
+        encoded[k++] = vertex.controlVertex.size();
+        for (Integer v : vertex.controlVertex) {
+            encoded[k++] = v.intValue();
+        }
+        encoded[k++] = vertex.score.length;
+        for (int i = 0; i < vertex.score.length; i++) {
+            encoded[k++] = vertex.scoreIndex[i];
+            encoded[k++] = vertex.score[i];
+        }
+        return k;
+    }
+}
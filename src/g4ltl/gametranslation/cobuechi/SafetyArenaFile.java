@@ -0,0 +1,184 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.gametranslation.cobuechi;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * SafetyArenaFile.java Purpose: A compact binary format of safety games,
+ * read back via memory-mapped segments so that only the pages touched by a
+ * traversal are loaded.
+ *
+ * The file starts with the magic number, the format version, the number of
+ * vertices n and a reserved int. It is followed by n + 1 longs, where entry v
+ * is the position of the first successor of vertex v in the successor section
+ * (entry n is the total number of successors) with the sign bit set for
+ * environment vertices, and finally one int per successor (-1 if there is
+ * none). All values are big-endian and aligned to their size, so that no value
+ * crosses a segment.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SafetyArenaFile implements SafetyGameGraph {
+
+    private static final int MAGIC = 0x47344c41;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final long ENVIRONMENT_FLAG = Long.MIN_VALUE;
+    private static final int SEGMENT_BITS = 26;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer[] segments;
+    private final int numberOfVertices;
+    private final long successorSection;
+
+    /**
+     * Write the safety game to the file in the binary format.
+     *
+     * @param graph the safety game
+     * @param file destination file; it is overwritten
+     */
+    public static void write(SafetyGameGraph graph, File file) throws IOException {
+        int size = graph.getNumberOfVertices();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(0);
+            long offset = 0;
+            for (int v = 0; v < size; v++) {
+                out.writeLong(graph.isEnvironmentVertex(v) ? offset | ENVIRONMENT_FLAG : offset);
+                offset += graph.getNumberOfSuccessors(v);
+            }
+            out.writeLong(offset);
+            for (int v = 0; v < size; v++) {
+                int successors = graph.getNumberOfSuccessors(v);
+                for (int k = 0; k < successors; k++) {
+                    out.writeInt(graph.getSuccessor(v, k));
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Open a safety game written by write(). The file is mapped read-only and
+     * is not deleted by dispose().
+     *
+     * @param file the file
+     */
+    public SafetyArenaFile(File file) throws IOException {
+        this.file = file;
+        randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long length = channel.size();
+            segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, length - position));
+            }
+            if (length < HEADER_SIZE || getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a safety game file");
+            }
+            if (getInt(4) != VERSION) {
+                throw new IOException("Unsupported version " + getInt(4) + " of " + file);
+            }
+            numberOfVertices = getInt(8);
+            successorSection = HEADER_SIZE + 8L * (numberOfVertices + 1);
+            if (length != successorSection + 4L * getLong(HEADER_SIZE + 8L * numberOfVertices)) {
+                throw new IOException(file + " is truncated");
+            }
+        } catch (IOException ex) {
+            randomAccessFile.close();
+            throw ex;
+        }
+    }
+
+    private int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private long offset(int vertex) {
+        return getLong(HEADER_SIZE + 8L * vertex) & ~ENVIRONMENT_FLAG;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    public boolean isEnvironmentVertex(int vertex) {
+        return getLong(HEADER_SIZE + 8L * vertex) < 0;
+    }
+
+    public int getNumberOfSuccessors(int vertex) {
+        return (int) (offset(vertex + 1) - offset(vertex));
+    }
+
+    public int getSuccessor(int vertex, int k) {
+        long first = offset(vertex);
+        if (k < 0 || first + k >= offset(vertex + 1)) {
+            return -1;
+        }
+        return getInt(successorSection + 4L * (first + k));
+    }
+
+    /**
+     * Close the file. The mapped segments are released by the garbage
+     * collector.
+     */
+    public void dispose() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = null;
+        }
+        try {
+            randomAccessFile.close();
+        } catch (IOException ex) {
+            // Nothing is written, hence nothing is lost.
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.gametranslation.cobuechi;
+
+/**
+ * SafetyGameGraph.java Purpose: Read access to the safety game generated by
+ * CoBuechiSafetyReduction, independent of where the vertices are stored.
+ * Vertex 0 is the initial vertex and vertex 1 the risk vertex. The successors
+ * of an environment vertex are indexed by the ordinal of the input vector, the
+ * ones of a control vertex by the ordinal of the output vector.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public interface SafetyGameGraph {
+
+    int getNumberOfVertices();
+
+    boolean isEnvironmentVertex(int vertex);
+
+    /**
+     * @return the number of vectors for which successors are stored
+     */
+    int getNumberOfSuccessors(int vertex);
+
+    /**
+     * @return the successor under the vector with ordinal k, or -1 if there is none
+     */
+    int getSuccessor(int vertex, int k);
+
+    /**
+     * Release the storage of the graph; the graph can not be used afterwards.
+     */
+    void dispose();
+}
@@ -0,0 +1,918 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng,
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.gametranslation.cobuechi.SafetyGameGraph;
+import g4ltl.utility.ltl.LTL2BuchiTranslator;
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.ltl.LTLFormulaFactory;
+import g4ltl.utility.ltl.LTLParseException;
+import g4ltl.utility.ltl.LTLParser;
+import g4ltl.utility.ltl.LTLTranslator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Iterative assumption mining. Starting from the safety game retained by the
+ * last unsuccessful Co-Buechi synthesis, a losing play is extracted and the
+ * unused assumption candidates refuting it are evaluated, in parallel for
+ * several candidates; the first candidate (in list order) under which the
+ * specification becomes realizable is added, otherwise the first refuting one
+ * is added and the loop continues on the next losing play.
+ *
+ * Candidates of templates 1 to 3 are evaluated on the retained safety game
+ * itself: the safety part of the candidate is a monitor over the inputs, and
+ * the game is restricted to the environment moves allowed by the monitors of
+ * the candidate and of the assumptions added so far. Restricting the
+ * environment can only shrink the losing region, hence only the part of the
+ * game inside the losing region of the retained game is explored and solved;
+ * this region is computed once per retained game. A full re-synthesis is only
+ * run to confirm the final result. Candidates of template 4 (liveness) can not
+ * be expressed by restricting the game; they are evaluated by re-synthesis,
+ * each on its own SynthesisEngine, and the safety game of an added one
+ * becomes the new retained game.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/04
+ */
+public class AssumptionMiningEngine {
+
+    /**
+     * Maximum number of monitors restricting the retained game; the
+     * specification is re-synthesized with the added assumptions once it is
+     * reached, such that the game incorporates them.
+     */
+    private static final int MAX_MONITORS = 32;
+    private SynthesisEngine engine;
+    /**
+     * Maximum number of candidates that are evaluated.
+     */
+    private int candidateBudget = Integer.MAX_VALUE;
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+    public AssumptionMiningEngine(SynthesisEngine engine) {
+        this.engine = engine;
+    }
+
+    public void setCandidateBudget(int candidateBudget) {
+        this.candidateBudget = candidateBudget;
+    }
+
+    public int getCandidateBudget() {
+        return candidateBudget;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Add assumptions to the specification until it becomes realizable, using
+     * LTL2Buchi for re-synthesis.
+     *
+     * @see #learn(ArrayList, ArrayList, ArrayList, ProblemDescription, LTLTranslator)
+     */
+    public boolean learn(ArrayList<AssumptionCandidate> assumptionCandidates, ArrayList<String> inputVariables,
+            ArrayList<String> outputVariables, ProblemDescription prob) {
+        return learn(assumptionCandidates, inputVariables, outputVariables, prob, new LTL2BuchiTranslator());
+    }
+
+    /**
+     * Add assumptions to the specification until it becomes realizable. The
+     * engine is expected to hold the safety game of an unsuccessful Co-Buechi
+     * synthesis run on prob.
+     *
+     * @param assumptionCandidates candidates generated by listAllAssumptionCandidate; used ones are marked
+     * @param inputVariables input variables
+     * @param outputVariables output variables
+     * @param prob the problem; its specification is strengthened by the found assumptions
+     * @param translator LTL-to-Buechi translator used for re-synthesis
+     * @return true if the specification is realizable under the found assumptions
+     * @throws SynthesisCancelledException if the engine is cancelled; the
+     * engines of the candidate evaluations are cancelled with it
+     */
+    public boolean learn(ArrayList<AssumptionCandidate> assumptionCandidates, ArrayList<String> inputVariables,
+            ArrayList<String> outputVariables, ProblemDescription prob, LTLTranslator translator) {
+
+        // The bit vectors only depend on the signals and are shared by all rounds.
+        ArrayList<String> initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> inputBitVectors = engine.generateBitVectors(0, inputVariables.size(), initialVectorList);
+        initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> outputBitVectors = engine.generateBitVectors(0, outputVariables.size(), initialVectorList);
+
+        // Candidates generated for the cone of influence of an earlier play may miss triggers
+        // occurring on later plays; such candidates are appended when they first become relevant.
+        HashSet<String> knownCandidates = new HashSet<String>();
+        for (AssumptionCandidate candidate : assumptionCandidates) {
+            knownCandidates.add(candidate.stringLTL);
+        }
+        BitSet coveredInputs = new BitSet(inputVariables.size());
+
+        // The engine holding the retained game; engines of added liveness candidates are owned here.
+        SynthesisEngine current = engine;
+        SafetyGameGraph safetyArena = current.getLastSafetyGameArena();
+        BitSet losingRegion = computeLosingRegion(safetyArena);
+        ArrayList<CandidateMonitor> monitors = new ArrayList<CandidateMonitor>();
+
+        int candidatesTried = 0;
+        ExecutorService executor = null;
+        try {
+            while (true) {
+                if (engine.isCancelled()) {
+                    throw new SynthesisCancelledException();
+                }
+                if (safetyArena == null) {
+                    System.out.print("not foundAssumption\n");
+                    return false;
+                }
+                SafetyGameGraph restrictedArena = new MonitoredSafetyGame(safetyArena, losingRegion, monitors,
+                        inputBitVectors);
+                if (Debug.DEBUG) {
+                    printSafetyGameFromCoBuechi(restrictedArena, inputBitVectors, outputBitVectors);
+                }
+
+                ArrayList<String> failPath = extractFailPath(restrictedArena, inputBitVectors, outputBitVectors, prob.getUnrollSteps());
+                if (failPath == null) {
+                    System.out.print("not foundAssumption\n");
+                    return false;
+                }
+
+                FailPathColumns columns = new FailPathColumns(failPath, inputVariables.size());
+                BitSet assertedInputs = columns.getAssertedInputs();
+                assertedInputs.andNot(coveredInputs);
+                if (!assertedInputs.isEmpty()) {
+                    coveredInputs.or(columns.getAssertedInputs());
+                    for (AssumptionCandidate candidate : engine.generateAssumptionCandidates(inputVariables, coveredInputs)) {
+                        if (knownCandidates.add(candidate.stringLTL)) {
+                            assumptionCandidates.add(candidate);
+                        }
+                    }
+                }
+
+                // Print the fail path
+                for (int i = 0; i < failPath.size(); i++) {
+                    System.out.print(failPath.get(i) + "-->");
+                }
+                System.out.print("\n");
+                System.out.print("Assumption Candidates:\n");
+                for (AssumptionCandidate candidate : assumptionCandidates) {
+                    if (!candidate.used) {
+                        System.out.print(candidate.stringLTL + "\n");
+                    }
+                }
+
+                ArrayList<AssumptionCandidate> refuting = new ArrayList<AssumptionCandidate>();
+                for (AssumptionCandidate candidate : assumptionCandidates) {
+                    if (!candidate.used && columns.isRefutedBy(candidate)) {
+                        refuting.add(candidate);
+                    }
+                }
+                if (refuting.isEmpty()) {
+                    System.out.print("not foundAssumption\n");
+                    return false;
+                }
+                if (candidatesTried >= candidateBudget) {
+                    System.out.print("Assumption candidate budget (" + candidateBudget + ") exhausted\n");
+                    return false;
+                }
+                int count = Math.min(refuting.size(), candidateBudget - candidatesTried);
+                candidatesTried += count;
+
+                Evaluation[] evaluations = new Evaluation[count];
+                for (int i = 0; i < count; i++) {
+                    CandidateMonitor monitor = CandidateMonitor.create(refuting.get(i));
+                    if (monitor != null) {
+                        ArrayList<CandidateMonitor> restriction = new ArrayList<CandidateMonitor>(monitors);
+                        restriction.add(monitor);
+                        evaluations[i] = new GameEvaluation(engine, safetyArena, losingRegion, restriction, inputBitVectors);
+                    } else {
+                        try {
+                            evaluations[i] = new SynthesisEvaluation(engine, withAssumption(prob, refuting.get(i)), translator);
+                        } catch (LTLParseException ex) {
+                            System.out.print("Unable to add the assumption: " + ex.getMessage() + "\n");
+                            return false;
+                        }
+                    }
+                }
+                if (executor == null && numberOfThreads > 1 && count > 1) {
+                    executor = Executors.newFixedThreadPool(numberOfThreads);
+                }
+                int winner;
+                try {
+                    winner = evaluate(evaluations, executor);
+                } catch (RuntimeException ex) {
+                    for (Evaluation evaluation : evaluations) {
+                        if (evaluation instanceof SynthesisEvaluation) {
+                            ((SynthesisEvaluation) evaluation).engine.releaseLastSafetyGameArena();
+                        }
+                    }
+                    throw ex;
+                }
+
+                // Without a sufficient candidate, the first refuting one is added.
+                int chosen = Math.max(0, winner);
+                AssumptionCandidate nextAssumption = refuting.get(chosen);
+                for (int i = 0; i < count; i++) {
+                    if (i != chosen && evaluations[i] instanceof SynthesisEvaluation) {
+                        ((SynthesisEvaluation) evaluations[i]).engine.releaseLastSafetyGameArena();
+                    }
+                }
+                nextAssumption.used = true;
+                System.out.print("found an assumption: " + nextAssumption.stringLTL + "\n");
+                try {
+                    addAssumption(prob, nextAssumption);
+                } catch (LTLParseException ex) {
+                    System.out.print("Unable to add the assumption: " + ex.getMessage() + "\n");
+                    return false;
+                }
+
+                boolean realizable;
+                if (evaluations[chosen] instanceof SynthesisEvaluation) {
+                    // Already re-synthesized; its safety game becomes the retained one.
+                    if (current != engine) {
+                        current.releaseLastSafetyGameArena();
+                    }
+                    current = ((SynthesisEvaluation) evaluations[chosen]).engine;
+                    realizable = winner >= 0;
+                } else if (winner >= 0 || monitors.size() + 1 >= MAX_MONITORS) {
+                    // Confirm by re-synthesis, which also incorporates the assumptions into the game.
+                    System.out.print("Resynthesize with " + nextAssumption.stringLTL + "\n");
+                    realizable = current.invokeMonolithicCoBuechiEngine(prob, translator,
+                            SynthesisEngine.OUTPUT_PSUEDO_CODE, true).isStrategyFound();
+                } else {
+                    monitors.add(((GameEvaluation) evaluations[chosen]).monitors.get(monitors.size()));
+                    continue;
+                }
+                if (realizable) {
+                    System.out.print("CONGRATUALATE!!!!!!!!!!\n");
+                    System.out.print("The spec could be synthesizable with additional assumption\n");
+                    for (AssumptionCandidate candidate : assumptionCandidates) {
+                        if (candidate.used) {
+                            System.out.print(candidate.stringLTL + "\n");
+                        }
+                    }
+                    return true;
+                }
+                safetyArena = current.getLastSafetyGameArena();
+                losingRegion = computeLosingRegion(safetyArena);
+                monitors.clear();
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            if (current != engine) {
+                current.releaseLastSafetyGameArena();
+            }
+        }
+    }
+
+    /**
+     * Run the evaluations, on the executor if there is one. When an evaluation
+     * fails, the others are stopped and awaited before the failure is thrown.
+     *
+     * @return index of the first evaluation (in array order) which succeeds, or -1
+     * @throws SynthesisCancelledException if the engine has been cancelled
+     */
+    private int evaluate(Evaluation[] evaluations, ExecutorService executor) {
+        int winner = -1;
+        if (executor == null) {
+            for (int i = 0; i < evaluations.length && winner < 0; i++) {
+                if (evaluations[i].call().booleanValue()) {
+                    winner = i;
+                }
+            }
+        } else {
+            ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (Evaluation evaluation : evaluations) {
+                results.add(executor.submit(evaluation));
+            }
+            RuntimeException failure = null;
+            for (int i = 0; i < evaluations.length; i++) {
+                boolean needed = winner < 0 && failure == null;
+                if (!needed) {
+                    // Later evaluations are not needed; wait for them to stop.
+                    evaluations[i].cancel();
+                }
+                try {
+                    if (results.get(i).get().booleanValue() && needed) {
+                        winner = i;
+                    }
+                } catch (ExecutionException ex) {
+                    if (failure == null && (needed || !(ex.getCause() instanceof SynthesisCancelledException))) {
+                        failure = (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause()
+                                : new RuntimeException(ex.getCause());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    for (Evaluation evaluation : evaluations) {
+                        evaluation.cancel();
+                    }
+                    throw new SynthesisCancelledException();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        // Game evaluations stop without a result when the engine is cancelled.
+        if (engine.isCancelled()) {
+            throw new SynthesisCancelledException();
+        }
+        return winner;
+    }
+
+    /**
+     * Strengthen the specification of prob by the candidate.
+     */
+    private static void addAssumption(ProblemDescription prob, AssumptionCandidate candidate) throws LTLParseException {
+        LTLFormula specification = getSpecification(prob);
+        LTLFormula assumption = new LTLParser(specification.getFactory()).parse(candidate.stringLTL);
+        prob.setLtlFormula(specification.getFactory().implies(assumption, specification));
+    }
+
+    private static LTLFormula getSpecification(ProblemDescription prob) throws LTLParseException {
+        LTLFormula specification = prob.getLtlFormula();
+        if (specification == null) {
+            throw new LTLParseException("invalid specification " + prob.getLtlSpecification(), 0, 0);
+        }
+        return specification;
+    }
+
+    /**
+     * @return a copy of prob strengthened by the candidate, with the
+     * specification in a factory of its own, as formula factories are not
+     * thread-safe
+     */
+    private static ProblemDescription withAssumption(ProblemDescription prob, AssumptionCandidate candidate)
+            throws LTLParseException {
+        LTLFormulaFactory factory = new LTLFormulaFactory();
+        LTLFormula specification = factory.importFormula(getSpecification(prob));
+        LTLFormula assumption = new LTLParser(factory).parse(candidate.stringLTL);
+        return new ProblemDescription(prob.getInputVariables(), prob.getOutputVariables(), prob.getTimerVariables(),
+                factory.implies(assumption, specification), prob.getUnrollSteps());
+    }
+
+    /**
+     * Compute the cone of influence of the losing play in the safety game
+     * retained by the engine, to be passed to listAllAssumptionCandidate.
+     *
+     * @param inputVariables input variables
+     * @param outputVariables output variables
+     * @param unrollSteps unroll steps of the problem
+     * @return indices of the inputs asserted on the losing play, or null if there is no losing play
+     */
+    public BitSet getLosingPlayInputs(ArrayList<String> inputVariables, ArrayList<String> outputVariables, int unrollSteps) {
+        ArrayList<String> initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> inputBitVectors = engine.generateBitVectors(0, inputVariables.size(), initialVectorList);
+        initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> outputBitVectors = engine.generateBitVectors(0, outputVariables.size(), initialVectorList);
+
+        ArrayList<String> failPath = extractFailPath(engine.getLastSafetyGameArena(), inputBitVectors, outputBitVectors, unrollSteps);
+        if (failPath == null) {
+            return null;
+        }
+        return new FailPathColumns(failPath, inputVariables.size()).getAssertedInputs();
+    }
+
+    /**
+     * Label the vertices losing for the controller with their attractor level
+     * by a backward breadth-first search over predecessor lists; the arena
+     * itself is not modified.
+     *
+     * @param safetyArena safety game, vertex 0 being initial and vertex 1 being risk
+     * @param untilInitial stop as soon as the initial vertex is labeled
+     * @return the level of every vertex, -1 for vertices not (yet) known to be losing
+     */
+    private static int[] computeLevels(SafetyGameGraph safetyArena, boolean untilInitial) {
+        int size = safetyArena.getNumberOfVertices();
+
+        // Build predecessor lists in compressed form: first count, then fill.
+        int[] predecessorOffset = new int[size + 1];
+        int[] remainingSuccessors = new int[size];
+        for (int e = 0; e < size; e++) {
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(e); k++) {
+                int succ = safetyArena.getSuccessor(e, k);
+                if (succ >= 0) {
+                    predecessorOffset[succ + 1]++;
+                    remainingSuccessors[e]++;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            predecessorOffset[i + 1] += predecessorOffset[i];
+        }
+        int[] predecessors = new int[predecessorOffset[size]];
+        int[] fill = new int[size];
+        for (int e = 0; e < size; e++) {
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(e); k++) {
+                int succ = safetyArena.getSuccessor(e, k);
+                if (succ >= 0) {
+                    predecessors[predecessorOffset[succ] + fill[succ]++] = e;
+                }
+            }
+        }
+
+        // Label levels: the risk vertex has level 0, control vertices fail on odd levels once all
+        // output successors fail, environment vertices fail on even levels once some input
+        // successor fails. A newly labeled vertex is handed to both kinds of phases.
+        int[] level = new int[size];
+        Arrays.fill(level, -1);
+        level[1] = 0;
+        int[] pendingForControl = new int[size];
+        int[] pendingForEnv = new int[size];
+        int pendingForControlSize = 0;
+        int pendingForEnvSize = 0;
+        pendingForControl[pendingForControlSize++] = 1;
+        pendingForEnv[pendingForEnvSize++] = 1;
+
+        boolean controlPhase = true;
+        int currentLevel = 0;
+        int emptyPhases = 0;
+        int[] labeled = new int[size];
+        while ((!untilInitial || level[0] < 0) && emptyPhases < 2) {
+            currentLevel++;
+            int labeledSize = 0;
+            if (controlPhase) {
+                for (int k = 0; k < pendingForControlSize; k++) {
+                    int v = pendingForControl[k];
+                    for (int p = predecessorOffset[v]; p < predecessorOffset[v + 1]; p++) {
+                        int pred = predecessors[p];
+                        if (level[pred] < 0 && !safetyArena.isEnvironmentVertex(pred)) {
+                            remainingSuccessors[pred]--;
+                            if (remainingSuccessors[pred] == 0) {
+                                level[pred] = currentLevel;
+                                labeled[labeledSize++] = pred;
+                            }
+                        }
+                    }
+                }
+                pendingForControlSize = 0;
+            } else {
+                for (int k = 0; k < pendingForEnvSize; k++) {
+                    int v = pendingForEnv[k];
+                    for (int p = predecessorOffset[v]; p < predecessorOffset[v + 1]; p++) {
+                        int pred = predecessors[p];
+                        if (level[pred] < 0 && safetyArena.isEnvironmentVertex(pred)) {
+                            level[pred] = currentLevel;
+                            labeled[labeledSize++] = pred;
+                        }
+                    }
+                }
+                pendingForEnvSize = 0;
+            }
+            for (int k = 0; k < labeledSize; k++) {
+                pendingForControl[pendingForControlSize++] = labeled[k];
+                pendingForEnv[pendingForEnvSize++] = labeled[k];
+            }
+            emptyPhases = (labeledSize == 0) ? emptyPhases + 1 : 0;
+            controlPhase = !controlPhase;
+        }
+        return level;
+    }
+
+    /**
+     * @return the vertices from which the environment can force a visit to the risk vertex
+     */
+    private static BitSet computeLosingRegion(SafetyGameGraph safetyArena) {
+        if (safetyArena == null || safetyArena.getNumberOfVertices() < 2) {
+            return null;
+        }
+        int[] level = computeLevels(safetyArena, false);
+        BitSet result = new BitSet(level.length);
+        for (int v = 0; v < level.length; v++) {
+            if (level[v] >= 0) {
+                result.set(v);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extract a shortest losing play from the initial vertex to the risk
+     * vertex, following the attractor levels (see computeLevels).
+     *
+     * @param safetyArena safety game, vertex 0 being initial and vertex 1 being risk
+     * @param inputBitVectors all input vectors
+     * @param outputBitVectors all output vectors
+     * @param unrollSteps number of steps the play is shortened at its end
+     * @return the alternating sequence of input and output vectors, or null if the initial vertex is not losing
+     */
+    private ArrayList<String> extractFailPath(SafetyGameGraph safetyArena,
+            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors, int unrollSteps) {
+
+        if (safetyArena == null || safetyArena.getNumberOfVertices() < 2) {
+            return null;
+        }
+        int[] level = computeLevels(safetyArena, true);
+        if (level[0] < 0) {
+            return null;
+        }
+
+        // Follow strictly decreasing levels from the initial vertex to the risk vertex.
+        ArrayList<String> failPath = new ArrayList<String>();
+        int pivot = 0;
+        while (pivot != 1) {
+            ArrayList<String> vectors = safetyArena.isEnvironmentVertex(pivot) ? inputBitVectors : outputBitVectors;
+            int next = -1;
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(pivot); k++) {
+                int succ = safetyArena.getSuccessor(pivot, k);
+                if (succ >= 0 && level[succ] == level[pivot] - 1) {
+                    next = succ;
+                    failPath.add(vectors.get(k));
+                    break;
+                }
+            }
+            pivot = next;
+        }
+
+        // Cut the tail
+        for (int i = 0; i < unrollSteps * 2 && !failPath.isEmpty(); i++) {
+            failPath.remove(failPath.size() - 1);
+        }
+        return failPath;
+    }
+
+    /**
+     * Evaluation of a candidate, run on the thread pool.
+     */
+    private abstract static class Evaluation implements Callable<Boolean> {
+
+        /**
+         * @return true if the specification is realizable under the candidate
+         */
+        public abstract Boolean call();
+
+        /**
+         * Stop the evaluation as soon as possible; its result is not used.
+         */
+        abstract void cancel();
+    }
+
+    /**
+     * Evaluation of a safety candidate by solving the retained game restricted
+     * by the monitors of the candidate and of the assumptions added so far.
+     */
+    private static class GameEvaluation extends Evaluation {
+
+        private final SynthesisEngine caller;
+        private final SafetyGameGraph safetyArena;
+        private final BitSet losingRegion;
+        final ArrayList<CandidateMonitor> monitors;
+        private final ArrayList<String> inputBitVectors;
+        private volatile boolean cancelled;
+
+        GameEvaluation(SynthesisEngine caller, SafetyGameGraph safetyArena, BitSet losingRegion,
+                ArrayList<CandidateMonitor> monitors, ArrayList<String> inputBitVectors) {
+            this.caller = caller;
+            this.safetyArena = safetyArena;
+            this.losingRegion = losingRegion;
+            this.monitors = monitors;
+            this.inputBitVectors = inputBitVectors;
+        }
+
+        public Boolean call() {
+            if (isCancelled()) {
+                return Boolean.FALSE;
+            }
+            SafetyGameGraph restrictedArena = new MonitoredSafetyGame(safetyArena, losingRegion, monitors, inputBitVectors);
+            if (isCancelled()) {
+                return Boolean.FALSE;
+            }
+            return Boolean.valueOf(computeLevels(restrictedArena, true)[0] < 0);
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        private boolean isCancelled() {
+            return cancelled || caller.isCancelled();
+        }
+    }
+
+    /**
+     * Evaluation of a candidate by re-synthesis on an engine of its own, which
+     * retains the resulting safety game and is cancelled with the caller's
+     * engine.
+     */
+    private static class SynthesisEvaluation extends Evaluation {
+
+        final SynthesisEngine engine = new SynthesisEngine();
+        private final ProblemDescription prob;
+        private final LTLTranslator translator;
+
+        SynthesisEvaluation(SynthesisEngine caller, ProblemDescription prob, LTLTranslator translator) {
+            engine.followCancellation(caller);
+            this.prob = prob;
+            this.translator = translator;
+        }
+
+        public Boolean call() {
+            return Boolean.valueOf(engine.invokeMonolithicCoBuechiEngine(prob, translator,
+                    SynthesisEngine.OUTPUT_PSUEDO_CODE, true).isStrategyFound());
+        }
+
+        void cancel() {
+            engine.cancel();
+        }
+    }
+
+    /**
+     * Deterministic monitor for the safety part of a candidate of templates 1
+     * to 3, reading the input vectors of a play. Its state is 1 while an
+     * obligation triggered by a is pending, 0 otherwise.
+     */
+    static class CandidateMonitor {
+
+        private final int type;
+        private final int a;
+        private final int b;
+        private final int c;
+
+        private CandidateMonitor(AssumptionCandidate candidate) {
+            type = candidate.type;
+            a = candidate.variablesArray.get(0);
+            b = candidate.variablesArray.get(1);
+            c = (type == 3) ? candidate.variablesArray.get(2) : -1;
+        }
+
+        /**
+         * @return the monitor of the candidate, or null if the candidate is not a safety property
+         */
+        static CandidateMonitor create(AssumptionCandidate candidate) {
+            if (candidate.type >= 1 && candidate.type <= 3) {
+                return new CandidateMonitor(candidate);
+            }
+            return null;
+        }
+
+        /**
+         * @param state current state (0 or 1)
+         * @param input input vector
+         * @return the next state, or -1 if the input violates the candidate
+         */
+        int step(int state, String input) {
+            boolean trigger = input.charAt(a) == '1';
+            boolean hold = input.charAt(b) == '1';
+            switch (type) {
+                case 1:
+                    // ALWAYS (a -> NEXT ALWAYS b)
+                    if (state == 1 && !hold) {
+                        return -1;
+                    }
+                    return (state == 1 || trigger) ? 1 : 0;
+                case 2:
+                    // ALWAYS (a -> !b)
+                    return (trigger && hold) ? -1 : 0;
+                default: {
+                    // ALWAYS (a -> NEXT (!b UNTIL c)), without the obligation that c eventually holds
+                    boolean pending = state == 1 && input.charAt(c) != '1';
+                    if (pending && hold) {
+                        return -1;
+                    }
+                    return (pending || trigger) ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Product of a safety game with candidate monitors, which removes the
+     * environment moves violating a monitor. Only the losing region of the
+     * game is explored: a vertex outside of it is winning for the controller
+     * already without the restriction and is replaced by a sink vertex. Vertex
+     * 0 is initial, vertex 1 is risk and vertex 2 is the sink.
+     */
+    static class MonitoredSafetyGame implements SafetyGameGraph {
+
+        private static final int SINK_VERTEX = 2;
+        private final ArrayList<int[]> successors = new ArrayList<int[]>();
+        private final BitSet environmentVertices = new BitSet();
+
+        MonitoredSafetyGame(SafetyGameGraph safetyArena, BitSet losingRegion, ArrayList<CandidateMonitor> monitors,
+                ArrayList<String> inputBitVectors) {
+            // Product vertices are keyed by the original vertex (high word) and the monitor states (low word),
+            // one bit per monitor.
+            HashMap<Long, Integer> index = new HashMap<Long, Integer>();
+            ArrayList<Integer> originalVertex = new ArrayList<Integer>();
+            ArrayList<Integer> monitorState = new ArrayList<Integer>();
+            index.put(Long.valueOf(0L), Integer.valueOf(0));
+            originalVertex.add(0);
+            monitorState.add(0);
+            originalVertex.add(1);
+            monitorState.add(0);
+            originalVertex.add(-1);
+            monitorState.add(0);
+            environmentVertices.set(SINK_VERTEX);
+
+            for (int i = 0; i < originalVertex.size(); i++) {
+                int v = originalVertex.get(i);
+                if (i == 1 || i == SINK_VERTEX) {
+                    successors.add(new int[0]);
+                    continue;
+                }
+                int state = monitorState.get(i);
+                boolean environment = safetyArena.isEnvironmentVertex(v);
+                if (environment) {
+                    environmentVertices.set(i);
+                }
+                int[] succ = new int[safetyArena.getNumberOfSuccessors(v)];
+                for (int k = 0; k < succ.length; k++) {
+                    int target = safetyArena.getSuccessor(v, k);
+                    int nextState = environment ? step(monitors, state, inputBitVectors.get(k)) : state;
+                    if (target < 0 || nextState < 0) {
+                        succ[k] = -1;
+                    } else if (target == 1) {
+                        succ[k] = 1;
+                    } else if (losingRegion == null || !losingRegion.get(target)) {
+                        succ[k] = SINK_VERTEX;
+                    } else {
+                        Long key = Long.valueOf(((long) target << 32) | (nextState & 0xffffffffL));
+                        Integer id = index.get(key);
+                        if (id == null) {
+                            id = Integer.valueOf(originalVertex.size());
+                            index.put(key, id);
+                            originalVertex.add(target);
+                            monitorState.add(nextState);
+                        }
+                        succ[k] = id.intValue();
+                    }
+                }
+                successors.add(succ);
+            }
+        }
+
+        private static int step(ArrayList<CandidateMonitor> monitors, int state, String input) {
+            int nextState = 0;
+            for (int m = 0; m < monitors.size(); m++) {
+                int next = monitors.get(m).step((state >>> m) & 1, input);
+                if (next < 0) {
+                    return -1;
+                }
+                nextState |= next << m;
+            }
+            return nextState;
+        }
+
+        public int getNumberOfVertices() {
+            return successors.size();
+        }
+
+        public boolean isEnvironmentVertex(int vertex) {
+            return environmentVertices.get(vertex);
+        }
+
+        public int getNumberOfSuccessors(int vertex) {
+            return successors.get(vertex).length;
+        }
+
+        public int getSuccessor(int vertex, int k) {
+            return successors.get(vertex)[k];
+        }
+
+        public void dispose() {
+        }
+    }
+
+    /**
+     * Input part of a fail path, stored column-wise: for every input signal a
+     * bit set over the input steps of the play (step t is position 2t of the
+     * path). All template checks reduce to a few word-level bit set operations.
+     */
+    static class FailPathColumns {
+
+        /**
+         * Number of input steps.
+         */
+        final int steps;
+        /**
+         * First input step belonging to the second half of the play (used by template 4).
+         */
+        final int secondHalf;
+        final BitSet[] asserted;
+
+        FailPathColumns(ArrayList<String> failPath, int numberOfInputs) {
+            steps = (failPath.size() + 1) / 2;
+            secondHalf = (failPath.size() / 2 + 1) / 2;
+            asserted = new BitSet[numberOfInputs];
+            for (int v = 0; v < numberOfInputs; v++) {
+                asserted[v] = new BitSet(steps);
+            }
+            for (int t = 0; t < steps; t++) {
+                String input = failPath.get(2 * t);
+                for (int v = 0; v < numberOfInputs; v++) {
+                    if (input.charAt(v) == '1') {
+                        asserted[v].set(t);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return indices of the inputs asserted at least once on the play
+         */
+        BitSet getAssertedInputs() {
+            BitSet result = new BitSet(asserted.length);
+            for (int v = 0; v < asserted.length; v++) {
+                if (!asserted[v].isEmpty()) {
+                    result.set(v);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Check whether a candidate assumption is violated by the play, i.e.,
+         * adding the candidate excludes the play.
+         *
+         * @param candidate the assumption candidate
+         * @return true if the play violates the candidate
+         */
+        boolean isRefutedBy(AssumptionCandidate candidate) {
+            BitSet a = asserted[candidate.variablesArray.get(0)];
+            switch (candidate.type) {
+                case 1: {
+                    // ASSUME ALWAYS (a -> NEXT ALWAYS b): b is false after the first a
+                    int mark = a.nextSetBit(0);
+                    return mark >= 0 && asserted[candidate.variablesArray.get(1)].nextClearBit(mark + 1) < steps;
+                }
+                case 2:
+                    // ASSUME ALWAYS (a -> !b): a and b hold together
+                    return a.intersects(asserted[candidate.variablesArray.get(1)]);
+                case 3: {
+                    // ASSUME ALWAYS (a -> NEXT (!b UNTIL c)): after the first a, b fails before c holds
+                    int mark = a.nextSetBit(0);
+                    if (mark < 0) {
+                        return false;
+                    }
+                    int release = asserted[candidate.variablesArray.get(2)].nextSetBit(mark + 1);
+                    int violation = asserted[candidate.variablesArray.get(1)].nextClearBit(mark + 1);
+                    return violation < steps && (release < 0 || violation < release);
+                }
+                case 4: {
+                    // ASSUME ALWAYS EVENTUALLY (a): a never holds in the second half of the play
+                    int last = a.nextSetBit(secondHalf);
+                    return last < 0 || last >= steps;
+                }
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private void printSafetyGameFromCoBuechi(SafetyGameGraph safetyArena,
+            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors) {
+        System.out.print("Start print safety game\n");
+        for (int e = 0; e < safetyArena.getNumberOfVertices(); e++) {
+            System.out.print(e + " " + safetyArena.isEnvironmentVertex(e) + "\n");
+            ArrayList<String> vectors = safetyArena.isEnvironmentVertex(e) ? inputBitVectors : outputBitVectors;
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(e); k++) {
+                if (safetyArena.getSuccessor(e, k) >= 0) {
+                    System.out.print(vectors.get(k) + "->" + safetyArena.getSuccessor(e, k) + "\n");
+                }
+            }
+        }
+    }
+}
@@ -1,62 +1,63 @@
-/* G4LTL: Games for LTL Synthesis
- *
- * Copyright (c) 2013, Chih-Hong Cheng, 
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *   * Redistributions of source code must retain the above copyright
- *     notice, this list of conditions and the following disclaimer.
- *   * Redistributions in binary form must reproduce the above copyright
- *     notice, this list of conditions and the following disclaimer in the
- *     documentation and/or other materials provided with the distribution.
- *   * Neither the name of the <organization> nor the
- *     names of its contributors may be used to endorse or promote products
- *     derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
- * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
- * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
- * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
- * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
- * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
- * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
- * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
- * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
- * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
- */
-package g4ltl.utility;
-
-import java.util.ArrayList;
-
-/**
- * Problem structure with unique partitions into subproblems.
- * 
- * @author Chihhong Cheng
- * @version 1.0 2013/10/03
- */
-public class CompositionalProblemDescription extends ProblemDescription {
-
-    private ArrayList<String> partialSpecification;
-
-    
-    public CompositionalProblemDescription(ArrayList<String> inputSignals, 
-            ArrayList<String> outputSignals,
-            ArrayList<String> timerSignals,
-            String ltlSpecification, int unrollSteps,
-            ArrayList<String> partialSpecification) {
-
-        super(inputSignals, outputSignals, timerSignals, ltlSpecification, unrollSteps);
-
-        this.partialSpecification = partialSpecification;
-
-    }
-
-    public ArrayList<String> getPartialSpecification() {
-        return this.partialSpecification;
-    }
-
-    public void setPartialSpecification(ArrayList<String> spec) {
-        this.partialSpecification = spec;
-    }
-}
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.ltl.LTLFormula;
+import java.util.ArrayList;
+
+/**
+ * Problem structure with unique partitions into subproblems.
+ * 
+ * @author Chihhong Cheng
+ * @version 1.0 2013/10/03
+ */
+public class CompositionalProblemDescription extends ProblemDescription {
+
+    private ArrayList<LTLFormula> partialSpecification;
+
+    
+    public CompositionalProblemDescription(ArrayList<String> inputSignals, 
+            ArrayList<String> outputSignals,
+            ArrayList<String> timerSignals,
+            LTLFormula ltlFormula, int unrollSteps,
+            ArrayList<LTLFormula> partialSpecification) {
+
+        super(inputSignals, outputSignals, timerSignals, ltlFormula, unrollSteps);
+
+        this.partialSpecification = partialSpecification;
+
+    }
+
+    public ArrayList<LTLFormula> getPartialSpecification() {
+        return this.partialSpecification;
+    }
+
+    public void setPartialSpecification(ArrayList<LTLFormula> spec) {
+        this.partialSpecification = spec;
+    }
+}
@@ -27,13 +27,14 @@
  */
 package g4ltl.utility;
 
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.DecisionDiagramFactory;
 import g4ltl.utility.simpleformulaparser.BooleanFormulaParser;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import jdd.bdd.BDD;
 
 /**
  * Check compressibility of an LTL specification
@@ -134,7 +135,7 @@ public class CompressibilityCheck {
                 }
             }
             
-            BDD compression = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+            DecisionDiagram compression = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
             int totalNumberOfVariables = rewrittenOutputVariables.size();
             int[] vArray = new int[totalNumberOfVariables];
             for (int i = 0; i < totalNumberOfVariables; i++) {
@@ -167,15 +168,10 @@ public class CompressibilityCheck {
 
             // Count the number of valuations and see if binary folding helps
 
-            PrintStream out = System.out;
             ByteArrayOutputStream barray = new ByteArrayOutputStream();
             PrintStream printStreamByteArray = new PrintStream(barray);
-            System.setOut(printStreamByteArray);
-            compression.printSet(valuation);
+            compression.printSet(valuation, printStreamByteArray);
             String outputCombinationFormat = barray.toString();
-
-            // Redirect the output stream back to console again.
-            System.setOut(out);
             
             if (outputCombinationFormat.trim().equalsIgnoreCase("FALSE")) {
                 if (Debug.DEBUG) {
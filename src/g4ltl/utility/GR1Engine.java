@@ -0,0 +1,642 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.Permutation;
+import g4ltl.utility.ltl.GR1Specification;
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.mealymachine.MealyMachine;
+import g4ltl.utility.mealymachine.MealyMachineEdgeElement;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * GR1Engine.java Purpose: Symbolic solver for GR(1) specifications (see
+ * GR1Specification), based on the three nested fixpoints of Piterman, Pnueli
+ * and Sa'ar. A state of the game is a valuation of the inputs, the outputs,
+ * and the auxiliary variables of responses and eventualities; in each step
+ * the environment picks the next inputs and then the controller the next
+ * outputs. The running time is polynomial in the number of states.
+ *
+ * A response [] (p -> <> q) is tracked by a variable "pending" with pending'
+ * = (p' || pending) && !q' and the justice condition !pending; an
+ * eventuality <> p by a variable "done" with done' = done || p' and the
+ * justice condition done.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class GR1Engine {
+
+    private DecisionDiagram bdd;
+    private GR1Specification spec;
+    private int numberOfInputVariables;
+    private int numberOfOutputVariables;
+    private int numberOfAuxiliaryVariables;
+    private HashMap<String, Integer> inputIndex = new HashMap<String, Integer>();
+    private HashMap<String, Integer> outputIndex = new HashMap<String, Integer>();
+    /**
+     * Variables of the current and the next state: inputs, outputs, and
+     * auxiliary variables, in this order.
+     */
+    private int[] variable;
+    private int[] variableNext;
+    private int environmentInitial;
+    private int environmentSafety;
+    private int[] environmentJustice;
+    private int systemInitial;
+    private int systemSafety;
+    private int[] systemJustice;
+    private int inputCube;
+    private int systemCube;
+    private int inputNextCube;
+    private int systemNextCube;
+    private Permutation currentToNext;
+    private int winningRegion;
+    /**
+     * Approximations of the fixpoints for the strategy: rankRegion[j][r] is the
+     * r-th approximation of Y for the j-th system justice condition, and
+     * stayRegion[j][r][i] the corresponding X for the i-th environment justice.
+     */
+    private ArrayList<ArrayList<Integer>> rankRegion;
+    private ArrayList<ArrayList<int[]>> stayRegion;
+    private int numberOfIterations;
+
+    /**
+     * Constructor. The specification is encoded into the given BDD manager,
+     * which should be empty as the variable ordering is fixed by this engine.
+     *
+     * @param bdd BDD manager
+     * @param spec the GR(1) specification
+     * @param inputVariables input variables
+     * @param outputVariables output variables
+     */
+    public GR1Engine(DecisionDiagram bdd, GR1Specification spec, ArrayList<String> inputVariables,
+            ArrayList<String> outputVariables) {
+        this.bdd = bdd;
+        this.spec = spec;
+        this.numberOfInputVariables = inputVariables.size();
+        this.numberOfOutputVariables = outputVariables.size();
+        this.numberOfAuxiliaryVariables = spec.getResponseTriggers().size() + spec.getSystemEventualities().size();
+        for (int i = 0; i < inputVariables.size(); i++) {
+            inputIndex.put(inputVariables.get(i), Integer.valueOf(i));
+        }
+        for (int i = 0; i < outputVariables.size(); i++) {
+            outputIndex.put(outputVariables.get(i), Integer.valueOf(numberOfInputVariables + i));
+        }
+        encode();
+    }
+
+    private void encode() {
+        int numberOfVariables = numberOfInputVariables + numberOfOutputVariables + numberOfAuxiliaryVariables;
+        variable = new int[numberOfVariables];
+        variableNext = new int[numberOfVariables];
+        for (int i = 0; i < numberOfVariables; i++) {
+            variable[i] = bdd.createVar();
+            variableNext[i] = bdd.createVar();
+        }
+        currentToNext = bdd.createPermutation(variable, variableNext);
+        inputCube = cube(variable, 0, numberOfInputVariables);
+        systemCube = cube(variable, numberOfInputVariables, numberOfVariables);
+        inputNextCube = cube(variableNext, 0, numberOfInputVariables);
+        systemNextCube = cube(variableNext, numberOfInputVariables, numberOfVariables);
+
+        environmentInitial = conjunction(spec.getEnvironmentInitial());
+        environmentSafety = conjunction(spec.getEnvironmentSafety());
+        systemInitial = conjunction(spec.getSystemInitial());
+        systemSafety = conjunction(spec.getSystemSafety());
+
+        ArrayList<Integer> justice = new ArrayList<Integer>();
+        for (LTLFormula f : spec.getSystemJustice()) {
+            justice.add(Integer.valueOf(compile(f, false)));
+        }
+        int aux = numberOfInputVariables + numberOfOutputVariables;
+        for (int k = 0; k < spec.getResponseTriggers().size(); k++, aux++) {
+            int trigger = compile(spec.getResponseTriggers().get(k), false);
+            int goal = compile(spec.getResponseGoals().get(k), false);
+            int triggerNext = bdd.ref(bdd.replace(trigger, currentToNext));
+            int goalNext = bdd.ref(bdd.replace(goal, currentToNext));
+            // pending <-> (p && !q) initially, pending' <-> ((p' || pending) && !q')
+            int notGoal = bdd.ref(bdd.not(goal));
+            int initial = bdd.ref(bdd.and(trigger, notGoal));
+            int initialAux = bdd.ref(bdd.biimp(variable[aux], initial));
+            systemInitial = bdd.andTo(systemInitial, initialAux);
+            int notGoalNext = bdd.ref(bdd.not(goalNext));
+            int open = bdd.ref(bdd.or(triggerNext, variable[aux]));
+            int next = bdd.ref(bdd.and(open, notGoalNext));
+            int nextAux = bdd.ref(bdd.biimp(variableNext[aux], next));
+            systemSafety = bdd.andTo(systemSafety, nextAux);
+            justice.add(Integer.valueOf(bdd.ref(bdd.not(variable[aux]))));
+            bdd.deref(initialAux);
+            bdd.deref(nextAux);
+            bdd.deref(trigger);
+            bdd.deref(goal);
+            bdd.deref(triggerNext);
+            bdd.deref(goalNext);
+            bdd.deref(notGoal);
+            bdd.deref(initial);
+            bdd.deref(notGoalNext);
+            bdd.deref(open);
+            bdd.deref(next);
+        }
+        for (int k = 0; k < spec.getSystemEventualities().size(); k++, aux++) {
+            int goal = compile(spec.getSystemEventualities().get(k), false);
+            int goalNext = bdd.ref(bdd.replace(goal, currentToNext));
+            // done <-> p initially, done' <-> (done || p')
+            int initialAux = bdd.ref(bdd.biimp(variable[aux], goal));
+            systemInitial = bdd.andTo(systemInitial, initialAux);
+            int next = bdd.ref(bdd.or(variable[aux], goalNext));
+            int nextAux = bdd.ref(bdd.biimp(variableNext[aux], next));
+            systemSafety = bdd.andTo(systemSafety, nextAux);
+            justice.add(Integer.valueOf(bdd.ref(variable[aux])));
+            bdd.deref(initialAux);
+            bdd.deref(nextAux);
+            bdd.deref(goal);
+            bdd.deref(goalNext);
+            bdd.deref(next);
+        }
+        if (justice.isEmpty()) {
+            justice.add(Integer.valueOf(bdd.ref(bdd.getOne())));
+        }
+        systemJustice = toArray(justice);
+
+        justice = new ArrayList<Integer>();
+        for (LTLFormula f : spec.getEnvironmentJustice()) {
+            justice.add(Integer.valueOf(compile(f, false)));
+        }
+        if (justice.isEmpty()) {
+            justice.add(Integer.valueOf(bdd.ref(bdd.getOne())));
+        }
+        environmentJustice = toArray(justice);
+        winningRegion = bdd.ref(bdd.getZero());
+    }
+
+    private static int[] toArray(ArrayList<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i).intValue();
+        }
+        return result;
+    }
+
+    private int cube(int[] variables, int from, int to) {
+        int result = bdd.ref(bdd.getOne());
+        for (int i = from; i < to; i++) {
+            result = bdd.andTo(result, variables[i]);
+        }
+        return result;
+    }
+
+    private int conjunction(ArrayList<LTLFormula> formulas) {
+        int result = bdd.ref(bdd.getOne());
+        for (LTLFormula f : formulas) {
+            int g = compile(f, false);
+            result = bdd.andTo(result, g);
+            bdd.deref(g);
+        }
+        return result;
+    }
+
+    /**
+     * Compile a step formula into a (referenced) BDD, where signals under the
+     * next operator refer to the next state.
+     */
+    private int compile(LTLFormula f, boolean isNext) {
+        switch (f.getOperator()) {
+            case LTLFormula.TRUE:
+                return bdd.ref(bdd.getOne());
+            case LTLFormula.FALSE:
+                return bdd.ref(bdd.getZero());
+            case LTLFormula.ATOM: {
+                Integer index = inputIndex.get(f.getName());
+                if (index == null) {
+                    index = outputIndex.get(f.getName());
+                }
+                return bdd.ref(isNext ? variableNext[index.intValue()] : variable[index.intValue()]);
+            }
+            case LTLFormula.NEXT:
+                return compile(f.getLeft(), true);
+            case LTLFormula.NOT: {
+                int operand = compile(f.getLeft(), isNext);
+                int result = bdd.ref(bdd.not(operand));
+                bdd.deref(operand);
+                return result;
+            }
+            default: {
+                int left = compile(f.getLeft(), isNext);
+                int right = compile(f.getRight(), isNext);
+                int result;
+                switch (f.getOperator()) {
+                    case LTLFormula.AND:
+                        result = bdd.ref(bdd.and(left, right));
+                        break;
+                    case LTLFormula.OR:
+                        result = bdd.ref(bdd.or(left, right));
+                        break;
+                    case LTLFormula.IMPLIES:
+                        result = bdd.ref(bdd.imp(left, right));
+                        break;
+                    case LTLFormula.EQUIVALENT:
+                        result = bdd.ref(bdd.biimp(left, right));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Not a step formula: " + f);
+                }
+                bdd.deref(left);
+                bdd.deref(right);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Compute the states from which the controller can force the next state
+     * into the region, or the environment violates its safety assumption.
+     *
+     * @return the (referenced) controllable predecessor
+     */
+    private int controllablePredecessor(int region) {
+        int regionNext = bdd.ref(bdd.replace(region, currentToNext));
+        int systemMove = bdd.ref(bdd.relProd(systemSafety, regionNext, systemNextCube));
+        int environmentMove = bdd.ref(bdd.imp(environmentSafety, systemMove));
+        int result = bdd.ref(bdd.forall(environmentMove, inputNextCube));
+        bdd.deref(regionNext);
+        bdd.deref(systemMove);
+        bdd.deref(environmentMove);
+        return result;
+    }
+
+    /**
+     * Compute the winning region by the three nested fixpoints and keep the
+     * approximations of the last iteration for the strategy.
+     *
+     * @return true if the controller wins from every initial input
+     */
+    public boolean solve() {
+        bdd.deref(winningRegion);
+        int z = bdd.ref(bdd.getOne());
+        numberOfIterations = 0;
+        while (true) {
+            numberOfIterations++;
+            ArrayList<ArrayList<Integer>> ranks = new ArrayList<ArrayList<Integer>>();
+            ArrayList<ArrayList<int[]>> stays = new ArrayList<ArrayList<int[]>>();
+            int zNext = bdd.ref(bdd.getOne());
+            for (int j = 0; j < systemJustice.length; j++) {
+                ArrayList<Integer> rank = new ArrayList<Integer>();
+                ArrayList<int[]> stay = new ArrayList<int[]>();
+                int y = computeRanks(z, systemJustice[j], rank, stay);
+                ranks.add(rank);
+                stays.add(stay);
+                zNext = bdd.andTo(zNext, y);
+                bdd.deref(y);
+            }
+            if (zNext == z) {
+                // All approximations were computed with the fixpoint z.
+                rankRegion = ranks;
+                stayRegion = stays;
+                bdd.deref(zNext);
+                break;
+            }
+            releaseRegions(ranks, stays);
+            bdd.deref(z);
+            z = zNext;
+        }
+        winningRegion = z;
+
+        // Every initial input allowed by the assumptions has an initial output in the winning region.
+        int initial = bdd.ref(bdd.and(systemInitial, winningRegion));
+        int initialOutput = bdd.ref(bdd.exists(initial, systemCube));
+        int initialInput = bdd.ref(bdd.imp(environmentInitial, initialOutput));
+        boolean result = bdd.forall(initialInput, inputCube) == bdd.getOne();
+        bdd.deref(initial);
+        bdd.deref(initialOutput);
+        bdd.deref(initialInput);
+        return result;
+    }
+
+    /**
+     * Compute mu Y. (OR_i nu X. (J_j && cpre(Z)) || cpre(Y) || (!Je_i && cpre(X))).
+     *
+     * @param z the current approximation of the winning region
+     * @param goal the system justice condition J_j
+     * @param rank receives the approximations of Y
+     * @param stay receives, for every approximation of Y, the sets X per environment justice condition
+     * @return the (referenced) least fixpoint Y
+     */
+    private int computeRanks(int z, int goal, ArrayList<Integer> rank, ArrayList<int[]> stay) {
+        int cpreZ = controllablePredecessor(z);
+        int start = bdd.ref(bdd.and(goal, cpreZ));
+        bdd.deref(cpreZ);
+        int y = bdd.ref(bdd.getZero());
+        while (true) {
+            int cpreY = controllablePredecessor(y);
+            int progress = bdd.ref(bdd.or(start, cpreY));
+            bdd.deref(cpreY);
+            int yNext = bdd.ref(bdd.getZero());
+            int[] xs = new int[environmentJustice.length];
+            for (int i = 0; i < environmentJustice.length; i++) {
+                int notJustice = bdd.ref(bdd.not(environmentJustice[i]));
+                int x = bdd.ref(z);
+                while (true) {
+                    int cpreX = controllablePredecessor(x);
+                    int wait = bdd.ref(bdd.and(notJustice, cpreX));
+                    int xNext = bdd.ref(bdd.or(progress, wait));
+                    bdd.deref(cpreX);
+                    bdd.deref(wait);
+                    if (xNext == x) {
+                        bdd.deref(xNext);
+                        break;
+                    }
+                    bdd.deref(x);
+                    x = xNext;
+                }
+                bdd.deref(notJustice);
+                xs[i] = x;
+                yNext = bdd.orTo(yNext, x);
+            }
+            bdd.deref(progress);
+            if (yNext == y) {
+                bdd.deref(yNext);
+                for (int i = 0; i < xs.length; i++) {
+                    bdd.deref(xs[i]);
+                }
+                break;
+            }
+            bdd.deref(y);
+            y = yNext;
+            rank.add(Integer.valueOf(bdd.ref(y)));
+            stay.add(xs);
+        }
+        bdd.deref(start);
+        return y;
+    }
+
+    private void releaseRegions(ArrayList<ArrayList<Integer>> ranks, ArrayList<ArrayList<int[]>> stays) {
+        for (ArrayList<Integer> rank : ranks) {
+            for (Integer r : rank) {
+                bdd.deref(r.intValue());
+            }
+        }
+        for (ArrayList<int[]> stay : stays) {
+            for (int[] xs : stay) {
+                for (int i = 0; i < xs.length; i++) {
+                    bdd.deref(xs[i]);
+                }
+            }
+        }
+    }
+
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /**
+     * Extract a controller from the approximations of the fixpoints; must be
+     * called after a successful solve(). The memory of the controller is the
+     * justice condition j currently pursued. In a state satisfying J_j the
+     * controller stays in the winning region and pursues the next condition;
+     * otherwise it moves to a smaller approximation of Y if possible, and
+     * else stays in the X where the environment fails its justice condition.
+     * After a violation of the assumptions the machine moves to a vertex
+     * which keeps all outputs at 0.
+     *
+     * @param inputBitVectors all input vectors, indexed by their ordinal
+     * @param outputBitVectors all output vectors, indexed by their ordinal
+     * @return MealyMachine as a strategy
+     */
+    public MealyMachine generateMealyMachine(ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors) {
+        MealyMachine machine = new MealyMachine();
+        machine.setSolution(true);
+        machine.setInitialVertex("0");
+        machine.getVertices().add("0");
+
+        // Vertices 1, 2, ... are pairs (state, j), packed as state * (number of justice conditions) + j.
+        HashMap<Long, Integer> vertexIndex = new HashMap<Long, Integer>();
+        ArrayList<Long> vertices = new ArrayList<Long>();
+        vertices.add(Long.valueOf(-1));
+        int sink = -1;
+        int numberOfJustice = systemJustice.length;
+
+        for (int index = 0; index < vertices.size(); index++) {
+            if (index > 0) {
+                machine.getVertices().add(String.valueOf(index));
+            }
+            if (index == sink) {
+                for (int input = 0; input < inputBitVectors.size(); input++) {
+                    machine.getEdges().add(new MealyMachineEdgeElement(String.valueOf(sink), String.valueOf(sink),
+                            inputBitVectors.get(input), outputBitVectors.get(0)));
+                }
+                continue;
+            }
+            long vertex = vertices.get(index).longValue();
+            long state = vertex / numberOfJustice;
+            int j = (int) (vertex % numberOfJustice);
+            for (int input = 0; input < inputBitVectors.size(); input++) {
+                long next;
+                int nextJustice = j;
+                if (index == 0) {
+                    next = chooseInitial(input);
+                    nextJustice = 0;
+                } else if (!bdd.member(environmentSafety, assignment(state, input))) {
+                    next = -1;
+                } else {
+                    next = -1;
+                    if (bdd.member(systemJustice[j], assignment(state, -1))) {
+                        next = chooseMove(state, input, winningRegion);
+                        nextJustice = (j + 1) % numberOfJustice;
+                    }
+                    if (next < 0) {
+                        next = chooseProgress(state, input, j);
+                        nextJustice = j;
+                    }
+                }
+
+                int dest;
+                if (next < 0) {
+                    // The environment violates its assumptions.
+                    if (sink < 0) {
+                        sink = vertices.size();
+                        vertices.add(Long.valueOf(-1));
+                    }
+                    dest = sink;
+                } else {
+                    Long key = Long.valueOf(next * numberOfJustice + nextJustice);
+                    Integer d = vertexIndex.get(key);
+                    if (d == null) {
+                        d = Integer.valueOf(vertices.size());
+                        vertexIndex.put(key, d);
+                        vertices.add(key);
+                    }
+                    dest = d.intValue();
+                }
+                machine.getEdges().add(new MealyMachineEdgeElement(String.valueOf(index), String.valueOf(dest),
+                        inputBitVectors.get(input), outputBitVectors.get(next < 0 ? 0 : getOutput(next))));
+            }
+        }
+        return machine;
+    }
+
+    /**
+     * Choose the first state for the given input: the initial conditions hold
+     * and the state is winning.
+     *
+     * @return the state, or -1 if the input violates the initial assumptions
+     */
+    private long chooseInitial(int input) {
+        if (!bdd.member(environmentInitial, assignment(inputState(input), -1))) {
+            return -1;
+        }
+        int choices = bdd.ref(bdd.and(systemInitial, winningRegion));
+        choices = restrict(choices, variable, 0, numberOfInputVariables, inputState(input));
+        long result = readState(choices, variable, inputState(input));
+        bdd.deref(choices);
+        return result;
+    }
+
+    /**
+     * Choose the next state from the state in the current approximation of Y
+     * (for the justice condition j): into the previous approximation if
+     * possible, otherwise stay in the X of the first environment justice
+     * condition where the state is contained.
+     */
+    private long chooseProgress(long state, int input, int j) {
+        boolean[] current = assignment(state, -1);
+        ArrayList<Integer> rank = rankRegion.get(j);
+        int r = 0;
+        while (!bdd.member(rank.get(r).intValue(), current)) {
+            r++;
+        }
+        if (r > 0) {
+            long next = chooseMove(state, input, rank.get(r - 1).intValue());
+            if (next >= 0) {
+                return next;
+            }
+        }
+        int[] stay = stayRegion.get(j).get(r);
+        int i = 0;
+        while (!bdd.member(stay[i], current)) {
+            i++;
+        }
+        return chooseMove(state, input, stay[i]);
+    }
+
+    /**
+     * Choose the next outputs such that the safety guarantees hold and the
+     * next state is in the target region.
+     *
+     * @return the next state, or -1 if there is no such move
+     */
+    private long chooseMove(long state, int input, int target) {
+        int targetNext = bdd.ref(bdd.replace(target, currentToNext));
+        int choices = bdd.ref(bdd.and(systemSafety, targetNext));
+        bdd.deref(targetNext);
+        choices = restrict(choices, variable, 0, variable.length, state);
+        choices = restrict(choices, variableNext, 0, numberOfInputVariables, inputState(input));
+        long result = readState(choices, variableNext, inputState(input));
+        bdd.deref(choices);
+        return result;
+    }
+
+    /**
+     * Conjoin the literals fixing variables[from..to) to the corresponding bits
+     * of the state.
+     */
+    private int restrict(int set, int[] variables, int from, int to, long state) {
+        for (int k = from; k < to && set != bdd.getZero(); k++) {
+            int literal = bdd.ref(((state >>> k) & 1) == 1 ? variables[k] : bdd.not(variables[k]));
+            set = bdd.andTo(set, literal);
+            bdd.deref(literal);
+        }
+        return set;
+    }
+
+    /**
+     * Read a state from a satisfying assignment of the set; the inputs are
+     * given, unconstrained variables are set to 0.
+     *
+     * @return the state, or -1 if the set is empty
+     */
+    private long readState(int set, int[] variables, long inputs) {
+        if (set == bdd.getZero()) {
+            return -1;
+        }
+        int[] assignment = bdd.oneSat(set, null);
+        long result = inputs;
+        for (int k = numberOfInputVariables; k < variables.length; k++) {
+            if (assignment[bdd.getVar(variables[k])] == 1) {
+                result |= 1L << k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the state (bit k for variable k) where the inputs are given by the ordinal
+     */
+    private long inputState(int input) {
+        long result = 0;
+        for (int p = 0; p < numberOfInputVariables; p++) {
+            if (((input >>> (numberOfInputVariables - 1 - p)) & 1) == 1) {
+                result |= 1L << p;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ordinal of the output vector in the state
+     */
+    private int getOutput(long state) {
+        int result = 0;
+        for (int p = 0; p < numberOfOutputVariables; p++) {
+            if (((state >>> (numberOfInputVariables + p)) & 1) == 1) {
+                result |= 1 << (numberOfOutputVariables - 1 - p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the assignment (indexed by BDD variable) of the current state,
+     * and of the next inputs unless input is -1
+     */
+    private boolean[] assignment(long state, int input) {
+        boolean[] result = new boolean[bdd.numberOfVariables()];
+        for (int k = 0; k < variable.length; k++) {
+            result[bdd.getVar(variable[k])] = ((state >>> k) & 1) == 1;
+        }
+        if (input >= 0) {
+            long inputs = inputState(input);
+            for (int k = 0; k < numberOfInputVariables; k++) {
+                result[bdd.getVar(variableNext[k])] = ((inputs >>> k) & 1) == 1;
+            }
+        }
+        return result;
+    }
+}
@@ -27,6 +27,8 @@
  */
 package g4ltl.utility;
 
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.DecisionDiagramFactory;
 import g4ltl.utility.mealymachine.MealyMachine;
 import g4ltl.utility.mealymachine.MealyMachineEdgeElement;
 import java.io.ByteArrayOutputStream;
@@ -34,7 +36,6 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import jdd.bdd.BDD;
 
 /**
  * Template for generating FSMActors in MoML format.
@@ -372,18 +373,15 @@ public class PtolemyTemplate {
     static String generateControllerConditionMergedTransitions(MealyMachine machine, ProblemDescription prob, ArrayList<String> inputBitVectors) {
 
 
-        PrintStream out = System.out;
-
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
 
         // Maximum number of BDD nodes used in JDD.        
         int BDD_MAX_NODE_TABLE_SIZE = 1000000;
         // Maximum size of cache used in JDD.         
         int BDD_MAX_CACHE_SIZE = 200000;
 
-        BDD bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        DecisionDiagram bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
         int totalNumberOfVariables = prob.getInputVariables().size();
         int[] variableArray = new int[totalNumberOfVariables];
         for (int i = 0; i < totalNumberOfVariables; i++) {
@@ -430,7 +428,7 @@ public class PtolemyTemplate {
 
                     // Print the guard as string 
                     barray.reset();
-                    bdd.printSet(guardBdd);
+                    bdd.printSet(guardBdd, printStreamByteArray);
                     String foldedGuardFormat = barray.toString();
                     // System.err.println(foldedGuardFormat);
                     String[] lineArray = foldedGuardFormat.split("[\\r\\n]");
@@ -514,8 +512,6 @@ public class PtolemyTemplate {
             }
         }
 
-        // Redirect the output stream back to console again.
-        System.setOut(out);
         return result.toString();
     }
 }
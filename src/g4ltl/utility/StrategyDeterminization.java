@@ -0,0 +1,223 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.gametranslation.cobuechi.SafetyGameGraph;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * StrategyDeterminization.java Purpose: Select one successor per control
+ * vertex from a permissive strategy of a safety game, such that few
+ * environment vertices (states of the controller) are reachable.
+ *
+ * The greedy closure starts from the initial vertex. A control vertex which
+ * can move to an already selected environment vertex is resolved immediately;
+ * only when no such control vertex is left, a new environment vertex is
+ * selected. Two rules for this decision are tried: the preferred (first found)
+ * move of the oldest unresolved control vertex, and the environment vertex
+ * allowed by most unresolved control vertices. Each greedy closure is then
+ * revisited by limited discrepancy search: the closure is repeated with the
+ * second best candidate at one decision, for the first SEARCH_BUDGET
+ * decisions, and the smallest result overall is kept.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+class StrategyDeterminization {
+
+    /**
+     * Number of alternative closures tried after each greedy one.
+     */
+    static int SEARCH_BUDGET = 32;
+    private final SafetyGameGraph arena;
+    private final HashMap<Integer, ArrayList<Integer>> allowed;
+    private final HashMap<Integer, ArrayList<Integer>> wanters = new HashMap<Integer, ArrayList<Integer>>();
+    private HashSet<Integer> selected;
+    private HashMap<Integer, Integer> choice;
+    private LinkedHashSet<Integer> pending;
+    private HashMap<Integer, Integer> score;
+    private int decisions;
+
+    /**
+     * @param arena the safety game
+     * @param allowed for every control vertex, the environment vertices it may
+     * move to, in order of preference
+     */
+    StrategyDeterminization(SafetyGameGraph arena, HashMap<Integer, ArrayList<Integer>> allowed) {
+        this.arena = arena;
+        this.allowed = allowed;
+        for (Map.Entry<Integer, ArrayList<Integer>> entry : allowed.entrySet()) {
+            for (Integer dest : entry.getValue()) {
+                ArrayList<Integer> list = wanters.get(dest);
+                if (list == null) {
+                    list = new ArrayList<Integer>();
+                    wanters.put(dest, list);
+                }
+                list.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * @param initialVertex the initial environment vertex
+     * @return the selected successor of every reachable control vertex
+     */
+    HashMap<Integer, Integer> determinize(int initialVertex) {
+        HashMap<Integer, Integer> best = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (int mode = 0; mode < 2; mode++) {
+            boolean mostAllowed = mode == 1;
+            HashMap<Integer, Integer> result = close(initialVertex, mostAllowed, -1, bestSize);
+            int greedyDecisions = decisions;
+            if (result != null) {
+                best = result;
+                bestSize = selected.size();
+            }
+            for (int forced = 0; forced < Math.min(greedyDecisions, SEARCH_BUDGET); forced++) {
+                result = close(initialVertex, mostAllowed, forced, bestSize);
+                if (result != null) {
+                    best = result;
+                    bestSize = selected.size();
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Run the closure.
+     *
+     * @param mostAllowed at a decision, select the environment vertex allowed
+     * by most unresolved control vertices; otherwise select the preferred move
+     * of the oldest unresolved control vertex
+     * @param forced index of the decision where the second best candidate is
+     * taken, or -1
+     * @param bound abandon the closure once this many vertices are selected
+     * @return the selected successors, or null if abandoned (or not smaller
+     * than the bound)
+     */
+    private HashMap<Integer, Integer> close(int initialVertex, boolean mostAllowed, int forced, int bound) {
+        selected = new HashSet<Integer>();
+        choice = new HashMap<Integer, Integer>();
+        pending = new LinkedHashSet<Integer>();
+        score = new HashMap<Integer, Integer>();
+        decisions = 0;
+        select(initialVertex);
+        while (!pending.isEmpty()) {
+            if (selected.size() >= bound) {
+                return null;
+            }
+            int first = -1;
+            int second = -1;
+            if (mostAllowed) {
+                for (Map.Entry<Integer, Integer> entry : score.entrySet()) {
+                    int vertex = entry.getKey().intValue();
+                    if (first < 0 || better(entry.getValue().intValue(), vertex, first)) {
+                        second = first;
+                        first = vertex;
+                    } else if (second < 0 || better(entry.getValue().intValue(), vertex, second)) {
+                        second = vertex;
+                    }
+                }
+            } else {
+                ArrayList<Integer> moves = allowed.get(pending.iterator().next());
+                first = moves.get(0).intValue();
+                second = moves.size() > 1 ? moves.get(1).intValue() : -1;
+            }
+            if (first < 0) {
+                // Control vertices without any allowed move remain unresolved.
+                break;
+            }
+            select(decisions == forced && second >= 0 ? second : first);
+            decisions++;
+        }
+        return selected.size() < bound ? choice : null;
+    }
+
+    private boolean better(int vertexScore, int vertex, int other) {
+        int otherScore = score.get(Integer.valueOf(other)).intValue();
+        return vertexScore > otherScore || (vertexScore == otherScore && vertex < other);
+    }
+
+    private void select(int vertex) {
+        Integer v = Integer.valueOf(vertex);
+        selected.add(v);
+        ArrayList<Integer> controls = wanters.get(v);
+        if (controls != null) {
+            for (Integer control : controls) {
+                if (pending.contains(control)) {
+                    resolve(control, v);
+                }
+            }
+        }
+        for (int k = 0; k < arena.getNumberOfSuccessors(vertex); k++) {
+            int succ = arena.getSuccessor(vertex, k);
+            Integer control = Integer.valueOf(succ);
+            if (succ < 0 || choice.containsKey(control) || pending.contains(control)) {
+                continue;
+            }
+            ArrayList<Integer> moves = allowed.get(control);
+            if (moves == null) {
+                continue;
+            }
+            Integer reuse = null;
+            for (Integer dest : moves) {
+                if (selected.contains(dest)) {
+                    reuse = dest;
+                    break;
+                }
+            }
+            if (reuse != null) {
+                choice.put(control, reuse);
+            } else {
+                pending.add(control);
+                for (Integer dest : moves) {
+                    Integer count = score.get(dest);
+                    score.put(dest, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+                }
+            }
+        }
+    }
+
+    private void resolve(Integer control, Integer dest) {
+        choice.put(control, dest);
+        pending.remove(control);
+        for (Integer other : allowed.get(control)) {
+            int count = score.get(other).intValue();
+            if (count == 1) {
+                score.remove(other);
+            } else {
+                score.put(other, Integer.valueOf(count - 1));
+            }
+        }
+    }
+}
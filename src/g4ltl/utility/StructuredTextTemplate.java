@@ -27,6 +27,8 @@
  */
 package g4ltl.utility;
 
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.DecisionDiagramFactory;
 import g4ltl.utility.mealymachine.MealyMachine;
 import g4ltl.utility.mealymachine.MealyMachineEdgeElement;
 import java.io.ByteArrayOutputStream;
@@ -34,7 +36,6 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import jdd.bdd.BDD;
 
 /**
  * Template for generating Structured Texts matching IEC 61131-3 standard
@@ -129,18 +130,15 @@ public class StructuredTextTemplate {
     static String generateControllerIfTransitions(MealyMachine machine, ProblemDescription prob, ArrayList<String> inputBitVectors, boolean isCompositional) {
 
 
-        PrintStream out = System.out;
-
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
 
         // Maximum number of BDD nodes used in JDD.        
         int BDD_MAX_NODE_TABLE_SIZE = 1000000;
         // Maximum size of cache used in JDD.         
         int BDD_MAX_CACHE_SIZE = 200000;
 
-        BDD bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        DecisionDiagram bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
         int totalNumberOfVariables = prob.getInputVariables().size();
         int[] variableArray = new int[totalNumberOfVariables];
         for (int i = 0; i < totalNumberOfVariables; i++) {
@@ -188,7 +186,7 @@ public class StructuredTextTemplate {
 
                     // Print the guard as string 
                     barray.reset();
-                    bdd.printSet(guardBdd);
+                    bdd.printSet(guardBdd, printStreamByteArray);
                     String foldedGuardFormat = barray.toString();
                     // System.err.println(foldedGuardFormat);
                     String[] lineArray = foldedGuardFormat.split("[\\r\\n]");
@@ -276,26 +274,21 @@ public class StructuredTextTemplate {
             }
         }
         result.append("   END_IF;\n");
-        // Redirect the output stream back to console again.
-        System.setOut(out);
         return result.toString().replace("_expire", ".Q");
     }
 
     static String generateControllerCaseTransitions(MealyMachine machine, ProblemDescription prob, ArrayList<String> inputBitVectors, boolean isCompositional) {
 
 
-        PrintStream out = System.out;
-
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
 
         // Maximum number of BDD nodes used in JDD.        
         int BDD_MAX_NODE_TABLE_SIZE = 1000000;
         // Maximum size of cache used in JDD.         
         int BDD_MAX_CACHE_SIZE = 200000;
 
-        BDD bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        DecisionDiagram bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
         int totalNumberOfVariables = prob.getInputVariables().size();
         int[] variableArray = new int[totalNumberOfVariables];
         for (int i = 0; i < totalNumberOfVariables; i++) {
@@ -343,7 +336,7 @@ public class StructuredTextTemplate {
 
                     // Print the guard as string 
                     barray.reset();
-                    bdd.printSet(guardBdd);
+                    bdd.printSet(guardBdd, printStreamByteArray);
                     String foldedGuardFormat = barray.toString();
                     // System.err.println(foldedGuardFormat);
                     String[] lineArray = foldedGuardFormat.split("[\\r\\n]");
@@ -434,8 +427,6 @@ public class StructuredTextTemplate {
             }
         }
         // result.append("   END_IF;\n");
-        // Redirect the output stream back to console again.
-        System.setOut(out);
         
         StringBuilder result = new StringBuilder("");
               result.append("CASE state OF\n");
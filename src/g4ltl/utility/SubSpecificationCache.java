@@ -0,0 +1,116 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.ltl.LTLTranslator;
+import g4ltl.utility.mealymachine.MealyMachine;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SubSpecificationCache.java Purpose: Controllers of the sub-specifications
+ * of the previous compositional runs, so that after editing a specification
+ * only the changed groups of guarantees are solved again. An entry is keyed
+ * by the (canonical) text of the sub-specification, its signals and the
+ * solver parameters; a null controller records a sub-specification which
+ * holds trivially. The least recently used entries are dropped first.
+ *
+ * The controllers are only read by the product construction, so they are
+ * shared between runs without copying.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SubSpecificationCache {
+
+    /**
+     * Maximum number of stored controllers.
+     */
+    public static int MAX_ENTRIES = 128;
+    private static final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /**
+     * A cached result of a sub-specification.
+     */
+    static final class Entry {
+
+        private final MealyMachine machine;
+
+        private Entry(MealyMachine machine) {
+            this.machine = machine;
+        }
+
+        /**
+         * @return the controller, or null if the sub-specification holds trivially
+         */
+        MealyMachine getMachine() {
+            return machine;
+        }
+    }
+
+    /**
+     * @param spec the sub-specification
+     * @param subProb the sub-problem (signals and unroll steps)
+     * @param translator LTL-to-Buechi translator
+     * @param maxVisits maximum number of visits to final states
+     * @return the key of the sub-specification
+     */
+    static String getKey(LTLFormula spec, ProblemDescription subProb, LTLTranslator translator, int maxVisits) {
+        return spec + "\n" + subProb.getInputVariables() + "\n" + subProb.getOutputVariables() + "\n"
+                + subProb.getUnrollSteps() + "\n" + translator.getName() + "\n" + maxVisits;
+    }
+
+    /**
+     * Look up a sub-specification; a single call, so that the entry can not be
+     * dropped by another engine between checking and reading it.
+     *
+     * @return the cached result, or null if the sub-specification is not cached
+     */
+    static synchronized Entry lookup(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * @param machine the controller, or null if the sub-specification holds trivially
+     */
+    static synchronized void put(String key, MealyMachine machine) {
+        entries.put(key, new Entry(machine));
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+    }
+}
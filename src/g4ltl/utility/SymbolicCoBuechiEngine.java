@@ -0,0 +1,587 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.Permutation;
+import g4ltl.utility.mealymachine.MealyMachine;
+import g4ltl.utility.mealymachine.MealyMachineEdgeElement;
+import gov.nasa.ltl.graph.Edge;
+import gov.nasa.ltl.graph.Graph;
+import gov.nasa.ltl.graph.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * SymbolicCoBuechiEngine.java Purpose: Bounded Co-Buechi synthesis where the
+ * safety game is never built explicitly. A vertex of the safety game assigns to
+ * every state of the Co-Buechi automaton either "not visited" or the maximal
+ * number of visits to final states along the runs reaching it. The counters
+ * (bounded by maxVisits) are encoded in BDD variables, together with the input
+ * and output signals, and the transition relation is kept partitioned per
+ * automaton state. The controller loses as soon as a counter reaches maxVisits.
+ *
+ * Unlike CoBuechiSafetyReduction the game is not unrolled to a fixed depth, so
+ * the memory only depends on the BDDs of the encoding and of the winning
+ * region. Only the states visited by the extracted strategy are enumerated.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SymbolicCoBuechiEngine {
+
+    private DecisionDiagram bdd;
+    private int maxVisits;
+    private int bitsPerCounter;
+    private int numberOfStates;
+    private int numberOfInputVariables;
+    private int numberOfOutputVariables;
+    private boolean[] finalState;
+    /**
+     * Edges of the automaton; the guard is compiled into care/value masks over
+     * the vector ordinals (see SynthesisEngine.compileGuard).
+     */
+    private int[] edgeSource;
+    private int[] edgeTarget;
+    private int[][] edgeMasks;
+    /**
+     * Encoded counter of the initial vertex: 0 for states not visited,
+     * otherwise the number of visits plus one.
+     */
+    private int[] initialCounters;
+    private int[] inputVariable;
+    private int[] outputVariable;
+    /**
+     * Counter bits (most significant first) of each automaton state, in the
+     * current and the next vertex.
+     */
+    private int[][] counterVariable;
+    private int[][] counterVariableNext;
+    /**
+     * For each automaton state, the relation between the current vertex, the
+     * signals, and the next value of its counter.
+     */
+    private int[] nextCounter;
+    private int[] nextCounterCube;
+    private int notExceeded;
+    private int validCounters;
+    private int inputCube;
+    private int outputCube;
+    private int counterCube;
+    private Permutation currentToNext;
+    private Permutation nextToCurrent;
+    private int winningRegion;
+    /**
+     * Moves (current vertex, input, output) staying in the winning region.
+     */
+    private int safeMoves;
+    private int numberOfIterations;
+
+    /**
+     * Constructor. The automaton is encoded into the given BDD manager, which
+     * should be empty as the variable ordering is fixed by this engine.
+     *
+     * @param bdd BDD manager
+     * @param graph Co-Buechi automaton
+     * @param inputVariables input variables
+     * @param outputVariables output variables
+     * @param maxVisits the bound on the number of visits to final states
+     */
+    public SymbolicCoBuechiEngine(DecisionDiagram bdd, Graph graph, ArrayList<String> inputVariables,
+            ArrayList<String> outputVariables, int maxVisits) {
+        this.bdd = bdd;
+        this.maxVisits = maxVisits;
+        this.numberOfInputVariables = inputVariables.size();
+        this.numberOfOutputVariables = outputVariables.size();
+        readAutomaton(graph, inputVariables, outputVariables);
+        encode();
+    }
+
+    private void readAutomaton(Graph graph, ArrayList<String> inputVariables, ArrayList<String> outputVariables) {
+        HashMap<Node, Integer> stateIndexMap = new HashMap<Node, Integer>();
+        List<?> nodes = graph.getNodes();
+        for (Object node : nodes) {
+            stateIndexMap.put((Node) node, Integer.valueOf(stateIndexMap.size()));
+        }
+        numberOfStates = stateIndexMap.size();
+        finalState = new boolean[numberOfStates];
+
+        HashMap<String, Integer> inputIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < inputVariables.size(); i++) {
+            inputIndex.put(inputVariables.get(i), Integer.valueOf(i));
+        }
+        HashMap<String, Integer> outputIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < outputVariables.size(); i++) {
+            outputIndex.put(outputVariables.get(i), Integer.valueOf(i));
+        }
+
+        ArrayList<int[]> edges = new ArrayList<int[]>();
+        ArrayList<int[]> masks = new ArrayList<int[]>();
+        for (Object node : nodes) {
+            Node n = (Node) node;
+            int source = stateIndexMap.get(n).intValue();
+            finalState[source] = n.getBooleanAttribute("accepting");
+            for (Object outgoing : n.getOutgoingEdges()) {
+                Edge edge = (Edge) outgoing;
+                int[] guard = SynthesisEngine.compileGuard(edge.getGuard(), inputIndex, outputIndex);
+                if (guard == null) {
+                    // Contradicting literals; the edge is never taken.
+                    continue;
+                }
+                edges.add(new int[]{source, stateIndexMap.get(edge.getNext()).intValue()});
+                masks.add(guard);
+            }
+        }
+        edgeSource = new int[edges.size()];
+        edgeTarget = new int[edges.size()];
+        edgeMasks = masks.toArray(new int[masks.size()][]);
+        for (int e = 0; e < edges.size(); e++) {
+            edgeSource[e] = edges.get(e)[0];
+            edgeTarget[e] = edges.get(e)[1];
+        }
+
+        initialCounters = new int[numberOfStates];
+        int initialState = stateIndexMap.get(graph.getInit()).intValue();
+        initialCounters[initialState] = finalState[initialState] ? 2 : 1;
+    }
+
+    /**
+     * Declare the variables and build the partitioned transition relation. The
+     * signals are placed on top, followed by the counter bits of the states,
+     * where each current bit is adjacent to its next bit.
+     */
+    private void encode() {
+        bitsPerCounter = 1;
+        while ((1 << bitsPerCounter) < maxVisits + 1) {
+            bitsPerCounter++;
+        }
+
+        inputVariable = new int[numberOfInputVariables];
+        for (int i = 0; i < numberOfInputVariables; i++) {
+            inputVariable[i] = bdd.createVar();
+        }
+        outputVariable = new int[numberOfOutputVariables];
+        for (int i = 0; i < numberOfOutputVariables; i++) {
+            outputVariable[i] = bdd.createVar();
+        }
+        counterVariable = new int[numberOfStates][bitsPerCounter];
+        counterVariableNext = new int[numberOfStates][bitsPerCounter];
+        for (int q = 0; q < numberOfStates; q++) {
+            for (int b = 0; b < bitsPerCounter; b++) {
+                counterVariable[q][b] = bdd.createVar();
+                counterVariableNext[q][b] = bdd.createVar();
+            }
+        }
+
+        inputCube = cube(inputVariable);
+        outputCube = cube(outputVariable);
+        counterCube = bdd.ref(bdd.getOne());
+        int[] current = new int[numberOfStates * bitsPerCounter];
+        int[] next = new int[numberOfStates * bitsPerCounter];
+        nextCounterCube = new int[numberOfStates];
+        for (int q = 0; q < numberOfStates; q++) {
+            int stateCube = cube(counterVariable[q]);
+            counterCube = bdd.andTo(counterCube, stateCube);
+            bdd.deref(stateCube);
+            nextCounterCube[q] = cube(counterVariableNext[q]);
+            System.arraycopy(counterVariable[q], 0, current, q * bitsPerCounter, bitsPerCounter);
+            System.arraycopy(counterVariableNext[q], 0, next, q * bitsPerCounter, bitsPerCounter);
+        }
+        currentToNext = bdd.createPermutation(current, next);
+        nextToCurrent = bdd.createPermutation(next, current);
+
+        // atLeast[q][v]: the (encoded) counter of q in the current vertex is at least v.
+        int[][] atLeast = new int[numberOfStates][];
+        validCounters = bdd.ref(bdd.getOne());
+        for (int q = 0; q < numberOfStates; q++) {
+            atLeast[q] = new int[maxVisits + 2];
+            for (int v = 0; v <= maxVisits + 1; v++) {
+                atLeast[q][v] = atLeast(counterVariable[q], v);
+            }
+            validCounters = bdd.andTo(validCounters, bdd.not(atLeast[q][maxVisits + 1]));
+        }
+
+        int[] edgeGuard = new int[edgeSource.length];
+        for (int e = 0; e < edgeSource.length; e++) {
+            edgeGuard[e] = guard(edgeMasks[e]);
+        }
+
+        // The next counter of q is at least v iff some enabled edge leads from a
+        // visited state with a counter of at least v (minus one if q is final) to q.
+        int exceeded = bdd.ref(bdd.getZero());
+        nextCounter = new int[numberOfStates];
+        for (int q = 0; q < numberOfStates; q++) {
+            int increment = finalState[q] ? 1 : 0;
+            // Counters above the bound are not encoded.
+            int overflow = atLeast(counterVariableNext[q], maxVisits + 1);
+            int relation = bdd.ref(bdd.not(overflow));
+            bdd.deref(overflow);
+            for (int v = 1; v <= maxVisits + 1; v++) {
+                int reached = bdd.ref(bdd.getZero());
+                for (int e = 0; e < edgeSource.length; e++) {
+                    if (edgeTarget[e] == q) {
+                        int step = bdd.ref(bdd.and(edgeGuard[e], atLeast[edgeSource[e]][Math.max(1, v - increment)]));
+                        reached = bdd.orTo(reached, step);
+                        bdd.deref(step);
+                    }
+                }
+                if (v == maxVisits + 1) {
+                    exceeded = bdd.orTo(exceeded, reached);
+                } else {
+                    int nextAtLeast = atLeast(counterVariableNext[q], v);
+                    int equal = bdd.ref(bdd.biimp(reached, nextAtLeast));
+                    relation = bdd.andTo(relation, equal);
+                    bdd.deref(equal);
+                    bdd.deref(nextAtLeast);
+                }
+                bdd.deref(reached);
+            }
+            nextCounter[q] = relation;
+        }
+        notExceeded = bdd.ref(bdd.not(exceeded));
+        bdd.deref(exceeded);
+
+        for (int e = 0; e < edgeGuard.length; e++) {
+            bdd.deref(edgeGuard[e]);
+        }
+        for (int q = 0; q < numberOfStates; q++) {
+            for (int v = 0; v <= maxVisits + 1; v++) {
+                bdd.deref(atLeast[q][v]);
+            }
+        }
+        winningRegion = bdd.ref(bdd.getZero());
+        safeMoves = bdd.ref(bdd.getZero());
+    }
+
+    /**
+     * @return the (referenced) set of valuations where the unsigned value of
+     * bits (most significant first) is at least value
+     */
+    private int atLeast(int[] bits, int value) {
+        if (value <= 0) {
+            return bdd.ref(bdd.getOne());
+        }
+        if (value >= (1 << bits.length)) {
+            return bdd.ref(bdd.getZero());
+        }
+        int result = bdd.ref(bdd.getOne());
+        for (int b = bits.length - 1; b >= 0; b--) {
+            boolean isSet = ((value >>> (bits.length - 1 - b)) & 1) == 1;
+            int next = bdd.ref(isSet ? bdd.and(bits[b], result) : bdd.or(bits[b], result));
+            bdd.deref(result);
+            result = next;
+        }
+        return result;
+    }
+
+    private int cube(int[] variables) {
+        int result = bdd.ref(bdd.getOne());
+        for (int i = 0; i < variables.length; i++) {
+            result = bdd.andTo(result, variables[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the (referenced) BDD of a guard compiled by SynthesisEngine.compileGuard
+     */
+    private int guard(int[] masks) {
+        int result = bdd.ref(bdd.getOne());
+        result = andVector(result, inputVariable, masks[0], masks[1]);
+        return andVector(result, outputVariable, masks[2], masks[3]);
+    }
+
+    /**
+     * Conjoin the literals fixing the variables selected by care to the bits of
+     * value; the variable at position p corresponds to bit n-1-p of the ordinal.
+     */
+    private int andVector(int set, int[] variables, int care, int value) {
+        for (int p = 0; p < variables.length; p++) {
+            int bit = 1 << (variables.length - 1 - p);
+            if ((care & bit) != 0) {
+                set = bdd.andTo(set, (value & bit) != 0 ? variables[p] : bdd.not(variables[p]));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @return the (referenced) BDD of the vertex with the given encoded counters
+     */
+    private int vertex(int[] counters) {
+        int result = bdd.ref(bdd.getOne());
+        for (int q = 0; q < numberOfStates; q++) {
+            result = andVector(result, counterVariable[q], (1 << bitsPerCounter) - 1, counters[q]);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the moves (current vertex, input, output) which do not exceed the
+     * bound and lead into the given region. The next-state relation is applied
+     * one automaton state at a time, quantifying its next counter immediately.
+     *
+     * @return the (referenced) set of moves
+     */
+    private int preImage(int region) {
+        int result = bdd.ref(bdd.replace(region, currentToNext));
+        for (int q = 0; q < numberOfStates; q++) {
+            int next = bdd.ref(bdd.relProd(result, nextCounter[q], nextCounterCube[q]));
+            bdd.deref(result);
+            result = next;
+        }
+        return bdd.andTo(result, notExceeded);
+    }
+
+    /**
+     * Compute the winning region of the safety player as a greatest fixpoint.
+     *
+     * @param proveExistence if true, the controller (choosing outputs after
+     * inputs) is the safety player; otherwise the environment is
+     * @return true if the initial vertex is winning
+     */
+    public boolean solve(boolean proveExistence) {
+        boolean initialValid = true;
+        for (int q = 0; q < numberOfStates; q++) {
+            initialValid = initialValid && initialCounters[q] <= maxVisits;
+        }
+        int initialVertex = vertex(initialCounters);
+        bdd.deref(winningRegion);
+        bdd.deref(safeMoves);
+        winningRegion = bdd.ref(validCounters);
+        safeMoves = bdd.ref(bdd.getZero());
+        numberOfIterations = 0;
+
+        while (initialValid) {
+            numberOfIterations++;
+            int moves = preImage(winningRegion);
+            int controllable;
+            if (proveExistence) {
+                int someOutput = bdd.ref(bdd.exists(moves, outputCube));
+                controllable = bdd.ref(bdd.forall(someOutput, inputCube));
+                bdd.deref(someOutput);
+            } else {
+                int allOutputs = bdd.ref(bdd.forall(moves, outputCube));
+                controllable = bdd.ref(bdd.exists(allOutputs, inputCube));
+                bdd.deref(allOutputs);
+            }
+            int nextRegion = bdd.ref(bdd.and(winningRegion, controllable));
+            bdd.deref(controllable);
+
+            if (nextRegion == winningRegion) {
+                bdd.deref(nextRegion);
+                bdd.deref(safeMoves);
+                safeMoves = moves;
+                break;
+            }
+            bdd.deref(moves);
+            bdd.deref(winningRegion);
+            winningRegion = nextRegion;
+            if (bdd.and(winningRegion, initialVertex) == bdd.getZero()) {
+                break;
+            }
+        }
+        boolean result = initialValid && bdd.and(winningRegion, initialVertex) != bdd.getZero();
+        bdd.deref(initialVertex);
+        return result;
+    }
+
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /**
+     * @return the number of vertices in the winning region
+     */
+    public double getWinningRegionSize() {
+        // The region only depends on the current counter bits.
+        int freeVariables = numberOfInputVariables + numberOfOutputVariables + numberOfStates * bitsPerCounter;
+        return bdd.satCount(winningRegion) / Math.pow(2, freeVariables);
+    }
+
+    /**
+     * Extract a controller from the moves inside the winning region; must be
+     * called after a successful solve(true). For every vertex and input, the
+     * output is read from a satisfying assignment of the moves (unconstrained
+     * output variables are set to 0). Only the vertices reached by the
+     * controller are enumerated.
+     *
+     * @param inputBitVectors all input vectors, indexed by their ordinal
+     * @param outputBitVectors all output vectors, indexed by their ordinal
+     * @return MealyMachine as a strategy
+     */
+    public MealyMachine generateMealyMachine(ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors) {
+        MealyMachine machine = new MealyMachine();
+        machine.setSolution(true);
+        machine.setInitialVertex("0");
+
+        HashMap<String, Integer> vertexIndex = new HashMap<String, Integer>();
+        ArrayList<int[]> vertices = new ArrayList<int[]>();
+        vertexIndex.put(Arrays.toString(initialCounters), Integer.valueOf(0));
+        vertices.add(initialCounters);
+
+        for (int index = 0; index < vertices.size(); index++) {
+            int[] counters = vertices.get(index);
+            machine.getVertices().add(String.valueOf(index));
+            int source = vertex(counters);
+            int moves = bdd.ref(bdd.relProd(safeMoves, source, counterCube));
+            bdd.deref(source);
+
+            for (int input = 0; input < inputBitVectors.size(); input++) {
+                int inputVector = andVector(bdd.ref(bdd.getOne()), inputVariable, (1 << numberOfInputVariables) - 1, input);
+                int outputs = bdd.ref(bdd.and(moves, inputVector));
+                bdd.deref(inputVector);
+                if (outputs == bdd.getZero()) {
+                    bdd.deref(outputs);
+                    continue;
+                }
+                int[] assignment = bdd.oneSat(outputs, null);
+                bdd.deref(outputs);
+                int output = 0;
+                for (int p = 0; p < numberOfOutputVariables; p++) {
+                    if (assignment[bdd.getVar(outputVariable[p])] == 1) {
+                        output |= 1 << (numberOfOutputVariables - 1 - p);
+                    }
+                }
+
+                int[] successor = successor(counters, input, output);
+                String key = Arrays.toString(successor);
+                Integer dest = vertexIndex.get(key);
+                if (dest == null) {
+                    dest = Integer.valueOf(vertices.size());
+                    vertexIndex.put(key, dest);
+                    vertices.add(successor);
+                }
+                machine.getEdges().add(new MealyMachineEdgeElement(String.valueOf(index), dest.toString(),
+                        inputBitVectors.get(input), outputBitVectors.get(output)));
+            }
+            bdd.deref(moves);
+        }
+        return machine;
+    }
+
+    /**
+     * Compute the input vectors used by the counter-strategy of the
+     * environment; must be called after a successful solve(false). The
+     * vertices reachable under the counter-strategy are computed symbolically,
+     * and input vectors are selected greedily (by the number of vertices where
+     * they are winning) until every reachable vertex is covered.
+     *
+     * @param inputBitVectors all input vectors, indexed by their ordinal
+     * @return the selected input vectors
+     */
+    public HashSet<String> generateCounterStrategy(ArrayList<String> inputBitVectors) {
+        // Moves of the environment where every output stays in the winning region.
+        int environmentMoves = bdd.ref(bdd.forall(safeMoves, outputCube));
+        int signalCube = bdd.ref(bdd.and(inputCube, outputCube));
+        int quantifiedCube = bdd.ref(bdd.and(signalCube, counterCube));
+        bdd.deref(signalCube);
+
+        int reachable = vertex(initialCounters);
+        int frontier = bdd.ref(reachable);
+        while (frontier != bdd.getZero()) {
+            int image = bdd.ref(bdd.and(frontier, environmentMoves));
+            for (int q = 0; q < numberOfStates; q++) {
+                image = bdd.andTo(image, nextCounter[q]);
+            }
+            int successorsNext = bdd.ref(bdd.exists(image, quantifiedCube));
+            bdd.deref(image);
+            int successors = bdd.ref(bdd.replace(successorsNext, nextToCurrent));
+            bdd.deref(successorsNext);
+            int notReachable = bdd.ref(bdd.not(reachable));
+            bdd.deref(frontier);
+            frontier = bdd.ref(bdd.and(successors, notReachable));
+            bdd.deref(notReachable);
+            bdd.deref(successors);
+            reachable = bdd.orTo(reachable, frontier);
+        }
+        bdd.deref(frontier);
+        bdd.deref(quantifiedCube);
+
+        // For each input vector, the vertices where it is winning.
+        int[] applicable = new int[inputBitVectors.size()];
+        for (int input = 0; input < applicable.length; input++) {
+            int inputVector = andVector(bdd.ref(bdd.getOne()), inputVariable, (1 << numberOfInputVariables) - 1, input);
+            applicable[input] = bdd.ref(bdd.relProd(environmentMoves, inputVector, inputCube));
+            bdd.deref(inputVector);
+        }
+        bdd.deref(environmentMoves);
+
+        HashSet<String> result = new HashSet<String>();
+        int uncovered = reachable;
+        while (uncovered != bdd.getZero()) {
+            int best = -1;
+            double bestCount = 0;
+            for (int input = 0; input < applicable.length; input++) {
+                int covered = bdd.ref(bdd.and(uncovered, applicable[input]));
+                double count = bdd.satCount(covered);
+                bdd.deref(covered);
+                if (count > bestCount) {
+                    best = input;
+                    bestCount = count;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            result.add(inputBitVectors.get(best));
+            int notApplicable = bdd.ref(bdd.not(applicable[best]));
+            uncovered = bdd.andTo(uncovered, notApplicable);
+            bdd.deref(notApplicable);
+        }
+        bdd.deref(uncovered);
+        for (int input = 0; input < applicable.length; input++) {
+            bdd.deref(applicable[input]);
+        }
+
+        if (Debug.DEBUG) {
+            System.out.println("The minimal set of (unchecked) input valuations that cover all states: " + result.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Compute the (encoded) counters of the successor vertex.
+     */
+    private int[] successor(int[] counters, int input, int output) {
+        int[] result = new int[numberOfStates];
+        for (int e = 0; e < edgeSource.length; e++) {
+            int[] masks = edgeMasks[e];
+            if (counters[edgeSource[e]] > 0 && (input & masks[0]) == masks[1] && (output & masks[2]) == masks[3]) {
+                int value = counters[edgeSource[e]] + (finalState[edgeTarget[e]] ? 1 : 0);
+                if (result[edgeTarget[e]] < value) {
+                    result[edgeTarget[e]] = value;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -28,11 +28,21 @@
  */
 package g4ltl.utility;
 
-import g4ltl.arena.EdgeElement;
-import g4ltl.arena.GameArena;
-import g4ltl.arena.VertexEdgeSet;
+import g4ltl.arena.CompactGameArena;
 import g4ltl.gametranslation.cobuechi.CoBuechiSafetyReduction;
 import g4ltl.gametranslation.cobuechi.EquivalenceClass;
+import g4ltl.gametranslation.cobuechi.ExpansionMonitor;
+import g4ltl.gametranslation.cobuechi.SafetyArenaFile;
+import g4ltl.gametranslation.cobuechi.SafetyGameGraph;
+import g4ltl.utility.bdd.DecisionDiagram;
+import g4ltl.utility.bdd.DecisionDiagramFactory;
+import g4ltl.utility.bdd.Permutation;
+import g4ltl.utility.ltl.AutomatonReduction;
+import g4ltl.utility.ltl.GR1Specification;
+import g4ltl.utility.ltl.LTL2BuchiTranslator;
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.ltl.LTLSimplifier;
+import g4ltl.utility.ltl.LTLTranslator;
 import g4ltl.utility.mealymachine.MealyMachine;
 import g4ltl.utility.mealymachine.MealyMachineEdgeElement;
 import gov.nasa.ltl.graph.Edge;
@@ -41,20 +51,25 @@ import gov.nasa.ltl.graph.Node;
 import gov.nasa.ltl.trans.LTL2Buchi;
 import gov.nasa.ltl.trans.ParseErrorException;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.StringTokenizer;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import jdd.bdd.BDD;
-import jdd.bdd.Permutation;
 
 /**
  * The backend synthesis engine, including a symbolic safety game solver.
@@ -64,8 +79,6 @@ import jdd.bdd.Permutation;
  */
 public class SynthesisEngine {
 
-    public ArrayList<EquivalenceClass> lastSafetyGameArena;
-    
     /**
      *  Solver option: Co-Buechi + safety.
      */
@@ -74,6 +87,15 @@ public class SynthesisEngine {
      * Solver option: Buechi.
      */
     public static int BUECHI_SOLVER = 1;
+    /** 
+     * Solver option: Co-Buechi with symbolically encoded visit counters.
+     */
+    public static int SYMBOLIC_COBUECHI_SOLVER = 2;
+    /** 
+     * Solver option: GR(1) for specifications in the GR(1) fragment, otherwise
+     * Co-Buechi + safety.
+     */
+    public static int GR1_SOLVER = 3;
     /** 
      * Output option: pseudo code format.
      */
@@ -101,20 +123,62 @@ public class SynthesisEngine {
     /**
      * BDD data structure used in the synthesis engine.
      */
-    private BDD bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+    private DecisionDiagram bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
     /**
      * Array that maintains the ordering of variables used in BDD.
      */
     private int[] variableArray;
-    /**
-     * Data structure to store the index-name pair of each arena.
-     */
-    private ArrayList<String> vertexNameBuechiAutomaton;
-    private ArrayList<String> vertexNameArena;
     /**
      * Maximumly allowed visited final states in Co-Buechi automata.
      */
     private static int MAX_VISIT_COBUECHI_FINAL_STATE = 5;
+    /**
+     * Store the safety games of the Co-Buechi engine in memory-mapped files
+     * rather than on the heap; for deep unrolling.
+     */
+    public static boolean DISK_REDUCTION_GRAPH = false;
+    /**
+     * Directory of the memory-mapped files, or null for the default temporary directory.
+     */
+    public static File REDUCTION_GRAPH_DIRECTORY = null;
+    /**
+     * Retention option: the safety game of the last Co-Buechi run is dropped.
+     */
+    public static final int ARENA_RETENTION_NONE = 0;
+    /**
+     * Retention option: the safety game of the last Co-Buechi run is written to
+     * a binary file in REDUCTION_GRAPH_DIRECTORY and mapped when requested.
+     */
+    public static final int ARENA_RETENTION_DISK = 1;
+    /**
+     * Retention option: the safety game of the last Co-Buechi run stays on the heap.
+     */
+    public static final int ARENA_RETENTION_MEMORY = 2;
+    /**
+     * How the safety game of the last Co-Buechi run is kept for assumption
+     * learning; see getLastSafetyGameArena(). Only the game of a strategy
+     * finding which found no controller is kept, as no other game is used
+     * again.
+     */
+    public static int ARENA_RETENTION = ARENA_RETENTION_DISK;
+    /**
+     * The retained safety game: kept by ARENA_RETENTION_MEMORY, or mapped from
+     * lastSafetyGameArenaFile on demand.
+     */
+    private SafetyGameGraph lastSafetyGameArena;
+    private File lastSafetyGameArenaFile;
+    /**
+     * Listeners notified about the progress of synthesis runs.
+     */
+    private final CopyOnWriteArrayList<SynthesisListener> listeners = new CopyOnWriteArrayList<SynthesisListener>();
+    private String currentPhase;
+    private long currentPhaseStartTime;
+    /**
+     * Number of vertices of the current explicit arena, reported with the events.
+     */
+    private long currentArenaSize = -1;
+    private volatile boolean cancelled;
+    private volatile SynthesisEngine cancellationSource;
 
     /**
      * Solve a Buechi game symbolically and generate a controller (Mealy Machine).
@@ -124,21 +188,21 @@ public class SynthesisEngine {
      * @param proveExistence prove existence of strategy or prove non-existence by finding a counter-strategy
      * @return MealyMachine as a strategy (having explicit variable to answer a strategy is found)
      */
-    private MealyMachine analyzeBuechiGame(GameArena gameArena,
+    private MealyMachine analyzeBuechiGame(CompactGameArena gameArena,
             ArrayList<Integer> finalEnvVertices, boolean proveExistence) {
 
         // Step 1-a: Clean up the memory previously used in BDD, and assign new memory for them.
         bdd.cleanup();
 
-        bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
 
         // Step 1-b: Declare the variable for controller strategies.
         int strategy = bdd.getZero();
 
         // Step 2-a: Decide and declare the number of variables used in the BDD. 
 
-        int totalNumberOfVariables = ((int) (Math.ceil(Math.log10(gameArena.vertexList.size()) / Math.log10(2)))) * 2;
-        int NUM_OF_BITS_FOR_STATE = (int) (Math.ceil(Math.log10(gameArena.vertexList.size()) / Math.log10(2)));
+        int totalNumberOfVariables = ((int) (Math.ceil(Math.log10(gameArena.getNumberOfVertices()) / Math.log10(2)))) * 2;
+        int NUM_OF_BITS_FOR_STATE = (int) (Math.ceil(Math.log10(gameArena.getNumberOfVertices()) / Math.log10(2)));
 
         if (NUM_OF_BITS_FOR_STATE == 0) {
             NUM_OF_BITS_FOR_STATE = 1;
@@ -155,36 +219,23 @@ public class SynthesisEngine {
         int plantTransition = bdd.getZero();
         int controllerTransition = bdd.getZero();
 
-        for (VertexEdgeSet vertexEdgeSet : gameArena.vertexList) {
-            for (EdgeElement edge : vertexEdgeSet.edgeSet) {
-
-                int transition = bdd.getOne();
-
-                char[] sbits = padZeroToString(Integer.toBinaryString(vertexEdgeSet.getVertexID()), NUM_OF_BITS_FOR_STATE).toCharArray();
-                for (int j = 0; j < NUM_OF_BITS_FOR_STATE; j++) {
-                    if (sbits[j] == '1') {
-                        transition = bdd.andTo(transition, variableArray[pre(j)]);
-                    } else {
-                        transition = bdd.andTo(transition, bdd.not(variableArray[pre(j)]));
-                    }
+        for (int vertex = 0; vertex < gameArena.getNumberOfVertices(); vertex++) {
+            int sourceBits = stateBits(vertex, NUM_OF_BITS_FOR_STATE, true);
+            if (gameArena.isEnvironmentVertex(vertex)) {
+                // Environment edges are implicit: one to each control vertex of the same state.
+                for (int input = 0; input < gameArena.getNumberOfInputVectors(); input++) {
+                    int destBits = stateBits(vertex + 1 + input, NUM_OF_BITS_FOR_STATE, false);
+                    plantTransition = bdd.orTo(plantTransition, bdd.and(sourceBits, destBits));
+                    bdd.deref(destBits);
                 }
-
-                char[] dbits = padZeroToString(Integer.toBinaryString(edge.getDestVertexID()), NUM_OF_BITS_FOR_STATE).toCharArray();
-                for (int j = 0; j < NUM_OF_BITS_FOR_STATE; j++) {
-                    if (dbits[j] == '1') {
-                        transition = bdd.andTo(transition, variableArray[post(j)]);
-                    } else {
-                        transition = bdd.andTo(transition, bdd.not(variableArray[post(j)]));
-                    }
-                }
-
-                if (vertexEdgeSet.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT || vertexEdgeSet.getVertexProperty() == VertexEdgeSet.NONINITIAL_PLANT) {
-                    plantTransition = bdd.orTo(plantTransition, transition);
-                } else {
-                    controllerTransition = bdd.orTo(controllerTransition, transition);
+            } else {
+                for (int edge = gameArena.getFirstEdge(vertex); edge < gameArena.getEndEdge(vertex); edge++) {
+                    int destBits = stateBits(gameArena.getEdgeTarget(edge), NUM_OF_BITS_FOR_STATE, false);
+                    controllerTransition = bdd.orTo(controllerTransition, bdd.and(sourceBits, destBits));
+                    bdd.deref(destBits);
                 }
-                bdd.deref(transition);
             }
+            bdd.deref(sourceBits);
         }
 
         // Step 2-c: Define variable substitution sequence (permutation)
@@ -213,26 +264,8 @@ public class SynthesisEngine {
 
         // Step 3-a: Generate the set of initial states: (1, {1})
         // This should be examined by checking all vertices with .
-        int initialCondition = bdd.getZero();
-        int initialVertexId = -1;
-        for (VertexEdgeSet vertexEdgeSet : gameArena.vertexList) {
-            if (vertexEdgeSet.getVertexProperty() == VertexEdgeSet.INITIAL_CONTROL || vertexEdgeSet.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
-
-                char[] sbits = padZeroToString(Integer.toBinaryString(vertexEdgeSet.getVertexID()), NUM_OF_BITS_FOR_STATE).toCharArray();
-                int s = bdd.getOne();
-                for (int j = 0; j < NUM_OF_BITS_FOR_STATE; j++) {
-                    if (sbits[j] == '1') {
-                        s = bdd.andTo(s, variableArray[pre(j)]);
-                    } else {
-                        s = bdd.andTo(s, bdd.not(variableArray[pre(j)]));
-                    }
-                }
-
-                initialVertexId = vertexEdgeSet.getVertexID();
-                initialCondition = bdd.orTo(initialCondition, s);
-                bdd.deref(s);
-            }
-        }
+        int initialVertexId = gameArena.getInitialVertex();
+        int initialCondition = stateBits(initialVertexId, NUM_OF_BITS_FOR_STATE, true);
 
         // Step 4: Read the specification and invoke suitable verification engine.
 
@@ -283,7 +316,7 @@ public class SynthesisEngine {
         int postImage = bdd.getZero();
         do {
             postImage = bdd.orTo(postImage, bdd.replace(bdd.relProd(preImage, totalTransition, cubeForward), permForward));
-            if (bdd.biimp(preImage, postImage) == bdd.getOne()) {
+            if (preImage == postImage) {
                 break;
             }
             preImage = bdd.ref(postImage);
@@ -295,411 +328,346 @@ public class SynthesisEngine {
         bdd.deref(totalTransition);
 
         // Process the strategy to the specified output format
-        PrintStream out = System.out;
-
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
-
-        bdd.printSet(strategy);
+        bdd.printSet(strategy, printStreamByteArray);
         String strategyStringFormat = barray.toString();
 
-        // Redirect the output stream back to console again.
-        System.setOut(out);
-
         return generateMealyMachineBuechi(strategyStringFormat, initialVertexId, gameArena);
 
     }
     
+    /**
+     * Strengthen the specification by assumptions until it becomes realizable.
+     * Must be called after an unsuccessful Co-Buechi synthesis run on prob; see
+     * AssumptionMiningEngine.
+     *
+     * @param assumptionCandidates candidates generated by listAllAssumptionCandidate
+     * @param inputVariables input variables
+     * @param outputVariables output variables
+     * @param prob the problem; its specification is strengthened by the found assumptions
+     */
     public void assumptionLearning(ArrayList<AssumptionCandidate> assumptionCandidates, ArrayList<String> inputVariables,
             ArrayList<String> outputVariables, ProblemDescription prob){
-        //init
-        int i,j;
-        ArrayList<String> initialVectorList = new ArrayList<String>();
-        initialVectorList.add("");
-        ArrayList<String> inputBitVectors = generateBitVectors(0, inputVariables.size(), initialVectorList);
-        initialVectorList = new ArrayList<String>();
-        initialVectorList.add("");
-        ArrayList<String> outputBitVectors = generateBitVectors(0, outputVariables.size(), initialVectorList);        
-
-        printSafetyGameFromCoBuechi(lastSafetyGameArena,inputBitVectors,outputBitVectors);
-        //label critical env strategy by backward BFS
-        boolean existNewLevel=true;
-        Integer safetyLevel=0;
-        lastSafetyGameArena.get(1).safetyLevel=safetyLevel;
-        lastSafetyGameArena.get(1).isFail=true;
-        boolean lastLevelIsEnv=true;
-        while(existNewLevel){
-            existNewLevel=false;
-            safetyLevel=safetyLevel+1;
-            for(EquivalenceClass e:lastSafetyGameArena){
-                if(!e.isFail){
-                    if(!lastLevelIsEnv){ 
-                        //focus on env nodes
-                        if(e.isEnv){
-                            for(String s:inputBitVectors){
-                                if(e.successor.get(s).isFail){
-                                    e.isFail=true;
-                                    e.safetyLevel=safetyLevel;
-                                    existNewLevel=true;
-                                    break;
-                                }                                
-                            }
-                        }                    
-                    }
-                    else{
-                       //focus on ctrl nodes
-                        if(!e.isEnv){
-                            boolean isPass=false;
-                            for(String s:outputBitVectors){
-                                if(!e.successor.get(s).isFail){
-                                    isPass=true;
-                                    break;
-                                }                                
-                            }
-                            if(!isPass){
-                                e.isFail=true;
-                                e.safetyLevel=safetyLevel;
-                                existNewLevel=true;
-                            }
-                        }
-                    }
-                }
-            }
-            if(lastSafetyGameArena.get(0).isFail){
-                existNewLevel=false;
-            }
-            lastLevelIsEnv=!lastLevelIsEnv;
-        }
-        //extract the fail path
-        ArrayList<String> failPath=new ArrayList<String>();
-        EquivalenceClass pivot=lastSafetyGameArena.get(0);
-        while(pivot.id!=1){
-            if(pivot.isEnv){
-                for(String s:inputBitVectors){
-                    if(pivot.successor.get(s).isFail && pivot.successor.get(s).safetyLevel.equals(pivot.safetyLevel-1)){
-                        pivot=pivot.successor.get(s);
-                        failPath.add(s);
-                        break;
-                    }
-                }
-            }
-            else{
-                for(String s:outputBitVectors){
-                    if(pivot.successor.get(s).isFail && pivot.successor.get(s).safetyLevel.equals(pivot.safetyLevel-1)){
-                        pivot=pivot.successor.get(s);
-                        failPath.add(s);
-                        break;
-                    }                    
-                }                
-            }
-        }
-        //cut the tail
-        for(i=0;i<prob.getUnrollSteps()*2;i++){
-            failPath.remove(failPath.size()-1);
-        }
-        //print the fail path
-        for(i=0;i<failPath.size();i++){
-            System.out.print(failPath.get(i)+"-->");
-        }
-        System.out.print("\n");
-        System.out.print("Assumption Candidates:\n");
-        for(i=0;i<assumptionCandidates.size();i++){ 
-            if(!assumptionCandidates.get(i).used){
-                System.out.print(assumptionCandidates.get(i).stringLTL+"\n");
-            }
-        }              
-        //template learning
-        AssumptionCandidate nextAssumption=new AssumptionCandidate();
-        boolean foundAssumption=false;
-        for(i=0;i<assumptionCandidates.size();i++){
-            if(!assumptionCandidates.get(i).used){                
-                //ASSUME ALWAYS (emer_req -> NEXT ALWAYS emer_req) 
-                if(assumptionCandidates.get(i).type==1){
-                    int mark=failPath.size();
-                    for(j=0;j<failPath.size();j=j+2){
-                        if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(0))=='1'){
-                            mark=j;
-                            break;
-                        }
-                    }
-                    for(j=mark+2;j<failPath.size();j=j+2){
-                        if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(1))=='0'){
-                            foundAssumption=true;
-                            assumptionCandidates.get(i).used=true;
-                            nextAssumption=assumptionCandidates.get(i);
-                            System.out.print("found an assumption: "+assumptionCandidates.get(i).stringLTL+"\n");
-                            break;
-                        }
-                    }
-                    if(foundAssumption){
-                        break;
-                    }
-                }
-                //ASSUME ALWAYS (emer_req -> !obj _in) 
-                else if(assumptionCandidates.get(i).type==2){
-                    for(j=0;j<failPath.size();j=j+2){
-                       if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(0))=='1' 
-                               && failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(1))=='1'){
-                           foundAssumption=true;
-                           assumptionCandidates.get(i).used=true;
-                           nextAssumption=assumptionCandidates.get(i);
-                           System.out.print("found an assumption: "+assumptionCandidates.get(i).stringLTL+"\n");
-                           break;
-                       } 
-                    }
-                    if(foundAssumption){
-                        break;
-                    }
-                }
-                //ASSUME ALWAYS (obj_in -> NEXT (!obj_in UNTIL obj_out) ) 
-                else if(assumptionCandidates.get(i).type==3){
-                    int mark=failPath.size();
-                    for(j=0;j<failPath.size();j=j+2){
-                        if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(0))=='1'){
-                            mark=j;
-                            break;
-                        }
-                    }                
-                    for(j=mark+2;j<failPath.size();j=j+2){
-                        if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(2))=='1'){
-                            break;
-                        }
-                        else if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(1))=='0'){
-                            foundAssumption=true;
-                            assumptionCandidates.get(i).used=true;
-                            nextAssumption=assumptionCandidates.get(i);
-                            System.out.print("found an assumption: "+assumptionCandidates.get(i).stringLTL+"\n");
-                            break;
-                        }
-                    }                
-                    if(foundAssumption){                    
-                        break;
-                    }
-                }
-                //ASSUME ALWAYS EVENTUALLY (obj_in) 
-                else if(assumptionCandidates.get(i).type==4){
-                    boolean existTrue=false;
-                    for(j=failPath.size()-1;j>=failPath.size()/2;j=j-2){
-                        if(failPath.get(j).charAt(assumptionCandidates.get(i).variablesArray.get(0))=='1'){
-                            existTrue=true;
-                            break;
-                        }
-                    }
-                    if(!existTrue){
-                        foundAssumption=true;
-                        assumptionCandidates.get(i).used=true;
-                        nextAssumption=assumptionCandidates.get(i);
-                        System.out.print("found an assumption: "+assumptionCandidates.get(i).stringLTL+"\n");
-                    }
-                    if(foundAssumption){
-                        break;
-                    }
-                }
-            }        
-        }
-        //resynthesize
-        if(foundAssumption){
-            System.out.print("Resynthesize with "+nextAssumption.stringLTL+"\n");
-            prob.ltlSpecification="("+(nextAssumption.stringLTL)+")->("+prob.ltlSpecification+")";
-            String synthesisResult=new String();
-            synthesisResult=this.invokeMonolithicCoBuechiEngine(prob, true, OUTPUT_PSUEDO_CODE, true).getMessage1();
-            if(synthesisResult.equals("Co-Buechi + safety game engine unable to find the controler")){
-                assumptionLearning(assumptionCandidates, inputVariables, outputVariables, prob);
-            }
-            else{
-                System.out.print("CONGRATUALATE!!!!!!!!!!\n");
-                System.out.print("The spec could be synthesizable with additional assumption\n");
-                for(i=0;i<assumptionCandidates.size();i++){ 
-                    if(assumptionCandidates.get(i).used){
-                        System.out.print(assumptionCandidates.get(i).stringLTL+"\n");
-                    }
-                }                 
-            }
-        }
-        else{
-            System.out.print("not foundAssumption\n");
-        }  
+        new AssumptionMiningEngine(this).learn(assumptionCandidates, inputVariables, outputVariables, prob);
     }
-    
 
+    /**
+     * Same as assumptionLearning(assumptionCandidates, inputVariables,
+     * outputVariables, prob), re-synthesizing with the given translator.
+     */
+    public void assumptionLearning(ArrayList<AssumptionCandidate> assumptionCandidates, ArrayList<String> inputVariables,
+            ArrayList<String> outputVariables, ProblemDescription prob, LTLTranslator translator){
+        new AssumptionMiningEngine(this).learn(assumptionCandidates, inputVariables, outputVariables, prob, translator);
+    }
     
     public ArrayList<AssumptionCandidate> listAllAssumptionCandidate(ArrayList<String> inputVariables){
-        ArrayList<AssumptionCandidate> assumptionCandidate=new ArrayList<AssumptionCandidate>();
-        int i,j,k;
-        for(i=0;i<inputVariables.size();i++){
+        return listAllAssumptionCandidate(inputVariables, null);
+    }
+
+    /**
+     * List assumption candidates, restricted to the cone of influence of a
+     * losing play: a candidate is only generated if the signals which must be
+     * asserted for it to be violated (the trigger of templates 1 and 3, both
+     * signals of template 2) occur on the play. Template 4 is violated by the
+     * absence of its signal and is therefore always generated.
+     *
+     * @param inputVariables input variables
+     * @param assertedInputs indices of inputs asserted on the losing play, or null for no pruning
+     * @return list of assumption candidates
+     */
+    public ArrayList<AssumptionCandidate> listAllAssumptionCandidate(ArrayList<String> inputVariables, BitSet assertedInputs){
+        for(int i=0;i<inputVariables.size();i++){
             System.out.print(inputVariables.get(i)+"\n");
         }
+        return generateAssumptionCandidates(inputVariables, assertedInputs);
+    }
+
+    /**
+     * Generate the assumption candidates (see listAllAssumptionCandidate) without printing.
+     */
+    ArrayList<AssumptionCandidate> generateAssumptionCandidates(ArrayList<String> inputVariables, BitSet assertedInputs){
+        ArrayList<AssumptionCandidate> assumptionCandidate=new ArrayList<AssumptionCandidate>();
+        int i,j,k;
         //Template 1 (j=i cause in real case the two signals can be the same one)
         for(i=0;i<inputVariables.size();i++){
             for(j=i;j<inputVariables.size();j++){
-                AssumptionCandidate newCandidate=new AssumptionCandidate();
-                newCandidate.used=false;
-                newCandidate.stringLTL="[] ("+inputVariables.get(i)+" -> X [] "+ inputVariables.get(j)+")";
-                newCandidate.type=1;
-                newCandidate.variablesArray=new ArrayList<Integer>();
-                newCandidate.variablesArray.add(i);
-                newCandidate.variablesArray.add(j);
-                assumptionCandidate.add(newCandidate);                
-                if(i!=j){
-                    newCandidate=new AssumptionCandidate();
-                    newCandidate.used=false;
-                    newCandidate.stringLTL="[] ("+inputVariables.get(j)+" -> X [] "+ inputVariables.get(i)+")";
-                    newCandidate.type=1;
-                    newCandidate.variablesArray=new ArrayList<Integer>();
-                    newCandidate.variablesArray.add(j);
-                    newCandidate.variablesArray.add(i);
-                    assumptionCandidate.add(newCandidate);
+                if(isAsserted(assertedInputs, i)){
+                    addAssumptionCandidate(assumptionCandidate, "[] ("+inputVariables.get(i)+" -> X [] "+ inputVariables.get(j)+")", 1, i, j);
+                }
+                if(i!=j && isAsserted(assertedInputs, j)){
+                    addAssumptionCandidate(assumptionCandidate, "[] ("+inputVariables.get(j)+" -> X [] "+ inputVariables.get(i)+")", 1, j, i);
                 }
             }
         }
         //Template 2 (j=i+1 cause in real case the two signals cannot be the same one)
         for(i=0;i<inputVariables.size();i++){
+            if(!isAsserted(assertedInputs, i)){
+                continue;
+            }
             for(j=i+1;j<inputVariables.size();j++){
-                AssumptionCandidate newCandidate=new AssumptionCandidate();
-                newCandidate.used=false;
-                newCandidate.stringLTL="[] ("+inputVariables.get(i)+" -> !"+inputVariables.get(j)+")";
-                newCandidate.type=2;
-                newCandidate.variablesArray=new ArrayList<Integer>();
-                newCandidate.variablesArray.add(i);
-                newCandidate.variablesArray.add(j);
-                assumptionCandidate.add(newCandidate);
+                if(isAsserted(assertedInputs, j)){
+                    addAssumptionCandidate(assumptionCandidate, "[] ("+inputVariables.get(i)+" -> !"+inputVariables.get(j)+")", 2, i, j);
+                }
             }
         }        
-        //Template 3 (j=i, k=j+1)
-        for(i=0;i<inputVariables.size();i++){
-            for(j=i;j<inputVariables.size();j++){
-                for(k=j+1;k<inputVariables.size();k++){
-                    AssumptionCandidate newCandidate;
-                    if(i!=j){                       
-                        //i,j,k
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;                        
-                        newCandidate.stringLTL="[] ("+inputVariables.get(i)+" -> X (!"
-                                +inputVariables.get(j)+" U "+ inputVariables.get(k) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(j);
-                        newCandidate.variablesArray.add(k);
-                        assumptionCandidate.add(newCandidate);                        
-                        //i,k,j
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(i)+" -> X (!"
-                                +inputVariables.get(k)+" U "+ inputVariables.get(j) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(j);
-                        assumptionCandidate.add(newCandidate);
-                        //j,i,k
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(j)+" -> X (!"
-                                +inputVariables.get(i)+" U "+ inputVariables.get(k) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(j);
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(k);
-                        assumptionCandidate.add(newCandidate);                        
-                        //j,k,i
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(j)+" -> X (!"
-                                +inputVariables.get(k)+" U "+ inputVariables.get(i) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(j);
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(i);
-                        assumptionCandidate.add(newCandidate);
-                        //k,i,j
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(k)+" -> X (!"
-                                +inputVariables.get(i)+" U "+ inputVariables.get(j) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(j);
-                        assumptionCandidate.add(newCandidate);                        
-                        //k,j,i
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(k)+" -> X (!"
-                                +inputVariables.get(j)+" U "+ inputVariables.get(i) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(j);
-                        newCandidate.variablesArray.add(i);
-                        assumptionCandidate.add(newCandidate);                        
+        //Template 3 (j=i, k=j+1); only the triples containing a possible trigger are visited
+        int n=inputVariables.size();
+        for(i=0;nextTrigger(assertedInputs, i, n)<n;i++){
+            for(j=i;j<n;j++){
+                // Without a trigger among i and j, only k can be the trigger.
+                boolean triggered=isAsserted(assertedInputs, i) || isAsserted(assertedInputs, j);
+                for(k=triggered ? j+1 : nextTrigger(assertedInputs, j+1, n);k<n;
+                        k=triggered ? k+1 : nextTrigger(assertedInputs, k+1, n)){
+                    if(i!=j){
+                        //i,j,k and i,k,j
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, i, j, k);
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, i, k, j);
+                        //j,i,k and j,k,i
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, j, i, k);
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, j, k, i);
+                        //k,i,j and k,j,i
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, k, i, j);
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, k, j, i);
                     }
                     else{
-                        //i,i,k
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;
-                        newCandidate.stringLTL="[] ("+inputVariables.get(i)+" -> X (!"
-                                +inputVariables.get(i)+" U "+ inputVariables.get(k) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(i);
-                        newCandidate.variablesArray.add(k);
-                        assumptionCandidate.add(newCandidate); 
-                        //k,k,i
-                        newCandidate=new AssumptionCandidate();
-                        newCandidate.used=false;                        
-                        newCandidate.stringLTL="[] ("+inputVariables.get(k)+" -> X (!"
-                                +inputVariables.get(k)+" U "+ inputVariables.get(i) +"))";
-                        newCandidate.type=3;
-                        newCandidate.variablesArray=new ArrayList<Integer>();
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(k);
-                        newCandidate.variablesArray.add(i);
-                        assumptionCandidate.add(newCandidate);                         
+                        //i,i,k and k,k,i
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, i, i, k);
+                        addUntilAssumptionCandidate(assumptionCandidate, inputVariables, assertedInputs, k, k, i);
                     }
                 }
             }
         }    
         //Template 4
         for(i=0;i<inputVariables.size();i++){
-            AssumptionCandidate newCandidate=new AssumptionCandidate();
-            newCandidate.used=false;  
-            newCandidate.stringLTL="[] ( <> ("+inputVariables.get(i)+"))";
-            newCandidate.type=4;
-            newCandidate.variablesArray=new ArrayList<Integer>();
-            newCandidate.variablesArray.add(i);
-            assumptionCandidate.add(newCandidate);            
+            addAssumptionCandidate(assumptionCandidate, "[] ( <> ("+inputVariables.get(i)+"))", 4, i);
         }
         return assumptionCandidate;
     } 
 
-    private void printSafetyGameFromCoBuechi(ArrayList<EquivalenceClass> safetyArena,
-            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors){     
-        System.out.print("Start print safety game\n");
-        for (EquivalenceClass e: safetyArena){
-            System.out.print(e.id+" "+e.isEnv+"\n");
-            if(e.successor.size()!=0){
-                if(e.isEnv){
-                    for(String s:inputBitVectors){
-                        System.out.print(s+"->"+e.successor.get(s).id+"\n");
-                    }
-                }
-                else{
-                    for(String s:outputBitVectors){
-                        System.out.print(s+"->"+e.successor.get(s).id+"\n");
-                    }           
-                }
+    private static boolean isAsserted(BitSet assertedInputs, int input) {
+        return assertedInputs == null || assertedInputs.get(input);
+    }
+
+    /**
+     * @return the first input from the given index on which may trigger a candidate, or size if there is none
+     */
+    private static int nextTrigger(BitSet assertedInputs, int from, int size) {
+        if (assertedInputs == null) {
+            return Math.min(from, size);
+        }
+        int next = assertedInputs.nextSetBit(from);
+        return (next < 0) ? size : Math.min(next, size);
+    }
+
+    private static void addUntilAssumptionCandidate(ArrayList<AssumptionCandidate> assumptionCandidate,
+            ArrayList<String> inputVariables, BitSet assertedInputs, int trigger, int hold, int release) {
+        if (isAsserted(assertedInputs, trigger)) {
+            addAssumptionCandidate(assumptionCandidate, "[] (" + inputVariables.get(trigger) + " -> X (!"
+                    + inputVariables.get(hold) + " U " + inputVariables.get(release) + "))", 3, trigger, hold, release);
+        }
+    }
+
+    private static void addAssumptionCandidate(ArrayList<AssumptionCandidate> assumptionCandidate,
+            String stringLTL, int type, int... variables) {
+        AssumptionCandidate newCandidate = new AssumptionCandidate();
+        newCandidate.used = false;
+        newCandidate.stringLTL = stringLTL;
+        newCandidate.type = type;
+        newCandidate.variablesArray = new ArrayList<Integer>();
+        for (int v : variables) {
+            newCandidate.variablesArray.add(v);
+        }
+        assumptionCandidate.add(newCandidate);
+    }
+
+    /**
+     * Translate the Co-Buechi game to a safety game; the vertices are stored on
+     * disk if DISK_REDUCTION_GRAPH is set.
+     *
+     * @param reduction the reduction of the Co-Buechi game
+     * @param initialVertexID initial vertex of the Co-Buechi game
+     * @param unrollSteps unroll steps of the problem
+     * @return the safety game
+     * @throws IOException if the files for the disk storage can not be created
+     */
+    private SafetyGameGraph createSafetyGame(CoBuechiSafetyReduction reduction, int initialVertexID,
+            int unrollSteps) throws IOException {
+        if (DISK_REDUCTION_GRAPH) {
+            reduction.setDiskStorage(REDUCTION_GRAPH_DIRECTORY);
+        }
+        final int unrollDepth = unrollSteps * 2 + 1;
+        // Also observed without listeners, as the unrolling levels are checkpoints for cancellation.
+        reduction.setExpansionMonitor(new ExpansionMonitor() {
+
+            public void depthReached(int depth, int frontierSize, int numberOfVertices) {
+                currentArenaSize = numberOfVertices;
+                fireProgress(-1, depth, frontierSize, null, Math.max(0, unrollDepth - depth));
+            }
+        });
+        SafetyGameGraph safetyGame = null;
+        try {
+            safetyGame = reduction.createSafetyGame(initialVertexID, 1, unrollDepth, MAX_VISIT_COBUECHI_FINAL_STATE);
+        } finally {
+            if (safetyGame == null) {
+                reduction.dispose();
             }
         }
+        currentArenaSize = safetyGame.getNumberOfVertices();
+        return safetyGame;
     }
-    
-    
+
+    /**
+     * Register a listener for the progress of the synthesis runs of this
+     * engine. Without listeners, no progress measure is computed.
+     */
+    public void addSynthesisListener(SynthesisListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSynthesisListener(SynthesisListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Request the synthesis running on this engine to stop. It stops at the
+     * next phase boundary, unrolling level or fixpoint iteration, where the
+     * invoke method throws SynthesisCancelledException; the translation of a
+     * specification to an automaton is not interrupted. The engine stays
+     * cancelled, hence cancel() may also be called before a run starts.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if this engine, or the engine it follows (see
+     * followCancellation), has been cancelled
+     */
+    public boolean isCancelled() {
+        SynthesisEngine source = cancellationSource;
+        return cancelled || (source != null && source.isCancelled());
+    }
+
+    /**
+     * Let this engine stop whenever the given engine is cancelled; used for
+     * the engines running on behalf of a run of the given engine.
+     */
+    void followCancellation(SynthesisEngine source) {
+        cancellationSource = source;
+    }
+
+    private void checkCancelled() {
+        if (isCancelled()) {
+            throw new SynthesisCancelledException();
+        }
+    }
+
+    /**
+     * @return true if progress events are reported; measures which are costly
+     * to compute (sizes of BDD sets) are only computed then
+     */
+    private boolean isMonitored() {
+        return !listeners.isEmpty();
+    }
+
+    private void firePhaseStarted(String phase) {
+        checkCancelled();
+        currentPhase = phase;
+        currentPhaseStartTime = System.currentTimeMillis();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        SynthesisEvent event = new SynthesisEvent(this, phase, 0, -1, -1, -1, currentArenaSize, null, -1);
+        for (SynthesisListener listener : listeners) {
+            listener.phaseStarted(event);
+        }
+    }
+
+    private void firePhaseFinished() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        SynthesisEvent event = new SynthesisEvent(this, currentPhase,
+                System.currentTimeMillis() - currentPhaseStartTime, -1, -1, -1, currentArenaSize, null, -1);
+        for (SynthesisListener listener : listeners) {
+            listener.phaseFinished(event);
+        }
+    }
+
+    /**
+     * Report the progress of the current phase; measures which do not apply
+     * are -1, the BDD manager is null if none is used.
+     */
+    private void fireProgress(int iteration, int unrollDepth, long frontierSize, DecisionDiagram diagram,
+            long remainingWork) {
+        checkCancelled();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        SynthesisEvent event = new SynthesisEvent(this, currentPhase, System.currentTimeMillis() - currentPhaseStartTime,
+                iteration, unrollDepth, frontierSize, currentArenaSize, diagram, remainingWork);
+        for (SynthesisListener listener : listeners) {
+            listener.progress(event);
+        }
+    }
+
+    /**
+     * Keep the safety game of a Co-Buechi run according to ARENA_RETENTION,
+     * replacing the previously retained one. Unless it is kept in memory, the
+     * game is disposed.
+     */
+    private void retainSafetyGame(SafetyGameGraph safetyGameArena) throws IOException {
+        releaseLastSafetyGameArena();
+        if (ARENA_RETENTION == ARENA_RETENTION_MEMORY) {
+            lastSafetyGameArena = safetyGameArena;
+            return;
+        }
+        try {
+            if (ARENA_RETENTION == ARENA_RETENTION_DISK) {
+                File file = File.createTempFile("arena", ".bin", REDUCTION_GRAPH_DIRECTORY);
+                file.deleteOnExit();
+                lastSafetyGameArenaFile = file;
+                SafetyArenaFile.write(safetyGameArena, file);
+            }
+        } finally {
+            safetyGameArena.dispose();
+        }
+    }
+
+    /**
+     * Return the safety game of the last Co-Buechi run if it found no
+     * controller, as used by assumption learning. A game retained on disk is mapped on the first call; the
+     * result stays valid until the next Co-Buechi run or
+     * releaseLastSafetyGameArena().
+     *
+     * @return the safety game, or null if none is retained
+     */
+    public SafetyGameGraph getLastSafetyGameArena() {
+        if (lastSafetyGameArena == null && lastSafetyGameArenaFile != null) {
+            try {
+                lastSafetyGameArena = new SafetyArenaFile(lastSafetyGameArenaFile);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unable to read " + lastSafetyGameArenaFile, ex);
+            }
+        }
+        return lastSafetyGameArena;
+    }
+
+    /**
+     * Drop the retained safety game and delete its file.
+     */
+    public void releaseLastSafetyGameArena() {
+        if (lastSafetyGameArena != null) {
+            lastSafetyGameArena.dispose();
+            lastSafetyGameArena = null;
+        }
+        if (lastSafetyGameArenaFile != null) {
+            lastSafetyGameArenaFile.delete();
+            lastSafetyGameArenaFile = null;
+        }
+    }
+
     /**
      * Solve a safety game symbolically and generate a controller (Mealy Machine).
      * 
@@ -707,23 +675,25 @@ public class SynthesisEngine {
      * @param initialVertex initial vertex in the game
      * @param riskVertex risk vertex in the game
      * @param proveExistence prove existence of strategy or prove non-existence by finding a counter-strategy
+     * @param inputBitVectors all input vectors, indexed by their ordinal
+     * @param outputBitVectors all output vectors, indexed by their ordinal
      * @param isPervasiveStrategy return a non-deterministic machine having all solvers
      * @return MealyMachine as a strategy (having explicit variable to answer a strategy is found)
      */
-    private MealyMachine analyzeSafetyGameFromCoBuechi(ArrayList<EquivalenceClass> safetyArena,
+    private MealyMachine analyzeSafetyGameFromCoBuechi(SafetyGameGraph safetyArena,
             EquivalenceClass initialVertex, EquivalenceClass riskVertex, boolean proveExistence,
-            ArrayList<String> inputBitVectors, boolean isPervasiveStrategy) {
+            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors, boolean isPervasiveStrategy) {
         
         bdd.cleanup();
 
-        bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
 
         int plantTransition = bdd.getZero();
         int controllerTransition = bdd.getZero();
 
-        int totalNumberOfVariables = ((int) (Math.ceil(Math.log10(safetyArena.size()) / Math.log10(2)))) * 2;
+        int totalNumberOfVariables = ((int) (Math.ceil(Math.log10(safetyArena.getNumberOfVertices()) / Math.log10(2)))) * 2;
 
-        int NUM_OF_BITS_FOR_STATE = (int) (Math.ceil(Math.log10(safetyArena.size()) / Math.log10(2)));
+        int NUM_OF_BITS_FOR_STATE = (int) (Math.ceil(Math.log10(safetyArena.getNumberOfVertices()) / Math.log10(2)));
 
         if (NUM_OF_BITS_FOR_STATE == 0) {
             NUM_OF_BITS_FOR_STATE = 1;
@@ -749,9 +719,9 @@ public class SynthesisEngine {
         // long startTime = System.currentTimeMillis();
 
         // Caching the vertex computation to avoid repeated computation.
-        int[] stateIdBDDPre = new int[safetyArena.size()];
-        int[] stateIdBDDPost = new int[safetyArena.size()];
-        for (int i = 0; i < safetyArena.size(); i++) {
+        int[] stateIdBDDPre = new int[safetyArena.getNumberOfVertices()];
+        int[] stateIdBDDPost = new int[safetyArena.getNumberOfVertices()];
+        for (int i = 0; i < safetyArena.getNumberOfVertices(); i++) {
 
             int sPre = bdd.ref(bdd.getOne());
             int sPost = bdd.ref(bdd.getOne());
@@ -772,15 +742,26 @@ public class SynthesisEngine {
         //   System.out.println("Total elapsed time in game creation is :" + (endTime - startTime));
 
 
-        for (EquivalenceClass source : safetyArena) {
+        // Several vectors may lead to the same successor; each (source, dest) pair is added once.
+        int[] lastSource = new int[safetyArena.getNumberOfVertices()];
+        Arrays.fill(lastSource, -1);
+        for (int source = 0; source < safetyArena.getNumberOfVertices(); source++) {
 
-            if (source.isEnv == true) {
-                for (EquivalenceClass dest : source.successor.values()) {
-                    plantTransition = bdd.orTo(plantTransition, bdd.and(stateIdBDDPre[source.id], stateIdBDDPost[dest.id]));
+            if (safetyArena.isEnvironmentVertex(source) == true) {
+                for (int k = 0; k < safetyArena.getNumberOfSuccessors(source); k++) {
+                    int dest = safetyArena.getSuccessor(source, k);
+                    if (dest >= 0 && lastSource[dest] != source) {
+                        lastSource[dest] = source;
+                        plantTransition = bdd.orTo(plantTransition, bdd.and(stateIdBDDPre[source], stateIdBDDPost[dest]));
+                    }
                 }
             } else {
-                for (EquivalenceClass dest : source.successor.values()) {
-                    controllerTransition = bdd.orTo(controllerTransition, bdd.and(stateIdBDDPre[source.id], stateIdBDDPost[dest.id]));
+                for (int k = 0; k < safetyArena.getNumberOfSuccessors(source); k++) {
+                    int dest = safetyArena.getSuccessor(source, k);
+                    if (dest >= 0 && lastSource[dest] != source) {
+                        lastSource[dest] = source;
+                        controllerTransition = bdd.orTo(controllerTransition, bdd.and(stateIdBDDPre[source], stateIdBDDPost[dest]));
+                    }
                 }
             }
         }
@@ -851,7 +832,7 @@ public class SynthesisEngine {
         int postImage = bdd.getZero();
         do {
         postImage = bdd.orTo(postImage, bdd.replace(bdd.relProd(preImage, totalTransition, cubeForward), permForward));
-        if (bdd.biimp(preImage, postImage) == bdd.getOne()) {
+        if (preImage == postImage) {
         break;
         }
         preImage = bdd.ref(postImage);
@@ -864,28 +845,23 @@ public class SynthesisEngine {
          * 
          */
 
-        // Redirect the output stream to string, such that we can interpret the printed BDD set for analysis.
-        PrintStream out = System.out;
-
+        // Print the BDD set to a string, such that we can interpret it for analysis.
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
-        // bdd.printSet(strategy);
-        bdd.printSet(bdd.and(controllerTransition, bdd.not(riskStrategy)));
+        bdd.printSet(bdd.and(controllerTransition, bdd.not(riskStrategy)), printStreamByteArray);
         String strategyStringFormat = barray.toString();
 
-        // Redirect the output stream back to console again.
-        System.setOut(out);
-
         if (isPervasiveStrategy) {
-            return generateMealyMachinePervasiveSafety(strategyStringFormat, initialVertex, safetyArena);
+            return generateMealyMachinePervasiveSafety(strategyStringFormat, initialVertex, safetyArena,
+                    inputBitVectors, outputBitVectors);
         } else {
-            return generateMealyMachineSafety(strategyStringFormat, initialVertex, safetyArena);
+            return generateMealyMachineSafety(strategyStringFormat, initialVertex, safetyArena,
+                    inputBitVectors, outputBitVectors);
         }
 
     }
 
-    HashSet<String> generateCounterStrategy(ArrayList<EquivalenceClass> safetyArena,
+    HashSet<String> generateCounterStrategy(SafetyGameGraph safetyArena,
             int plantTransition, int controllerTransition, int riskStrategy,
             int initialCondition, int cubeForward, Permutation permForward,
             HashSet<String> provenExistedInputCombination,
@@ -893,7 +869,13 @@ public class SynthesisEngine {
 
         HashSet<String> result = new HashSet<String>();
 
-        HashMap<String, HashSet<String>> statePossibleActionsMap = new HashMap<String, HashSet<String>>();
+        // Input valuations are referred to by their ordinal in inputCombinations.
+        HashMap<String, Integer> inputIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < inputCombinations.size(); i++) {
+            inputIndex.put(inputCombinations.get(i), Integer.valueOf(i));
+        }
+        // For each state id of the safety arena, the set of input valuations usable by the counter-strategy.
+        BitSet[] statePossibleActions = new BitSet[safetyArena.getNumberOfVertices()];
 
         int strategy = bdd.ref(bdd.and(plantTransition, bdd.not(riskStrategy)));
 
@@ -902,7 +884,7 @@ public class SynthesisEngine {
         int postImage = bdd.ref(initialCondition);
         do {
             postImage = bdd.orTo(postImage, bdd.replace(bdd.relProd(preImage, totalTransition, cubeForward), permForward));
-            if (bdd.biimp(preImage, postImage) == bdd.getOne()) {
+            if (preImage == postImage) {
                 break;
             }
             preImage = bdd.ref(postImage);
@@ -913,21 +895,12 @@ public class SynthesisEngine {
         bdd.deref(postImage);
         bdd.deref(totalTransition);
 
-        // Redirect the output stream to string, such that we can interpret the printed BDD set for analysis.
-        PrintStream out = System.out;
-
+        // Print the BDD set to a string, such that we can interpret it for analysis.
         ByteArrayOutputStream barray = new ByteArrayOutputStream();
         PrintStream printStreamByteArray = new PrintStream(barray);
-        System.setOut(printStreamByteArray);
-        // bdd.printSet(strategy);
-        bdd.printSet(strategy);
+        bdd.printSet(strategy, printStreamByteArray);
         String strategyStringFormat = barray.toString();
 
-        // Redirect the output stream back to console again.
-        System.setOut(out);
-
-        HashMap<String, String> stateSuccessorStateMap = new HashMap<String, String>();
-
         String[] lineArray = strategyStringFormat.split("[\\r\\n]");
         for (int i = 0; i < lineArray.length; i++) {
             // Retrieve the source, destination, and the memory content
@@ -937,41 +910,18 @@ public class SynthesisEngine {
                 StringBuilder dSB = new StringBuilder("");
                 for (int j = 0; j < lineArray[i].length(); j++) {
                     if (j % 2 == 0) {
-                        sSB.append(lineArray[i].substring(j, j + 1));
+                        sSB.append(lineArray[i].charAt(j));
                     } else {
-                        dSB.append(lineArray[i].substring(j, j + 1));
+                        dSB.append(lineArray[i].charAt(j));
                     }
                 }
                 String source = sSB.toString();
                 String dest = dSB.toString();
 
-                try {
-                    if (source.trim().startsWith("-") || dest.trim().startsWith("-")) {
-                        throw new Exception();
-                    }
-
-                    int decimalSource = Integer.parseInt(source, 2);
-                    int decimalDest = Integer.parseInt(dest, 2);
-
-
-                    for (String inputValuation : safetyArena.get(decimalSource).successor.keySet()) {
-                        if (safetyArena.get(decimalSource).successor.get(inputValuation).id == decimalDest) {
-                            if (statePossibleActionsMap.get(String.valueOf(decimalSource)) == null) {
-                                statePossibleActionsMap.put(String.valueOf(decimalSource), new HashSet<String>());
-                                statePossibleActionsMap.get(String.valueOf(decimalSource)).add(inputValuation);
-                            } else {
-                                statePossibleActionsMap.get(String.valueOf(decimalSource)).add(inputValuation);
-                            }
-                            if (Debug.DEBUG) {
-                                System.out.println(String.valueOf(decimalSource) + " -" + inputValuation + "->");
-                            }
-                        }
-                    }
-                    if (stateSuccessorStateMap.get(String.valueOf(decimalSource)) == null) {
-                        stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                    }
-
-                } catch (Exception ex) {
+                if (!source.contains("-") && !dest.contains("-")) {
+                    addCounterStrategyActions(safetyArena, Integer.parseInt(source, 2), Integer.parseInt(dest, 2),
+                            statePossibleActions, inputCombinations.size());
+                } else {
                     // To extract a string with "-" element, then the conversion requires a recursive call.
                     HashSet<String> sourceSet = new HashSet<String>();
                     HashSet<String> destSet = new HashSet<String>();
@@ -990,99 +940,72 @@ public class SynthesisEngine {
 
                     // Generate all combinations
                     for (String s : sourceSet) {
-                        int decimalSource = Integer.parseInt(s, 2);
-                        if (decimalSource >= safetyArena.size()) {
-                            continue;
-                        }
                         for (String d : destSet) {
-
-                            int decimalDest = Integer.parseInt(d, 2);
-                            if (decimalDest >= safetyArena.size()) {
-                                continue;
-                            }
-
-                            for (String inputValuation : safetyArena.get(decimalSource).successor.keySet()) {
-                                if (safetyArena.get(decimalSource).successor.get(inputValuation).id == decimalDest) {
-                                    if (statePossibleActionsMap.get(String.valueOf(decimalSource)) == null) {
-                                        statePossibleActionsMap.put(String.valueOf(decimalSource), new HashSet<String>());
-                                        statePossibleActionsMap.get(String.valueOf(decimalSource)).add(inputValuation);
-                                    } else {
-                                        statePossibleActionsMap.get(String.valueOf(decimalSource)).add(inputValuation);
-                                    }
-                                    if (Debug.DEBUG) {
-                                        System.out.println(String.valueOf(decimalSource) + " -" + inputValuation + "->");
-                                    }
-                                }
-                            }
-                            if (stateSuccessorStateMap.get(String.valueOf(decimalSource)) == null) {
-                                stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                            }
+                            addCounterStrategyActions(safetyArena, Integer.parseInt(s, 2), Integer.parseInt(d, 2),
+                                    statePossibleActions, inputCombinations.size());
                         }
                     }
                 }
             }
         }
 
-        HashMap<String, HashSet<String>> statePossibleActionsFilterMap = new HashMap<String, HashSet<String>>();
-        // Analyze the result by setting 
-        for (String state : statePossibleActionsMap.keySet()) {
-            if (Collections.disjoint(statePossibleActionsMap.get(state), provenExistedInputCombination)) {
-                statePossibleActionsFilterMap.put(state, statePossibleActionsMap.get(state));
+        // Analyze the result by only keeping states which can not be handled by proven input combinations.
+        BitSet proven = new BitSet(inputCombinations.size());
+        for (String input : provenExistedInputCombination) {
+            if (inputIndex.get(input) != null) {
+                proven.set(inputIndex.get(input).intValue());
+            }
+        }
+        BitSet uncovered = new BitSet(safetyArena.getNumberOfVertices());
+        for (int state = 0; state < statePossibleActions.length; state++) {
+            if (statePossibleActions[state] != null && !statePossibleActions[state].intersects(proven)) {
+                uncovered.set(state);
             }
         }
 
-        if (statePossibleActionsFilterMap.keySet().isEmpty()) {
+        if (uncovered.isEmpty()) {
             System.out.println("G4LTL: counter-strategy can be fully realized.");
             return result;
         }
 
-        while (true) {
-
-            // Select one input combination that is covered by the largest number of states.
-            String candidate = "";
-            int coveredNumber = 0;
-            for (String sig1 : inputCombinations) {
-                if (!result.contains(sig1)) {
-                    candidate = sig1;
-                    for (String state1 : statePossibleActionsFilterMap.keySet()) {
-                        if (statePossibleActionsFilterMap.get(state1).contains(sig1)) {
-                            coveredNumber++;
-                        }
-                    }
-                    if (coveredNumber != 0) {
-                        break;
-                    }
+        // Coverage column for each input valuation: the set of states where it can be applied.
+        BitSet[] coverage = new BitSet[inputCombinations.size()];
+        for (int state = uncovered.nextSetBit(0); state >= 0; state = uncovered.nextSetBit(state + 1)) {
+            BitSet actions = statePossibleActions[state];
+            for (int input = actions.nextSetBit(0); input >= 0; input = actions.nextSetBit(input + 1)) {
+                if (coverage[input] == null) {
+                    coverage[input] = new BitSet(safetyArena.getNumberOfVertices());
                 }
+                coverage[input].set(state);
             }
+        }
 
-            for (String sig2 : inputCombinations) {
-                if (!result.contains(sig2) && !candidate.equals(sig2)) {
-                    int tempCoveredNumber = 0;
-                    for (String state : statePossibleActionsFilterMap.keySet()) {
-                        if (statePossibleActionsFilterMap.get(state).contains(sig2)) {
-                            tempCoveredNumber++;
-                        }
-                    }
-                    if (tempCoveredNumber > coveredNumber) {
-                        candidate = sig2;
-                    }
-                }
+        // Lazy greedy set cover: select the input valuation covering the largest number of remaining
+        // states. Gains only decrease, so a stale gain in the queue is an upper bound and only the
+        // top element needs to be re-evaluated. Ties are broken by the ordering of inputCombinations.
+        PriorityQueue<Long> queue = new PriorityQueue<Long>(Math.max(1, inputCombinations.size()),
+                Collections.reverseOrder());
+        for (int input = 0; input < coverage.length; input++) {
+            if (coverage[input] != null) {
+                queue.add(Long.valueOf(encodeCoverageGain(coverage[input].cardinality(), input)));
             }
+        }
 
-            // Remove all elements that contains "candidate"
-            statePossibleActionsMap = new HashMap<String, HashSet<String>>();
-            result.add(candidate);
-            for (String state : statePossibleActionsFilterMap.keySet()) {
-                if (!statePossibleActionsFilterMap.get(state).contains(candidate)) {
-                    statePossibleActionsMap.put(state, statePossibleActionsFilterMap.get(state));
-                }
+        while (!uncovered.isEmpty() && !queue.isEmpty()) {
+            long top = queue.poll().longValue();
+            int input = (int) (0xFFFFFFFFL - (top & 0xFFFFFFFFL));
+            coverage[input].and(uncovered);
+            int gain = coverage[input].cardinality();
+            if (gain == 0) {
+                continue;
             }
-            if (statePossibleActionsMap.keySet().isEmpty()) {
-                break;
-            } else {
-                statePossibleActionsFilterMap = statePossibleActionsMap;
+            if (!queue.isEmpty() && encodeCoverageGain(gain, input) < queue.peek().longValue()) {
+                // The gain is outdated; re-insert with the actual value.
+                queue.add(Long.valueOf(encodeCoverageGain(gain, input)));
+                continue;
             }
-
+            result.add(inputCombinations.get(input));
+            uncovered.andNot(coverage[input]);
         }
 
         if (Debug.DEBUG) {
@@ -1092,6 +1015,36 @@ public class SynthesisEngine {
 
     }
 
+    /**
+     * Record the input valuations (by ordinal) leading from source to dest in the safety arena.
+     */
+    private void addCounterStrategyActions(SafetyGameGraph safetyArena, int source, int dest,
+            BitSet[] statePossibleActions, int numberOfInputs) {
+        if (source >= safetyArena.getNumberOfVertices() || dest >= safetyArena.getNumberOfVertices()) {
+            return;
+        }
+        int numberOfSuccessors = safetyArena.getNumberOfSuccessors(source);
+        for (int input = 0; input < numberOfSuccessors && input < numberOfInputs; input++) {
+            if (safetyArena.getSuccessor(source, input) == dest) {
+                if (statePossibleActions[source] == null) {
+                    statePossibleActions[source] = new BitSet(numberOfInputs);
+                }
+                statePossibleActions[source].set(input);
+                if (Debug.DEBUG) {
+                    System.out.println(String.valueOf(source) + " -" + input + "->");
+                }
+            }
+        }
+    }
+
+    /**
+     * Pack the gain of an input valuation together with its ordinal such that larger gains and
+     * (for equal gains) smaller ordinals are ordered first.
+     */
+    private static long encodeCoverageGain(int gain, int input) {
+        return ((long) gain << 32) | (0xFFFFFFFFL - input);
+    }
+
     /**
      * Create the game arena from a Buechi automaton by partitioning input and output signals.
      * 
@@ -1100,7 +1053,7 @@ public class SynthesisEngine {
      * @param graph Buechi automaton
      * @return the corresponding arena with two players
      */
-    private GameArena createGameArena(ArrayList<String> inputVariables, ArrayList<String> outputVariables, Graph graph) {
+    private CompactGameArena createGameArena(ArrayList<String> inputVariables, ArrayList<String> outputVariables, Graph graph) {
 
         // If we need to use aggressive reduction, our heuristic is to select vertices 
         // (other than the initial node) that has the least incoming and outgoing edges.
@@ -1138,175 +1091,127 @@ public class SynthesisEngine {
             vertexList.add((Node) i.next());
         }
 
-        // Generate all possible bit vectors of the input and outputs
-        ArrayList<String> initialVectorList = new ArrayList<String>();
-        initialVectorList.add("");
-        ArrayList<String> inputBitVectors = generateBitVectors(0, inputVariables.size(), initialVectorList);
-        initialVectorList = new ArrayList<String>();
-        initialVectorList.add("");
-        ArrayList<String> outputBitVectors = generateBitVectors(0, outputVariables.size(), initialVectorList);
-
-        GameArena arena = new GameArena();
+        int numberOfStates = vertexList.size();
+        int numberOfInputVectors = 1 << inputVariables.size();
+        int labelWords = CompactGameArena.labelWords(outputVariables.size());
 
         // The ordering of the Buechi automaton follows the index of the
-        // vertexList being retrieved. Each index i, it is named in
-        // vertexNameArena named "Ei", and stored in the index 
-        // i * (size of all possible inputs + 1).       
-        vertexNameBuechiAutomaton = new ArrayList<String>();
-        // It stores E0, C0_<inputvector1>, ..., E1, C1_<inputvector1>,
-        vertexNameArena = new ArrayList<String>();
-
-        // Create the dummy risk vertex which contains a self-loop.
-
-
-        // Create all environment vertices in the muller arena by extracting from Buechi automata.
+        // vertexList being retrieved. The environment vertex of index i is 
+        // stored in the index i * (size of all possible inputs + 1), followed 
+        // by its control vertices (one per input vector).
+        HashMap<Node, Integer> stateIndexMap = new HashMap<Node, Integer>();
+        int initialState = -1;
+        BitSet finalStates = new BitSet(numberOfStates);
         for (Node s : vertexList) {
-            vertexNameBuechiAutomaton.add(String.valueOf(s.getId()));
-            vertexNameArena.add("E" + String.valueOf(vertexNameBuechiAutomaton.size() - 1));
-
-            VertexEdgeSet vEnv = new VertexEdgeSet();
-            int envID = vertexNameArena.size() - 1;
-            vEnv.setVertexID(envID);
+            int stateIndex = stateIndexMap.size();
+            stateIndexMap.put(s, Integer.valueOf(stateIndex));
             if (s.getBooleanAttribute("accepting")) {
-                vEnv.setVertexColor(VertexEdgeSet.COLOR_FINAL);
+                finalStates.set(stateIndex);
             }
             if (s == graph.getInit()) {
-                vEnv.setVertexProperty(VertexEdgeSet.INITIAL_PLANT);
-            } else {
-                vEnv.setVertexProperty(VertexEdgeSet.NONINITIAL_PLANT);
+                initialState = stateIndex;
             }
-
-            // Add the environment vertex
-            arena.vertexList.add(vEnv);
-
-            // Create corresponding control vertices with names matching the inputVectors
-            for (String vector : inputBitVectors) {
-                VertexEdgeSet vCtrl = new VertexEdgeSet();
-                vertexNameArena.add("C" + String.valueOf(vertexNameBuechiAutomaton.size() - 1) + "_" + vector);
-                vCtrl.setVertexID(vertexNameArena.size() - 1);
-                vCtrl.setVertexProperty(VertexEdgeSet.NONINITIAL_CONTROL);
-                arena.vertexList.add(vCtrl);
-                // Create the environment edge
-                EdgeElement edge = new EdgeElement(vEnv.getVertexID(), vCtrl.getVertexID(), vector, 0);
-                // Add the edge for the environment                    
-                vEnv.edgeSet.add(edge);
-            }
-
         }
 
-        if (Debug.DEBUG) {
-            System.out.println("------");
-            System.out.println("vertexNameBuechiAutomaton: " + vertexNameBuechiAutomaton.toString());
-            System.out.println("vertexNameArena: " + vertexNameArena.toString());
-            System.out.println("arena: " + arena.vertexList.size());
+        HashMap<String, Integer> inputIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < inputVariables.size(); i++) {
+            inputIndex.put(inputVariables.get(i), Integer.valueOf(i));
+        }
+        HashMap<String, Integer> outputIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < outputVariables.size(); i++) {
+            outputIndex.put(outputVariables.get(i), Integer.valueOf(i));
         }
-
 
         // Create control transitions in the arena: for each edge in the Buechi automaton, 
         // we need to know what is the input (so we can move the the correct control vertex)
-        // and what is the output (so we can label the edge with the output).        
-
-        for (Iterator i = nodes.iterator(); i.hasNext();) {
-            Node n = (Node) i.next();
+        // and what is the output (so we can label the edge with the output). The edges are 
+        // written row by row (control vertex by control vertex) into the packed arrays.
+
+        int[] edgeOffset = new int[numberOfStates * numberOfInputVectors + 1];
+        int[] edgeTarget = new int[Math.max(16, numberOfStates * numberOfInputVectors)];
+        long[] outputLabel = new long[edgeTarget.length * labelWords];
+        int numberOfEdges = 0;
+
+        for (int state = 0; state < numberOfStates; state++) {
+            Node n = vertexList.get(state);
+
+            // Compile the guard of each outgoing edge: an input vector in matches if 
+            // (in & inputCare) == inputValue; the matching output vectors are enumerated once
+            // into the label of the edge.
+            int numberOfGuards = n.getOutgoingEdges().size();
+            int[] guardDest = new int[numberOfGuards];
+            int[] guardInputCare = new int[numberOfGuards];
+            int[] guardInputValue = new int[numberOfGuards];
+            long[][] guardOutputs = new long[numberOfGuards][];
+            int k = 0;
             for (Iterator j = n.getOutgoingEdges().iterator(); j.hasNext();) {
                 Edge edge = (Edge) j.next();
-
-                ArrayList<String> usedInputBitVectors = new ArrayList<String>();
-                ArrayList<String> usedOutputBitVectors = new ArrayList<String>();
-                usedInputBitVectors.addAll(inputBitVectors);
-                usedOutputBitVectors.addAll(outputBitVectors);
-
-                // Perform normal processing to create edges. The destination is the normal one. 
-                String environmentDest = "E" + String.valueOf(vertexNameBuechiAutomaton.indexOf(String.valueOf(edge.getNext().getId())));
-                int environmentDestIndex = vertexNameArena.indexOf(environmentDest);
-
-                if (edge.getGuard().equals("-")) {
-                    // There is no restriction on the input vectors used.
-                } else {
-                    StringTokenizer tok = new StringTokenizer(new String(edge.getGuard()), "&");
-
-                    while (tok.hasMoreTokens()) {
-                        String token = tok.nextToken();
-                        if (token.trim().startsWith("!") && inputVariables.contains(token.trim().substring(1))) {
-                            for (String vector : inputBitVectors) {
-                                if (vector.substring(inputVariables.indexOf(token.trim().substring(1)),
-                                        inputVariables.indexOf(token.trim().substring(1)) + 1).equals("1")) {
-                                    // Remove it
-                                    usedInputBitVectors.remove(vector);
-                                }
-                            }
-                        } else if (inputVariables.contains(token.trim())) {
-                            for (String vector : inputBitVectors) {
-                                if (vector.substring(
-                                        inputVariables.indexOf(token.trim()), inputVariables.indexOf(token.trim()) + 1).equals("0")) {
-                                    // Remove it
-                                    usedInputBitVectors.remove(vector);
-                                }
-                            }
-                        } else if (token.trim().startsWith("!") && outputVariables.contains(token.trim().substring(1))) {
-                            for (String vector : outputBitVectors) {
-                                if (vector.substring(outputVariables.indexOf(token.trim().substring(1)),
-                                        outputVariables.indexOf(token.trim().substring(1)) + 1).equals("1")) {
-                                    // Remove it
-                                    usedOutputBitVectors.remove(vector);
-                                }
-                            }
-                        } else if (outputVariables.contains(token.trim())) {
-                            for (String vector : outputBitVectors) {
-                                if (vector.substring(
-                                        outputVariables.indexOf(token.trim()), outputVariables.indexOf(token.trim()) + 1).equals("0")) {
-                                    // Remove it
-                                    usedOutputBitVectors.remove(vector);
-                                }
-                            }
-                        }
+                int[] masks = compileGuard(edge.getGuard(), inputIndex, outputIndex);
+                if (masks == null) {
+                    // Contradicting literals; the edge is never taken.
+                    continue;
+                }
+                guardDest[k] = stateIndexMap.get(edge.getNext()).intValue() * (numberOfInputVectors + 1);
+                guardInputCare[k] = masks[0];
+                guardInputValue[k] = masks[1];
+                guardOutputs[k] = new long[labelWords];
+                setMatchingVectors(guardOutputs[k], masks[2], masks[3], outputVariables.size());
+                k++;
+            }
+            numberOfGuards = k;
+
+            for (int input = 0; input < numberOfInputVectors; input++) {
+                int rowStart = numberOfEdges;
+                for (k = 0; k < numberOfGuards; k++) {
+                    if ((input & guardInputCare[k]) != guardInputValue[k]) {
+                        continue;
                     }
-                }
-
-
-                String controlVertexPrefix = "C"
-                        + String.valueOf(vertexNameBuechiAutomaton.indexOf(String.valueOf(edge.getSource().getId())));
-
-                for (String input : usedInputBitVectors) {
-                    int controlSourceIndex = vertexNameArena.indexOf(controlVertexPrefix + "_" + input);
-
-                    VertexEdgeSet v = arena.vertexList.get(controlSourceIndex);
-                    for (String output : usedOutputBitVectors) {
-                        // Merge the same destination for the  same output vector. 
-                        boolean similarDest = false;
-                        for (EdgeElement e : v.edgeSet) {
-                            if (e.getDestVertexID()
-                                    == environmentDestIndex) { // Append the output to the dest 
-                                if (e.getEdgeLabel().contains(output) == false) {
-                                    // e.setEdgeLabel(e.getEdgeLabel() + "," + output);
-                                    e.getEdgeLabel().add(output);
-                                }
-                                similarDest = true;
-                                break;
-                            }
-                        }
-                        if (similarDest == false) {
-                            EdgeElement e = new EdgeElement(controlSourceIndex,
-                                    environmentDestIndex, output, 0);
-                            v.edgeSet.add(e);
+                    // Merge the same destination for the same output vector. 
+                    int environmentDestIndex = guardDest[k];
+                    int e = rowStart;
+                    while (e < numberOfEdges && edgeTarget[e] != environmentDestIndex) {
+                        e++;
+                    }
+                    if (e == numberOfEdges) {
+                        if (numberOfEdges == edgeTarget.length) {
+                            edgeTarget = Arrays.copyOf(edgeTarget, 2 * numberOfEdges);
+                            outputLabel = Arrays.copyOf(outputLabel, 2 * numberOfEdges * labelWords);
                         }
-
+                        edgeTarget[numberOfEdges++] = environmentDestIndex;
+                    }
+                    long[] label = guardOutputs[k];
+                    for (int w = 0; w < labelWords; w++) {
+                        outputLabel[e * labelWords + w] |= label[w];
                     }
                 }
-
+                edgeOffset[state * numberOfInputVectors + input + 1] = numberOfEdges;
             }
         }
 
+        CompactGameArena arena = new CompactGameArena(numberOfStates, inputVariables.size(), outputVariables.size(),
+                initialState, finalStates, edgeOffset, Arrays.copyOf(edgeTarget, numberOfEdges),
+                Arrays.copyOf(outputLabel, numberOfEdges * labelWords));
+
         // Printout the translated arena in textural form.
         if (Debug.DEBUG) {
             System.out.println("\n------" + "Buechi/Co-Buechi arena (for output selection)" + "------");
-            for (VertexEdgeSet v : arena.vertexList) {
-                System.out.println(vertexNameArena.get(v.getVertexID()));
-                if (v.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
+            for (int v = 0; v < arena.getNumberOfVertices(); v++) {
+                System.out.println(getArenaVertexName(arena, v));
+                if (v == arena.getInitialVertex()) {
                     System.out.println("INITIAL");
                 }
-                for (EdgeElement e : v.edgeSet) {
-                    System.out.println("\t" + e.getEdgeLabel() + "-->" + vertexNameArena.get(e.getDestVertexID()));
+                if (arena.isEnvironmentVertex(v)) {
+                    for (int input = 0; input < numberOfInputVectors; input++) {
+                        System.out.println("\t[" + toBitVector(input, inputVariables.size()) + "]-->" + getArenaVertexName(arena, v + 1 + input));
+                    }
+                } else {
+                    for (int e = arena.getFirstEdge(v); e < arena.getEndEdge(v); e++) {
+                        ArrayList<String> label = new ArrayList<String>();
+                        for (int output = arena.nextOutput(e, 0); output >= 0; output = arena.nextOutput(e, output + 1)) {
+                            label.add(toBitVector(output, outputVariables.size()));
+                        }
+                        System.out.println("\t" + label + "-->" + getArenaVertexName(arena, arena.getEdgeTarget(e)));
+                    }
                 }
             }
         }
@@ -1316,258 +1221,274 @@ public class SynthesisEngine {
     }
 
     /**
-     * Find the winning strategy for a Buechi game.
+     * Compile a conjunctive guard of the automaton (e.g., "a&!b", or "-" for true) into
+     * care/value masks over the input and output vector ordinals. The variable at 
+     * position p of a bit vector of width n corresponds to bit n-1-p of its ordinal.
+     * Literals over other signals are ignored.
      * 
-     * @param finalStates the set of final states
-     * @param initialCondition the set of initial states
-     * @param controllertransition the set of controller transitions
-     * @param planttransition the set of environment transitions
-     * @param perm 
-     * @param cube 
-     * @return index to the bdd for the symbolic startegy
+     * @return {inputCare, inputValue, outputCare, outputValue}, or null if the guard is unsatisfiable
      */
-    int findWinningStrategyBuechi(int finalStates, int initialCondition, int controllerTransition, int plantTransition, Permutation perm, int cube) {
+    static int[] compileGuard(String guard, HashMap<String, Integer> inputIndex, HashMap<String, Integer> outputIndex) {
+        int[] masks = new int[4];
+        if (guard.equals("-")) {
+            return masks;
+        }
+        StringTokenizer tok = new StringTokenizer(guard, "&");
+        while (tok.hasMoreTokens()) {
+            String token = tok.nextToken().trim();
+            boolean negated = token.startsWith("!");
+            String signal = negated ? token.substring(1) : token;
+            int offset;
+            int bit;
+            if (inputIndex.containsKey(signal)) {
+                offset = 0;
+                bit = 1 << (inputIndex.size() - 1 - inputIndex.get(signal).intValue());
+            } else if (outputIndex.containsKey(signal)) {
+                offset = 2;
+                bit = 1 << (outputIndex.size() - 1 - outputIndex.get(signal).intValue());
+            } else {
+                continue;
+            }
+            int value = negated ? 0 : bit;
+            if ((masks[offset] & bit) != 0 && (masks[offset + 1] & bit) != value) {
+                return null;
+            }
+            masks[offset] |= bit;
+            masks[offset + 1] |= value;
+        }
+        return masks;
+    }
 
-        // System.out.println("STEP 1: Calculating recurrence region over final states [Recur(F)]");
-        int recurPre = bdd.ref(finalStates);
-        int i = 1;
+    /**
+     * Set the bits of all vectors (of the given width) matching care/value in the packed bit set.
+     */
+    private static void setMatchingVectors(long[] bits, int care, int value, int width) {
+        int free = ((1 << width) - 1) & ~care;
+        if (free == (1 << width) - 1 && width >= 6) {
+            // No restriction: every vector matches.
+            Arrays.fill(bits, -1L);
+            return;
+        }
+        // Enumerate all subsets of the free bits.
+        int subset = 0;
         do {
-            int attractorPre = bdd.getZero();
-            int j = 1;
-            do {
-                // [For attractors with controllable locations]
-                // Step a1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-                // Step a2: perform AND conjunction with controllertransition to derive set of states
-                // Step a3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor ATTR'.
-
-                //int stepa0 = bdd.ref(bdd.exists(bdd.or(attractorPre, recurPre), cube));
-                // int stepa1 = bdd.replace(stepa0, perm);
-                int stepa1 = bdd.replace(bdd.or(attractorPre, recurPre), perm);
-                int stepa2 = bdd.and(stepa1, controllerTransition);
-                int stepa3 = bdd.ref(bdd.exists(stepa2, cube));
-
-                int attractorPost_control_state = bdd.ref(stepa3);
-                // stream.println("Attractor with control states under processing in step " + j + ":");
-                // bdd.printSet(attractorPost_control_state);
-
-                // [For attractors from uncontrollable locations]
-                // Step b1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-                // Step b2: For results in step1, perform AND conjunction with planttransition to derive set of states
-                // Step b3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor.
-                // Step b4: For these states, we "must" make sure that they do not have any transition which leads
-                // regions outside the attractor.
-                // Step b5: For S\ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-                // Step b6: For results in step5, perform AND conjunction with planttransition to derive set of states
-                // Step b7: quantify out x_plum, y_plum, z_plum
-                // Step b8: Perform set difference {Step3}\{Step7}, then states in {Step3}\{Step7} will be guaranteed to
-                // have EVERY transition leading to the attractor.
-
-                // int stepb0 = bdd.ref(bdd.exists(bdd.or(attractorPre, recurPre), cube));
-                // int stepb1 = bdd.ref(bdd.replace(stepb0, perm));
-                int stepb1 = bdd.ref(bdd.replace(bdd.or(attractorPre, recurPre), perm));
-                int stepb2 = bdd.ref(bdd.and(stepb1, plantTransition));
-                int stepb3 = bdd.ref(bdd.exists(stepb2, cube));
-
-                int step = bdd.ref(bdd.not(bdd.or(attractorPre, recurPre))); // S\ATTR
-                int stepb5_0 = bdd.ref(bdd.exists(step, cube));
-                int stepb5 = bdd.ref(bdd.replace(stepb5_0, perm));
-                int stepb6 = bdd.ref(bdd.and(stepb5, plantTransition));
-                int stepb7 = bdd.ref(bdd.exists(stepb6, cube));
-                int attractorPost_plant_state = bdd.and(stepb3, bdd.not(stepb7));
-
-                // Generate the attractor
-                int attractorPost = bdd.ref(bdd.or(attractorPre, bdd.or(attractorPost_control_state, attractorPost_plant_state)));
-
-                // Remove all unused BDD
-                // bdd.deref(stepa0);
-                bdd.deref(stepa1);
-                bdd.deref(stepa2);
-                bdd.deref(stepa3);
-                bdd.deref(attractorPost_control_state);
-
-                // bdd.deref(stepb0);
-                bdd.deref(stepb1);
-                bdd.deref(stepb2);
-                bdd.deref(stepb3);
-                bdd.deref(step);
-                bdd.deref(stepb5_0);
-                bdd.deref(stepb5);
-                bdd.deref(stepb6);
-                bdd.deref(stepb7);
-                bdd.deref(attractorPost_plant_state);
-
-                // Check if the set of attractors saturates
-                if (bdd.ref(bdd.biimp(attractorPre, attractorPost)) == bdd.getOne()) {
-                    // System.out.println("------ Finish calculating the attractor (winning region) ----------");
-                    // System.out.println("------ Printing the attractor ----------");
-                    // bdd.printSet(attractorPost);
-                    break;
-
-                } else {
-                    j++;
-                    bdd.deref(attractorPre); // Dereference the previous image
-                    attractorPre =
-                            bdd.ref(attractorPost); // Assign the post to be the newly generated image
-                    // bdd.printSet(attractorPre);
-
-                    bdd.deref(attractorPost);
-                    // System.out.println("-------------------------------------");
-                }
-
-            } while (true);
+            int vector = value | subset;
+            bits[vector >>> 6] |= 1L << vector;
+            subset = (subset - free) & free;
+        } while (subset != 0);
+    }
 
-            // Here attractorPre = Attr(recurPre);
-            // Intersect with the set of final states
-            int recurPost = bdd.ref(bdd.and(finalStates, attractorPre));
-            if (bdd.ref(bdd.biimp(recurPre, recurPost)) == bdd.getOne()) {
-                // System.out.println("------ Finish calculating the recurrence region ----------");
-                // System.out.println("------ Printing the recurrence region ----------");
-                // bdd.printSet(bdd.exists(recurPre, cube));
-                break;
+    /**
+     * Render the vector ordinal as a bit vector string of the given width (most significant bit first).
+     */
+    static String toBitVector(int value, int width) {
+        char[] vector = new char[width];
+        for (int j = 0; j < width; j++) {
+            vector[j] = ((value >>> (width - 1 - j)) & 1) == 1 ? '1' : '0';
+        }
+        return new String(vector);
+    }
 
-            } else {
-                i++;
-                bdd.deref(recurPre); // Dereference the previous image
-                recurPre = bdd.ref(recurPost); // Assign the post to be the newly generated image
-                bdd.deref(recurPost);
-            }
+    /**
+     * Name of an arena vertex: "E" + state for environment vertices, and 
+     * "C" + state + "_" + input vector for control vertices.
+     */
+    private static String getArenaVertexName(CompactGameArena arena, int vertex) {
+        if (vertex < 0 || vertex >= arena.getNumberOfVertices()) {
+            throw new IndexOutOfBoundsException("Vertex " + vertex + " is not in the arena");
+        }
+        if (arena.isEnvironmentVertex(vertex)) {
+            return "E" + arena.getStateOfVertex(vertex);
+        } else {
+            return "C" + arena.getStateOfVertex(vertex) + "_"
+                    + toBitVector(arena.getInputOfVertex(vertex), arena.getNumberOfInputVariables());
+        }
+    }
 
-        } while (true);
+    /**
+     * Compute the attractor of the target region for the player owning playerTransition,
+     * i.e., the set of states from which the player can force a visit to the target.
+     * Each iteration only computes the predecessors of the frontier (states newly added
+     * in the previous iteration) rather than of the whole attractor, using fused
+     * relational products for the image computation.
+     *
+     * @param target the set of states to be attracted to
+     * @param playerTransition transitions of the player who wants to reach the target
+     * @param opponentTransition transitions of the player who wants to avoid the target
+     * @param perm permutation from current-state to next-state variables
+     * @param cube next-state variables to be quantified
+     * @param stopRegion if not FALSE, stop as soon as the attractor intersects this region
+     * @param strategy if not null, strategy[0] accumulates for every player state the moves
+     *        which decrease the distance to the target (the caller owns the reference)
+     * @return the (referenced) attractor, or TRUE if stopped by stopRegion
+     */
+    private int computeAttractor(int target, int playerTransition, int opponentTransition,
+            Permutation perm, int cube, int stopRegion, int[] strategy) {
 
-        if (recurPre == bdd.getZero()) {
-            return bdd.getZero();
+        int attractor = bdd.ref(target);
+        int attractorPost = bdd.ref(bdd.replace(attractor, perm));
+        int frontier = bdd.ref(target);
+        int strategySource = bdd.getZero();
+        if (strategy != null) {
+            strategySource = bdd.ref(bdd.exists(strategy[0], cube));
         }
-        // System.out.println("STEP 2: Calculating the attractor over the recurrence region [Attr(Recur(F))]");
-        // bdd.printSet(recurPre);
-
-        int attractorPre = bdd.ref(recurPre);
-        int controllerSynthesisStrategy = bdd.getZero();
 
-        i = 1;
-        do {
+        int iteration = 0;
+        while (frontier != bdd.getZero()) {
 
-            // [For attractors with controllable locations]
-            // Step a1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step a2: perform AND conjunction with controllertransition to derive set of states
-            // Step a3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor ATTR'.
+            if (stopRegion != bdd.getZero() && bdd.and(attractor, stopRegion) != bdd.getZero()) {
+                bdd.deref(attractor);
+                bdd.deref(attractorPost);
+                bdd.deref(frontier);
+                bdd.deref(strategySource);
+                return bdd.getOne();
+            }
+
+            int frontierPost = bdd.ref(bdd.replace(frontier, perm));
+
+            // Player vertices having one move into the frontier.
+            int playerPre = bdd.ref(bdd.relProd(playerTransition, frontierPost, cube));
+
+            if (strategy != null) {
+                // Only vertices without a previously selected move are assigned new moves;
+                // the moves are built for these vertices only.
+                int notSelected = bdd.ref(bdd.not(strategySource));
+                int newSources = bdd.ref(bdd.and(playerPre, notSelected));
+                int newTargets = bdd.ref(bdd.and(frontierPost, newSources));
+                int newMoves = bdd.ref(bdd.and(playerTransition, newTargets));
+                strategy[0] = bdd.orTo(strategy[0], newMoves);
+                strategySource = bdd.orTo(strategySource, playerPre);
+                bdd.deref(newMoves);
+                bdd.deref(newTargets);
+                bdd.deref(newSources);
+                bdd.deref(notSelected);
+            }
+
+            // Opponent vertices having one move into the frontier; they are attracted if
+            // none of their moves leaves the attractor.
+            attractorPost = bdd.orTo(attractorPost, frontierPost);
+            int opponentPre = bdd.ref(bdd.relProd(opponentTransition, frontierPost, cube));
+            int outside = bdd.ref(bdd.not(attractorPost));
+            int opponentEscape = bdd.ref(bdd.relProd(opponentTransition, outside, cube));
+            int notEscape = bdd.ref(bdd.not(opponentEscape));
+            int opponentAttracted = bdd.ref(bdd.and(opponentPre, notEscape));
+
+            int notAttractor = bdd.ref(bdd.not(attractor));
+            int newStates = bdd.ref(bdd.or(playerPre, opponentAttracted));
+            int newFrontier = bdd.ref(bdd.and(newStates, notAttractor));
+
+            bdd.deref(frontierPost);
+            bdd.deref(playerPre);
+            bdd.deref(opponentPre);
+            bdd.deref(outside);
+            bdd.deref(opponentEscape);
+            bdd.deref(notEscape);
+            bdd.deref(opponentAttracted);
+            bdd.deref(notAttractor);
+            bdd.deref(newStates);
+
+            attractor = bdd.orTo(attractor, newFrontier);
+            bdd.deref(frontier);
+            frontier = newFrontier;
+            checkCancelled();
+            if (isMonitored()) {
+                // Every iteration adds at least one state, so the states outside the
+                // attractor bound the remaining iterations.
+                double statesPerCube = bdd.satCount(cube);
+                fireProgress(iteration, -1, (long) (bdd.satCount(frontier) / statesPerCube), bdd,
+                        (long) ((bdd.satCount(bdd.getOne()) - bdd.satCount(attractor)) / statesPerCube));
+            }
+            iteration++;
+        }
+
+        bdd.deref(attractorPost);
+        bdd.deref(strategySource);
+        return attractor;
+    }
 
-            // int stepa0 = bdd.ref(bdd.exists(attractorPre, cube));
-            // int stepa1 = bdd.replace(stepa0, perm);
-            int stepa1 = bdd.replace(attractorPre, perm);
-            int stepa2 = bdd.and(stepa1, controllerTransition);
+    /**
+     * Compute the set of states from which the controller can force a visit to the
+     * given region in one step.
+     *
+     * @param region the region to be visited
+     * @param controllerTransition the set of controller transitions
+     * @param plantTransition the set of environment transitions
+     * @param perm permutation from current-state to next-state variables
+     * @param cube next-state variables to be quantified
+     * @return the (referenced) controllable predecessor
+     */
+    private int controllablePredecessor(int region, int controllerTransition, int plantTransition,
+            Permutation perm, int cube) {
+        int regionPost = bdd.ref(bdd.replace(region, perm));
+        int controlPre = bdd.ref(bdd.relProd(controllerTransition, regionPost, cube));
+        int plantPre = bdd.ref(bdd.relProd(plantTransition, regionPost, cube));
+        int outside = bdd.ref(bdd.not(regionPost));
+        int plantEscape = bdd.ref(bdd.relProd(plantTransition, outside, cube));
+        int notEscape = bdd.ref(bdd.not(plantEscape));
+        int plantAttracted = bdd.ref(bdd.and(plantPre, notEscape));
+        int result = bdd.ref(bdd.or(controlPre, plantAttracted));
+
+        bdd.deref(regionPost);
+        bdd.deref(controlPre);
+        bdd.deref(plantPre);
+        bdd.deref(outside);
+        bdd.deref(plantEscape);
+        bdd.deref(notEscape);
+        bdd.deref(plantAttracted);
+        return result;
+    }
 
-            if (i == 1) {
-                controllerSynthesisStrategy = bdd.orTo(controllerSynthesisStrategy, stepa2);
-            } else {
-                int stepNew1 = bdd.ref(bdd.and(controllerSynthesisStrategy, stepa2));
-                if (bdd.ref(stepNew1) == bdd.getZero()) {
-                    //System.out.println("GAVS+: There is something wierd here.");
-                }
-                int stepNew2 = bdd.ref(bdd.exists(stepNew1, cube));
-                int stepNew3 = bdd.ref(bdd.and(controllerSynthesisStrategy, bdd.not(stepNew2)));
-                int stepNew4 = bdd.ref(bdd.and(stepa2, bdd.not(stepNew2)));
-                bdd.deref(controllerSynthesisStrategy);
-
-                controllerSynthesisStrategy =
-                        bdd.or(stepNew3, bdd.or(stepNew4, stepNew1));
-                // System.out.println("stepNew5");
-                // bdd.printSet(stepNew4);
-            }
-
-            int stepa3 = bdd.ref(bdd.exists(stepa2, cube));
-
-            int attractorPost_control_state = bdd.ref(stepa3);
-            // System.out.println("Attractor with control states under processing in step " + i + ":");
-            // bdd.printSet(attractorPost_control_state);
-
-            // [For attractors from uncontrollable locations]
-            // Step b1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step b2: For results in step1, perform AND conjunction with planttransition to derive set of states
-            // Step b3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor.
-            // Step b4: For these states, we "must" make sure that they do not have any transition which leads regions
-            // outside the attractor.
-            // Step b5: For S\ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step b6: For results in step5, perform AND conjunction with planttransition to derive set of states
-            // Step b7: quantify out x_plum, y_plum, z_plum
-            // Step b8: Perform set difference {Step3}\{Step7}, then states in {Step3}\{Step7} will be guaranteed to
-            // have EVERY transition leading to the attractor.
-
-            // int stepb0 = bdd.ref(bdd.exists(attractorPre, cube));
-            // int stepb1 = bdd.replace(stepb0, perm);
-            int stepb1 = bdd.replace(attractorPre, perm);
-            int stepb2 = bdd.and(stepb1, plantTransition);
-            int stepb3 = bdd.ref(bdd.exists(stepb2, cube));
-
-            int step = bdd.not(attractorPre); // S\ATTR
-            int stepb5_0 = bdd.ref(bdd.exists(step, cube));
-            int stepb5 = bdd.replace(stepb5_0, perm);
-            int stepb6 = bdd.and(stepb5, plantTransition);
-            int stepb7 = bdd.ref(bdd.exists(stepb6, cube));
-            int attractorPost_plant_state = bdd.and(stepb3, bdd.not(stepb7));
-            // stream.println("Attractor with plant states under processing in step " + i + ":");
-            // bdd.printSet(attractorPost_plant_state);
-
-            // Generate the attractor
-            int attractorPost = bdd.or(attractorPre, bdd.or(attractorPost_control_state, attractorPost_plant_state));
-
-            // Remove all unused BDD
-            // bdd.deref(stepa0);
-            bdd.deref(stepa1);
-            bdd.deref(stepa2);
-            bdd.deref(stepa3);
-            bdd.deref(attractorPost_control_state);
-
-            // bdd.deref(stepb0);
-            bdd.deref(stepb1);
-            bdd.deref(stepb2);
-            bdd.deref(stepb3);
-            bdd.deref(step);
-            bdd.deref(stepb5_0);
-            bdd.deref(stepb5);
-            bdd.deref(stepb6);
-            bdd.deref(stepb7);
-            bdd.deref(attractorPost_plant_state);
-
-            // Check if the set of attractors saturates
-            if (bdd.ref(bdd.biimp(attractorPre, attractorPost)) == bdd.getOne()) {
-                // System.out.println("------ Finish calculating the attractor (winning region) ----------");
-
-                // System.out.println("Do again the controller part to ensure outgoing edge from recur states");
-                int stepa0 = bdd.ref(bdd.exists(attractorPre, cube));
-                stepa1 = bdd.replace(stepa0, perm);
-                stepa2 = bdd.and(stepa1, controllerTransition);
-
-
-                int stepNew1 = bdd.ref(bdd.and(controllerSynthesisStrategy, stepa2));
-                if (bdd.ref(stepNew1) == bdd.getZero()) {
-                    System.out.println("Focus: There are something wierd here.");
-                }
-                int stepNew2 = bdd.ref(bdd.exists(stepNew1, cube)); // K
-                int stepNew3 = bdd.ref(bdd.and(controllerSynthesisStrategy, bdd.not(stepNew2)));
-                int stepNew4 = bdd.ref(bdd.and(stepa2, bdd.not(stepNew2)));
-                bdd.deref(controllerSynthesisStrategy);
-
-                controllerSynthesisStrategy = bdd.or(stepNew3, bdd.or(stepNew4, stepNew1));
-
-                if (bdd.and(attractorPost, initialCondition) != bdd.getZero()) {
-                    // System.out.println("Controller exists");
-                } else {
-                    // System.out.println("Controller does not exist");
-                    return bdd.getZero();
-                }
+    /**
+     * Find the winning strategy for a Buechi game.
+     * 
+     * @param finalStates the set of final states
+     * @param initialCondition the set of initial states
+     * @param controllertransition the set of controller transitions
+     * @param planttransition the set of environment transitions
+     * @param perm 
+     * @param cube 
+     * @return index to the bdd for the symbolic startegy
+     */
+    int findWinningStrategyBuechi(int finalStates, int initialCondition, int controllerTransition, int plantTransition, Permutation perm, int cube) {
 
+        // STEP 1: Calculating recurrence region over final states [Recur(F)], i.e., final states
+        // from which the controller can force a revisit to the recurrence region in one or more steps.
+        int recurPre = bdd.ref(finalStates);
+        do {
+            int attractor = computeAttractor(recurPre, controllerTransition, plantTransition,
+                    perm, cube, bdd.getZero(), null);
+            int attractorNonZeroStep = controllablePredecessor(attractor, controllerTransition, plantTransition, perm, cube);
+            int recurPost = bdd.ref(bdd.and(finalStates, attractorNonZeroStep));
+            bdd.deref(attractor);
+            bdd.deref(attractorNonZeroStep);
+
+            // Check if the recurrence region saturates
+            boolean saturated = (recurPost == recurPre);
+            bdd.deref(recurPre);
+            recurPre = recurPost;
+            if (saturated) {
                 break;
-            } else {
-                i++;
-                bdd.deref(attractorPre); // Dereference the previous image
-                attractorPre = bdd.ref(attractorPost); // Assign the post to be the newly generated image
-                bdd.deref(attractorPost);
-                // System.out.println("-------------------------------------");
             }
-
         } while (true);
 
-        return controllerSynthesisStrategy;
+        if (recurPre == bdd.getZero()) {
+            return bdd.getZero();
+        }
+
+        // STEP 2: Calculating the attractor over the recurrence region [Attr(Recur(F))], where
+        // moves are recorded when a controller vertex is attracted.
+        int[] controllerSynthesisStrategy = new int[]{bdd.getZero()};
+        int attractor = computeAttractor(recurPre, controllerTransition, plantTransition,
+                perm, cube, bdd.getZero(), controllerSynthesisStrategy);
+        bdd.deref(recurPre);
+
+        boolean controllerExists = (bdd.and(attractor, initialCondition) != bdd.getZero());
+        bdd.deref(attractor);
+        if (!controllerExists) {
+            bdd.deref(controllerSynthesisStrategy[0]);
+            return bdd.getZero();
+        }
+        return controllerSynthesisStrategy[0];
 
     }
 
@@ -1583,105 +1504,33 @@ public class SynthesisEngine {
      */
     int findWinningStrategySafety(int riskRegion, int initialCondition, int controllertransition, int planttransition,
             Permutation perm, int cube) {
-        // Here we implement the attractor generator: attractor_{0,i}(Reachability) are the set of states which player 0
-        // (controller) can force a visit to Reachability in less or equal to i steps.
-
-        int attractorPre = bdd.ref(riskRegion);
-        int controllerRiskSynthesisStrategy = bdd.getZero();
-
-        int i = 1;
-        do {
-
-            // [For attractors with noncontrollable locations]
-            // Step a1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step a2: perform AND conjunction with controllertransition to derive set of states
-            // Step a3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor ATTR'.
-
-            int stepa1 = bdd.replace(attractorPre, perm);
-            int stepa2 = bdd.and(stepa1, planttransition);
-            int stepa3 = bdd.ref(bdd.exists(stepa2, cube));
-            int attractorPost_plant_state = bdd.ref(stepa3);
-
-            // [For attractors from controllable locations]
-            // Step b1: For ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step b2: For results in step1, perform AND conjunction with planttransition to derive set of states
-            // Step b3: quantify out x_plum, y_plum, z_plum, and these states are the new attractor.
-            // Step b4: For these states, we "must" make sure that they do not have any transition which leads regions
-            //          outside the attractor.
-            // Step b5: For S\ATTR, perform variable swap from x, y, z to x_plum, y_plum, z_plum
-            // Step b6: For results in step5, perform AND conjunction with controllertransition to derive set of states
-            // Step b7: quantify out x_plum, y_plum, z_plum
-            // Step b8: Perform set difference {Step3}\{Step7}, then states in {Step3}\{Step7} will be guaranteed
-            //          to have EVERY transition leading to the attractor.
-
-            int stepb1 = bdd.replace(attractorPre, perm);
-            int stepb2 = bdd.and(stepb1, controllertransition);
-            int stepb3 = bdd.ref(bdd.exists(stepb2, cube));
-            int step = bdd.not(attractorPre); // S\ATTR
-            int stepb5_0 = bdd.ref(bdd.exists(step, cube));
-            int stepb5 = bdd.replace(stepb5_0, perm);
-            int stepb6 = bdd.and(stepb5, controllertransition);
-            int stepb7 = bdd.ref(bdd.exists(stepb6, cube));
-            int attractorPost_control_state = bdd.and(stepb3, bdd.not(stepb7));
-
-            // Generate the attractor
-            int attractorPost = bdd.or(attractorPre, bdd.or(attractorPost_control_state, attractorPost_plant_state));
-
-            // Remove all unused BDD
-            bdd.deref(stepa1);
-            bdd.deref(stepa2);
-            bdd.deref(stepa3);
-            bdd.deref(attractorPost_plant_state);
-
-            bdd.deref(stepb1);
-            bdd.deref(stepb2);
-            bdd.deref(stepb3);
-            bdd.deref(step);
-            bdd.deref(stepb5_0);
-            bdd.deref(stepb5);
-            bdd.deref(stepb6);
-            bdd.deref(stepb7);
-            bdd.deref(attractorPost_control_state);
-
-            // Check if the set of attractors saturates
-            if (bdd.ref(bdd.biimp(attractorPre, attractorPost)) == bdd.getOne()) {
-                if (bdd.and(attractorPre, initialCondition) != bdd.getZero()) {
-                    // Return that all strategies are risky.
-                    return bdd.getOne();
-                }
-                // System.out.println("------ Finish calculating the attractor (losing region) ----------");
-                break;
-
-            } else {
-                i++;
-                bdd.deref(attractorPre); // Dereference the previous image
-                // Assign the post to be  the newly generated image
-                attractorPre = bdd.ref(attractorPost);
-                bdd.deref(attractorPost);
-
-            }
+        // Here we implement the attractor generator: attractor_{1,i}(Risk) are the set of states which player 1
+        // (plant) can force a visit to Risk in less or equal to i steps. The computation stops as soon as the
+        // initial condition is contained, as then all strategies are risky.
 
-        } while (true);
+        int attractor = computeAttractor(riskRegion, planttransition, controllertransition,
+                perm, cube, initialCondition, null);
+        if (attractor == bdd.getOne()) {
+            // Return that all strategies are risky.
+            return bdd.getOne();
+        }
 
         // Once the attractor has been decided, we perform a post-processing.
         // Based on the attractor of the set of reachable states, we perform again the reachability analysis.
         // If there exists any thansition which leads to these states, we put them back to the strategy,
         // as we know that these transitions should never be performed.
 
-        int stepa0 = bdd.ref(bdd.exists(attractorPre, cube));
-        int stepa1 = bdd.replace(stepa0, perm);
-        int stepa2 = bdd.and(stepa1, controllertransition);
-
-        controllerRiskSynthesisStrategy =
-                bdd.orTo(controllerRiskSynthesisStrategy, stepa2);
-
+        int attractorPost = bdd.ref(bdd.replace(attractor, perm));
+        int controllerRiskSynthesisStrategy = bdd.ref(bdd.and(attractorPost, controllertransition));
         controllerRiskSynthesisStrategy =
                 bdd.orTo(controllerRiskSynthesisStrategy, bdd.and(riskRegion, controllertransition));
+        bdd.deref(attractorPost);
+        bdd.deref(attractor);
 
         return controllerRiskSynthesisStrategy;
     }
 
-    private MealyMachine generateMealyMachineBuechi(String strategyStringFormat, int initialVertexId, GameArena gameArena) {
+    private MealyMachine generateMealyMachineBuechi(String strategyStringFormat, int initialVertexId, CompactGameArena gameArena) {
 
 
         MealyMachine machine = new MealyMachine();
@@ -1692,7 +1541,7 @@ public class SynthesisEngine {
         } else {
 
 
-            String initialID = vertexNameArena.get(initialVertexId).substring(1);
+            String initialID = getArenaVertexName(gameArena, initialVertexId).substring(1);
 
             String[] lineArray = strategyStringFormat.split("[\\r\\n]");
 
@@ -1720,13 +1569,13 @@ public class SynthesisEngine {
                         int decimalDest = Integer.parseInt(dest, 2);
 
                         MealyMachineEdgeElement e = new MealyMachineEdgeElement(
-                                vertexNameArena.get(decimalSource).split("_")[0].substring(1),
-                                vertexNameArena.get(decimalDest).split("_")[0].substring(1),
-                                vertexNameArena.get(decimalSource).split("_")[1],
+                                getArenaVertexName(gameArena, decimalSource).split("_")[0].substring(1),
+                                getArenaVertexName(gameArena, decimalDest).split("_")[0].substring(1),
+                                getArenaVertexName(gameArena, decimalSource).split("_")[1],
                                 getOutputFromBuechiAction(gameArena, decimalSource, decimalDest));
 
                         machine.getEdges().add(e);
-                        machine.getVertices().add(vertexNameArena.get(decimalSource).split("_")[0].substring(1));
+                        machine.getVertices().add(getArenaVertexName(gameArena, decimalSource).split("_")[0].substring(1));
 
                     } catch (Exception ex) {
                         HashSet<String> sourceSet = new HashSet<String>();
@@ -1747,22 +1596,22 @@ public class SynthesisEngine {
                         // Generate all combinations
                         for (String s : sourceSet) {
                             int decimalSource = Integer.parseInt(s, 2);
-                            if (decimalSource >= gameArena.vertexList.size()) {
+                            if (decimalSource >= gameArena.getNumberOfVertices()) {
                                 continue;
                             }
                             for (String d : destSet) {
 
                                 int decimalDest = Integer.parseInt(d, 2);
-                                if (decimalDest >= gameArena.vertexList.size()) {
+                                if (decimalDest >= gameArena.getNumberOfVertices()) {
                                     continue;
                                 }
 
-                                machine.getVertices().add(vertexNameArena.get(decimalSource).split("_")[0].substring(1));
+                                machine.getVertices().add(getArenaVertexName(gameArena, decimalSource).split("_")[0].substring(1));
 
                                 MealyMachineEdgeElement e = new MealyMachineEdgeElement(
-                                        vertexNameArena.get(decimalSource).split("_")[0].substring(1),
-                                        vertexNameArena.get(decimalDest).split("_")[0].substring(1),
-                                        vertexNameArena.get(decimalSource).split("_")[1],
+                                        getArenaVertexName(gameArena, decimalSource).split("_")[0].substring(1),
+                                        getArenaVertexName(gameArena, decimalDest).split("_")[0].substring(1),
+                                        getArenaVertexName(gameArena, decimalSource).split("_")[1],
                                         getOutputFromBuechiAction(gameArena, decimalSource, decimalDest));
 
                                 machine.getEdges().add(e);
@@ -1783,7 +1632,8 @@ public class SynthesisEngine {
     }
 
     private MealyMachine generateMealyMachineSafety(String strategyStringFormat,
-            EquivalenceClass initialVertex, ArrayList<EquivalenceClass> safetyArena) {
+            EquivalenceClass initialVertex, SafetyGameGraph safetyArena,
+            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors) {
 
         MealyMachine machine = new MealyMachine();
         if (strategyStringFormat.trim().startsWith("FALSE")) {
@@ -1791,8 +1641,8 @@ public class SynthesisEngine {
             return machine;
         }
 
-        HashMap<String, String> stateSuccessorStateMap = new HashMap<String, String>();
-        HashMap<String, String> stateActionMap = new HashMap<String, String>();
+        // Collect the permissive strategy: all moves of control vertices which avoid the risk region.
+        HashMap<Integer, ArrayList<Integer>> allowed = new HashMap<Integer, ArrayList<Integer>>();
 
         String[] lineArray = strategyStringFormat.split("[\\r\\n]");
         for (int i = 0; i < lineArray.length; i++) {
@@ -1819,23 +1669,7 @@ public class SynthesisEngine {
                     int decimalSource = Integer.parseInt(source, 2);
                     int decimalDest = Integer.parseInt(dest, 2);
 
-                    if (stateActionMap.get(String.valueOf(decimalSource)) == null) {
-                        stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                        stateActionMap.put(String.valueOf(decimalSource), getOutputFromSafetyAction(safetyArena, decimalSource, decimalDest));
-                    }
-                    /*else {
-                    // Here we prefer existing states over new states. Existing states are in general states
-                    // with smaller index
-                    if (Integer.parseInt(stateSuccessorStateMap.get(String.valueOf(decimalSource))) < decimalDest) {
-                    System.err.println("Multiple action possible!");
-                    stateSuccessorStateMap.remove(String.valueOf(decimalSource));
-                    stateActionMap.remove(String.valueOf(decimalSource));
-                    stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                    stateActionMap.put(String.valueOf(decimalSource), getOutputFromSafetyAction(safetyArena, decimalSource, decimalDest));
-                    }
-                    }
-                     * 
-                     */
+                    addAllowedMove(allowed, decimalSource, decimalDest);
 
                 } catch (Exception ex) {
                     // To extract a string with "-" element, then the conversion requires a recursive call.
@@ -1857,39 +1691,33 @@ public class SynthesisEngine {
                     // Generate all combinations
                     for (String s : sourceSet) {
                         int decimalSource = Integer.parseInt(s, 2);
-                        if (decimalSource >= safetyArena.size()) {
+                        if (decimalSource >= safetyArena.getNumberOfVertices()) {
                             continue;
                         }
                         for (String d : destSet) {
 
                             int decimalDest = Integer.parseInt(d, 2);
-                            if (decimalDest >= safetyArena.size()) {
+                            if (decimalDest >= safetyArena.getNumberOfVertices()) {
                                 continue;
                             }
-                            if (stateActionMap.get(String.valueOf(decimalSource)) == null) {
-                                stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                                stateActionMap.put(String.valueOf(decimalSource), getOutputFromSafetyAction(safetyArena, decimalSource, decimalDest));
-                            }
-                            /*else {
-                            // Here we prefer existing states over new states. Existing states are in general states
-                            // with smaller index
-                            
-                            if (Integer.parseInt(stateSuccessorStateMap.get(String.valueOf(decimalSource))) > decimalDest) {
-                            System.err.println("Multiple action possible!");
-                            stateSuccessorStateMap.remove(String.valueOf(decimalSource));
-                            stateActionMap.remove(String.valueOf(decimalSource));
-                            stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
-                            stateActionMap.put(String.valueOf(decimalSource), getOutputFromSafetyAction(safetyArena, decimalSource, decimalDest));
-                            }
-                            }
-                             * 
-                             */
+                            addAllowedMove(allowed, decimalSource, decimalDest);
                         }
                     }
                 }
             }
         }
 
+        // Select one move per control vertex, such that few states of the controller are reachable.
+        HashMap<String, String> stateSuccessorStateMap = new HashMap<String, String>();
+        HashMap<String, String> stateActionMap = new HashMap<String, String>();
+        HashMap<Integer, Integer> choice = new StrategyDeterminization(safetyArena, allowed).determinize(initialVertex.id);
+        for (Map.Entry<Integer, Integer> entry : choice.entrySet()) {
+            int decimalSource = entry.getKey().intValue();
+            int decimalDest = entry.getValue().intValue();
+            stateSuccessorStateMap.put(String.valueOf(decimalSource), String.valueOf(decimalDest));
+            stateActionMap.put(String.valueOf(decimalSource), getOutputFromSafetyAction(safetyArena, decimalSource, decimalDest, outputBitVectors));
+        }
+
         machine.setSolution(true);
 
         HashSet<String> envLocations = new HashSet<String>();
@@ -1901,18 +1729,22 @@ public class SynthesisEngine {
 
         while (!workList.isEmpty()) {
             String vertexID = workList.remove(0);
-            EquivalenceClass v = safetyArena.get(Integer.parseInt(vertexID));
-            machine.getVertices().add(String.valueOf(v.id));
+            int v = Integer.parseInt(vertexID);
+            machine.getVertices().add(String.valueOf(v));
 
-            for (String input : v.successor.keySet()) {
-                EquivalenceClass succ = v.successor.get(input);
-                MealyMachineEdgeElement e = new MealyMachineEdgeElement(String.valueOf(v.id), stateSuccessorStateMap.get(String.valueOf(succ.id)), input, stateActionMap.get(String.valueOf(succ.id)));
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(v); k++) {
+                int succ = safetyArena.getSuccessor(v, k);
+                if (succ < 0) {
+                    continue;
+                }
+                String input = inputBitVectors.get(k);
+                MealyMachineEdgeElement e = new MealyMachineEdgeElement(String.valueOf(v), stateSuccessorStateMap.get(String.valueOf(succ)), input, stateActionMap.get(String.valueOf(succ)));
 
                 machine.getEdges().add(e);
 
-                if (envLocations.contains(stateSuccessorStateMap.get(String.valueOf(succ.id))) == false) {
-                    workList.add(stateSuccessorStateMap.get(String.valueOf(succ.id)));
-                    envLocations.add(stateSuccessorStateMap.get(String.valueOf(succ.id)));
+                if (envLocations.contains(stateSuccessorStateMap.get(String.valueOf(succ))) == false) {
+                    workList.add(stateSuccessorStateMap.get(String.valueOf(succ)));
+                    envLocations.add(stateSuccessorStateMap.get(String.valueOf(succ)));
                 }
             }
         }
@@ -1923,6 +1755,19 @@ public class SynthesisEngine {
         return machine;
     }
 
+    /**
+     * Record a move of the permissive strategy, keeping the order in which moves are found. The
+     * cubes printed by printSet are disjoint, so no move is recorded twice.
+     */
+    private static void addAllowedMove(HashMap<Integer, ArrayList<Integer>> allowed, int source, int dest) {
+        ArrayList<Integer> moves = allowed.get(Integer.valueOf(source));
+        if (moves == null) {
+            moves = new ArrayList<Integer>();
+            allowed.put(Integer.valueOf(source), moves);
+        }
+        moves.add(Integer.valueOf(dest));
+    }
+
     private MealyMachine generateDeterministicTransitionsInitialState(String strategyStringFormat, int numberOfInputs, int numberOfOutputs) {
         String[] lineArray = strategyStringFormat.split("[\\r\\n]");
 
@@ -2177,7 +2022,8 @@ public class SynthesisEngine {
     }
     
     private MealyMachine generateMealyMachinePervasiveSafety(String strategyStringFormat,
-            EquivalenceClass initialVertex, ArrayList<EquivalenceClass> safetyArena) {
+            EquivalenceClass initialVertex, SafetyGameGraph safetyArena,
+            ArrayList<String> inputBitVectors, ArrayList<String> outputBitVectors) {
 
         MealyMachine machine = new MealyMachine();
         if (strategyStringFormat.trim().startsWith("FALSE")) {
@@ -2216,7 +2062,7 @@ public class SynthesisEngine {
                         HashSet<String> set = new HashSet<String>();
                         stateSuccessorStateActionMap.put(String.valueOf(decimalSource), set);
                     }
-                    for (String output : getAllOutputFromSafetyAction(safetyArena, decimalSource, decimalDest)) {
+                    for (String output : getAllOutputFromSafetyAction(safetyArena, decimalSource, decimalDest, outputBitVectors)) {
                         stateSuccessorStateActionMap.get(String.valueOf(decimalSource)).add(String.valueOf(decimalDest) + "_" + output);
                     }
 
@@ -2240,20 +2086,20 @@ public class SynthesisEngine {
                     // Generate all combinations
                     for (String s : sourceSet) {
                         int decimalSource = Integer.parseInt(s, 2);
-                        if (decimalSource >= safetyArena.size()) {
+                        if (decimalSource >= safetyArena.getNumberOfVertices()) {
                             continue;
                         }
                         for (String d : destSet) {
 
                             int decimalDest = Integer.parseInt(d, 2);
-                            if (decimalDest >= safetyArena.size()) {
+                            if (decimalDest >= safetyArena.getNumberOfVertices()) {
                                 continue;
                             }
                             if (stateSuccessorStateActionMap.get(String.valueOf(decimalSource)) == null) {
                                 HashSet<String> set = new HashSet<String>();
                                 stateSuccessorStateActionMap.put(String.valueOf(decimalSource), set);
                             }
-                            for (String output : getAllOutputFromSafetyAction(safetyArena, decimalSource, decimalDest)) {
+                            for (String output : getAllOutputFromSafetyAction(safetyArena, decimalSource, decimalDest, outputBitVectors)) {
                                 stateSuccessorStateActionMap.get(String.valueOf(decimalSource)).add(String.valueOf(decimalDest) + "_" + output);
                             }
                         }
@@ -2273,15 +2119,19 @@ public class SynthesisEngine {
 
         while (!workList.isEmpty()) {
             String vertexID = workList.remove(0);
-            EquivalenceClass v = safetyArena.get(Integer.parseInt(vertexID));
-            machine.getVertices().add(String.valueOf(v.id));
+            int v = Integer.parseInt(vertexID);
+            machine.getVertices().add(String.valueOf(v));
 
-            for (String input : v.successor.keySet()) {
-                EquivalenceClass succ = v.successor.get(input);
-                for (String destSignal : stateSuccessorStateActionMap.get(String.valueOf(succ.id))) {
+            for (int k = 0; k < safetyArena.getNumberOfSuccessors(v); k++) {
+                int succ = safetyArena.getSuccessor(v, k);
+                if (succ < 0) {
+                    continue;
+                }
+                String input = inputBitVectors.get(k);
+                for (String destSignal : stateSuccessorStateActionMap.get(String.valueOf(succ))) {
                     String dest = destSignal.split("_")[0];
                     String signal = destSignal.split("_")[1];
-                    MealyMachineEdgeElement e = new MealyMachineEdgeElement(String.valueOf(v.id), dest, input, signal);
+                    MealyMachineEdgeElement e = new MealyMachineEdgeElement(String.valueOf(v), dest, input, signal);
                     machine.getEdges().add(e);
 
                     if (envLocations.contains(dest) == false) {
@@ -2306,7 +2156,7 @@ public class SynthesisEngine {
      * @param bitVectors
      * @return 
      */
-    private ArrayList<String> generateBitVectors(int currentSize, int size, ArrayList<String> bitVectors) {
+    ArrayList<String> generateBitVectors(int currentSize, int size, ArrayList<String> bitVectors) {
         if (currentSize == size) {
             return bitVectors;
         } else {
@@ -2328,14 +2178,13 @@ public class SynthesisEngine {
      * @param dest
      * @return 
      */
-    private String getOutputFromBuechiAction(GameArena arena, int source, int dest) {
-        for (VertexEdgeSet v : arena.vertexList) {
-            if (v.getVertexID() == source) {
-                for (EdgeElement e : v.edgeSet) {
-                    if (e.getDestVertexID() == dest) {
-                        return e.getEdgeLabel().iterator().next();
-                    }
-                }
+    private String getOutputFromBuechiAction(CompactGameArena arena, int source, int dest) {
+        if (arena.isEnvironmentVertex(source)) {
+            return "<NO OUTPUT>";
+        }
+        for (int e = arena.getFirstEdge(source); e < arena.getEndEdge(source); e++) {
+            if (arena.getEdgeTarget(e) == dest) {
+                return toBitVector(arena.nextOutput(e, 0), arena.getNumberOfOutputVariables());
             }
         }
         return "<NO OUTPUT>";
@@ -2350,24 +2199,22 @@ public class SynthesisEngine {
      * @param dest
      * @return 
      */
-    private String getOutputFromSafetyAction(ArrayList<EquivalenceClass> safetyGame, int source, int dest) {
-        EquivalenceClass s = safetyGame.get(source);
-        EquivalenceClass d = safetyGame.get(dest);
-        for (String output : s.successor.keySet()) {
-            if (s.successor.get(output) == d) {
-                return output;
+    private String getOutputFromSafetyAction(SafetyGameGraph safetyGame, int source, int dest,
+            ArrayList<String> outputBitVectors) {
+        for (int k = 0; k < safetyGame.getNumberOfSuccessors(source); k++) {
+            if (safetyGame.getSuccessor(source, k) == dest) {
+                return outputBitVectors.get(k);
             }
         }
         return "<NO OUTPUT>";
     }
 
-    private HashSet<String> getAllOutputFromSafetyAction(ArrayList<EquivalenceClass> safetyGame, int source, int dest) {
+    private HashSet<String> getAllOutputFromSafetyAction(SafetyGameGraph safetyGame, int source, int dest,
+            ArrayList<String> outputBitVectors) {
         HashSet<String> result = new HashSet<String>();
-        EquivalenceClass s = safetyGame.get(source);
-        EquivalenceClass d = safetyGame.get(dest);
-        for (String output : s.successor.keySet()) {
-            if (s.successor.get(output) == d) {
-                result.add(output);
+        for (int k = 0; k < safetyGame.getNumberOfSuccessors(source); k++) {
+            if (safetyGame.getSuccessor(source, k) == dest) {
+                result.add(outputBitVectors.get(k));
             }
         }
         return result;
@@ -2378,52 +2225,48 @@ public class SynthesisEngine {
      * game solver.
      * 
      * @param prob problem under analysis
-     * @param ltl2buechi use LTL2Buchi library as the front-end parser
+     * @param translator LTL-to-Buechi translator
      * @param outputFormat output format (pseudo, SAL, Ptolemy II)
      * @param proveExistence prove existence or non-existence
      * @return 
      */
-    public ResultLTLSynthesis invokeMonolithicBuechiEngine(ProblemDescription prob, boolean ltl2buechi, int outputFormat, boolean proveExistence) {
+    public ResultLTLSynthesis invokeMonolithicBuechiEngine(ProblemDescription prob, LTLTranslator translator, int outputFormat, boolean proveExistence) {
 
         try {
-            GameArena buchiArena = null;
+            CompactGameArena buchiArena = null;
             long startTime = 0;
             long endTime = 0;
 
-            if (ltl2buechi) {
-                // Use pure Java-based translator LTL2Buechi
-                startTime = System.currentTimeMillis();
-                // Step 1: Use LTL2Buchi to generate the corresponding Buechi automaton representation.
-                Graph buchiAutomaton;
-                if (proveExistence == true) {
-                    buchiAutomaton = LTL2Buchi.translate(prob.getLtlSpecification());
-                } else {
-                    buchiAutomaton = LTL2Buchi.translate("!(" + prob.getLtlSpecification() + ")");
-                }
-
-
-                endTime = System.currentTimeMillis();
-                System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
+            startTime = System.currentTimeMillis();
+            currentArenaSize = -1;
+            firePhaseStarted(SynthesisEvent.PHASE_TRANSLATION);
+            // Step 1: Use the translator to generate the corresponding Buechi automaton representation.
+            Graph buchiAutomaton = translateSpecification(translator, prob, !proveExistence, true);
 
-                startTime = System.currentTimeMillis();
-                // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
-                buchiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), buchiAutomaton);
-                endTime = System.currentTimeMillis();
-                System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
+            endTime = System.currentTimeMillis();
+            System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
+            firePhaseFinished();
 
-            } else {
-                // Use pure C-based translator LTL2BA (not supported in this version)
-            }
+            startTime = System.currentTimeMillis();
+            firePhaseStarted(SynthesisEvent.PHASE_ARENA);
+            // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
+            buchiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), buchiAutomaton);
+            currentArenaSize = buchiArena.getNumberOfVertices();
+            endTime = System.currentTimeMillis();
+            System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
+            firePhaseFinished();
 
             startTime = System.currentTimeMillis();
+            firePhaseStarted(SynthesisEvent.PHASE_SOLVING);
             ArrayList<Integer> finalEnvVertices = new ArrayList<Integer>();
-            for (VertexEdgeSet v : buchiArena.vertexList) {
-                if (v.getVertexColor() == VertexEdgeSet.COLOR_FINAL) {
-                    finalEnvVertices.add(Integer.valueOf(v.getVertexID()));
+            for (int v = 0; v < buchiArena.getNumberOfVertices(); v++) {
+                if (buchiArena.isFinalVertex(v)) {
+                    finalEnvVertices.add(Integer.valueOf(v));
                 }
             }
 
             MealyMachine machine = analyzeBuechiGame(buchiArena, finalEnvVertices, proveExistence);
+            firePhaseFinished();
 
 
             if (proveExistence) {
@@ -2466,6 +2309,8 @@ public class SynthesisEngine {
             }
 
 
+        } catch (SynthesisCancelledException ex) {
+            throw ex;
         } catch (Exception ex) {
             ex.printStackTrace();
             StringWriter sw = new StringWriter();
@@ -2483,13 +2328,13 @@ public class SynthesisEngine {
      * Co-Buechi + safety game solver.
      * 
      * @param prob problem under analysis
-     * @param ltl2buechi use LTL2Buchi library as the front-end parser
+     * @param translator LTL-to-Buechi translator
      * @param outputFormat output format (pseudo, SAL, Ptolemy II)
      * @param proveExistence prove existence or non-existence
      * @return 
      */
     public ResultLTLSynthesis invokeMonolithicCoBuechiEngine(ProblemDescription prob,
-            boolean ltl2buechi, int outputFormat, boolean proveExistence) {
+            LTLTranslator translator, int outputFormat, boolean proveExistence) {
         ArrayList<String> initialVectorList = new ArrayList<String>();
         initialVectorList.add("");
         ArrayList<String> inputBitVectors = generateBitVectors(0, prob.getInputVariables().size(), initialVectorList);
@@ -2497,101 +2342,105 @@ public class SynthesisEngine {
         initialVectorList.add("");
         ArrayList<String> outputBitVectors = generateBitVectors(0, prob.getOutputVariables().size(), initialVectorList);
 
+
         try {
-            GameArena coBuechiArena = null;
+            CompactGameArena coBuechiArena = null;
             long startTime = 0;
             long endTime = 0;
 
-            if (ltl2buechi) {
-                startTime = System.currentTimeMillis();
-                // Step 1: Use LTL2BA to generate the corresponding Buechi automaton representation.
-                // Collection<ITransition> buechiAutomatonTransitions = LTL2BA4J.formulaToBA("! (" + prob.getLtlSpecification() + ")");
-                Graph coBuechiAutomaton;
-                if (proveExistence == true) {
-                    coBuechiAutomaton = LTL2Buchi.translate("!(" + prob.getLtlSpecification() + ")");
-                } else {
-                    coBuechiAutomaton = LTL2Buchi.translate(prob.getLtlSpecification());
-                }
-                
-                endTime = System.currentTimeMillis();
-                System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
-                                
-                if (isEmptyLanguage(coBuechiAutomaton)) {
-                    if (proveExistence) {
-                        // Create a machine that returns all 0s on all possible inputs
-                        MealyMachine machine = new MealyMachine();
-                        machine.setInitialVertex("0");
-                        for (String input : inputBitVectors) {
-                            machine.getEdges().add(new MealyMachineEdgeElement("0", "0", input, outputBitVectors.get(0)));
-                        }
-                        // Pack the machine to the result
-                        ResultLTLSynthesis result = new ResultLTLSynthesis();
-                        result.setStrategyFound(true);
-                        // Generate the output format based on the requirement
-                        if (outputFormat == OUTPUT_SAL) {
-                            result.setMessage1(SALTemplate.createSALCode(machine, prob, "CoBuchi+safety solver"));
-                        } else if (outputFormat == OUTPUT_PSUEDO_CODE) {
-                            result.setMessage1(PseudoCodeTemplate.createPsuedoCode(machine, prob, "CoBuchi+safety solver"));
-                        } else if (outputFormat == OUTPUT_FSM_ACTOR_PTOLEMY) {
-                            // return PtolemyTemplate.createPtolemyCode(machine, prob);
-                            result.setMessage1(PtolemyTemplate.createPtolemyControllerCode(machine, prob, inputBitVectors));
-                        } else if (outputFormat == OUTPUT_STRUCTURED_TEXT) {
-                            result.setMessage1(StructuredTextTemplate.createSTCode(machine, prob, inputBitVectors, false));
-                        } else {
-                            result.setMessage1("CoBuechi game engine finds the controler, but output format known!");
-                        }
-                        return result;
+            startTime = System.currentTimeMillis();
+            currentArenaSize = -1;
+            firePhaseStarted(SynthesisEvent.PHASE_TRANSLATION);
+            // Step 1: Use the translator to generate the corresponding Buechi automaton representation.
+            // Collection<ITransition> buechiAutomatonTransitions = LTL2BA4J.formulaToBA("! (" + prob.getLtlSpecification() + ")");
+            Graph coBuechiAutomaton = translateSpecification(translator, prob, proveExistence, true);
+            
+            endTime = System.currentTimeMillis();
+            System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
+            firePhaseFinished();
+                            
+            if (isEmptyLanguage(coBuechiAutomaton)) {
+                if (proveExistence) {
+                    // Create a machine that returns all 0s on all possible inputs
+                    MealyMachine machine = new MealyMachine();
+                    machine.setInitialVertex("0");
+                    for (String input : inputBitVectors) {
+                        machine.getEdges().add(new MealyMachineEdgeElement("0", "0", input, outputBitVectors.get(0)));
+                    }
+                    // Pack the machine to the result
+                    ResultLTLSynthesis result = new ResultLTLSynthesis();
+                    result.setStrategyFound(true);
+                    // Generate the output format based on the requirement
+                    if (outputFormat == OUTPUT_SAL) {
+                        result.setMessage1(SALTemplate.createSALCode(machine, prob, "CoBuchi+safety solver"));
+                    } else if (outputFormat == OUTPUT_PSUEDO_CODE) {
+                        result.setMessage1(PseudoCodeTemplate.createPsuedoCode(machine, prob, "CoBuchi+safety solver"));
+                    } else if (outputFormat == OUTPUT_FSM_ACTOR_PTOLEMY) {
+                        // return PtolemyTemplate.createPtolemyCode(machine, prob);
+                        result.setMessage1(PtolemyTemplate.createPtolemyControllerCode(machine, prob, inputBitVectors));
+                    } else if (outputFormat == OUTPUT_STRUCTURED_TEXT) {
+                        result.setMessage1(StructuredTextTemplate.createSTCode(machine, prob, inputBitVectors, false));
                     } else {
-                        ResultLTLSynthesis result = new ResultLTLSynthesis();
-                        result.setStrategyFound(true);
-                        result.setMessage1("Witness of non-existence found by the Co-Buechi + safety game engine");
-                        // Add all input combinations
-                        result.getTokenSet().addAll(inputBitVectors);
-                        return result;
+                        result.setMessage1("CoBuechi game engine finds the controler, but output format known!");
                     }
+                    return result;
+                } else {
+                    ResultLTLSynthesis result = new ResultLTLSynthesis();
+                    result.setStrategyFound(true);
+                    result.setMessage1("Witness of non-existence found by the Co-Buechi + safety game engine");
+                    // Add all input combinations
+                    result.getTokenSet().addAll(inputBitVectors);
+                    return result;
                 }
-
-                startTime = System.currentTimeMillis();
-                // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
-                coBuechiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), coBuechiAutomaton);
-                endTime = System.currentTimeMillis();
-                System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
-
-            } else {
-                // Use pure C-based translator LTL2BA (not supported in this version)
             }
 
+            startTime = System.currentTimeMillis();
+            firePhaseStarted(SynthesisEvent.PHASE_ARENA);
+            // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
+            coBuechiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), coBuechiAutomaton);
+            currentArenaSize = coBuechiArena.getNumberOfVertices();
+            endTime = System.currentTimeMillis();
+            System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
+            firePhaseFinished();
+
             // Step 3: Generate risk states
             ArrayList<Integer> riskStates = new ArrayList<Integer>();
-            String initialVertexID = "";
-            for (VertexEdgeSet v : coBuechiArena.vertexList) {
-                if (v.getVertexColor() == VertexEdgeSet.COLOR_FINAL) {
-                    riskStates.add(Integer.valueOf(v.getVertexID()));
-                }
-                if (v.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
-                    initialVertexID = String.valueOf(v.getVertexID());
+            int initialVertexID = 0;
+            for (int v = 0; v < coBuechiArena.getNumberOfVertices(); v++) {
+                if (coBuechiArena.isFinalVertex(v)) {
+                    riskStates.add(Integer.valueOf(v));
                 }
             }
+            initialVertexID = coBuechiArena.getInitialVertex();
 
 
             // Step 4: Invoke safety game translation 
             startTime = System.currentTimeMillis();
-            CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates, inputBitVectors.size(),
-                    inputBitVectors, outputBitVectors);
-            ArrayList<EquivalenceClass> safetyGameArena = reduction.createReductionGraph(initialVertexID, 1,
-                    prob.getUnrollSteps() * 2 + 1, MAX_VISIT_COBUECHI_FINAL_STATE, inputBitVectors, outputBitVectors);
-            System.out.println("refresh lastSafetyGameArena\n");
-            lastSafetyGameArena=safetyGameArena;
+            firePhaseStarted(SynthesisEvent.PHASE_REDUCTION);
+            CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates);
+            SafetyGameGraph safetyGameArena = createSafetyGame(reduction, initialVertexID, prob.getUnrollSteps());
             endTime = System.currentTimeMillis();
             System.out.println("Total elapsed time in execution of method createReductionGraph() is: " + (endTime - startTime));
+            firePhaseFinished();
             // Step 5: Execute the safety game engine. 
             startTime = System.currentTimeMillis();
-            MealyMachine machine = analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
-                    reduction.riskVertex, proveExistence, inputBitVectors, false);
-            
-            
+            firePhaseStarted(SynthesisEvent.PHASE_SOLVING);
+            MealyMachine machine = null;
+            try {
+                machine = analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
+                        reduction.riskVertex, proveExistence, inputBitVectors, outputBitVectors, false);
+            } finally {
+                // Only the game of an unsuccessful strategy finding is used again (by assumption learning).
+                if (proveExistence && machine != null && !machine.hasSolution()) {
+                    retainSafetyGame(safetyGameArena);
+                } else {
+                    releaseLastSafetyGameArena();
+                    safetyGameArena.dispose();
+                }
+            }
             endTime = System.currentTimeMillis();
             System.out.println("Total elapsed time in execution of method analyzeSafetyGame() is: " + (endTime - startTime));
+            firePhaseFinished();
 
             if (proveExistence) {
                 if (machine.hasSolution() == true) {
@@ -2636,6 +2485,100 @@ public class SynthesisEngine {
                 }
             }
 
+        } catch (SynthesisCancelledException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            ex.printStackTrace(pw);
+            ResultLTLSynthesis result = new ResultLTLSynthesis();
+            result.setStrategyFound(false);
+            result.setMessage1(sw.toString());
+            return result;
+        }
+    }
+
+    /**
+     * Generate the controller code for the given LTL specification using the 
+     * Co-Buechi engine with symbolically encoded visit counters (see 
+     * SymbolicCoBuechiEngine). The game is not unrolled, so the number of
+     * unroll steps of the problem is not used.
+     * 
+     * @param prob problem under analysis
+     * @param translator LTL-to-Buechi translator
+     * @param outputFormat output format (pseudo, SAL, Ptolemy II)
+     * @param proveExistence prove existence or non-existence
+     * @return 
+     */
+    public ResultLTLSynthesis invokeSymbolicCoBuechiEngine(ProblemDescription prob,
+            LTLTranslator translator, int outputFormat, boolean proveExistence) {
+        ArrayList<String> initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> inputBitVectors = generateBitVectors(0, prob.getInputVariables().size(), initialVectorList);
+        initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> outputBitVectors = generateBitVectors(0, prob.getOutputVariables().size(), initialVectorList);
+
+        try {
+            long startTime = 0;
+            long endTime = 0;
+
+            startTime = System.currentTimeMillis();
+            currentArenaSize = -1;
+            firePhaseStarted(SynthesisEvent.PHASE_TRANSLATION);
+            // Step 1: Use the translator to generate the corresponding Buechi automaton representation.
+            Graph coBuechiAutomaton = translateSpecification(translator, prob, proveExistence, true);
+            endTime = System.currentTimeMillis();
+            System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
+            firePhaseFinished();
+
+            // Step 2: Encode the automaton together with the visit counters and solve the game.
+            startTime = System.currentTimeMillis();
+            firePhaseStarted(SynthesisEvent.PHASE_SOLVING);
+            bdd.cleanup();
+            bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+            SymbolicCoBuechiEngine symbolicEngine = new SymbolicCoBuechiEngine(bdd, coBuechiAutomaton,
+                    prob.getInputVariables(), prob.getOutputVariables(), MAX_VISIT_COBUECHI_FINAL_STATE);
+            boolean winning = symbolicEngine.solve(proveExistence);
+            endTime = System.currentTimeMillis();
+            System.out.println("Total elapsed time in execution of method solve() is: " + (endTime - startTime)
+                    + " (" + symbolicEngine.getNumberOfIterations() + " iterations, "
+                    + symbolicEngine.getWinningRegionSize() + " winning vertices)");
+            firePhaseFinished();
+
+            ResultLTLSynthesis result = new ResultLTLSynthesis();
+            result.setStrategyFound(winning);
+            if (proveExistence) {
+                if (winning) {
+                    MealyMachine machine = symbolicEngine.generateMealyMachine(inputBitVectors, outputBitVectors);
+                    // Generate the output format based on the requirement
+                    if (outputFormat == OUTPUT_SAL) {
+                        result.setMessage1(SALTemplate.createSALCode(machine, prob, "CoBuchi (symbolic) solver"));
+                    } else if (outputFormat == OUTPUT_PSUEDO_CODE) {
+                        result.setMessage1(PseudoCodeTemplate.createPsuedoCode(machine, prob, "CoBuchi (symbolic) solver"));
+                    } else if (outputFormat == OUTPUT_FSM_ACTOR_PTOLEMY) {
+                        result.setMessage1(PtolemyTemplate.createPtolemyControllerCode(machine, prob, inputBitVectors));
+                    } else if (outputFormat == OUTPUT_STRUCTURED_TEXT) {
+                        result.setMessage1(StructuredTextTemplate.createSTCode(machine, prob, inputBitVectors, false));
+                    } else {
+                        result.setMessage1("CoBuechi game engine finds the controler, but output format known!");
+                    }
+                } else {
+                    result.setMessage1("Co-Buechi (symbolic) game engine unable to find the controler");
+                }
+            } else {
+                if (winning) {
+                    result.setMessage1("Witness of non-existence found by the Co-Buechi (symbolic) game engine");
+                    result.setTokenSet(symbolicEngine.generateCounterStrategy(inputBitVectors));
+                } else {
+                    result.setMessage1("Co-Buechi (symbolic) game engine unable to find the witness");
+                }
+            }
+            return result;
+
+        } catch (SynthesisCancelledException ex) {
+            throw ex;
         } catch (Exception ex) {
             ex.printStackTrace();
             StringWriter sw = new StringWriter();
@@ -2648,20 +2591,105 @@ public class SynthesisEngine {
         }
     }
 
+    /**
+     * Solver option GR1_SOLVER: strategy finding uses the symbolic GR(1) solver
+     * if the specification is in the GR(1) fragment and strictly realizable,
+     * and Co-Buechi + safety otherwise. The GR(1) controller is not minimal, as
+     * its states also store the last input.
+     *
+     * @param prob problem under analysis
+     * @param translator LTL-to-Buechi translator for the Co-Buechi engine
+     * @param outputFormat output format (pseudo, SAL, Ptolemy II, Structured Text)
+     * @param proveExistence true for strategy finding, false for counter-strategy finding
+     * @return the result
+     */
+    public ResultLTLSynthesis invokeGR1Engine(ProblemDescription prob, LTLTranslator translator, int outputFormat,
+            boolean proveExistence) {
+        if (proveExistence) {
+            ResultLTLSynthesis result = invokeGR1Engine(prob, outputFormat);
+            if (result != null && result.isStrategyFound()) {
+                return result;
+            }
+        }
+        return invokeMonolithicCoBuechiEngine(prob, translator, outputFormat, proveExistence);
+    }
+
+    /**
+     * Generate the controller code for a specification in the GR(1) fragment
+     * (see GR1Specification) using the symbolic GR(1) solver. The solver
+     * checks strict realizability, i.e., the controller must not violate its
+     * safety guarantees before the environment violates its assumptions; a
+     * specification which is realizable but not strictly realizable is
+     * reported as unsolved, so the caller should fall back to another engine.
+     * 
+     * @param prob problem under analysis
+     * @param outputFormat output format (pseudo, SAL, Ptolemy II)
+     * @return the result, or null if the specification is not in the GR(1) fragment
+     */
+    public ResultLTLSynthesis invokeGR1Engine(ProblemDescription prob, int outputFormat) {
+        if (prob.getLtlFormula() == null || (prob.getTimerVariables() != null && !prob.getTimerVariables().isEmpty())) {
+            return null;
+        }
+        GR1Specification spec = GR1Specification.detect(prob.getLtlFormula(), prob.getInputVariables(),
+                prob.getOutputVariables());
+        if (spec == null) {
+            return null;
+        }
+        ArrayList<String> initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> inputBitVectors = generateBitVectors(0, prob.getInputVariables().size(), initialVectorList);
+        initialVectorList = new ArrayList<String>();
+        initialVectorList.add("");
+        ArrayList<String> outputBitVectors = generateBitVectors(0, prob.getOutputVariables().size(), initialVectorList);
+
+        long startTime = System.currentTimeMillis();
+        currentArenaSize = -1;
+        firePhaseStarted(SynthesisEvent.PHASE_SOLVING);
+        bdd.cleanup();
+        bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        GR1Engine engine = new GR1Engine(bdd, spec, prob.getInputVariables(), prob.getOutputVariables());
+        boolean winning = engine.solve();
+        long endTime = System.currentTimeMillis();
+        System.out.println("\nTotal elapsed time in execution of the GR(1) solver is: " + (endTime - startTime)
+                + " (" + engine.getNumberOfIterations() + " iterations)");
+        firePhaseFinished();
+
+        ResultLTLSynthesis result = new ResultLTLSynthesis();
+        result.setStrategyFound(winning);
+        if (winning) {
+            MealyMachine machine = engine.generateMealyMachine(inputBitVectors, outputBitVectors);
+            // Generate the output format based on the requirement
+            if (outputFormat == OUTPUT_SAL) {
+                result.setMessage1(SALTemplate.createSALCode(machine, prob, "GR(1) solver"));
+            } else if (outputFormat == OUTPUT_PSUEDO_CODE) {
+                result.setMessage1(PseudoCodeTemplate.createPsuedoCode(machine, prob, "GR(1) solver"));
+            } else if (outputFormat == OUTPUT_FSM_ACTOR_PTOLEMY) {
+                result.setMessage1(PtolemyTemplate.createPtolemyControllerCode(machine, prob, inputBitVectors));
+            } else if (outputFormat == OUTPUT_STRUCTURED_TEXT) {
+                result.setMessage1(StructuredTextTemplate.createSTCode(machine, prob, inputBitVectors, false));
+            } else {
+                result.setMessage1("GR(1) game engine finds the controler, but output format known!");
+            }
+        } else {
+            result.setMessage1("GR(1) game engine unable to find the controler");
+        }
+        return result;
+    }
+
     /**
      * 
      * @param prob
-     * @param ltl2buechi
+     * @param translator
      * @param outputFormat
      * @param proveExistence
      * @return 
      */
     public ResultLTLSynthesis invokeCompositionalCoBuechiEngine(CompositionalProblemDescription prob,
-            boolean ltl2buechi, int outputFormat, boolean proveExistence, boolean isShowStrategy) {
+            LTLTranslator translator, int outputFormat, boolean proveExistence, boolean isShowStrategy) {
 
         if (proveExistence == false || prob.getPartialSpecification().size() == 1) {
             // Use monolithic solver
-            return invokeMonolithicCoBuechiEngine(prob, ltl2buechi, outputFormat, proveExistence);
+            return invokeMonolithicCoBuechiEngine(prob, translator, outputFormat, proveExistence);
         }
 
         long synthesisStartTime = System.currentTimeMillis();
@@ -2670,16 +2698,16 @@ public class SynthesisEngine {
         ArrayList<MealyMachine> subMachines = new ArrayList<MealyMachine>();
         ArrayList<ProblemDescription> subProblems = new ArrayList<ProblemDescription>();
 
-        for (String partialSpec : prob.getPartialSpecification()) {
+        for (LTLFormula partialSpec : prob.getPartialSpecification()) {
 
             System.out.println("Synthesize controller for partial spec: " + partialSpec);
 
             // Create subproblems
             ProblemDescription subProb = new ProblemDescription();
-            subProb.setLtlSpecification(partialSpec);
+            subProb.setLtlFormula(partialSpec);
             subProb.setUnrollSteps(prob.unrollSteps);
             for (String input : prob.inputVariables) {
-                if (partialSpec.contains(input)) {
+                if (partialSpec.getAtoms().contains(input)) {
                     subProb.getInputVariables().add(input);
                 }
             }
@@ -2687,7 +2715,7 @@ public class SynthesisEngine {
                 subProb.inputVariables.add(prob.inputVariables.get(0));
             }
             for (String output : prob.outputVariables) {
-                if (partialSpec.contains(output)) {
+                if (partialSpec.getAtoms().contains(output)) {
                     subProb.getOutputVariables().add(output);
                 }
             }
@@ -2702,71 +2730,91 @@ public class SynthesisEngine {
             initialVectorList.add("");
             ArrayList<String> outputBitVectors = generateBitVectors(0, subProb.getOutputVariables().size(), initialVectorList);
 
-
+            // Reuse the controller of an unchanged sub-specification from a previous run.
+            String cacheKey = SubSpecificationCache.getKey(partialSpec, subProb, translator, MAX_VISIT_COBUECHI_FINAL_STATE);
+            SubSpecificationCache.Entry cached = SubSpecificationCache.lookup(cacheKey);
+            if (cached != null) {
+                System.out.println("Reuse the controller of the previous run");
+                MealyMachine cachedMachine = cached.getMachine();
+                if (cachedMachine != null) {
+                    subMachines.add(cachedMachine);
+                    subProblems.add(subProb);
+                }
+                continue;
+            }
 
             try {
-                GameArena coBuechiArena = null;
+                CompactGameArena coBuechiArena = null;
                 long startTime = 0;
                 long endTime = 0;
 
-                if (ltl2buechi) {
-                    startTime = System.currentTimeMillis();
-                    // Step 1: Use LTL2BA to generate the corresponding Buechi automaton representation.
-                    // Collection<ITransition> buechiAutomatonTransitions = LTL2BA4J.formulaToBA("! (" + prob.getLtlSpecification() + ")");
-                    Graph coBuechiAutomaton = LTL2Buchi.translate("!(" + partialSpec + ")");
-
-                    if (isEmptyLanguage(coBuechiAutomaton)) {
-                        // The solver accepts all languages. One can simply omit the construction.
-                        continue;
-                    }
+                startTime = System.currentTimeMillis();
+                currentArenaSize = -1;
+                firePhaseStarted(SynthesisEvent.PHASE_TRANSLATION);
+                // Step 1: Use the translator to generate the corresponding Buechi automaton representation.
+                // Collection<ITransition> buechiAutomatonTransitions = LTL2BA4J.formulaToBA("! (" + prob.getLtlSpecification() + ")");
+                Graph coBuechiAutomaton = translateSpecification(translator, subProb, true, false);
+                firePhaseFinished();
 
-                    endTime = System.currentTimeMillis();
-                    // System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
+                if (isEmptyLanguage(coBuechiAutomaton)) {
+                    // The solver accepts all languages. One can simply omit the construction.
+                    SubSpecificationCache.put(cacheKey, null);
+                    continue;
+                }
 
-                    startTime = System.currentTimeMillis();
-                    // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
-                    coBuechiArena = createGameArena(subProb.getInputVariables(), subProb.getOutputVariables(), coBuechiAutomaton);
-                    endTime = System.currentTimeMillis();
-                    // System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
+                endTime = System.currentTimeMillis();
+                // System.out.println("\nTotal elapsed time in execution of method formulaToBA() is : " + (endTime - startTime));
 
-                } else {
-                    // Use pure C-based translator LTL2BA (not supported in this version)
-                }
+                startTime = System.currentTimeMillis();
+                firePhaseStarted(SynthesisEvent.PHASE_ARENA);
+                // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
+                coBuechiArena = createGameArena(subProb.getInputVariables(), subProb.getOutputVariables(), coBuechiAutomaton);
+                currentArenaSize = coBuechiArena.getNumberOfVertices();
+                endTime = System.currentTimeMillis();
+                firePhaseFinished();
+                // System.out.println("Total elapsed time in execution of method createGameArena() is : " + (endTime - startTime));
 
                 // Step 3: Generate risk states
                 ArrayList<Integer> riskStates = new ArrayList<Integer>();
-                String initialVertexID = "";
-                for (VertexEdgeSet v : coBuechiArena.vertexList) {
-                    if (v.getVertexColor() == VertexEdgeSet.COLOR_FINAL) {
-                        riskStates.add(Integer.valueOf(v.getVertexID()));
-                    }
-                    if (v.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
-                        initialVertexID = String.valueOf(v.getVertexID());
+                int initialVertexID = 0;
+                for (int v = 0; v < coBuechiArena.getNumberOfVertices(); v++) {
+                    if (coBuechiArena.isFinalVertex(v)) {
+                        riskStates.add(Integer.valueOf(v));
                     }
                 }
+                initialVertexID = coBuechiArena.getInitialVertex();
 
 
 
                 // Step 4: Invoke safety game translation 
                 startTime = System.currentTimeMillis();
-                CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates, inputBitVectors.size(), inputBitVectors, outputBitVectors);
-                ArrayList<EquivalenceClass> safetyGameArena = reduction.createReductionGraph(initialVertexID, 1,
-                        subProb.getUnrollSteps() * 2 + 1, MAX_VISIT_COBUECHI_FINAL_STATE, inputBitVectors, outputBitVectors);
+                firePhaseStarted(SynthesisEvent.PHASE_REDUCTION);
+                CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates);
+                SafetyGameGraph safetyGameArena = createSafetyGame(reduction, initialVertexID, subProb.getUnrollSteps());
                 endTime = System.currentTimeMillis();
+                firePhaseFinished();
                 // System.out.println("Total elapsed time in execution of method createReductionGraph() is: " + (endTime - startTime));
 
                 // Step 5: Execute the safety game engine. 
                 startTime = System.currentTimeMillis();
-                MealyMachine machine = analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
-                        reduction.riskVertex, proveExistence, inputBitVectors, true);
+                firePhaseStarted(SynthesisEvent.PHASE_SOLVING);
+                MealyMachine machine;
+                try {
+                    machine = analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
+                            reduction.riskVertex, proveExistence, inputBitVectors, outputBitVectors, true);
+                } finally {
+                    safetyGameArena.dispose();
+                }
 
                 endTime = System.currentTimeMillis();
+                firePhaseFinished();
                 // System.out.println("Total elapsed time in execution of method analyzeSafetyGame() is: " + (endTime - startTime));
 
                 if (proveExistence) {
                     if (machine.hasSolution() == true) {
                         subMachines.add(machine);
                         subProblems.add(subProb);
+                        SubSpecificationCache.put(cacheKey, machine);
                         // Create product machine from pervasive strategies. If this is not possible, then return unknown.
                         if (Debug.DEBUG) {
                             System.out.println(PseudoCodeTemplate.createPsuedoCode(machine, subProb, "CoBuchi+safety solver"));
@@ -2797,6 +2845,8 @@ public class SynthesisEngine {
                     }
                 }
 
+            } catch (SynthesisCancelledException ex) {
+                throw ex;
             } catch (Exception ex) {
                 ex.printStackTrace();
                 StringWriter sw = new StringWriter();
@@ -2814,7 +2864,9 @@ public class SynthesisEngine {
 
         System.out.println("Start merging strategies using BDDs");
 
+        firePhaseStarted(SynthesisEvent.PHASE_COMPOSITION);
         MealyMachine machine = symbolicProductMealyMachines(subMachines, subProblems, prob.inputVariables, prob.outputVariables, isShowStrategy);
+        firePhaseFinished();
         ResultLTLSynthesis result = new ResultLTLSynthesis();
         if (machine.hasSolution()) {
             if (!isShowStrategy) {
@@ -2975,7 +3027,7 @@ public class SynthesisEngine {
 
         bdd.cleanup();
 
-        bdd = new BDD(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
+        bdd = DecisionDiagramFactory.create(BDD_MAX_NODE_TABLE_SIZE, BDD_MAX_CACHE_SIZE);
 
         int[] startingIndices = new int[subMachines.size()];
         int[] NUM_OF_BITS_FOR_STATE = new int[subMachines.size()];
@@ -3111,7 +3163,7 @@ public class SynthesisEngine {
         int preStrategy = bdd.ref(productTransition);
         int index = 0;
         while (true) {
-            System.out.print(index + " ");
+            fireProgress(index, -1, -1, bdd, -1);
             int statesWithoutConsideringOutputDest = bdd.exists(preStrategy, exist);
             // bdd.printSet(statesWithoutConsideringOutputDest);
             int remainingStatesHavingAllInputValues = bdd.forall(statesWithoutConsideringOutputDest, forall);
@@ -3129,7 +3181,6 @@ public class SynthesisEngine {
                 index++;
             }
         }
-        System.out.println();
 
 
 
@@ -3150,16 +3201,11 @@ public class SynthesisEngine {
 
                 // Perform further strategy pruning
 
-                PrintStream out = System.out;
                 ByteArrayOutputStream barray = new ByteArrayOutputStream();
                 PrintStream printStreamByteArray = new PrintStream(barray);
-                System.setOut(printStreamByteArray);
-                // bdd.printSet(strategy);
-                bdd.printSet(bdd.and(preStrategy, init));
+                bdd.printSet(bdd.and(preStrategy, init), printStreamByteArray);
                 String initialStateStrategyStringFormat = barray.toString();
 
-                System.setOut(out);
-
                 MealyMachine initialDeterministicTransitions = generateDeterministicTransitionsInitialState(initialStateStrategyStringFormat,
                         inputVariables.size(), outputVariables.size());
 
@@ -3244,15 +3290,11 @@ public class SynthesisEngine {
                 }
                 System.out.println();
 
-                out = System.out;
                 barray = new ByteArrayOutputStream();
                 printStreamByteArray = new PrintStream(barray);
-                System.setOut(printStreamByteArray);
-                bdd.printSet(bdd.and(finalStrategy, bdd.and(preState, bdd.replace(preState, permP1ToP2))));
+                bdd.printSet(bdd.and(finalStrategy, bdd.and(preState, bdd.replace(preState, permP1ToP2))), printStreamByteArray);
                 String strategyStringFormat = barray.toString();
 
-                System.setOut(out);
-
                 return generateMealyMachineProductMachines(strategyStringFormat, initBitPattern.toString(),
                         inputVariables.size(), outputVariables.size());
 
@@ -3262,6 +3304,46 @@ public class SynthesisEngine {
 
     }
 
+    /**
+     * Translate the specification of a problem, or its negation, to a Buechi
+     * automaton. The formula is simplified (see LTLSimplifier) before the
+     * translation, and the automaton is reduced (see AutomatonReduction) after.
+     *
+     * @param translator LTL-to-Buechi translator
+     * @param prob problem under analysis
+     * @param negate translate the negated specification
+     * @param printStatistics print the formula and automaton size
+     * @return the Buechi automaton
+     */
+    private Graph translateSpecification(LTLTranslator translator, ProblemDescription prob, boolean negate,
+            boolean printStatistics) throws ParseErrorException {
+        LTLFormula formula = prob.getLtlFormula();
+        if (formula == null) {
+            // Let LTL2Buchi report the error on the original text.
+            synchronized (LTL2Buchi.class) {
+                return LTL2Buchi.translate(negate ? "!(" + prob.getLtlSpecification() + ")" : prob.getLtlSpecification());
+            }
+        }
+        if (negate) {
+            formula = formula.getFactory().not(formula);
+        }
+        LTLFormula simplified = new LTLSimplifier(formula.getFactory()).simplify(formula);
+        Graph translated = translator.translate(simplified);
+        Graph automaton = AutomatonReduction.reduce(translated);
+        if (printStatistics) {
+            System.out.println("Translator: " + translator.getName());
+            System.out.println("Formula size (simplified): " + formula.getSize() + " -> " + simplified.getSize());
+            if (Debug.DEBUG) {
+                Graph original = translator.translate(formula);
+                System.out.println("Automaton size (simplified): " + original.getNodeCount() + " -> " + translated.getNodeCount()
+                        + " states, " + original.getEdgeCount() + " -> " + translated.getEdgeCount() + " edges");
+            }
+            System.out.println("Automaton size (reduced): " + translated.getNodeCount() + " -> " + automaton.getNodeCount()
+                    + " states, " + translated.getEdgeCount() + " -> " + automaton.getEdgeCount() + " edges");
+        }
+        return automaton;
+    }
+
     boolean isEmptyLanguage(Graph graph) {
         List vertices = graph.getNodes();
         for (Iterator i = vertices.iterator(); i.hasNext();) {
@@ -3290,14 +3372,15 @@ public class SynthesisEngine {
      * @return 
      */
     public MealyMachine invokeSynthesisLibrary(ProblemDescription prob, boolean isBuechiSolver, HashSet<String> provenInputs) {
+        LTLTranslator translator = new LTL2BuchiTranslator();
         try {
-            Graph buchiAutomaton = LTL2Buchi.translate(prob.getLtlSpecification());
-            GameArena buchiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), buchiAutomaton);
+            Graph buchiAutomaton = translateSpecification(translator, prob, false, false);
+            CompactGameArena buchiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), buchiAutomaton);
             if (isBuechiSolver) {
                 ArrayList<Integer> finalEnvVertices = new ArrayList<Integer>();
-                for (VertexEdgeSet v : buchiArena.vertexList) {
-                    if (v.getVertexColor() == VertexEdgeSet.COLOR_FINAL) {
-                        finalEnvVertices.add(Integer.valueOf(v.getVertexID()));
+                for (int v = 0; v < buchiArena.getNumberOfVertices(); v++) {
+                    if (buchiArena.isFinalVertex(v)) {
+                        finalEnvVertices.add(Integer.valueOf(v));
                     }
                 }
                 return analyzeBuechiGame(buchiArena, finalEnvVertices, true);
@@ -3306,22 +3389,20 @@ public class SynthesisEngine {
 
                 // Step 1: Use LTL2BA to generate the corresponding Buechi automaton representation.
                 // Collection<ITransition> buechiAutomatonTransitions = LTL2BA4J.formulaToBA("! (" + prob.getLtlSpecification() + ")");
-                Graph coBuechiAutomaton = LTL2Buchi.translate("!(" + prob.getLtlSpecification() + ")");
+                Graph coBuechiAutomaton = translateSpecification(translator, prob, true, false);
 
                 // Step 2: Generate the arena based on reinterpreting the Buechi automata (from the LTL2BA) and the input/output signals.
-                GameArena coBuechiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), coBuechiAutomaton);
+                CompactGameArena coBuechiArena = createGameArena(prob.getInputVariables(), prob.getOutputVariables(), coBuechiAutomaton);
 
                 // Step 3: Risk states
                 ArrayList<Integer> riskStates = new ArrayList<Integer>();
-                String initialVertexID = "";
-                for (VertexEdgeSet v : coBuechiArena.vertexList) {
-                    if (v.getVertexColor() == VertexEdgeSet.COLOR_FINAL) {
-                        riskStates.add(Integer.valueOf(v.getVertexID()));
-                    }
-                    if (v.getVertexProperty() == VertexEdgeSet.INITIAL_PLANT) {
-                        initialVertexID = String.valueOf(v.getVertexID());
+                int initialVertexID = 0;
+                for (int v = 0; v < coBuechiArena.getNumberOfVertices(); v++) {
+                    if (coBuechiArena.isFinalVertex(v)) {
+                        riskStates.add(Integer.valueOf(v));
                     }
                 }
+                initialVertexID = coBuechiArena.getInitialVertex();
 
                 ArrayList<String> initialVectorList = new ArrayList<String>();
                 initialVectorList.add("");
@@ -3331,14 +3412,17 @@ public class SynthesisEngine {
                 ArrayList<String> outputBitVectors = generateBitVectors(0, prob.getOutputVariables().size(), initialVectorList);
 
                 // Step 4: Invoke safety game translation 
-                CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates, inputBitVectors.size(), inputBitVectors, outputBitVectors);
-                ArrayList<EquivalenceClass> safetyGameArena = reduction.createReductionGraph(initialVertexID, 1,
-                        prob.getUnrollSteps() * 2 + 1, MAX_VISIT_COBUECHI_FINAL_STATE, inputBitVectors, outputBitVectors);
+                CoBuechiSafetyReduction reduction = new CoBuechiSafetyReduction(coBuechiArena, riskStates);
+                SafetyGameGraph safetyGameArena = createSafetyGame(reduction, initialVertexID, prob.getUnrollSteps());
 
                 // Step 5: Execute the safety game engine. 
-                return analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
-                        reduction.riskVertex, true, inputBitVectors, false);
+                MealyMachine machine = analyzeSafetyGameFromCoBuechi(safetyGameArena, reduction.initialVertex,
+                        reduction.riskVertex, true, inputBitVectors, outputBitVectors, false);
+                safetyGameArena.dispose();
+                return machine;
             }
+        } catch (SynthesisCancelledException ex) {
+            throw ex;
         } catch (Exception ex) {
             StringWriter sw = new StringWriter();
             PrintWriter pw = new PrintWriter(sw);
@@ -3375,6 +3459,27 @@ public class SynthesisEngine {
         return 2 * i;
     }
 
+    /**
+     * Encode a vertex index as a (referenced) conjunction over the state bits, most significant bit first.
+     * 
+     * @param vertex vertex index
+     * @param numberOfBits number of bits used for a state
+     * @param isPre use the pre (source) or post (destination) variables
+     * @return 
+     */
+    private int stateBits(int vertex, int numberOfBits, boolean isPre) {
+        int cube = bdd.ref(bdd.getOne());
+        for (int j = 0; j < numberOfBits; j++) {
+            int var = variableArray[isPre ? pre(j) : post(j)];
+            if (((vertex >>> (numberOfBits - 1 - j)) & 1) == 1) {
+                cube = bdd.andTo(cube, var);
+            } else {
+                cube = bdd.andTo(cube, bdd.not(var));
+            }
+        }
+        return cube;
+    }
+
     /**
      * Print the textural presentation of a Buechi automata; debug only.
      * 
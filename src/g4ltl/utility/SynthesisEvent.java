@@ -0,0 +1,160 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.bdd.DecisionDiagram;
+import java.util.EventObject;
+
+/**
+ * SynthesisEvent.java Purpose: Progress of a synthesis run, reported to a
+ * SynthesisListener. Measures which do not apply to the reporting phase are
+ * -1.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SynthesisEvent extends EventObject {
+
+    private static final long serialVersionUID = 1L;
+    /**
+     * Phase: translation of the specification to an automaton.
+     */
+    public static final String PHASE_TRANSLATION = "translation";
+    /**
+     * Phase: creation of the game arena from the automaton.
+     */
+    public static final String PHASE_ARENA = "arena";
+    /**
+     * Phase: unrolling of the Co-Buechi game into a safety game.
+     */
+    public static final String PHASE_REDUCTION = "reduction";
+    /**
+     * Phase: symbolic solving of the game and extraction of the strategy.
+     */
+    public static final String PHASE_SOLVING = "solving";
+    /**
+     * Phase: product of the controllers of the sub-specifications in
+     * compositional synthesis.
+     */
+    public static final String PHASE_COMPOSITION = "composition";
+    private final String phase;
+    private final long elapsedTime;
+    private final int iteration;
+    private final int unrollDepth;
+    private final long frontierSize;
+    private final long arenaSize;
+    private final transient DecisionDiagram diagram;
+    private int liveNodes = -1;
+    private final long remainingWork;
+
+    SynthesisEvent(Object source, String phase, long elapsedTime, int iteration, int unrollDepth,
+            long frontierSize, long arenaSize, DecisionDiagram diagram, long remainingWork) {
+        super(source);
+        this.phase = phase;
+        this.elapsedTime = elapsedTime;
+        this.iteration = iteration;
+        this.unrollDepth = unrollDepth;
+        this.frontierSize = frontierSize;
+        this.arenaSize = arenaSize;
+        this.diagram = diagram;
+        this.remainingWork = remainingWork;
+    }
+
+    /**
+     * @return one of the PHASE_ constants
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return milliseconds since the start of the phase
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return iteration of the current fixpoint computation, counted from 0
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * @return depth of the safety game unrolling reached so far
+     */
+    public int getUnrollDepth() {
+        return unrollDepth;
+    }
+
+    /**
+     * @return number of vertices (or states) waiting to be expanded, or newly
+     * added by the last fixpoint iteration
+     */
+    public long getFrontierSize() {
+        return frontierSize;
+    }
+
+    /**
+     * @return number of vertices of the explicit game arena, or of the safety
+     * game generated so far
+     */
+    public long getArenaSize() {
+        return arenaSize;
+    }
+
+    /**
+     * Count the nodes in use of the BDD manager of the phase. Counting may
+     * take time linear in the size of the node table, hence it is only done
+     * when requested; it must be requested from within the listener method.
+     *
+     * @return number of nodes of the BDD manager in use
+     */
+    public int getLiveNodes() {
+        if (liveNodes < 0 && diagram != null) {
+            liveNodes = diagram.getNodeCount();
+        }
+        return liveNodes;
+    }
+
+    /**
+     * @return estimated remaining work of the phase: the remaining unrolling
+     * levels, or the number of states a fixpoint computation may still add
+     * (an upper bound of its remaining iterations)
+     */
+    public long getRemainingWork() {
+        return remainingWork;
+    }
+
+    @Override
+    public String toString() {
+        return phase + ": elapsed " + elapsedTime + " ms, iteration " + iteration + ", depth " + unrollDepth
+                + ", frontier " + frontierSize + ", arena " + arenaSize + ", remaining " + remainingWork;
+    }
+}
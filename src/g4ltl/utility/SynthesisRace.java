@@ -0,0 +1,250 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility;
+
+import g4ltl.utility.ltl.LTLFormula;
+import g4ltl.utility.ltl.LTLFormulaFactory;
+import g4ltl.utility.ltl.LTLTranslator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * SynthesisRace.java Purpose: Decide realizability without choosing the
+ * direction up front. Strategy finding (prove existence) and counter-strategy
+ * finding (prove non-existence) run concurrently, each on its own
+ * SynthesisEngine and thus with its own BDD manager. Both directions use the
+ * same arena construction of the selected engine, on the automata of the
+ * specification and of its negation respectively. A direction which finds its
+ * strategy gives a definite verdict; the other direction is then cancelled and
+ * left to stop on its (daemon) thread, such that the verdict is returned
+ * without waiting for it. If neither direction finds its strategy (e.g., the
+ * unroll depth is too small), the result of strategy finding is returned.
+ *
+ * Listeners registered at the race are registered at both engines; the source
+ * of an event is the engine reporting it.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SynthesisRace {
+
+    /**
+     * Neither direction reached a definite verdict.
+     */
+    public static final int VERDICT_UNKNOWN = 0;
+    /**
+     * A strategy for the controller was found.
+     */
+    public static final int VERDICT_REALIZABLE = 1;
+    /**
+     * A strategy for the environment (witness of non-existence) was found.
+     */
+    public static final int VERDICT_UNREALIZABLE = 2;
+    private final SynthesisEngine existenceEngine = new SynthesisEngine();
+    private final SynthesisEngine nonExistenceEngine = new SynthesisEngine();
+    private volatile boolean cancelled = false;
+    private int verdict = VERDICT_UNKNOWN;
+
+    /**
+     * @return the engine proving existence; after a run without definite
+     * verdict, its last safety game is available for assumption mining
+     */
+    public SynthesisEngine getExistenceEngine() {
+        return existenceEngine;
+    }
+
+    /**
+     * @return the engine proving non-existence
+     */
+    public SynthesisEngine getNonExistenceEngine() {
+        return nonExistenceEngine;
+    }
+
+    public void addSynthesisListener(SynthesisListener listener) {
+        existenceEngine.addSynthesisListener(listener);
+        nonExistenceEngine.addSynthesisListener(listener);
+    }
+
+    public void removeSynthesisListener(SynthesisListener listener) {
+        existenceEngine.removeSynthesisListener(listener);
+        nonExistenceEngine.removeSynthesisListener(listener);
+    }
+
+    /**
+     * Request both directions to stop; invoke then throws
+     * SynthesisCancelledException.
+     */
+    public void cancel() {
+        cancelled = true;
+        existenceEngine.cancel();
+        nonExistenceEngine.cancel();
+    }
+
+    /**
+     * @return the verdict of the last run, one of VERDICT_UNKNOWN,
+     * VERDICT_REALIZABLE and VERDICT_UNREALIZABLE
+     */
+    public int getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Run both directions and return the first definite verdict. A race runs
+     * once, as the losing engine stays cancelled.
+     *
+     * @param prob problem under analysis
+     * @param translator LTL-to-Buechi translator
+     * @param outputFormat output format (pseudo, SAL, Ptolemy II, Structured Text)
+     * @param optionTechnique SynthesisEngine.COBUECHI_SOLVER, BUECHI_SOLVER,
+     * SYMBOLIC_COBUECHI_SOLVER or GR1_SOLVER
+     * @return the controller if the specification is realizable; otherwise a
+     * result without strategy, whose message tells whether non-existence was
+     * proved
+     */
+    public ResultLTLSynthesis invoke(ProblemDescription prob, LTLTranslator translator, int outputFormat,
+            int optionTechnique) {
+        verdict = VERDICT_UNKNOWN;
+        ExecutorService executor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "G4LTL race");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        CompletionService<Direction> completion = new ExecutorCompletionService<Direction>(executor);
+        completion.submit(new Direction(existenceEngine, true, copyProblem(prob), translator, outputFormat,
+                optionTechnique));
+        completion.submit(new Direction(nonExistenceEngine, false, copyProblem(prob), translator, outputFormat,
+                optionTechnique));
+        try {
+            ResultLTLSynthesis existenceResult = null;
+            for (int i = 0; i < 2; i++) {
+                Direction direction;
+                try {
+                    direction = completion.take().get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof SynthesisCancelledException && !cancelled) {
+                        // Only the race cancels a single direction, after the verdict.
+                        continue;
+                    }
+                    cancel();
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw (Error) ex.getCause();
+                }
+                if (direction.result.isStrategyFound()) {
+                    SynthesisEngine other = direction.proveExistence ? nonExistenceEngine : existenceEngine;
+                    other.cancel();
+                    if (direction.proveExistence) {
+                        verdict = VERDICT_REALIZABLE;
+                        return direction.result;
+                    }
+                    verdict = VERDICT_UNREALIZABLE;
+                    ResultLTLSynthesis result = new ResultLTLSynthesis();
+                    result.setStrategyFound(false);
+                    result.setMessage1(direction.result.getMessage1());
+                    return result;
+                }
+                if (direction.proveExistence) {
+                    existenceResult = direction.result;
+                }
+            }
+            return existenceResult;
+        } catch (InterruptedException ex) {
+            cancel();
+            throw new SynthesisCancelledException();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Copy the problem with the specification in a factory of its own, as
+     * formula factories are not thread-safe.
+     */
+    private static ProblemDescription copyProblem(ProblemDescription prob) {
+        LTLFormula formula = prob.getLtlFormula();
+        if (formula == null) {
+            return new ProblemDescription(prob.getInputVariables(), prob.getOutputVariables(),
+                    prob.getTimerVariables(), prob.getLtlSpecification(), prob.getUnrollSteps());
+        }
+        return new ProblemDescription(prob.getInputVariables(), prob.getOutputVariables(),
+                prob.getTimerVariables(), new LTLFormulaFactory().importFormula(formula), prob.getUnrollSteps());
+    }
+
+    /**
+     * One direction of the race.
+     */
+    private static class Direction implements Callable<Direction> {
+
+        private final SynthesisEngine engine;
+        private final boolean proveExistence;
+        private final ProblemDescription prob;
+        private final LTLTranslator translator;
+        private final int outputFormat;
+        private final int optionTechnique;
+        private ResultLTLSynthesis result;
+
+        Direction(SynthesisEngine engine, boolean proveExistence, ProblemDescription prob,
+                LTLTranslator translator, int outputFormat, int optionTechnique) {
+            this.engine = engine;
+            this.proveExistence = proveExistence;
+            this.prob = prob;
+            this.translator = translator;
+            this.outputFormat = outputFormat;
+            this.optionTechnique = optionTechnique;
+        }
+
+        public Direction call() {
+            try {
+                if (optionTechnique == SynthesisEngine.COBUECHI_SOLVER) {
+                    result = engine.invokeMonolithicCoBuechiEngine(prob, translator, outputFormat, proveExistence);
+                } else if (optionTechnique == SynthesisEngine.SYMBOLIC_COBUECHI_SOLVER) {
+                    result = engine.invokeSymbolicCoBuechiEngine(prob, translator, outputFormat, proveExistence);
+                } else if (optionTechnique == SynthesisEngine.GR1_SOLVER) {
+                    result = engine.invokeGR1Engine(prob, translator, outputFormat, proveExistence);
+                } else {
+                    result = engine.invokeMonolithicBuechiEngine(prob, translator, outputFormat, proveExistence);
+                }
+                return this;
+            } finally {
+                if (!proveExistence) {
+                    // Only the safety game of strategy finding is used afterwards.
+                    engine.releaseLastSafetyGameArena();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.bdd;
+
+import java.io.PrintStream;
+
+/**
+ * DecisionDiagram.java Purpose: Binary decision diagram manager used by the
+ * synthesis engines. The interface follows the conventions of JDD: a BDD is an
+ * int handle, results of operations are unreferenced, and andTo/orTo consume
+ * (dereference) their first argument. Variables are ordered by creation.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public interface DecisionDiagram {
+
+    /**
+     * @return the constant true
+     */
+    int getOne();
+
+    /**
+     * @return the constant false
+     */
+    int getZero();
+
+    int numberOfVariables();
+
+    /**
+     * Create a new variable below all existing ones.
+     *
+     * @return the (permanently referenced) BDD of the variable
+     */
+    int createVar();
+
+    int ref(int bdd);
+
+    int deref(int bdd);
+
+    int and(int a, int b);
+
+    int or(int a, int b);
+
+    int not(int a);
+
+    int biimp(int a, int b);
+
+    int imp(int a, int b);
+
+    /**
+     * @return a AND b, which is referenced; a is dereferenced
+     */
+    int andTo(int a, int b);
+
+    /**
+     * @return a OR b, which is referenced; a is dereferenced
+     */
+    int orTo(int a, int b);
+
+    /**
+     * @param cube conjunction of the variables to quantify
+     */
+    int exists(int bdd, int cube);
+
+    /**
+     * @param cube conjunction of the variables to quantify
+     */
+    int forall(int bdd, int cube);
+
+    /**
+     * @return EXISTS cube. (a AND b)
+     */
+    int relProd(int a, int b, int cube);
+
+    /**
+     * @param from variables (as BDDs) to be renamed
+     * @param to new variables (as BDDs), in the same order
+     */
+    Permutation createPermutation(int[] from, int[] to);
+
+    int replace(int bdd, Permutation permutation);
+
+    /**
+     * @return the number of satisfying assignments over all variables
+     */
+    double satCount(int bdd);
+
+    /**
+     * @param buffer array of size numberOfVariables() to reuse, or null
+     * @return a satisfying assignment indexed by variable: 0, 1, or -1 for
+     * don't care
+     */
+    int[] oneSat(int bdd, int[] buffer);
+
+    /**
+     * @param assignment truth values indexed by variable
+     */
+    boolean member(int bdd, boolean[] assignment);
+
+    /**
+     * @return the variable at the root of a non-constant BDD
+     */
+    int getVar(int bdd);
+
+    /**
+     * Print the satisfying cubes to System.out, one line per cube with one
+     * character (0, 1 or -) per variable, followed by an empty line; constants
+     * are printed as FALSE and TRUE.
+     */
+    void printSet(int bdd);
+
+    /**
+     * Print the satisfying cubes in the format of printSet(int) to the given
+     * stream; unlike redirecting System.out, this is safe when several
+     * engines run concurrently.
+     */
+    void printSet(int bdd, PrintStream out);
+
+    /**
+     * @return the number of nodes in use, including unreferenced ones not yet
+     * collected; meant for monitoring, as it may take time linear in the size
+     * of the node table
+     */
+    int getNodeCount();
+
+    /**
+     * Release the memory of the manager; it must not be used afterwards.
+     */
+    void cleanup();
+}
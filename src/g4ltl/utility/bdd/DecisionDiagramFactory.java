@@ -0,0 +1,75 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.bdd;
+
+/**
+ * DecisionDiagramFactory.java Purpose: Create the BDD manager of the selected
+ * backend.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class DecisionDiagramFactory {
+
+    /**
+     * Backend option: JDD, with an on-heap node table.
+     */
+    public static int JDD_BACKEND = 0;
+    /**
+     * Backend option: node table and computed cache in direct buffers, with
+     * complement edges and a growable table.
+     */
+    public static int OFF_HEAP_BACKEND = 1;
+    /**
+     * Backend option: apply operations on several threads, with a concurrent
+     * unique table and a lock-free computed cache.
+     */
+    public static int PARALLEL_BACKEND = 2;
+    /**
+     * Number of worker threads of the parallel backend.
+     */
+    public static int THREADS = Runtime.getRuntime().availableProcessors();
+    /**
+     * Backend used by all engines.
+     */
+    public static int BACKEND = JDD_BACKEND;
+
+    /**
+     * @param nodeTableSize initial number of nodes
+     * @param cacheSize size of the operation caches
+     * @return a new manager of the selected backend
+     */
+    public static DecisionDiagram create(int nodeTableSize, int cacheSize) {
+        if (BACKEND == PARALLEL_BACKEND) {
+            return new ParallelDecisionDiagram(nodeTableSize, cacheSize, THREADS);
+        } else if (BACKEND == OFF_HEAP_BACKEND) {
+            return new OffHeapDecisionDiagram(nodeTableSize, cacheSize);
+        }
+        return new JDDDecisionDiagram(nodeTableSize, cacheSize);
+    }
+}
@@ -0,0 +1,217 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.bdd;
+
+import java.io.PrintStream;
+import jdd.bdd.BDD;
+
+/**
+ * JDDDecisionDiagram.java Purpose: DecisionDiagram backed by jdd.bdd.BDD,
+ * whose node table is an on-heap int array.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class JDDDecisionDiagram implements DecisionDiagram {
+
+    private final NodeCountingBDD bdd;
+
+    /**
+     * @param nodeTableSize initial number of nodes
+     * @param cacheSize size of the operation caches
+     */
+    public JDDDecisionDiagram(int nodeTableSize, int cacheSize) {
+        bdd = new NodeCountingBDD(nodeTableSize, cacheSize);
+    }
+
+    public int getOne() {
+        return bdd.getOne();
+    }
+
+    public int getZero() {
+        return bdd.getZero();
+    }
+
+    public int numberOfVariables() {
+        return bdd.numberOfVariables();
+    }
+
+    public int createVar() {
+        return bdd.createVar();
+    }
+
+    public int ref(int a) {
+        return bdd.ref(a);
+    }
+
+    public int deref(int a) {
+        return bdd.deref(a);
+    }
+
+    public int and(int a, int b) {
+        return bdd.and(a, b);
+    }
+
+    public int or(int a, int b) {
+        return bdd.or(a, b);
+    }
+
+    public int not(int a) {
+        return bdd.not(a);
+    }
+
+    public int biimp(int a, int b) {
+        return bdd.biimp(a, b);
+    }
+
+    public int imp(int a, int b) {
+        return bdd.imp(a, b);
+    }
+
+    public int andTo(int a, int b) {
+        return bdd.andTo(a, b);
+    }
+
+    public int orTo(int a, int b) {
+        return bdd.orTo(a, b);
+    }
+
+    public int exists(int a, int cube) {
+        return bdd.exists(a, cube);
+    }
+
+    public int forall(int a, int cube) {
+        return bdd.forall(a, cube);
+    }
+
+    public int relProd(int a, int b, int cube) {
+        return bdd.relProd(a, b, cube);
+    }
+
+    public Permutation createPermutation(int[] from, int[] to) {
+        return new JDDPermutation(bdd.createPermutation(from, to));
+    }
+
+    public int replace(int a, Permutation permutation) {
+        return bdd.replace(a, ((JDDPermutation) permutation).permutation);
+    }
+
+    public double satCount(int a) {
+        return bdd.satCount(a);
+    }
+
+    public int[] oneSat(int a, int[] buffer) {
+        return bdd.oneSat(a, buffer);
+    }
+
+    public boolean member(int a, boolean[] assignment) {
+        return bdd.member(a, assignment);
+    }
+
+    public int getVar(int a) {
+        return bdd.getVar(a);
+    }
+
+    public void printSet(int a) {
+        printSet(a, System.out);
+    }
+
+    /**
+     * Same output as jdd.bdd.BDD.printSet, which however keeps its state in
+     * static fields of BDDPrinter and thus cannot be used by several managers
+     * concurrently.
+     */
+    public void printSet(int a, PrintStream out) {
+        if (a < 2) {
+            out.println(a == 0 ? "FALSE" : "TRUE");
+        } else {
+            printSetRec(a, 0, new char[bdd.numberOfVariables()], out);
+            out.println();
+        }
+    }
+
+    public int getNodeCount() {
+        return bdd.getNodeCount();
+    }
+
+    public void cleanup() {
+        bdd.cleanup();
+    }
+
+    private void printSetRec(int a, int level, char[] set, PrintStream out) {
+        if (level == set.length) {
+            out.println(new String(set));
+            return;
+        }
+        if (a == 1 || bdd.getVar(a) > level) {
+            set[level] = '-';
+            printSetRec(a, level + 1, set, out);
+            return;
+        }
+        int low = bdd.getLow(a);
+        int high = bdd.getHigh(a);
+        if (low != 0) {
+            set[level] = '0';
+            printSetRec(low, level + 1, set, out);
+        }
+        if (high != 0) {
+            set[level] = '1';
+            printSetRec(high, level + 1, set, out);
+        }
+    }
+
+    /**
+     * JDD keeps the number of free nodes private; the nodes in use are counted
+     * by scanning the node table.
+     */
+    private static class NodeCountingBDD extends BDD {
+
+        NodeCountingBDD(int nodeTableSize, int cacheSize) {
+            super(nodeTableSize, cacheSize);
+        }
+
+        int getNodeCount() {
+            int count = 0;
+            for (int i = 0; i < table_size; i++) {
+                if (isValid(i)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static class JDDPermutation implements Permutation {
+
+        private final jdd.bdd.Permutation permutation;
+
+        JDDPermutation(jdd.bdd.Permutation permutation) {
+            this.permutation = permutation;
+        }
+    }
+}
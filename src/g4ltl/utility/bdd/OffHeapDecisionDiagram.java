@@ -0,0 +1,679 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.bdd;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+
+/**
+ * OffHeapDecisionDiagram.java Purpose: DecisionDiagram whose unique table and
+ * computed cache live in direct (off-heap) buffers, so that large games do not
+ * burden the garbage collector of the JVM.
+ *
+ * A BDD handle is an edge: the node index shifted left by one, with the lowest
+ * bit marking a complemented edge. The only terminal is node 0 (false), hence
+ * getZero() is 0 and getOne() is 1 as in JDD. The high edge of a node is never
+ * complemented, which keeps the representation canonical and makes negation
+ * constant-time.
+ *
+ * Nodes are reclaimed by reference counting: when the table is nearly full at
+ * the start of an operation, unreferenced nodes (except the operands of the
+ * operation) are collected and the computed cache is cleared. If this does not
+ * free enough nodes, or the table fills up during an operation, the table is
+ * doubled; node indices are preserved when growing.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class OffHeapDecisionDiagram implements DecisionDiagram {
+
+    private static final int VAR = 0;
+    private static final int LOW = 1;
+    private static final int HIGH = 2;
+    private static final int NEXT = 3;
+    private static final int REF = 4;
+    private static final int NODE_INTS = 5;
+    private static final int TERMINAL_VAR = Integer.MAX_VALUE;
+    private static final int FREE_VAR = -1;
+    private static final int MAX_REF = 0x3fffffff;
+    private static final int MARK = 0x40000000;
+    private static final int MAX_CAPACITY = Math.min(Integer.MAX_VALUE / 4 / NODE_INTS, 1 << 30);
+    private static final int OP_AND = 1;
+    private static final int OP_XOR = 2;
+    private static final int OP_EXISTS = 3;
+    private static final int OP_RELPROD = 4;
+    private static final int OP_REPLACE = 5;
+    private static final int CACHE_INTS = 5;
+    private IntBuffer nodes;
+    private int capacity;
+    private int nextUnused = 1;
+    private int freeList = 0;
+    private int allocated = 1;
+    private IntBuffer buckets;
+    private int bucketMask;
+    private IntBuffer cache;
+    private int cacheMask;
+    private int cacheRatio;
+    private int numVars = 0;
+    private int permutationCount = 0;
+
+    /**
+     * @param nodeTableSize initial number of nodes
+     * @param cacheSize initial number of entries of the computed cache
+     */
+    public OffHeapDecisionDiagram(int nodeTableSize, int cacheSize) {
+        capacity = Math.max(1024, Math.min(nodeTableSize, MAX_CAPACITY));
+        nodes = allocate(capacity * NODE_INTS);
+        nodes.put(VAR, TERMINAL_VAR);
+        buckets = allocate(powerOfTwo(capacity));
+        bucketMask = buckets.capacity() - 1;
+        cacheRatio = Math.max(1, capacity / Math.max(1, cacheSize));
+        allocateCache(capacity / cacheRatio);
+    }
+
+    public int getOne() {
+        return 1;
+    }
+
+    public int getZero() {
+        return 0;
+    }
+
+    public int numberOfVariables() {
+        return numVars;
+    }
+
+    public int createVar() {
+        maintain(0, 0, 0);
+        int result = mk(numVars, 0, 1);
+        numVars++;
+        nodes.put((result >>> 1) * NODE_INTS + REF, MAX_REF);
+        return result;
+    }
+
+    public int ref(int a) {
+        if (a >= 2) {
+            int position = (a >>> 1) * NODE_INTS + REF;
+            int count = nodes.get(position);
+            if (count < MAX_REF) {
+                nodes.put(position, count + 1);
+            }
+        }
+        return a;
+    }
+
+    public int deref(int a) {
+        if (a >= 2) {
+            int position = (a >>> 1) * NODE_INTS + REF;
+            int count = nodes.get(position);
+            if (count > 0 && count < MAX_REF) {
+                nodes.put(position, count - 1);
+            }
+        }
+        return a;
+    }
+
+    public int and(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a, b);
+    }
+
+    public int or(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a ^ 1, b ^ 1) ^ 1;
+    }
+
+    public int not(int a) {
+        return a ^ 1;
+    }
+
+    public int biimp(int a, int b) {
+        maintain(a, b, 0);
+        return xorRec(a, b) ^ 1;
+    }
+
+    public int imp(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a, b ^ 1) ^ 1;
+    }
+
+    public int andTo(int a, int b) {
+        int result = ref(and(a, b));
+        deref(a);
+        return result;
+    }
+
+    public int orTo(int a, int b) {
+        int result = ref(or(a, b));
+        deref(a);
+        return result;
+    }
+
+    public int exists(int a, int cube) {
+        maintain(a, cube, 0);
+        return existsRec(a, cube);
+    }
+
+    public int forall(int a, int cube) {
+        maintain(a, cube, 0);
+        return existsRec(a ^ 1, cube) ^ 1;
+    }
+
+    public int relProd(int a, int b, int cube) {
+        maintain(a, b, cube);
+        return relProdRec(a, b, cube);
+    }
+
+    public Permutation createPermutation(int[] from, int[] to) {
+        int[] map = new int[numVars];
+        for (int v = 0; v < numVars; v++) {
+            map[v] = v;
+        }
+        int last = -1;
+        for (int i = 0; i < from.length; i++) {
+            map[getVar(from[i])] = getVar(to[i]);
+            last = Math.max(last, getVar(from[i]));
+        }
+        permutationCount++;
+        return new OffHeapPermutation(permutationCount, map, last);
+    }
+
+    public int replace(int a, Permutation permutation) {
+        maintain(a, 0, 0);
+        return replaceRec(a, (OffHeapPermutation) permutation);
+    }
+
+    public double satCount(int a) {
+        return probability(a, new HashMap<Integer, Double>()) * Math.pow(2, numVars);
+    }
+
+    public int[] oneSat(int a, int[] buffer) {
+        if (buffer == null) {
+            buffer = new int[numVars];
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = -1;
+        }
+        while (a >= 2) {
+            int low = low(a);
+            if (low == 0) {
+                buffer[var(a)] = 1;
+                a = high(a);
+            } else {
+                buffer[var(a)] = 0;
+                a = low;
+            }
+        }
+        return buffer;
+    }
+
+    public boolean member(int a, boolean[] assignment) {
+        while (a >= 2) {
+            a = assignment[var(a)] ? high(a) : low(a);
+        }
+        return a == 1;
+    }
+
+    public int getVar(int a) {
+        return var(a);
+    }
+
+    public void printSet(int a) {
+        printSet(a, System.out);
+    }
+
+    public void printSet(int a, PrintStream out) {
+        if (a < 2) {
+            out.println(a == 0 ? "FALSE" : "TRUE");
+        } else {
+            printSetRec(a, 0, new char[numVars], out);
+            out.println();
+        }
+    }
+
+    public void cleanup() {
+        nodes = null;
+        buckets = null;
+        cache = null;
+    }
+
+    /**
+     * @return the number of nodes in use, including unreferenced ones not yet
+     * collected
+     */
+    public int getNodeCount() {
+        return allocated;
+    }
+
+    /**
+     * @return the current size of the node table
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int var(int a) {
+        return nodes.get((a >>> 1) * NODE_INTS + VAR);
+    }
+
+    private int low(int a) {
+        return nodes.get((a >>> 1) * NODE_INTS + LOW) ^ (a & 1);
+    }
+
+    private int high(int a) {
+        return nodes.get((a >>> 1) * NODE_INTS + HIGH) ^ (a & 1);
+    }
+
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int complement = high & 1;
+        low ^= complement;
+        high ^= complement;
+        int bucket = hash(var, low, high) & bucketMask;
+        for (int node = buckets.get(bucket); node != 0; node = nodes.get(node * NODE_INTS + NEXT)) {
+            int position = node * NODE_INTS;
+            if (nodes.get(position + VAR) == var && nodes.get(position + LOW) == low
+                    && nodes.get(position + HIGH) == high) {
+                return (node << 1) | complement;
+            }
+        }
+        int node;
+        if (freeList != 0) {
+            node = freeList;
+            freeList = nodes.get(node * NODE_INTS + NEXT);
+        } else {
+            if (nextUnused == capacity) {
+                grow();
+                bucket = hash(var, low, high) & bucketMask;
+            }
+            node = nextUnused++;
+        }
+        allocated++;
+        int position = node * NODE_INTS;
+        nodes.put(position + VAR, var);
+        nodes.put(position + LOW, low);
+        nodes.put(position + HIGH, high);
+        nodes.put(position + NEXT, buckets.get(bucket));
+        nodes.put(position + REF, 0);
+        buckets.put(bucket, node);
+        return (node << 1) | complement;
+    }
+
+    private int andRec(int a, int b) {
+        if (a == 0 || b == 0 || a == (b ^ 1)) {
+            return 0;
+        }
+        if (a == 1 || a == b) {
+            return b;
+        }
+        if (b == 1) {
+            return a;
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int result = lookup(OP_AND, a, b, 0);
+        if (result >= 0) {
+            return result;
+        }
+        int va = var(a);
+        int vb = var(b);
+        int v = Math.min(va, vb);
+        int low = andRec(va == v ? low(a) : a, vb == v ? low(b) : b);
+        int high = andRec(va == v ? high(a) : a, vb == v ? high(b) : b);
+        result = mk(v, low, high);
+        insert(OP_AND, a, b, 0, result);
+        return result;
+    }
+
+    private int xorRec(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == (b ^ 1)) {
+            return 1;
+        }
+        int complement = (a ^ b) & 1;
+        a &= ~1;
+        b &= ~1;
+        if (a == 0) {
+            return b ^ complement;
+        }
+        if (b == 0) {
+            return a ^ complement;
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int result = lookup(OP_XOR, a, b, 0);
+        if (result < 0) {
+            int va = var(a);
+            int vb = var(b);
+            int v = Math.min(va, vb);
+            int low = xorRec(va == v ? low(a) : a, vb == v ? low(b) : b);
+            int high = xorRec(va == v ? high(a) : a, vb == v ? high(b) : b);
+            result = mk(v, low, high);
+            insert(OP_XOR, a, b, 0, result);
+        }
+        return result ^ complement;
+    }
+
+    private int existsRec(int a, int cube) {
+        if (a < 2) {
+            return a;
+        }
+        int v = var(a);
+        while (cube >= 2 && var(cube) < v) {
+            cube = high(cube);
+        }
+        if (cube < 2) {
+            return a;
+        }
+        int result = lookup(OP_EXISTS, a, cube, 0);
+        if (result >= 0) {
+            return result;
+        }
+        if (var(cube) == v) {
+            int rest = high(cube);
+            result = existsRec(low(a), rest);
+            if (result != 1) {
+                result = andRec(result ^ 1, existsRec(high(a), rest) ^ 1) ^ 1;
+            }
+        } else {
+            int low = existsRec(low(a), cube);
+            result = mk(v, low, existsRec(high(a), cube));
+        }
+        insert(OP_EXISTS, a, cube, 0, result);
+        return result;
+    }
+
+    private int relProdRec(int a, int b, int cube) {
+        if (a == 0 || b == 0 || a == (b ^ 1)) {
+            return 0;
+        }
+        if (a == 1) {
+            return existsRec(b, cube);
+        }
+        if (b == 1 || a == b) {
+            return existsRec(a, cube);
+        }
+        int va = var(a);
+        int vb = var(b);
+        int v = Math.min(va, vb);
+        while (cube >= 2 && var(cube) < v) {
+            cube = high(cube);
+        }
+        if (cube < 2) {
+            return andRec(a, b);
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+            t = va;
+            va = vb;
+            vb = t;
+        }
+        int result = lookup(OP_RELPROD, a, b, cube);
+        if (result >= 0) {
+            return result;
+        }
+        int aLow = va == v ? low(a) : a;
+        int aHigh = va == v ? high(a) : a;
+        int bLow = vb == v ? low(b) : b;
+        int bHigh = vb == v ? high(b) : b;
+        if (var(cube) == v) {
+            int rest = high(cube);
+            result = relProdRec(aLow, bLow, rest);
+            if (result != 1) {
+                result = andRec(result ^ 1, relProdRec(aHigh, bHigh, rest) ^ 1) ^ 1;
+            }
+        } else {
+            int low = relProdRec(aLow, bLow, cube);
+            result = mk(v, low, relProdRec(aHigh, bHigh, cube));
+        }
+        insert(OP_RELPROD, a, b, cube, result);
+        return result;
+    }
+
+    private int replaceRec(int a, OffHeapPermutation permutation) {
+        if (a < 2 || var(a) > permutation.last) {
+            return a;
+        }
+        int complement = a & 1;
+        a ^= complement;
+        int result = lookup(OP_REPLACE, a, permutation.id, 0);
+        if (result < 0) {
+            int low = replaceRec(low(a), permutation);
+            int high = replaceRec(high(a), permutation);
+            int v = permutation.map[var(a)];
+            if (v < var(low) && v < var(high)) {
+                result = mk(v, low, high);
+            } else {
+                // The new variable is not above the renamed children: rebuild as (v AND high) OR (!v AND low).
+                int variable = mk(v, 0, 1);
+                result = andRec(andRec(variable, high) ^ 1, andRec(variable ^ 1, low) ^ 1) ^ 1;
+            }
+            insert(OP_REPLACE, a, permutation.id, 0, result);
+        }
+        return result ^ complement;
+    }
+
+    private double probability(int a, HashMap<Integer, Double> memory) {
+        if (a < 2) {
+            return a;
+        }
+        Integer node = Integer.valueOf(a >>> 1);
+        Double value = memory.get(node);
+        if (value == null) {
+            int position = (a >>> 1) * NODE_INTS;
+            value = Double.valueOf((probability(nodes.get(position + LOW), memory)
+                    + probability(nodes.get(position + HIGH), memory)) / 2);
+            memory.put(node, value);
+        }
+        return (a & 1) == 0 ? value.doubleValue() : 1 - value.doubleValue();
+    }
+
+    private void printSetRec(int a, int level, char[] set, PrintStream out) {
+        if (level == numVars) {
+            out.println(new String(set));
+            return;
+        }
+        if (a == 1 || var(a) > level) {
+            set[level] = '-';
+            printSetRec(a, level + 1, set, out);
+            return;
+        }
+        int low = low(a);
+        int high = high(a);
+        if (low != 0) {
+            set[level] = '0';
+            printSetRec(low, level + 1, set, out);
+        }
+        if (high != 0) {
+            set[level] = '1';
+            printSetRec(high, level + 1, set, out);
+        }
+    }
+
+    private int lookup(int op, int a, int b, int c) {
+        int position = (hash(op, a, b, c) & cacheMask) * CACHE_INTS;
+        if (cache.get(position) == op && cache.get(position + 1) == a && cache.get(position + 2) == b
+                && cache.get(position + 3) == c) {
+            return cache.get(position + 4);
+        }
+        return -1;
+    }
+
+    private void insert(int op, int a, int b, int c, int result) {
+        int position = (hash(op, a, b, c) & cacheMask) * CACHE_INTS;
+        cache.put(position, op);
+        cache.put(position + 1, a);
+        cache.put(position + 2, b);
+        cache.put(position + 3, c);
+        cache.put(position + 4, result);
+    }
+
+    /**
+     * Collect garbage or grow the table before an operation, if the table is
+     * nearly full. The operands are kept alive even if unreferenced.
+     */
+    private void maintain(int a, int b, int c) {
+        if (capacity - allocated >= capacity / 10) {
+            return;
+        }
+        collect(a, b, c);
+        if (capacity - allocated < capacity / 5) {
+            grow();
+        }
+    }
+
+    private void collect(int a, int b, int c) {
+        for (int node = 1; node < nextUnused; node++) {
+            int position = node * NODE_INTS;
+            if (nodes.get(position + VAR) != FREE_VAR && (nodes.get(position + REF) & MAX_REF) > 0) {
+                mark(node);
+            }
+        }
+        mark(a >>> 1);
+        mark(b >>> 1);
+        mark(c >>> 1);
+        for (int i = 0; i < buckets.capacity(); i++) {
+            buckets.put(i, 0);
+        }
+        freeList = 0;
+        allocated = 1;
+        for (int node = nextUnused - 1; node >= 1; node--) {
+            int position = node * NODE_INTS;
+            int count = nodes.get(position + REF);
+            if (nodes.get(position + VAR) != FREE_VAR && (count & MARK) != 0) {
+                nodes.put(position + REF, count & ~MARK);
+                int bucket = hash(nodes.get(position + VAR), nodes.get(position + LOW),
+                        nodes.get(position + HIGH)) & bucketMask;
+                nodes.put(position + NEXT, buckets.get(bucket));
+                buckets.put(bucket, node);
+                allocated++;
+            } else {
+                nodes.put(position + VAR, FREE_VAR);
+                nodes.put(position + NEXT, freeList);
+                freeList = node;
+            }
+        }
+        for (int i = 0; i < cache.capacity(); i += CACHE_INTS) {
+            cache.put(i, 0);
+        }
+    }
+
+    private void mark(int node) {
+        if (node == 0) {
+            return;
+        }
+        int position = node * NODE_INTS;
+        int count = nodes.get(position + REF);
+        if ((count & MARK) != 0) {
+            return;
+        }
+        nodes.put(position + REF, count | MARK);
+        mark(nodes.get(position + LOW) >>> 1);
+        mark(nodes.get(position + HIGH) >>> 1);
+    }
+
+    private void grow() {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("BDD node table exhausted (" + capacity + " nodes)");
+        }
+        int newCapacity = (int) Math.min((long) capacity * 2, MAX_CAPACITY);
+        IntBuffer newNodes = allocate(newCapacity * NODE_INTS);
+        nodes.clear();
+        newNodes.put(nodes);
+        newNodes.clear();
+        nodes = newNodes;
+        capacity = newCapacity;
+        buckets = allocate(powerOfTwo(capacity));
+        bucketMask = buckets.capacity() - 1;
+        for (int node = 1; node < nextUnused; node++) {
+            int position = node * NODE_INTS;
+            if (nodes.get(position + VAR) != FREE_VAR) {
+                int bucket = hash(nodes.get(position + VAR), nodes.get(position + LOW),
+                        nodes.get(position + HIGH)) & bucketMask;
+                nodes.put(position + NEXT, buckets.get(bucket));
+                buckets.put(bucket, node);
+            }
+        }
+        allocateCache(capacity / cacheRatio);
+    }
+
+    private void allocateCache(int entries) {
+        cache = allocate(powerOfTwo(entries) * CACHE_INTS);
+        cacheMask = cache.capacity() / CACHE_INTS - 1;
+    }
+
+    private static IntBuffer allocate(int ints) {
+        return ByteBuffer.allocateDirect(ints * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static int powerOfTwo(int n) {
+        int result = 1;
+        while (result < n && result < (1 << 29)) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    private static int hash(int a, int b, int c) {
+        int h = a * 12582917 + b * 4256249 + c * 741457;
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(int op, int a, int b, int c) {
+        int h = op * 1610612741 + a * 12582917 + b * 4256249 + c * 741457;
+        return h ^ (h >>> 15);
+    }
+
+    private static class OffHeapPermutation implements Permutation {
+
+        private final int id;
+        private final int[] map;
+        private final int last;
+
+        OffHeapPermutation(int id, int[] map, int last) {
+            this.id = id;
+            this.map = map;
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,802 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.bdd;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ParallelDecisionDiagram.java Purpose: DecisionDiagram whose apply
+ * operations (and, or, biimp, exists, relProd, replace) run on several
+ * threads. Near the root of the recursion, the high cofactor is spawned as a
+ * task while the calling thread computes the low cofactor; when the result is
+ * needed and no worker has picked up the task yet, the caller runs it itself
+ * (as in work-stealing schedulers such as Sylvan), so waiting threads never
+ * block on tasks which are not running.
+ *
+ * Nodes use the edge encoding of OffHeapDecisionDiagram (complement edges,
+ * node 0 is false). They are stored in segments which are added on demand, so
+ * the table grows without moving nodes. The unique table is a hash table whose
+ * chains are extended by compare-and-set; a thread losing the race rescans the
+ * chain, so no node is created twice. The computed cache is lossy and
+ * lock-free: every entry carries a stamp which is odd while the entry is being
+ * written, and a lookup only succeeds if the stamp was even and unchanged.
+ *
+ * Garbage collection (by reference counting) and resizing of the unique table
+ * happen at the start of an operation, when no worker is active. The manager
+ * itself must be used from a single thread at a time.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class ParallelDecisionDiagram implements DecisionDiagram {
+
+    private static final int VAR = 0;
+    private static final int LOW = 1;
+    private static final int HIGH = 2;
+    private static final int NEXT = 3;
+    private static final int REF = 4;
+    private static final int NODE_INTS = 5;
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+    private static final int MAX_SEGMENTS = 1 << (30 - SEGMENT_BITS);
+    private static final int TERMINAL_VAR = Integer.MAX_VALUE;
+    private static final int FREE_VAR = -1;
+    private static final int MAX_REF = 0x3fffffff;
+    private static final int MARK = 0x40000000;
+    private static final int OP_AND = 1;
+    private static final int OP_XOR = 2;
+    private static final int OP_EXISTS = 3;
+    private static final int OP_RELPROD = 4;
+    private static final int OP_REPLACE = 5;
+    private static final int CACHE_INTS = 5;
+    /**
+     * Worker threads, shared by all managers and created on first use.
+     */
+    private static ThreadPoolExecutor executor;
+    private final AtomicReferenceArray<AtomicIntegerArray> segments =
+            new AtomicReferenceArray<AtomicIntegerArray>(MAX_SEGMENTS);
+    private final AtomicInteger nextUnused = new AtomicInteger(1);
+    private final AtomicInteger freeCursor = new AtomicInteger(0);
+    private int[] freeNodes = new int[0];
+    private AtomicIntegerArray buckets;
+    private int bucketMask;
+    private AtomicIntegerArray cache;
+    private AtomicIntegerArray stamps;
+    private int cacheMask;
+    private int collectThreshold;
+    private final int spawnDepth;
+    private int numVars = 0;
+    private int permutationCount = 0;
+
+    /**
+     * @param nodeTableSize number of nodes after which garbage is collected
+     * for the first time
+     * @param cacheSize number of entries of the computed cache
+     * @param threads number of worker threads (only used by the first manager)
+     */
+    public ParallelDecisionDiagram(int nodeTableSize, int cacheSize, int threads) {
+        ThreadPoolExecutor workers = getExecutor(threads);
+        int depth = 0;
+        while ((1 << depth) < workers.getMaximumPoolSize() * 4) {
+            depth++;
+        }
+        spawnDepth = depth;
+        collectThreshold = Math.max(1 << SEGMENT_BITS, nodeTableSize);
+        segments.set(0, new AtomicIntegerArray((1 << SEGMENT_BITS) * NODE_INTS));
+        set(0, VAR, TERMINAL_VAR);
+        buckets = new AtomicIntegerArray(powerOfTwo(collectThreshold));
+        bucketMask = buckets.length() - 1;
+        stamps = new AtomicIntegerArray(powerOfTwo(cacheSize));
+        cache = new AtomicIntegerArray(stamps.length() * CACHE_INTS);
+        cacheMask = stamps.length() - 1;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor(int threads) {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "BDD worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    public int getOne() {
+        return 1;
+    }
+
+    public int getZero() {
+        return 0;
+    }
+
+    public int numberOfVariables() {
+        return numVars;
+    }
+
+    public int createVar() {
+        maintain(0, 0, 0);
+        int result = mk(numVars, 0, 1);
+        numVars++;
+        set(result >>> 1, REF, MAX_REF);
+        return result;
+    }
+
+    public int ref(int a) {
+        if (a >= 2) {
+            int count = get(a >>> 1, REF);
+            if (count < MAX_REF) {
+                set(a >>> 1, REF, count + 1);
+            }
+        }
+        return a;
+    }
+
+    public int deref(int a) {
+        if (a >= 2) {
+            int count = get(a >>> 1, REF);
+            if (count > 0 && count < MAX_REF) {
+                set(a >>> 1, REF, count - 1);
+            }
+        }
+        return a;
+    }
+
+    public int and(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a, b, 0);
+    }
+
+    public int or(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a ^ 1, b ^ 1, 0) ^ 1;
+    }
+
+    public int not(int a) {
+        return a ^ 1;
+    }
+
+    public int biimp(int a, int b) {
+        maintain(a, b, 0);
+        return xorRec(a, b, 0) ^ 1;
+    }
+
+    public int imp(int a, int b) {
+        maintain(a, b, 0);
+        return andRec(a, b ^ 1, 0) ^ 1;
+    }
+
+    public int andTo(int a, int b) {
+        int result = ref(and(a, b));
+        deref(a);
+        return result;
+    }
+
+    public int orTo(int a, int b) {
+        int result = ref(or(a, b));
+        deref(a);
+        return result;
+    }
+
+    public int exists(int a, int cube) {
+        maintain(a, cube, 0);
+        return existsRec(a, cube, 0);
+    }
+
+    public int forall(int a, int cube) {
+        maintain(a, cube, 0);
+        return existsRec(a ^ 1, cube, 0) ^ 1;
+    }
+
+    public int relProd(int a, int b, int cube) {
+        maintain(a, b, cube);
+        return relProdRec(a, b, cube, 0);
+    }
+
+    public Permutation createPermutation(int[] from, int[] to) {
+        int[] map = new int[numVars];
+        for (int v = 0; v < numVars; v++) {
+            map[v] = v;
+        }
+        int last = -1;
+        for (int i = 0; i < from.length; i++) {
+            map[getVar(from[i])] = getVar(to[i]);
+            last = Math.max(last, getVar(from[i]));
+        }
+        permutationCount++;
+        return new ParallelPermutation(permutationCount, map, last);
+    }
+
+    public int replace(int a, Permutation permutation) {
+        maintain(a, 0, 0);
+        return replaceRec(a, (ParallelPermutation) permutation, 0);
+    }
+
+    public double satCount(int a) {
+        return probability(a, new HashMap<Integer, Double>()) * Math.pow(2, numVars);
+    }
+
+    public int[] oneSat(int a, int[] buffer) {
+        if (buffer == null) {
+            buffer = new int[numVars];
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = -1;
+        }
+        while (a >= 2) {
+            int low = low(a);
+            if (low == 0) {
+                buffer[var(a)] = 1;
+                a = high(a);
+            } else {
+                buffer[var(a)] = 0;
+                a = low;
+            }
+        }
+        return buffer;
+    }
+
+    public boolean member(int a, boolean[] assignment) {
+        while (a >= 2) {
+            a = assignment[var(a)] ? high(a) : low(a);
+        }
+        return a == 1;
+    }
+
+    public int getVar(int a) {
+        return var(a);
+    }
+
+    public void printSet(int a) {
+        printSet(a, System.out);
+    }
+
+    public void printSet(int a, PrintStream out) {
+        if (a < 2) {
+            out.println(a == 0 ? "FALSE" : "TRUE");
+        } else {
+            printSetRec(a, 0, new char[numVars], out);
+            out.println();
+        }
+    }
+
+    public void cleanup() {
+        buckets = null;
+        cache = null;
+        stamps = null;
+        for (int s = 0; s < MAX_SEGMENTS; s++) {
+            segments.set(s, null);
+        }
+    }
+
+    /**
+     * @return the number of nodes in use, including unreferenced ones not yet
+     * collected
+     */
+    public int getNodeCount() {
+        return nextUnused.get() - 1 - Math.max(0, freeNodes.length - freeCursor.get());
+    }
+
+    private int get(int node, int field) {
+        return segments.get(node >>> SEGMENT_BITS).get((node & SEGMENT_MASK) * NODE_INTS + field);
+    }
+
+    private void set(int node, int field, int value) {
+        segments.get(node >>> SEGMENT_BITS).set((node & SEGMENT_MASK) * NODE_INTS + field, value);
+    }
+
+    private int var(int a) {
+        return get(a >>> 1, VAR);
+    }
+
+    private int low(int a) {
+        return get(a >>> 1, LOW) ^ (a & 1);
+    }
+
+    private int high(int a) {
+        return get(a >>> 1, HIGH) ^ (a & 1);
+    }
+
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int complement = high & 1;
+        low ^= complement;
+        high ^= complement;
+        int bucket = hash(var, low, high) & bucketMask;
+        int created = 0;
+        while (true) {
+            int head = buckets.get(bucket);
+            for (int node = head; node != 0; node = get(node, NEXT)) {
+                if (get(node, VAR) == var && get(node, LOW) == low && get(node, HIGH) == high) {
+                    if (created != 0) {
+                        // Another thread inserted the same node first.
+                        set(created, VAR, FREE_VAR);
+                    }
+                    return (node << 1) | complement;
+                }
+            }
+            if (created == 0) {
+                created = allocate();
+                set(created, LOW, low);
+                set(created, HIGH, high);
+                set(created, REF, 0);
+                set(created, VAR, var);
+            }
+            set(created, NEXT, head);
+            if (buckets.compareAndSet(bucket, head, created)) {
+                return (created << 1) | complement;
+            }
+        }
+    }
+
+    private int allocate() {
+        int free = freeCursor.getAndIncrement();
+        if (free < freeNodes.length) {
+            return freeNodes[free];
+        }
+        int node = nextUnused.getAndIncrement();
+        int segment = node >>> SEGMENT_BITS;
+        if (segment >= MAX_SEGMENTS) {
+            throw new IllegalStateException("BDD node table exhausted");
+        }
+        if (segments.get(segment) == null) {
+            segments.compareAndSet(segment, null, new AtomicIntegerArray((1 << SEGMENT_BITS) * NODE_INTS));
+        }
+        return node;
+    }
+
+    /**
+     * Compute an operation on the low and the high cofactors, in parallel near
+     * the root of the recursion.
+     *
+     * @return the result on the high cofactors in the upper and the result on
+     * the low cofactors in the lower 32 bits
+     */
+    private long branches(int op, int aLow, int bLow, int aHigh, int bHigh, int c,
+            ParallelPermutation permutation, int depth) {
+        int low;
+        int high;
+        if (depth < spawnDepth) {
+            FutureTask<Integer> task = new FutureTask<Integer>(
+                    new ApplyTask(op, aHigh, bHigh, c, permutation, depth + 1));
+            executor.execute(task);
+            low = apply(op, aLow, bLow, c, permutation, depth + 1);
+            if (executor.remove(task)) {
+                task.run();
+            }
+            try {
+                high = task.get().intValue();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                } else if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        } else {
+            low = apply(op, aLow, bLow, c, permutation, depth + 1);
+            high = apply(op, aHigh, bHigh, c, permutation, depth + 1);
+        }
+        return ((long) high << 32) | (low & 0xffffffffL);
+    }
+
+    private int apply(int op, int a, int b, int c, ParallelPermutation permutation, int depth) {
+        switch (op) {
+            case OP_AND:
+                return andRec(a, b, depth);
+            case OP_XOR:
+                return xorRec(a, b, depth);
+            case OP_EXISTS:
+                return existsRec(a, b, depth);
+            case OP_RELPROD:
+                return relProdRec(a, b, c, depth);
+            default:
+                return replaceRec(a, permutation, depth);
+        }
+    }
+
+    private int andRec(int a, int b, int depth) {
+        if (a == 0 || b == 0 || a == (b ^ 1)) {
+            return 0;
+        }
+        if (a == 1 || a == b) {
+            return b;
+        }
+        if (b == 1) {
+            return a;
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int result = lookup(OP_AND, a, b, 0);
+        if (result >= 0) {
+            return result;
+        }
+        int va = var(a);
+        int vb = var(b);
+        int v = Math.min(va, vb);
+        long children = branches(OP_AND, va == v ? low(a) : a, vb == v ? low(b) : b,
+                va == v ? high(a) : a, vb == v ? high(b) : b, 0, null, depth);
+        result = mk(v, (int) children, (int) (children >>> 32));
+        insert(OP_AND, a, b, 0, result);
+        return result;
+    }
+
+    private int xorRec(int a, int b, int depth) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == (b ^ 1)) {
+            return 1;
+        }
+        int complement = (a ^ b) & 1;
+        a &= ~1;
+        b &= ~1;
+        if (a == 0) {
+            return b ^ complement;
+        }
+        if (b == 0) {
+            return a ^ complement;
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int result = lookup(OP_XOR, a, b, 0);
+        if (result < 0) {
+            int va = var(a);
+            int vb = var(b);
+            int v = Math.min(va, vb);
+            long children = branches(OP_XOR, va == v ? low(a) : a, vb == v ? low(b) : b,
+                    va == v ? high(a) : a, vb == v ? high(b) : b, 0, null, depth);
+            result = mk(v, (int) children, (int) (children >>> 32));
+            insert(OP_XOR, a, b, 0, result);
+        }
+        return result ^ complement;
+    }
+
+    private int existsRec(int a, int cube, int depth) {
+        if (a < 2) {
+            return a;
+        }
+        int v = var(a);
+        while (cube >= 2 && var(cube) < v) {
+            cube = high(cube);
+        }
+        if (cube < 2) {
+            return a;
+        }
+        int result = lookup(OP_EXISTS, a, cube, 0);
+        if (result >= 0) {
+            return result;
+        }
+        if (var(cube) == v) {
+            int rest = high(cube);
+            long children = branches(OP_EXISTS, low(a), rest, high(a), rest, 0, null, depth);
+            result = andRec(((int) children) ^ 1, ((int) (children >>> 32)) ^ 1, depth + 1) ^ 1;
+        } else {
+            long children = branches(OP_EXISTS, low(a), cube, high(a), cube, 0, null, depth);
+            result = mk(v, (int) children, (int) (children >>> 32));
+        }
+        insert(OP_EXISTS, a, cube, 0, result);
+        return result;
+    }
+
+    private int relProdRec(int a, int b, int cube, int depth) {
+        if (a == 0 || b == 0 || a == (b ^ 1)) {
+            return 0;
+        }
+        if (a == 1) {
+            return existsRec(b, cube, depth);
+        }
+        if (b == 1 || a == b) {
+            return existsRec(a, cube, depth);
+        }
+        int va = var(a);
+        int vb = var(b);
+        int v = Math.min(va, vb);
+        while (cube >= 2 && var(cube) < v) {
+            cube = high(cube);
+        }
+        if (cube < 2) {
+            return andRec(a, b, depth);
+        }
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+            t = va;
+            va = vb;
+            vb = t;
+        }
+        int result = lookup(OP_RELPROD, a, b, cube);
+        if (result >= 0) {
+            return result;
+        }
+        int aLow = va == v ? low(a) : a;
+        int aHigh = va == v ? high(a) : a;
+        int bLow = vb == v ? low(b) : b;
+        int bHigh = vb == v ? high(b) : b;
+        if (var(cube) == v) {
+            long children = branches(OP_RELPROD, aLow, bLow, aHigh, bHigh, high(cube), null, depth);
+            result = andRec(((int) children) ^ 1, ((int) (children >>> 32)) ^ 1, depth + 1) ^ 1;
+        } else {
+            long children = branches(OP_RELPROD, aLow, bLow, aHigh, bHigh, cube, null, depth);
+            result = mk(v, (int) children, (int) (children >>> 32));
+        }
+        insert(OP_RELPROD, a, b, cube, result);
+        return result;
+    }
+
+    private int replaceRec(int a, ParallelPermutation permutation, int depth) {
+        if (a < 2 || var(a) > permutation.last) {
+            return a;
+        }
+        int complement = a & 1;
+        a ^= complement;
+        int result = lookup(OP_REPLACE, a, permutation.id, 0);
+        if (result < 0) {
+            long children = branches(OP_REPLACE, low(a), 0, high(a), 0, 0, permutation, depth);
+            int low = (int) children;
+            int high = (int) (children >>> 32);
+            int v = permutation.map[var(a)];
+            if (v < var(low) && v < var(high)) {
+                result = mk(v, low, high);
+            } else {
+                // The new variable is not above the renamed children: rebuild as (v AND high) OR (!v AND low).
+                int variable = mk(v, 0, 1);
+                result = andRec(andRec(variable, high, depth + 1) ^ 1,
+                        andRec(variable ^ 1, low, depth + 1) ^ 1, depth + 1) ^ 1;
+            }
+            insert(OP_REPLACE, a, permutation.id, 0, result);
+        }
+        return result ^ complement;
+    }
+
+    private double probability(int a, HashMap<Integer, Double> memory) {
+        if (a < 2) {
+            return a;
+        }
+        Integer node = Integer.valueOf(a >>> 1);
+        Double value = memory.get(node);
+        if (value == null) {
+            value = Double.valueOf((probability(get(a >>> 1, LOW), memory)
+                    + probability(get(a >>> 1, HIGH), memory)) / 2);
+            memory.put(node, value);
+        }
+        return (a & 1) == 0 ? value.doubleValue() : 1 - value.doubleValue();
+    }
+
+    private void printSetRec(int a, int level, char[] set, PrintStream out) {
+        if (level == numVars) {
+            out.println(new String(set));
+            return;
+        }
+        if (a == 1 || var(a) > level) {
+            set[level] = '-';
+            printSetRec(a, level + 1, set, out);
+            return;
+        }
+        int low = low(a);
+        int high = high(a);
+        if (low != 0) {
+            set[level] = '0';
+            printSetRec(low, level + 1, set, out);
+        }
+        if (high != 0) {
+            set[level] = '1';
+            printSetRec(high, level + 1, set, out);
+        }
+    }
+
+    private int lookup(int op, int a, int b, int c) {
+        int entry = hash(op, a, b, c) & cacheMask;
+        int stamp = stamps.get(entry);
+        if ((stamp & 1) != 0) {
+            return -1;
+        }
+        int position = entry * CACHE_INTS;
+        if (cache.get(position) != op || cache.get(position + 1) != a || cache.get(position + 2) != b
+                || cache.get(position + 3) != c) {
+            return -1;
+        }
+        int result = cache.get(position + 4);
+        return stamps.get(entry) == stamp ? result : -1;
+    }
+
+    private void insert(int op, int a, int b, int c, int result) {
+        int entry = hash(op, a, b, c) & cacheMask;
+        int stamp = stamps.get(entry);
+        if ((stamp & 1) != 0 || !stamps.compareAndSet(entry, stamp, stamp + 1)) {
+            // Another thread is writing this entry; the cache is lossy anyway.
+            return;
+        }
+        int position = entry * CACHE_INTS;
+        cache.set(position, op);
+        cache.set(position + 1, a);
+        cache.set(position + 2, b);
+        cache.set(position + 3, c);
+        cache.set(position + 4, result);
+        stamps.set(entry, stamp + 2);
+    }
+
+    /**
+     * Collect garbage before an operation once the number of nodes exceeds
+     * the threshold, and enlarge the unique table with the number of nodes.
+     * The operands are kept alive even if unreferenced.
+     */
+    private void maintain(int a, int b, int c) {
+        if (getNodeCount() >= collectThreshold) {
+            collect(a, b, c);
+            if (getNodeCount() > collectThreshold / 2) {
+                collectThreshold = (int) Math.min((long) collectThreshold * 2, 1 << 30);
+            }
+        }
+        if (getNodeCount() > 2 * buckets.length() && buckets.length() < (1 << 29)) {
+            buckets = new AtomicIntegerArray(buckets.length() * 4);
+            bucketMask = buckets.length() - 1;
+            rehash();
+        }
+    }
+
+    private void collect(int a, int b, int c) {
+        int end = nextUnused.get();
+        for (int node = 1; node < end; node++) {
+            if (get(node, VAR) != FREE_VAR && (get(node, REF) & MAX_REF) > 0) {
+                mark(node);
+            }
+        }
+        mark(a >>> 1);
+        mark(b >>> 1);
+        mark(c >>> 1);
+        int[] free = new int[end];
+        int freeCount = 0;
+        for (int node = end - 1; node >= 1; node--) {
+            int count = get(node, REF);
+            if (get(node, VAR) != FREE_VAR && (count & MARK) != 0) {
+                set(node, REF, count & ~MARK);
+            } else {
+                set(node, VAR, FREE_VAR);
+                free[freeCount++] = node;
+            }
+        }
+        int[] reversed = new int[freeCount];
+        for (int i = 0; i < freeCount; i++) {
+            reversed[i] = free[freeCount - 1 - i];
+        }
+        freeNodes = reversed;
+        freeCursor.set(0);
+        buckets = new AtomicIntegerArray(buckets.length());
+        rehash();
+        stamps = new AtomicIntegerArray(stamps.length());
+        cache = new AtomicIntegerArray(cache.length());
+    }
+
+    private void rehash() {
+        int end = nextUnused.get();
+        for (int node = 1; node < end; node++) {
+            int var = get(node, VAR);
+            if (var != FREE_VAR) {
+                int bucket = hash(var, get(node, LOW), get(node, HIGH)) & bucketMask;
+                set(node, NEXT, buckets.get(bucket));
+                buckets.set(bucket, node);
+            }
+        }
+    }
+
+    private void mark(int node) {
+        if (node == 0) {
+            return;
+        }
+        int count = get(node, REF);
+        if ((count & MARK) != 0) {
+            return;
+        }
+        set(node, REF, count | MARK);
+        mark(get(node, LOW) >>> 1);
+        mark(get(node, HIGH) >>> 1);
+    }
+
+    private static int powerOfTwo(int n) {
+        int result = 1;
+        while (result < n && result < (1 << 29)) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    private static int hash(int a, int b, int c) {
+        int h = a * 12582917 + b * 4256249 + c * 741457;
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(int op, int a, int b, int c) {
+        int h = op * 1610612741 + a * 12582917 + b * 4256249 + c * 741457;
+        return h ^ (h >>> 15);
+    }
+
+    private class ApplyTask implements Callable<Integer> {
+
+        private final int op;
+        private final int a;
+        private final int b;
+        private final int c;
+        private final ParallelPermutation permutation;
+        private final int depth;
+
+        ApplyTask(int op, int a, int b, int c, ParallelPermutation permutation, int depth) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.permutation = permutation;
+            this.depth = depth;
+        }
+
+        public Integer call() {
+            return Integer.valueOf(apply(op, a, b, c, permutation, depth));
+        }
+    }
+
+    private static class ParallelPermutation implements Permutation {
+
+        private final int id;
+        private final int[] map;
+        private final int last;
+
+        ParallelPermutation(int id, int[] map, int last) {
+            this.id = id;
+            this.map = map;
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,632 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import gov.nasa.ltl.graph.Edge;
+import gov.nasa.ltl.graph.Graph;
+import gov.nasa.ltl.graph.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * AutomatonReduction.java Purpose: Language-preserving reduction of a Buechi
+ * automaton (in the format of LTL2Buchi) before the game arena is built. Each
+ * automaton state is multiplied by the number of input vectors in the arena,
+ * so every state saved here pays off later. The reduction
+ *
+ * - removes unsatisfiable edges, duplicate edges and edges whose guard implies
+ *   the guard of another edge to the same target;
+ * - removes states which are unreachable or can not reach an accepting cycle
+ *   (dead SCCs);
+ * - quotients by direct simulation equivalence and removes edges to a state
+ *   which is directly simulated by the target of another edge with a weaker
+ *   guard ("little brothers");
+ * - for small automata, quotients by delayed simulation equivalence (Etessami,
+ *   Wilke and Schuller); a class is accepting if one of its states is.
+ *
+ * Guards are conjunctions of literals ("a&!b", "-" for true); a guard g
+ * implies h if the literals of h are a subset of the literals of g.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class AutomatonReduction {
+
+    /**
+     * Direct simulation is only computed up to this number of states.
+     */
+    public static int MAX_DIRECT_SIMULATION_STATES = 1000;
+    /**
+     * Delayed simulation is only computed up to this number of states.
+     */
+    public static int MAX_DELAYED_SIMULATION_STATES = 64;
+    private int numberOfStates;
+    private int initialState;
+    private boolean[] accepting;
+    private int[][] edgeTarget;
+    private int[][] edgeGuard;
+    /**
+     * Distinct guards: literal set and original text.
+     */
+    private final ArrayList<BitSet> guardLiterals = new ArrayList<BitSet>();
+    private final ArrayList<String> guardText = new ArrayList<String>();
+    /**
+     * implies[g].get(h) iff guard g implies guard h.
+     */
+    private BitSet[] implies;
+
+    private AutomatonReduction() {
+    }
+
+    /**
+     * Reduce a Buechi automaton. The input graph is not modified.
+     *
+     * @param automaton automaton as created by LTL2Buchi or an LTLTranslator
+     * @return an automaton accepting the same language
+     */
+    public static Graph reduce(Graph automaton) {
+        AutomatonReduction reduction = new AutomatonReduction();
+        reduction.load(automaton);
+        reduction.mergeEdges();
+        reduction.removeDeadStates();
+        if (reduction.numberOfStates <= MAX_DIRECT_SIMULATION_STATES) {
+            boolean[][] simulation = reduction.directSimulation();
+            reduction.quotient(simulation);
+            reduction.removeLittleBrothers(reduction.directSimulation());
+            reduction.removeDeadStates();
+        }
+        if (reduction.numberOfStates <= MAX_DELAYED_SIMULATION_STATES) {
+            reduction.quotient(reduction.delayedSimulation());
+            reduction.mergeEdges();
+        }
+        return reduction.toGraph();
+    }
+
+    private void load(Graph automaton) {
+        List<?> nodes = automaton.getNodes();
+        numberOfStates = nodes.size();
+        HashMap<Node, Integer> index = new HashMap<Node, Integer>();
+        for (Object node : nodes) {
+            index.put((Node) node, Integer.valueOf(index.size()));
+        }
+        accepting = new boolean[numberOfStates];
+        edgeTarget = new int[numberOfStates][];
+        edgeGuard = new int[numberOfStates][];
+        HashMap<String, Integer> literalIndex = new HashMap<String, Integer>();
+        HashMap<BitSet, Integer> guardIndex = new HashMap<BitSet, Integer>();
+        initialState = automaton.getInit() == null ? -1 : index.get(automaton.getInit()).intValue();
+        int s = 0;
+        for (Object node : nodes) {
+            Node n = (Node) node;
+            accepting[s] = n.getBooleanAttribute("accepting");
+            List<?> edges = n.getOutgoingEdges();
+            int[] targets = new int[edges.size()];
+            int[] guards = new int[edges.size()];
+            int k = 0;
+            for (Object edge : edges) {
+                Edge e = (Edge) edge;
+                BitSet literals = parseGuard(e.getGuard(), literalIndex);
+                if (literals == null) {
+                    // Contradicting literals; the edge is never taken.
+                    continue;
+                }
+                Integer g = guardIndex.get(literals);
+                if (g == null) {
+                    g = Integer.valueOf(guardLiterals.size());
+                    guardIndex.put(literals, g);
+                    guardLiterals.add(literals);
+                    guardText.add(e.getGuard());
+                }
+                targets[k] = index.get(e.getNext()).intValue();
+                guards[k] = g.intValue();
+                k++;
+            }
+            edgeTarget[s] = Arrays.copyOf(targets, k);
+            edgeGuard[s] = Arrays.copyOf(guards, k);
+            s++;
+        }
+        implies = new BitSet[guardLiterals.size()];
+        for (int g = 0; g < implies.length; g++) {
+            implies[g] = new BitSet();
+            for (int h = 0; h < implies.length; h++) {
+                BitSet d = (BitSet) guardLiterals.get(h).clone();
+                d.andNot(guardLiterals.get(g));
+                if (d.isEmpty()) {
+                    implies[g].set(h);
+                }
+            }
+        }
+    }
+
+    /**
+     * Literal 2i stands for signal i, 2i+1 for its negation.
+     *
+     * @return the literals, or null if the guard is unsatisfiable
+     */
+    private static BitSet parseGuard(String guard, HashMap<String, Integer> literalIndex) {
+        BitSet literals = new BitSet();
+        if (guard.equals("-")) {
+            return literals;
+        }
+        StringTokenizer tok = new StringTokenizer(guard, "&");
+        while (tok.hasMoreTokens()) {
+            String token = tok.nextToken().trim();
+            boolean negated = token.startsWith("!");
+            String signal = negated ? token.substring(1) : token;
+            Integer i = literalIndex.get(signal);
+            if (i == null) {
+                i = Integer.valueOf(literalIndex.size());
+                literalIndex.put(signal, i);
+            }
+            int literal = 2 * i.intValue() + (negated ? 1 : 0);
+            if (literals.get(literal ^ 1)) {
+                return null;
+            }
+            literals.set(literal);
+        }
+        return literals;
+    }
+
+    /**
+     * Remove duplicate edges, and edges implied by an edge with a weaker guard
+     * to the same target.
+     */
+    private void mergeEdges() {
+        for (int s = 0; s < numberOfStates; s++) {
+            int[] targets = edgeTarget[s];
+            int[] guards = edgeGuard[s];
+            boolean[] removed = new boolean[targets.length];
+            for (int e = 0; e < targets.length; e++) {
+                for (int f = 0; f < targets.length && !removed[e]; f++) {
+                    if (e != f && !removed[f] && targets[e] == targets[f] && implies[guards[e]].get(guards[f])
+                            && (guards[e] != guards[f] || f < e)) {
+                        removed[e] = true;
+                    }
+                }
+            }
+            keepEdges(s, removed);
+        }
+    }
+
+    private void keepEdges(int s, boolean[] removed) {
+        int k = 0;
+        for (int e = 0; e < removed.length; e++) {
+            if (!removed[e]) {
+                edgeTarget[s][k] = edgeTarget[s][e];
+                edgeGuard[s][k] = edgeGuard[s][e];
+                k++;
+            }
+        }
+        edgeTarget[s] = Arrays.copyOf(edgeTarget[s], k);
+        edgeGuard[s] = Arrays.copyOf(edgeGuard[s], k);
+    }
+
+    /**
+     * Remove the states which are unreachable from the initial state or from
+     * which no accepting cycle is reachable.
+     */
+    private void removeDeadStates() {
+        if (initialState < 0) {
+            return;
+        }
+        int n = numberOfStates;
+        // Reachable states
+        BitSet reachable = new BitSet(n);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = initialState;
+        reachable.set(initialState);
+        while (head < tail) {
+            int s = queue[head++];
+            for (int t : edgeTarget[s]) {
+                if (!reachable.get(t)) {
+                    reachable.set(t);
+                    queue[tail++] = t;
+                }
+            }
+        }
+        // States on an accepting cycle: accepting states in a nontrivial SCC
+        int[] component = stronglyConnectedComponents();
+        int[] componentSize = new int[n];
+        for (int s = 0; s < n; s++) {
+            componentSize[component[s]]++;
+        }
+        BitSet live = new BitSet(n);
+        head = 0;
+        tail = 0;
+        for (int s = 0; s < n; s++) {
+            if (!accepting[s] || !reachable.get(s)) {
+                continue;
+            }
+            boolean cyclic = componentSize[component[s]] > 1;
+            for (int t : edgeTarget[s]) {
+                cyclic |= t == s;
+            }
+            if (cyclic) {
+                live.set(s);
+                queue[tail++] = s;
+            }
+        }
+        // Backward reachability to the accepting cycles
+        int[][] predecessors = predecessors();
+        while (head < tail) {
+            int s = queue[head++];
+            for (int p : predecessors[s]) {
+                if (!live.get(p) && reachable.get(p)) {
+                    live.set(p);
+                    queue[tail++] = p;
+                }
+            }
+        }
+        if (!live.get(initialState)) {
+            // Empty language: a single non-accepting initial state.
+            numberOfStates = 1;
+            initialState = 0;
+            accepting = new boolean[1];
+            edgeTarget = new int[][]{new int[0]};
+            edgeGuard = new int[][]{new int[0]};
+            return;
+        }
+        int[] map = new int[n];
+        Arrays.fill(map, -1);
+        for (int s = 0; s < n; s++) {
+            map[s] = live.get(s) ? 0 : -1;
+        }
+        renumber(map, false);
+    }
+
+    /**
+     * Renumber the states: map[s] >= 0 for the states which are kept, which
+     * receive consecutive numbers in order (or, if isQuotient, map[s] is
+     * already the number of the class of s).
+     */
+    private void renumber(int[] map, boolean isQuotient) {
+        int n = numberOfStates;
+        int count = 0;
+        if (!isQuotient) {
+            for (int s = 0; s < n; s++) {
+                if (map[s] >= 0) {
+                    map[s] = count++;
+                }
+            }
+        } else {
+            for (int s = 0; s < n; s++) {
+                count = Math.max(count, map[s] + 1);
+            }
+        }
+        boolean[] newAccepting = new boolean[count];
+        ArrayList<ArrayList<int[]>> newEdges = new ArrayList<ArrayList<int[]>>();
+        for (int c = 0; c < count; c++) {
+            newEdges.add(new ArrayList<int[]>());
+        }
+        for (int s = 0; s < n; s++) {
+            if (map[s] < 0) {
+                continue;
+            }
+            newAccepting[map[s]] |= accepting[s];
+            for (int e = 0; e < edgeTarget[s].length; e++) {
+                int t = map[edgeTarget[s][e]];
+                if (t >= 0) {
+                    newEdges.get(map[s]).add(new int[]{t, edgeGuard[s][e]});
+                }
+            }
+        }
+        numberOfStates = count;
+        initialState = map[initialState];
+        accepting = newAccepting;
+        edgeTarget = new int[count][];
+        edgeGuard = new int[count][];
+        for (int c = 0; c < count; c++) {
+            ArrayList<int[]> edges = newEdges.get(c);
+            edgeTarget[c] = new int[edges.size()];
+            edgeGuard[c] = new int[edges.size()];
+            for (int e = 0; e < edges.size(); e++) {
+                edgeTarget[c][e] = edges.get(e)[0];
+                edgeGuard[c][e] = edges.get(e)[1];
+            }
+        }
+        if (isQuotient) {
+            mergeEdges();
+        }
+    }
+
+    private int[][] predecessors() {
+        int[] count = new int[numberOfStates];
+        for (int s = 0; s < numberOfStates; s++) {
+            for (int t : edgeTarget[s]) {
+                count[t]++;
+            }
+        }
+        int[][] predecessors = new int[numberOfStates][];
+        for (int s = 0; s < numberOfStates; s++) {
+            predecessors[s] = new int[count[s]];
+            count[s] = 0;
+        }
+        for (int s = 0; s < numberOfStates; s++) {
+            for (int t : edgeTarget[s]) {
+                predecessors[t][count[t]++] = s;
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Tarjan's algorithm, iterative.
+     *
+     * @return the component number of each state
+     */
+    private int[] stronglyConnectedComponents() {
+        int n = numberOfStates;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(index, -1);
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callState = new int[n];
+        int[] callEdge = new int[n];
+        int counter = 0;
+        int components = 0;
+        for (int start = 0; start < n; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callState[0] = start;
+            callEdge[0] = 0;
+            index[start] = lowLink[start] = counter++;
+            stack[stackSize++] = start;
+            onStack[start] = true;
+            while (depth >= 0) {
+                int s = callState[depth];
+                if (callEdge[depth] < edgeTarget[s].length) {
+                    int t = edgeTarget[s][callEdge[depth]++];
+                    if (index[t] < 0) {
+                        index[t] = lowLink[t] = counter++;
+                        stack[stackSize++] = t;
+                        onStack[t] = true;
+                        depth++;
+                        callState[depth] = t;
+                        callEdge[depth] = 0;
+                    } else if (onStack[t]) {
+                        lowLink[s] = Math.min(lowLink[s], index[t]);
+                    }
+                    continue;
+                }
+                if (lowLink[s] == index[s]) {
+                    int t;
+                    do {
+                        t = stack[--stackSize];
+                        onStack[t] = false;
+                        component[t] = components;
+                    } while (t != s);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callState[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[s]);
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Direct simulation: simulation[s][t] iff t directly simulates s, i.e., t
+     * is accepting if s is, and each edge of s is matched by an edge of t with
+     * a weaker guard to a state simulating the target.
+     */
+    private boolean[][] directSimulation() {
+        int n = numberOfStates;
+        boolean[][] simulation = new boolean[n][n];
+        for (int s = 0; s < n; s++) {
+            for (int t = 0; t < n; t++) {
+                simulation[s][t] = !accepting[s] || accepting[t];
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    if (simulation[s][t] && s != t && !isMatched(s, t, simulation)) {
+                        simulation[s][t] = false;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return simulation;
+    }
+
+    private boolean isMatched(int s, int t, boolean[][] simulation) {
+        for (int e = 0; e < edgeTarget[s].length; e++) {
+            BitSet weaker = implies[edgeGuard[s][e]];
+            int target = edgeTarget[s][e];
+            boolean matched = false;
+            for (int f = 0; f < edgeTarget[t].length && !matched; f++) {
+                matched = weaker.get(edgeGuard[t][f]) && simulation[target][edgeTarget[t][f]];
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delayed simulation: t delayed-simulates s if, in the simulation game,
+     * each visit of s to an accepting state is eventually answered by a visit
+     * of t to an accepting state. Positions are (s, t, pending); Duplicator
+     * wins if pending is false infinitely often:
+     * W = nu X. mu Y. (!pending and CPre(X)) or CPre(Y).
+     */
+    private boolean[][] delayedSimulation() {
+        int n = numberOfStates;
+        int positions = 2 * n * n;
+        BitSet x = new BitSet(positions);
+        x.set(0, positions);
+        while (true) {
+            BitSet y = new BitSet(positions);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int p = 0; p < positions; p++) {
+                    if (y.get(p)) {
+                        continue;
+                    }
+                    boolean pending = (p & 1) != 0;
+                    if ((!pending && controllablePredecessor(p, x)) || controllablePredecessor(p, y)) {
+                        y.set(p);
+                        changed = true;
+                    }
+                }
+            }
+            if (y.equals(x)) {
+                break;
+            }
+            x = y;
+        }
+        boolean[][] simulation = new boolean[n][n];
+        for (int s = 0; s < n; s++) {
+            for (int t = 0; t < n; t++) {
+                boolean pending = accepting[s] && !accepting[t];
+                simulation[s][t] = x.get(position(s, t, pending));
+            }
+        }
+        return simulation;
+    }
+
+    private int position(int s, int t, boolean pending) {
+        return 2 * (s * numberOfStates + t) + (pending ? 1 : 0);
+    }
+
+    /**
+     * Whether Duplicator can answer every move of Spoiler from position p
+     * with a move into the set.
+     */
+    private boolean controllablePredecessor(int p, BitSet set) {
+        boolean pending = (p & 1) != 0;
+        int s = (p >> 1) / numberOfStates;
+        int t = (p >> 1) % numberOfStates;
+        for (int e = 0; e < edgeTarget[s].length; e++) {
+            BitSet weaker = implies[edgeGuard[s][e]];
+            int sNext = edgeTarget[s][e];
+            boolean matched = false;
+            for (int f = 0; f < edgeTarget[t].length && !matched; f++) {
+                int tNext = edgeTarget[t][f];
+                if (weaker.get(edgeGuard[t][f])) {
+                    boolean nextPending = (pending || accepting[sNext]) && !accepting[tNext];
+                    matched = set.get(position(sNext, tNext, nextPending));
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merge the states which simulate each other.
+     */
+    private void quotient(boolean[][] simulation) {
+        int n = numberOfStates;
+        int[] map = new int[n];
+        Arrays.fill(map, -1);
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (map[s] >= 0) {
+                continue;
+            }
+            map[s] = count;
+            for (int t = s + 1; t < n; t++) {
+                if (map[t] < 0 && simulation[s][t] && simulation[t][s]) {
+                    map[t] = count;
+                }
+            }
+            count++;
+        }
+        if (count < n) {
+            renumber(map, true);
+        }
+    }
+
+    /**
+     * Remove an edge s -g-> a if there is another edge s -h-> b where g
+     * implies h and b directly simulates a (but not vice versa, or b is
+     * the same state and the edges differ).
+     */
+    private void removeLittleBrothers(boolean[][] simulation) {
+        for (int s = 0; s < numberOfStates; s++) {
+            int[] targets = edgeTarget[s];
+            int[] guards = edgeGuard[s];
+            boolean[] removed = new boolean[targets.length];
+            for (int e = 0; e < targets.length; e++) {
+                for (int f = 0; f < targets.length && !removed[e]; f++) {
+                    if (e == f || removed[f] || !implies[guards[e]].get(guards[f])
+                            || !simulation[targets[e]][targets[f]]) {
+                        continue;
+                    }
+                    boolean mutual = implies[guards[f]].get(guards[e]) && simulation[targets[f]][targets[e]];
+                    if (!mutual || f < e) {
+                        removed[e] = true;
+                    }
+                }
+            }
+            keepEdges(s, removed);
+        }
+    }
+
+    private Graph toGraph() {
+        Graph graph = new Graph();
+        Node[] nodes = new Node[numberOfStates];
+        for (int s = 0; s < numberOfStates; s++) {
+            nodes[s] = new Node(graph);
+            if (accepting[s]) {
+                nodes[s].setBooleanAttribute("accepting", true);
+            }
+        }
+        if (initialState >= 0) {
+            graph.setInit(nodes[initialState]);
+        }
+        for (int s = 0; s < numberOfStates; s++) {
+            for (int e = 0; e < edgeTarget[s].length; e++) {
+                new Edge(nodes[s], nodes[edgeTarget[s][e]], guardText.get(edgeGuard[s][e]));
+            }
+        }
+        return graph;
+    }
+}
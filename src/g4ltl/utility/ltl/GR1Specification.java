@@ -0,0 +1,262 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * GR1Specification.java Purpose: A specification in the GR(1) fragment, i.e.,
+ * assumptions and guarantees which are conjunctions of initial conditions
+ * (propositional), safety conditions ([] over propositional formulas, where
+ * the next operator may only be applied to propositional formulas), and
+ * justice conditions ([]<> over propositional formulas). In addition, the
+ * guarantees may contain responses [] (p -> <> q) and eventualities <> p with
+ * p, q propositional; the solver handles them by an auxiliary variable.
+ *
+ * The input is read first in every step, so the assumptions must not depend on
+ * the outputs of the next step: initial assumptions only refer to inputs, and
+ * in safety assumptions the next operator is only applied to inputs.
+ *
+ * Safety conditions are normalized to "step" formulas: the unprimed signals
+ * refer to the current step and signals under the next operator to the next
+ * step; [] p with p propositional contributes p as initial condition and X p
+ * as safety condition.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class GR1Specification {
+
+    private final ArrayList<LTLFormula> environmentInitial = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> environmentSafety = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> environmentJustice = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> systemInitial = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> systemSafety = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> systemJustice = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> responseTriggers = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> responseGoals = new ArrayList<LTLFormula>();
+    private final ArrayList<LTLFormula> systemEventualities = new ArrayList<LTLFormula>();
+    private final HashSet<String> inputs;
+    private final HashSet<String> outputs;
+
+    private GR1Specification(Collection<String> inputs, Collection<String> outputs) {
+        this.inputs = new HashSet<String>(inputs);
+        this.outputs = new HashSet<String>(outputs);
+    }
+
+    /**
+     * Decide whether the formula (of the form assumptions -> guarantees, or
+     * guarantees only, see LTLSpecification) is in the GR(1) fragment.
+     *
+     * @param formula formula of the specification
+     * @param inputs input variables
+     * @param outputs output variables
+     * @return the GR(1) specification, or null if the formula is not in the fragment
+     */
+    public static GR1Specification detect(LTLFormula formula, Collection<String> inputs, Collection<String> outputs) {
+        GR1Specification result = new GR1Specification(inputs, outputs);
+        ArrayList<LTLFormula> assumptions = new ArrayList<LTLFormula>();
+        ArrayList<LTLFormula> guarantees = new ArrayList<LTLFormula>();
+        if (formula.getOperator() == LTLFormula.IMPLIES) {
+            flatten(formula.getLeft(), assumptions);
+            flatten(formula.getRight(), guarantees);
+        } else {
+            flatten(formula, guarantees);
+        }
+        for (LTLFormula f : assumptions) {
+            if (!result.addAssumption(f)) {
+                return null;
+            }
+        }
+        for (LTLFormula f : guarantees) {
+            if (!result.addGuarantee(f)) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static void flatten(LTLFormula f, ArrayList<LTLFormula> conjuncts) {
+        if (f.getOperator() == LTLFormula.AND) {
+            flatten(f.getLeft(), conjuncts);
+            flatten(f.getRight(), conjuncts);
+        } else if (f.getOperator() != LTLFormula.TRUE) {
+            conjuncts.add(f);
+        }
+    }
+
+    private boolean addAssumption(LTLFormula f) {
+        if (!isSignalFormula(f)) {
+            return false;
+        }
+        if (!f.containsTemporalOperator()) {
+            environmentInitial.add(f);
+            return inputs.containsAll(f.getAtoms());
+        }
+        if (f.getOperator() != LTLFormula.ALWAYS) {
+            return false;
+        }
+        LTLFormula body = f.getLeft();
+        if (!body.containsTemporalOperator()) {
+            environmentInitial.add(body);
+            environmentSafety.add(f.getFactory().next(body));
+            return inputs.containsAll(body.getAtoms());
+        } else if (isStepFormula(body)) {
+            environmentSafety.add(body);
+            return inputs.containsAll(getNextAtoms(body, new HashSet<String>()));
+        } else if (body.getOperator() == LTLFormula.EVENTUALLY && !body.getLeft().containsTemporalOperator()) {
+            environmentJustice.add(body.getLeft());
+            return true;
+        }
+        return false;
+    }
+
+    private boolean addGuarantee(LTLFormula f) {
+        if (!isSignalFormula(f)) {
+            return false;
+        }
+        if (!f.containsTemporalOperator()) {
+            systemInitial.add(f);
+            return true;
+        }
+        if (f.getOperator() == LTLFormula.EVENTUALLY && !f.getLeft().containsTemporalOperator()) {
+            systemEventualities.add(f.getLeft());
+            return true;
+        }
+        if (f.getOperator() != LTLFormula.ALWAYS) {
+            return false;
+        }
+        LTLFormula body = f.getLeft();
+        if (!body.containsTemporalOperator()) {
+            systemInitial.add(body);
+            systemSafety.add(f.getFactory().next(body));
+            return true;
+        } else if (isStepFormula(body)) {
+            systemSafety.add(body);
+            return true;
+        } else if (body.getOperator() == LTLFormula.EVENTUALLY && !body.getLeft().containsTemporalOperator()) {
+            systemJustice.add(body.getLeft());
+            return true;
+        } else if (body.getOperator() == LTLFormula.IMPLIES && !body.getLeft().containsTemporalOperator()
+                && body.getRight().getOperator() == LTLFormula.EVENTUALLY
+                && !body.getRight().getLeft().containsTemporalOperator()) {
+            responseTriggers.add(body.getLeft());
+            responseGoals.add(body.getRight().getLeft());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if all atoms of the formula are input or output variables
+     */
+    private boolean isSignalFormula(LTLFormula f) {
+        for (String atom : f.getAtoms()) {
+            if (!inputs.contains(atom) && !outputs.contains(atom)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the only temporal operator is next, applied to
+     * propositional formulas
+     */
+    private static boolean isStepFormula(LTLFormula f) {
+        if (!f.containsTemporalOperator()) {
+            return true;
+        }
+        switch (f.getOperator()) {
+            case LTLFormula.NEXT:
+                return !f.getLeft().containsTemporalOperator();
+            case LTLFormula.NOT:
+                return isStepFormula(f.getLeft());
+            case LTLFormula.AND:
+            case LTLFormula.OR:
+            case LTLFormula.IMPLIES:
+            case LTLFormula.EQUIVALENT:
+                return isStepFormula(f.getLeft()) && isStepFormula(f.getRight());
+            default:
+                return false;
+        }
+    }
+
+    private static HashSet<String> getNextAtoms(LTLFormula f, HashSet<String> result) {
+        if (f.getOperator() == LTLFormula.NEXT) {
+            result.addAll(f.getLeft().getAtoms());
+        } else if (f.containsNext()) {
+            getNextAtoms(f.getLeft(), result);
+            if (f.getRight() != null) {
+                getNextAtoms(f.getRight(), result);
+            }
+        }
+        return result;
+    }
+
+    public ArrayList<LTLFormula> getEnvironmentInitial() {
+        return environmentInitial;
+    }
+
+    public ArrayList<LTLFormula> getEnvironmentSafety() {
+        return environmentSafety;
+    }
+
+    public ArrayList<LTLFormula> getEnvironmentJustice() {
+        return environmentJustice;
+    }
+
+    public ArrayList<LTLFormula> getSystemInitial() {
+        return systemInitial;
+    }
+
+    public ArrayList<LTLFormula> getSystemSafety() {
+        return systemSafety;
+    }
+
+    public ArrayList<LTLFormula> getSystemJustice() {
+        return systemJustice;
+    }
+
+    /**
+     * @return p of every response [] (p -> <> q), aligned with getResponseGoals()
+     */
+    public ArrayList<LTLFormula> getResponseTriggers() {
+        return responseTriggers;
+    }
+
+    public ArrayList<LTLFormula> getResponseGoals() {
+        return responseGoals;
+    }
+
+    public ArrayList<LTLFormula> getSystemEventualities() {
+        return systemEventualities;
+    }
+}
@@ -0,0 +1,167 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * GuaranteeGrouping.java Purpose: Plan the sub-specifications of compositional
+ * synthesis. Two guarantees depend on each other if they share an output
+ * signal, as their controllers must then agree on that output; guarantees
+ * which only share inputs can be solved separately. The guarantees are
+ * partitioned into the connected components of this dependency graph. A
+ * component whose predicted automaton size exceeds the bound is split
+ * greedily: a group starts with the first remaining guarantee (in file order)
+ * and repeatedly takes the remaining guarantee sharing the most outputs with
+ * it, as long as the bound is respected.
+ *
+ * The predicted automaton size of a guarantee is one plus its number of
+ * distinct temporal subformulas (a rough estimate of the reduced automaton of
+ * its negation); the size of a group is the product over its guarantees.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class GuaranteeGrouping {
+
+    /**
+     * Compute the groups of guarantees.
+     *
+     * @param guarantees the guarantees
+     * @param outputs output signals of the specification
+     * @param maxPredictedSize bound on the predicted automaton size of a group;
+     * a single guarantee exceeding it forms a group of its own
+     * @return the groups, as indices into the guarantees in ascending order;
+     * groups are ordered by their first guarantee
+     */
+    public static ArrayList<ArrayList<Integer>> plan(List<LTLFormula> guarantees, Collection<String> outputs,
+            int maxPredictedSize) {
+        int n = guarantees.size();
+        ArrayList<ArrayList<String>> usedOutputs = new ArrayList<ArrayList<String>>();
+        long[] size = new long[n];
+        int[] component = new int[n];
+        HashMap<String, Integer> owner = new HashMap<String, Integer>();
+        for (int g = 0; g < n; g++) {
+            ArrayList<String> used = new ArrayList<String>();
+            for (String atom : guarantees.get(g).getAtoms()) {
+                if (outputs.contains(atom)) {
+                    used.add(atom);
+                }
+            }
+            usedOutputs.add(used);
+            size[g] = predictSize(guarantees.get(g));
+            component[g] = g;
+            // Union by shared outputs; the representative is the smallest index.
+            for (String output : used) {
+                Integer other = owner.get(output);
+                if (other == null) {
+                    owner.put(output, Integer.valueOf(g));
+                } else {
+                    int a = find(component, g);
+                    int b = find(component, other.intValue());
+                    component[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+
+        ArrayList<ArrayList<Integer>> result = new ArrayList<ArrayList<Integer>>();
+        boolean[] assigned = new boolean[n];
+        for (int first = 0; first < n; first++) {
+            if (assigned[first]) {
+                continue;
+            }
+            int root = find(component, first);
+            ArrayList<Integer> group = new ArrayList<Integer>();
+            ArrayList<String> groupOutputs = new ArrayList<String>();
+            long groupSize = 1;
+            int next = first;
+            while (next >= 0) {
+                assigned[next] = true;
+                group.add(Integer.valueOf(next));
+                groupSize = multiply(groupSize, size[next]);
+                for (String output : usedOutputs.get(next)) {
+                    if (!groupOutputs.contains(output)) {
+                        groupOutputs.add(output);
+                    }
+                }
+                // Take the remaining guarantee of the component with the most shared outputs.
+                next = -1;
+                int bestShared = 0;
+                for (int g = first + 1; g < n; g++) {
+                    if (assigned[g] || find(component, g) != root
+                            || multiply(groupSize, size[g]) > maxPredictedSize) {
+                        continue;
+                    }
+                    int shared = 0;
+                    for (String output : usedOutputs.get(g)) {
+                        if (groupOutputs.contains(output)) {
+                            shared++;
+                        }
+                    }
+                    if (shared > bestShared) {
+                        bestShared = shared;
+                        next = g;
+                    }
+                }
+            }
+            Collections.sort(group);
+            result.add(group);
+        }
+        return result;
+    }
+
+    /**
+     * @return the predicted automaton size of the formula
+     */
+    public static long predictSize(LTLFormula formula) {
+        long result = 1;
+        for (LTLFormula f : formula.getSubformulas()) {
+            if (f.getOperator() >= LTLFormula.NEXT && f.getOperator() <= LTLFormula.EVENTUALLY
+                    || f.getOperator() >= LTLFormula.UNTIL) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static long multiply(long a, long b) {
+        return (a > Integer.MAX_VALUE || b > Integer.MAX_VALUE) ? Long.MAX_VALUE : a * b;
+    }
+
+    private static int find(int[] component, int g) {
+        while (component[g] != g) {
+            component[g] = component[component[g]];
+            g = component[g];
+        }
+        return g;
+    }
+}
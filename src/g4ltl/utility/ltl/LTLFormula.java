@@ -0,0 +1,307 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * LTLFormula.java Purpose: A node of the abstract syntax tree of an LTL
+ * formula. Nodes are created only by an LTLFormulaFactory, which shares
+ * structurally equal subformulas (hash-consing). Two formulas of the same
+ * factory are therefore equal iff they are the same object.
+ *
+ * For unary operators the operand is stored in left; right is null.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/07
+ */
+public final class LTLFormula {
+
+    public static final int TRUE = 0;
+    public static final int FALSE = 1;
+    public static final int ATOM = 2;
+    public static final int NOT = 3;
+    public static final int NEXT = 4;
+    public static final int ALWAYS = 5;
+    public static final int EVENTUALLY = 6;
+    public static final int AND = 7;
+    public static final int OR = 8;
+    public static final int IMPLIES = 9;
+    public static final int EQUIVALENT = 10;
+    public static final int UNTIL = 11;
+    public static final int WEAK_UNTIL = 12;
+    public static final int RELEASE = 13;
+    public static final int STRONG_RELEASE = 14;
+    /**
+     * Operator symbols in the input syntax of LTL2Buchi, indexed by operator.
+     */
+    private static final String[] SYMBOL = {"true", "false", "", "!", "X", "[]", "<>",
+        "&&", "||", "->", "<->", "U", "W", "V", "M"};
+    final LTLFormulaFactory factory;
+    final int operator;
+    final String name;
+    final LTLFormula left;
+    final LTLFormula right;
+    /**
+     * Unique number of the node within its factory; children have smaller ids.
+     */
+    final int id;
+    final int hash;
+    private final boolean hasNext;
+    private final boolean hasTemporalOperator;
+    private String text;
+    private Set<String> atoms;
+
+    LTLFormula(LTLFormulaFactory factory, int operator, String name, LTLFormula left, LTLFormula right,
+            int id, int hash) {
+        this.factory = factory;
+        this.operator = operator;
+        this.name = name;
+        this.left = left;
+        this.right = right;
+        this.id = id;
+        this.hash = hash;
+        boolean next = operator == NEXT;
+        boolean temporal = operator >= NEXT && operator <= EVENTUALLY || operator >= UNTIL;
+        if (left != null) {
+            next |= left.hasNext;
+            temporal |= left.hasTemporalOperator;
+        }
+        if (right != null) {
+            next |= right.hasNext;
+            temporal |= right.hasTemporalOperator;
+        }
+        this.hasNext = next;
+        this.hasTemporalOperator = temporal;
+    }
+
+    boolean matches(int operator, String name, LTLFormula left, LTLFormula right) {
+        return this.operator == operator && this.left == left && this.right == right
+                && (name == null ? this.name == null : name.equals(this.name));
+    }
+
+    public LTLFormulaFactory getFactory() {
+        return factory;
+    }
+
+    public int getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the signal name if the formula is an atom, null otherwise
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the left operand, or the operand of a unary operator
+     */
+    public LTLFormula getLeft() {
+        return left;
+    }
+
+    public LTLFormula getRight() {
+        return right;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isAtom() {
+        return operator == ATOM;
+    }
+
+    public boolean isUnary() {
+        return operator >= NOT && operator <= EVENTUALLY;
+    }
+
+    public boolean isBinary() {
+        return operator >= AND;
+    }
+
+    /**
+     * @return true if the formula uses the next operator
+     */
+    public boolean containsNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return true if the formula uses a temporal operator
+     */
+    public boolean containsTemporalOperator() {
+        return hasTemporalOperator;
+    }
+
+    /**
+     * @return the subformulas of the formula, each shared subformula once, children before parents
+     */
+    public ArrayList<LTLFormula> getSubformulas() {
+        ArrayList<LTLFormula> result = new ArrayList<LTLFormula>();
+        BitSet visited = new BitSet();
+        ArrayList<LTLFormula> stack = new ArrayList<LTLFormula>();
+        stack.add(this);
+        while (!stack.isEmpty()) {
+            LTLFormula f = stack.get(stack.size() - 1);
+            if (visited.get(f.id)) {
+                stack.remove(stack.size() - 1);
+                continue;
+            }
+            if (f.left != null && !visited.get(f.left.id)) {
+                stack.add(f.left);
+            } else if (f.right != null && !visited.get(f.right.id)) {
+                stack.add(f.right);
+            } else {
+                visited.set(f.id);
+                result.add(f);
+                stack.remove(stack.size() - 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of distinct subformulas (the size of the shared syntax graph)
+     */
+    public int getSize() {
+        return getSubformulas().size();
+    }
+
+    /**
+     * @return the names of all signals occurring in the formula
+     */
+    public Set<String> getAtoms() {
+        if (atoms == null) {
+            TreeSet<String> result = new TreeSet<String>();
+            for (LTLFormula f : getSubformulas()) {
+                if (f.operator == ATOM) {
+                    result.add(f.name);
+                }
+            }
+            atoms = Collections.unmodifiableSet(result);
+        }
+        return atoms;
+    }
+
+    /**
+     * @return the formula in the input syntax of LTL2Buchi; binary operators are
+     * fully parenthesized, so the text does not depend on operator precedence.
+     */
+    @Override
+    public String toString() {
+        if (text == null) {
+            StringBuilder sb = new StringBuilder();
+            appendTo(sb);
+            text = sb.toString();
+        }
+        return text;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private void appendTo(StringBuilder sb) {
+        if (text != null) {
+            sb.append(text);
+            return;
+        }
+        switch (operator) {
+            case TRUE:
+            case FALSE:
+                sb.append(SYMBOL[operator]);
+                break;
+            case ATOM:
+                appendAtom(sb, name);
+                break;
+            case NOT:
+                sb.append(SYMBOL[operator]);
+                left.appendOperand(sb);
+                break;
+            case NEXT:
+            case ALWAYS:
+            case EVENTUALLY:
+                sb.append(SYMBOL[operator]).append(' ');
+                left.appendOperand(sb);
+                break;
+            case EQUIVALENT:
+                // LTL2Buchi has no equivalence operator.
+                sb.append("((");
+                left.appendTo(sb);
+                sb.append(") -> (");
+                right.appendTo(sb);
+                sb.append(")) && ((");
+                right.appendTo(sb);
+                sb.append(") -> (");
+                left.appendTo(sb);
+                sb.append("))");
+                break;
+            default:
+                left.appendOperand(sb);
+                sb.append(' ').append(SYMBOL[operator]).append(' ');
+                right.appendOperand(sb);
+                break;
+        }
+    }
+
+    private void appendOperand(StringBuilder sb) {
+        if (operator == ATOM || operator == TRUE || operator == FALSE) {
+            appendTo(sb);
+        } else {
+            sb.append('(');
+            appendTo(sb);
+            sb.append(')');
+        }
+    }
+
+    /**
+     * Names which LTL2Buchi would not read as a single proposition (e.g.,
+     * containing one of the operator letters U, V, W, M, X) are quoted.
+     */
+    private static void appendAtom(StringBuilder sb, String name) {
+        boolean plain = name.length() > 0 && Character.isJavaIdentifierStart(name.charAt(0))
+                && !name.equals("true") && !name.equals("false");
+        for (int i = 0; plain && i < name.length(); i++) {
+            char c = name.charAt(i);
+            plain = Character.isJavaIdentifierPart(c) && "MUVWX".indexOf(c) < 0;
+        }
+        if (plain) {
+            sb.append(name);
+        } else {
+            sb.append('"').append(name).append('"');
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+/**
+ * LTLFormulaFactory.java Purpose: Create LTL formulas with structural
+ * sharing. A formula is looked up in an open-addressing table by its operator,
+ * atom name and (already shared) operands before a new node is allocated, so
+ * each distinct subformula exists exactly once per factory.
+ *
+ * A factory is not thread-safe.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/07
+ */
+public class LTLFormulaFactory {
+
+    private LTLFormula[] table;
+    private int size;
+    private final LTLFormula trueFormula;
+    private final LTLFormula falseFormula;
+
+    public LTLFormulaFactory() {
+        table = new LTLFormula[64];
+        trueFormula = create(LTLFormula.TRUE, null, null, null);
+        falseFormula = create(LTLFormula.FALSE, null, null, null);
+    }
+
+    /**
+     * @return the number of distinct formulas created by the factory
+     */
+    public int size() {
+        return size;
+    }
+
+    public LTLFormula getTrue() {
+        return trueFormula;
+    }
+
+    public LTLFormula getFalse() {
+        return falseFormula;
+    }
+
+    public LTLFormula atom(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Atom without name");
+        }
+        return create(LTLFormula.ATOM, name, null, null);
+    }
+
+    public LTLFormula not(LTLFormula f) {
+        return create(LTLFormula.NOT, f, null);
+    }
+
+    public LTLFormula next(LTLFormula f) {
+        return create(LTLFormula.NEXT, f, null);
+    }
+
+    public LTLFormula always(LTLFormula f) {
+        return create(LTLFormula.ALWAYS, f, null);
+    }
+
+    public LTLFormula eventually(LTLFormula f) {
+        return create(LTLFormula.EVENTUALLY, f, null);
+    }
+
+    public LTLFormula and(LTLFormula left, LTLFormula right) {
+        return create(LTLFormula.AND, left, right);
+    }
+
+    public LTLFormula or(LTLFormula left, LTLFormula right) {
+        return create(LTLFormula.OR, left, right);
+    }
+
+    public LTLFormula implies(LTLFormula left, LTLFormula right) {
+        return create(LTLFormula.IMPLIES, left, right);
+    }
+
+    public LTLFormula until(LTLFormula left, LTLFormula right) {
+        return create(LTLFormula.UNTIL, left, right);
+    }
+
+    /**
+     * Create a formula with a unary (right == null) or binary operator.
+     *
+     * @param operator operator as defined in LTLFormula
+     * @param left operand, or left operand of a binary operator
+     * @param right right operand of a binary operator
+     * @return the shared formula
+     */
+    public LTLFormula create(int operator, LTLFormula left, LTLFormula right) {
+        if (operator < LTLFormula.NOT || operator > LTLFormula.STRONG_RELEASE
+                || left == null || (right == null) != (operator <= LTLFormula.EVENTUALLY)) {
+            throw new IllegalArgumentException("Invalid operands for operator " + operator);
+        }
+        if (left.factory != this || (right != null && right.factory != this)) {
+            throw new IllegalArgumentException("Operand created by another factory");
+        }
+        return create(operator, null, left, right);
+    }
+
+    /**
+     * Copy a formula of another factory into this factory.
+     */
+    public LTLFormula importFormula(LTLFormula f) {
+        if (f.factory == this) {
+            return f;
+        }
+        LTLFormula[] copy = new LTLFormula[f.factory.size];
+        LTLFormula result = null;
+        for (LTLFormula g : f.getSubformulas()) {
+            result = create(g.operator, g.name, g.left == null ? null : copy[g.left.id],
+                    g.right == null ? null : copy[g.right.id]);
+            copy[g.id] = result;
+        }
+        return result;
+    }
+
+    private LTLFormula create(int operator, String name, LTLFormula left, LTLFormula right) {
+        int hash = operator;
+        if (name != null) {
+            hash = hash * 31 + name.hashCode();
+        }
+        if (left != null) {
+            hash = hash * 31 + left.id;
+        }
+        if (right != null) {
+            hash = hash * 31 + right.id;
+        }
+        hash ^= hash >>> 16;
+
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            LTLFormula f = table[slot];
+            if (f.hash == hash && f.matches(operator, name, left, right)) {
+                return f;
+            }
+            slot = (slot + 1) & mask;
+        }
+        LTLFormula f = new LTLFormula(this, operator, name, left, right, size, hash);
+        table[slot] = f;
+        size++;
+        if (2 * size > table.length) {
+            rehash();
+        }
+        return f;
+    }
+
+    private void rehash() {
+        LTLFormula[] old = table;
+        table = new LTLFormula[old.length * 2];
+        int mask = table.length - 1;
+        for (LTLFormula f : old) {
+            if (f != null) {
+                int slot = f.hash & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = f;
+            }
+        }
+    }
+}
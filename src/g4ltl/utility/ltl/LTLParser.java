@@ -0,0 +1,288 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.HashMap;
+
+/**
+ * LTLParser.java Purpose: Recursive-descent parser for LTL formulas and
+ * G4LTL specifications, producing shared syntax graphs (see LTLFormulaFactory).
+ * The parser works in a single left-to-right pass and is linear in the length
+ * of the input.
+ *
+ * Both the G4LTL keywords (ALWAYS, EVENTUALLY, NEXT, UNTIL) and the LTL2Buchi
+ * syntax ([], <>, X, U, V, W, M, true, false, !, &&, ||, ->, /\, \/) are
+ * accepted, as well as <-> for equivalence. Keywords are only recognized as
+ * whole words, so signal names may contain them. Signal names which are not
+ * identifiers can be written in double quotes. Unary operators bind tightest;
+ * binary operators are right-associative with the precedence used by LTL2Buchi:
+ * V, M over U, W over && over || over ->, <->.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/07
+ */
+public class LTLParser {
+
+    /**
+     * Prefix of assumption lines in a specification.
+     */
+    public static final String ASSUME = "ASSUME";
+    private static final int T_END = 0;
+    private static final int T_LEFT = 1;
+    private static final int T_RIGHT = 2;
+    private static final int T_ATOM = 3;
+    private static final int T_CONSTANT = 4;
+    private static final int T_UNARY = 5;
+    private static final int T_BINARY = 6;
+    /**
+     * Symbolic tokens; a symbol must precede its proper prefixes.
+     */
+    private static final String[] SYMBOLS = {"<->", "<>", "[]", "->", "&&", "||", "/\\", "\\/", "!", "(", ")"};
+    private static final int[] SYMBOL_KINDS = {T_BINARY, T_UNARY, T_UNARY, T_BINARY, T_BINARY, T_BINARY,
+        T_BINARY, T_BINARY, T_UNARY, T_LEFT, T_RIGHT};
+    private static final int[] SYMBOL_OPERATORS = {LTLFormula.EQUIVALENT, LTLFormula.EVENTUALLY,
+        LTLFormula.ALWAYS, LTLFormula.IMPLIES, LTLFormula.AND, LTLFormula.OR, LTLFormula.AND, LTLFormula.OR,
+        LTLFormula.NOT, -1, -1};
+    private static final HashMap<String, Integer> KEYWORDS = new HashMap<String, Integer>();
+
+    static {
+        KEYWORDS.put("ALWAYS", Integer.valueOf(LTLFormula.ALWAYS));
+        KEYWORDS.put("EVENTUALLY", Integer.valueOf(LTLFormula.EVENTUALLY));
+        KEYWORDS.put("NEXT", Integer.valueOf(LTLFormula.NEXT));
+        KEYWORDS.put("UNTIL", Integer.valueOf(LTLFormula.UNTIL));
+        KEYWORDS.put("X", Integer.valueOf(LTLFormula.NEXT));
+        KEYWORDS.put("U", Integer.valueOf(LTLFormula.UNTIL));
+        KEYWORDS.put("W", Integer.valueOf(LTLFormula.WEAK_UNTIL));
+        KEYWORDS.put("V", Integer.valueOf(LTLFormula.RELEASE));
+        KEYWORDS.put("M", Integer.valueOf(LTLFormula.STRONG_RELEASE));
+        KEYWORDS.put("true", Integer.valueOf(LTLFormula.TRUE));
+        KEYWORDS.put("false", Integer.valueOf(LTLFormula.FALSE));
+    }
+    private final LTLFormulaFactory factory;
+    private String input;
+    private int position;
+    private int tokenStart;
+    private int tokenKind;
+    private int tokenOperator;
+    private String tokenText;
+
+    public LTLParser() {
+        this(new LTLFormulaFactory());
+    }
+
+    /**
+     * @param factory factory used for all formulas created by the parser
+     */
+    public LTLParser(LTLFormulaFactory factory) {
+        this.factory = factory;
+    }
+
+    public LTLFormulaFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Parse a single LTL formula.
+     *
+     * @param formula formula in textual form
+     * @return the formula
+     * @throws LTLParseException if the formula is malformed
+     */
+    public LTLFormula parse(String formula) throws LTLParseException {
+        input = formula;
+        position = 0;
+        nextToken();
+        LTLFormula result = parseBinary(0);
+        if (tokenKind != T_END) {
+            throw error("unexpected " + describeToken());
+        }
+        return result;
+    }
+
+    /**
+     * Parse a G4LTL specification. Every non-empty line is a formula; lines
+     * starting with ASSUME are assumptions, lines starting with ## or !-- are
+     * comments.
+     *
+     * @param specification specification in textual form
+     * @return the parsed specification
+     * @throws LTLParseException if a line is malformed; the message contains the line number
+     */
+    public LTLSpecification parseSpecification(String specification) throws LTLParseException {
+        LTLSpecification result = new LTLSpecification(factory);
+        int lineNumber = 0;
+        int start = 0;
+        while (start <= specification.length()) {
+            int end = specification.indexOf('\n', start);
+            if (end < 0) {
+                end = specification.length();
+            }
+            String line = specification.substring(start, end).trim();
+            start = end + 1;
+            lineNumber++;
+            if (line.length() == 0 || line.startsWith("##") || line.startsWith("!--")) {
+                continue;
+            }
+            boolean isAssumption = line.startsWith(ASSUME) && (line.length() == ASSUME.length()
+                    || !Character.isJavaIdentifierPart(line.charAt(ASSUME.length())));
+            try {
+                if (isAssumption) {
+                    result.getAssumptions().add(parse(line.substring(ASSUME.length())));
+                } else {
+                    result.getGuarantees().add(parse(line));
+                }
+            } catch (LTLParseException ex) {
+                throw new LTLParseException("Line " + lineNumber + ": " + ex.getMessage(), lineNumber, ex.getColumn());
+            }
+        }
+        return result;
+    }
+
+    private LTLFormula parseBinary(int minimumPrecedence) throws LTLParseException {
+        LTLFormula left = parseUnary();
+        while (tokenKind == T_BINARY && precedence(tokenOperator) > minimumPrecedence) {
+            int operator = tokenOperator;
+            nextToken();
+            LTLFormula right = parseBinary(precedence(operator) - 1);
+            left = factory.create(operator, left, right);
+        }
+        return left;
+    }
+
+    private LTLFormula parseUnary() throws LTLParseException {
+        switch (tokenKind) {
+            case T_UNARY: {
+                int operator = tokenOperator;
+                nextToken();
+                return factory.create(operator, parseUnary(), null);
+            }
+            case T_LEFT: {
+                nextToken();
+                LTLFormula result = parseBinary(0);
+                if (tokenKind != T_RIGHT) {
+                    throw error("expected ')' instead of " + describeToken());
+                }
+                nextToken();
+                return result;
+            }
+            case T_ATOM: {
+                LTLFormula result = factory.atom(tokenText);
+                nextToken();
+                return result;
+            }
+            case T_CONSTANT: {
+                LTLFormula result = tokenOperator == LTLFormula.TRUE ? factory.getTrue() : factory.getFalse();
+                nextToken();
+                return result;
+            }
+            default:
+                throw error("expected a formula instead of " + describeToken());
+        }
+    }
+
+    private static int precedence(int operator) {
+        switch (operator) {
+            case LTLFormula.IMPLIES:
+            case LTLFormula.EQUIVALENT:
+                return 1;
+            case LTLFormula.OR:
+                return 2;
+            case LTLFormula.AND:
+                return 3;
+            case LTLFormula.UNTIL:
+            case LTLFormula.WEAK_UNTIL:
+                return 4;
+            default:
+                return 5;
+        }
+    }
+
+    private void nextToken() throws LTLParseException {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        tokenStart = position;
+        if (position == input.length()) {
+            tokenKind = T_END;
+            return;
+        }
+        char c = input.charAt(position);
+        if (Character.isJavaIdentifierStart(c)) {
+            int end = position + 1;
+            while (end < input.length() && Character.isJavaIdentifierPart(input.charAt(end))) {
+                end++;
+            }
+            tokenText = input.substring(position, end);
+            position = end;
+            Integer keyword = KEYWORDS.get(tokenText);
+            if (keyword == null) {
+                tokenKind = T_ATOM;
+            } else {
+                tokenOperator = keyword.intValue();
+                if (tokenOperator <= LTLFormula.FALSE) {
+                    tokenKind = T_CONSTANT;
+                } else if (tokenOperator <= LTLFormula.EVENTUALLY) {
+                    tokenKind = T_UNARY;
+                } else {
+                    tokenKind = T_BINARY;
+                }
+            }
+            return;
+        }
+        if (c == '"') {
+            int end = input.indexOf('"', position + 1);
+            if (end < 0) {
+                throw error("unterminated signal name");
+            }
+            tokenText = input.substring(position + 1, end);
+            position = end + 1;
+            tokenKind = T_ATOM;
+            return;
+        }
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            if (input.startsWith(SYMBOLS[i], position)) {
+                position += SYMBOLS[i].length();
+                tokenKind = SYMBOL_KINDS[i];
+                tokenOperator = SYMBOL_OPERATORS[i];
+                return;
+            }
+        }
+        throw error("invalid character '" + c + "'");
+    }
+
+    private String describeToken() {
+        if (tokenKind == T_END) {
+            return "end of formula";
+        }
+        return "'" + input.substring(tokenStart, position) + "'";
+    }
+
+    private LTLParseException error(String message) {
+        return new LTLParseException("column " + (tokenStart + 1) + ": " + message, 0, tokenStart + 1);
+    }
+}
@@ -0,0 +1,350 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * LTLSimplifier.java Purpose: Rewrite an LTL formula into an equivalent and
+ * usually smaller one before it is translated to an automaton. The rules are
+ * applied bottom-up on the shared syntax graph:
+ *
+ * - constant propagation (true, false) through all operators;
+ * - double negation, idempotence and complementary operands (a && !a);
+ * - deduplication of identical conjuncts and disjuncts;
+ * - temporal normalization: [][] a = [] a, <><> a = <> a, []<>[] a = <>[] a,
+ *   <>[]<> a = []<> a, <> (a U b) = <> b, a U (a U b) = a U b,
+ *   [] a && [] b = [] (a && b), <> a || <> b = <> (a || b),
+ *   X a && X b = X (a && b), X a || X b = X (a || b);
+ * - for an assumption-guarantee formula A -> G, guarantee conjuncts which are
+ *   also conjuncts of A are dropped.
+ *
+ * The result is created in the factory of the input formula.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class LTLSimplifier {
+
+    private final LTLFormulaFactory factory;
+
+    public LTLSimplifier(LTLFormulaFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Simplify a formula.
+     *
+     * @param formula formula created by the factory of the simplifier
+     * @return an equivalent formula
+     */
+    public LTLFormula simplify(LTLFormula formula) {
+        if (formula.factory != factory) {
+            throw new IllegalArgumentException("Formula created by another factory");
+        }
+        // Simplified version of each original subformula, indexed by id.
+        LTLFormula[] result = new LTLFormula[factory.size()];
+        for (LTLFormula f : formula.getSubformulas()) {
+            LTLFormula left = f.left == null ? null : result[f.left.id];
+            LTLFormula right = f.right == null ? null : result[f.right.id];
+            result[f.id] = rebuild(f, left, right);
+        }
+        return result[formula.id];
+    }
+
+    private LTLFormula rebuild(LTLFormula f, LTLFormula left, LTLFormula right) {
+        switch (f.operator) {
+            case LTLFormula.NOT:
+                return not(left);
+            case LTLFormula.NEXT:
+                return next(left);
+            case LTLFormula.ALWAYS:
+                return always(left);
+            case LTLFormula.EVENTUALLY:
+                return eventually(left);
+            case LTLFormula.AND:
+                return and(left, right);
+            case LTLFormula.OR:
+                return or(left, right);
+            case LTLFormula.IMPLIES:
+                return implies(left, right);
+            case LTLFormula.EQUIVALENT:
+                return equivalent(left, right);
+            case LTLFormula.UNTIL:
+                return until(left, right);
+            case LTLFormula.WEAK_UNTIL:
+                return weakUntil(left, right);
+            case LTLFormula.RELEASE:
+                return release(left, right);
+            case LTLFormula.STRONG_RELEASE:
+                return strongRelease(left, right);
+            default:
+                // true, false and atoms
+                return f;
+        }
+    }
+
+    private LTLFormula not(LTLFormula a) {
+        switch (a.operator) {
+            case LTLFormula.TRUE:
+                return factory.getFalse();
+            case LTLFormula.FALSE:
+                return factory.getTrue();
+            case LTLFormula.NOT:
+                return a.left;
+            default:
+                return factory.not(a);
+        }
+    }
+
+    private LTLFormula next(LTLFormula a) {
+        if (isConstant(a)) {
+            return a;
+        }
+        return factory.next(a);
+    }
+
+    private LTLFormula always(LTLFormula a) {
+        if (isConstant(a) || a.operator == LTLFormula.ALWAYS) {
+            return a;
+        }
+        if (a.operator == LTLFormula.EVENTUALLY && a.left.operator == LTLFormula.ALWAYS) {
+            return a;
+        }
+        return factory.always(a);
+    }
+
+    private LTLFormula eventually(LTLFormula a) {
+        if (isConstant(a) || a.operator == LTLFormula.EVENTUALLY) {
+            return a;
+        }
+        if (a.operator == LTLFormula.ALWAYS && a.left.operator == LTLFormula.EVENTUALLY) {
+            return a;
+        }
+        if (a.operator == LTLFormula.UNTIL) {
+            return eventually(a.right);
+        }
+        return factory.eventually(a);
+    }
+
+    private LTLFormula and(LTLFormula a, LTLFormula b) {
+        return junction(LTLFormula.AND, a, b);
+    }
+
+    private LTLFormula or(LTLFormula a, LTLFormula b) {
+        return junction(LTLFormula.OR, a, b);
+    }
+
+    /**
+     * Conjunction (operator == AND) or disjunction (operator == OR) of two
+     * simplified formulas, flattened, deduplicated and rebuilt nested to the
+     * right in order of first occurrence.
+     */
+    private LTLFormula junction(int operator, LTLFormula a, LTLFormula b) {
+        boolean isAnd = operator == LTLFormula.AND;
+        LTLFormula unit = isAnd ? factory.getTrue() : factory.getFalse();
+        LTLFormula zero = isAnd ? factory.getFalse() : factory.getTrue();
+        // [] distributes over &&, <> over ||, and X over both.
+        int distributive = isAnd ? LTLFormula.ALWAYS : LTLFormula.EVENTUALLY;
+
+        ArrayList<LTLFormula> operands = new ArrayList<LTLFormula>();
+        flatten(operator, a, operands);
+        flatten(operator, b, operands);
+
+        ArrayList<LTLFormula> result = new ArrayList<LTLFormula>();
+        HashSet<LTLFormula> seen = new HashSet<LTLFormula>();
+        int distributiveIndex = -1;
+        LTLFormula distributiveBody = null;
+        int nextIndex = -1;
+        LTLFormula nextBody = null;
+        for (LTLFormula f : operands) {
+            if (f == zero) {
+                return zero;
+            }
+            if (f == unit || !seen.add(f)) {
+                continue;
+            }
+            if (f.operator == distributive) {
+                if (distributiveIndex < 0) {
+                    distributiveIndex = result.size();
+                    distributiveBody = f.left;
+                    result.add(f);
+                } else {
+                    distributiveBody = junction(operator, distributiveBody, f.left);
+                }
+            } else if (f.operator == LTLFormula.NEXT) {
+                if (nextIndex < 0) {
+                    nextIndex = result.size();
+                    nextBody = f.left;
+                    result.add(f);
+                } else {
+                    nextBody = junction(operator, nextBody, f.left);
+                }
+            } else {
+                result.add(f);
+            }
+        }
+        if (distributiveIndex >= 0) {
+            result.set(distributiveIndex, isAnd ? always(distributiveBody) : eventually(distributiveBody));
+        }
+        if (nextIndex >= 0) {
+            result.set(nextIndex, next(nextBody));
+        }
+        // Complementary operands, a && !a or a || !a.
+        HashSet<LTLFormula> operandSet = new HashSet<LTLFormula>(result);
+        for (LTLFormula f : result) {
+            if (f == zero || (f.operator == LTLFormula.NOT && operandSet.contains(f.left))) {
+                return zero;
+            }
+        }
+
+        LTLFormula formula = null;
+        for (int i = result.size() - 1; i >= 0; i--) {
+            LTLFormula f = result.get(i);
+            if (f == unit) {
+                continue;
+            }
+            formula = (formula == null) ? f : factory.create(operator, f, formula);
+        }
+        return formula == null ? unit : formula;
+    }
+
+    private static void flatten(int operator, LTLFormula f, ArrayList<LTLFormula> operands) {
+        if (f.operator == operator) {
+            flatten(operator, f.left, operands);
+            flatten(operator, f.right, operands);
+        } else {
+            operands.add(f);
+        }
+    }
+
+    private LTLFormula implies(LTLFormula a, LTLFormula b) {
+        if (a.operator == LTLFormula.TRUE) {
+            return b;
+        }
+        if (a.operator == LTLFormula.FALSE || b.operator == LTLFormula.TRUE || a == b) {
+            return factory.getTrue();
+        }
+        if (b.operator == LTLFormula.FALSE) {
+            return not(a);
+        }
+        // Under the assumption A, guarantees which are conjuncts of A hold.
+        ArrayList<LTLFormula> assumptions = new ArrayList<LTLFormula>();
+        flatten(LTLFormula.AND, a, assumptions);
+        ArrayList<LTLFormula> guarantees = new ArrayList<LTLFormula>();
+        flatten(LTLFormula.AND, b, guarantees);
+        if (guarantees.removeAll(new HashSet<LTLFormula>(assumptions))) {
+            if (guarantees.isEmpty()) {
+                return factory.getTrue();
+            }
+            b = guarantees.get(guarantees.size() - 1);
+            for (int i = guarantees.size() - 2; i >= 0; i--) {
+                b = factory.and(guarantees.get(i), b);
+            }
+        }
+        return factory.implies(a, b);
+    }
+
+    private LTLFormula equivalent(LTLFormula a, LTLFormula b) {
+        if (a == b) {
+            return factory.getTrue();
+        }
+        if (a.operator == LTLFormula.TRUE) {
+            return b;
+        }
+        if (b.operator == LTLFormula.TRUE) {
+            return a;
+        }
+        if (a.operator == LTLFormula.FALSE) {
+            return not(b);
+        }
+        if (b.operator == LTLFormula.FALSE) {
+            return not(a);
+        }
+        return factory.create(LTLFormula.EQUIVALENT, a, b);
+    }
+
+    private LTLFormula until(LTLFormula a, LTLFormula b) {
+        if (isConstant(b) || a.operator == LTLFormula.FALSE || a == b) {
+            return b;
+        }
+        if (a.operator == LTLFormula.TRUE) {
+            return eventually(b);
+        }
+        if ((b.operator == LTLFormula.UNTIL && b.left == a) || b.operator == LTLFormula.EVENTUALLY) {
+            // a U (a U c) = a U c, a U <> c = <> c
+            return b;
+        }
+        if (a.operator == LTLFormula.UNTIL && a.right == b) {
+            // (c U b) U b = c U b
+            return a;
+        }
+        return factory.until(a, b);
+    }
+
+    private LTLFormula weakUntil(LTLFormula a, LTLFormula b) {
+        if (b.operator == LTLFormula.TRUE || a.operator == LTLFormula.FALSE || a == b) {
+            return b;
+        }
+        if (a.operator == LTLFormula.TRUE) {
+            return a;
+        }
+        if (b.operator == LTLFormula.FALSE) {
+            return always(a);
+        }
+        return factory.create(LTLFormula.WEAK_UNTIL, a, b);
+    }
+
+    private LTLFormula release(LTLFormula a, LTLFormula b) {
+        if (isConstant(b) || a.operator == LTLFormula.TRUE || a == b) {
+            return b;
+        }
+        if (a.operator == LTLFormula.FALSE) {
+            return always(b);
+        }
+        return factory.create(LTLFormula.RELEASE, a, b);
+    }
+
+    private LTLFormula strongRelease(LTLFormula a, LTLFormula b) {
+        if (a.operator == LTLFormula.TRUE || a == b) {
+            return b;
+        }
+        if (a.operator == LTLFormula.FALSE || b.operator == LTLFormula.FALSE) {
+            return factory.getFalse();
+        }
+        if (b.operator == LTLFormula.TRUE) {
+            return eventually(a);
+        }
+        return factory.create(LTLFormula.STRONG_RELEASE, a, b);
+    }
+
+    private static boolean isConstant(LTLFormula f) {
+        return f.operator == LTLFormula.TRUE || f.operator == LTLFormula.FALSE;
+    }
+}
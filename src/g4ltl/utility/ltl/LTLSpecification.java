@@ -0,0 +1,132 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * LTLSpecification.java Purpose: A parsed G4LTL specification, consisting of
+ * assumptions and guarantees (one formula per line). All formulas share the
+ * same factory, so the assumption part is shared by the monolithic formula and
+ * all sub-specifications.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/07
+ */
+public class LTLSpecification {
+
+    private final LTLFormulaFactory factory;
+    private final ArrayList<LTLFormula> assumptions;
+    private final ArrayList<LTLFormula> guarantees;
+
+    public LTLSpecification(LTLFormulaFactory factory) {
+        this.factory = factory;
+        this.assumptions = new ArrayList<LTLFormula>();
+        this.guarantees = new ArrayList<LTLFormula>();
+    }
+
+    public LTLFormulaFactory getFactory() {
+        return factory;
+    }
+
+    public ArrayList<LTLFormula> getAssumptions() {
+        return assumptions;
+    }
+
+    public ArrayList<LTLFormula> getGuarantees() {
+        return guarantees;
+    }
+
+    /**
+     * @return the conjunction of all assumptions, or null if there is none
+     */
+    public LTLFormula getAssumption() {
+        return conjunction(assumptions);
+    }
+
+    /**
+     * Generate the LTL formula of the specification, where the conjunction of
+     * the assumptions implies the conjunction of the guarantees.
+     *
+     * @return the formula of the whole specification
+     */
+    public LTLFormula getFormula() {
+        return assumeGuarantee(conjunction(guarantees));
+    }
+
+    /**
+     * Partition the guarantees into groups of guarantees depending on each
+     * other (see GuaranteeGrouping); each group, under all assumptions, forms
+     * a sub-specification.
+     *
+     * @param outputs output signals of the specification
+     * @param maxPredictedSize bound on the predicted automaton size of a group
+     * @return the formulas of the sub-specifications
+     */
+    public ArrayList<LTLFormula> getSubSpecifications(Collection<String> outputs, int maxPredictedSize) {
+        ArrayList<LTLFormula> result = new ArrayList<LTLFormula>();
+        if (guarantees.isEmpty()) {
+            result.add(getFormula());
+            return result;
+        }
+        for (ArrayList<Integer> group : GuaranteeGrouping.plan(guarantees, outputs, maxPredictedSize)) {
+            ArrayList<LTLFormula> formulas = new ArrayList<LTLFormula>();
+            for (Integer g : group) {
+                formulas.add(guarantees.get(g.intValue()));
+            }
+            result.add(assumeGuarantee(conjunction(formulas)));
+        }
+        return result;
+    }
+
+    private LTLFormula assumeGuarantee(LTLFormula guarantee) {
+        if (guarantee == null) {
+            guarantee = factory.getTrue();
+        }
+        LTLFormula assumption = getAssumption();
+        return assumption == null ? guarantee : factory.implies(assumption, guarantee);
+    }
+
+    /**
+     * Conjunction, nested to the right as in a && (b && c).
+     */
+    private LTLFormula conjunction(List<LTLFormula> formulas) {
+        LTLFormula result = null;
+        for (int i = formulas.size() - 1; i >= 0; i--) {
+            result = (result == null) ? formulas.get(i) : factory.and(formulas.get(i), result);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getFormula().toString();
+    }
+}
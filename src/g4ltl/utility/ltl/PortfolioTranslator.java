@@ -0,0 +1,95 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import gov.nasa.ltl.graph.Graph;
+import gov.nasa.ltl.trans.ParseErrorException;
+
+/**
+ * PortfolioTranslator.java Purpose: Translate a formula with several backends
+ * and keep the smallest automaton (fewest states, then fewest edges). The
+ * game arena grows linearly with the automaton, so a smaller automaton usually
+ * pays for the extra translation time.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class PortfolioTranslator implements LTLTranslator {
+
+    private final LTLTranslator[] translators;
+
+    /**
+     * Portfolio of LTL2Buchi and the tableau translator.
+     */
+    public PortfolioTranslator() {
+        this(new LTL2BuchiTranslator(), new TableauTranslator());
+    }
+
+    public PortfolioTranslator(LTLTranslator... translators) {
+        if (translators.length == 0) {
+            throw new IllegalArgumentException("Empty portfolio");
+        }
+        this.translators = translators.clone();
+    }
+
+    public String getName() {
+        StringBuilder sb = new StringBuilder("Portfolio (");
+        for (int i = 0; i < translators.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(translators[i].getName());
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * A backend which can not read the formula is skipped; the exception is
+     * only thrown if no backend succeeds.
+     */
+    public Graph translate(LTLFormula formula) throws ParseErrorException {
+        Graph best = null;
+        ParseErrorException error = null;
+        for (LTLTranslator translator : translators) {
+            Graph automaton;
+            try {
+                automaton = translator.translate(formula);
+            } catch (ParseErrorException ex) {
+                if (error == null) {
+                    error = ex;
+                }
+                continue;
+            }
+            if (best == null || automaton.getNodeCount() < best.getNodeCount()
+                    || (automaton.getNodeCount() == best.getNodeCount() && automaton.getEdgeCount() < best.getEdgeCount())) {
+                best = automaton;
+            }
+        }
+        if (best == null) {
+            throw error;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,77 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import gov.nasa.ltl.graph.Graph;
+import gov.nasa.ltl.trans.ParseErrorException;
+
+/**
+ * SizeBasedTranslator.java Purpose: Select the translator by the size of the
+ * formula (number of distinct subformulas): small formulas are given to one
+ * backend, larger ones to another.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class SizeBasedTranslator implements LTLTranslator {
+
+    /**
+     * Formulas up to this size are translated by LTL2Buchi in the default setting.
+     */
+    public static final int DEFAULT_THRESHOLD = 40;
+    private final LTLTranslator smallFormulaTranslator;
+    private final LTLTranslator largeFormulaTranslator;
+    private final int threshold;
+
+    /**
+     * Use LTL2Buchi up to the default threshold, and the tableau translator
+     * beyond.
+     */
+    public SizeBasedTranslator() {
+        this(new LTL2BuchiTranslator(), new TableauTranslator(), DEFAULT_THRESHOLD);
+    }
+
+    public SizeBasedTranslator(LTLTranslator smallFormulaTranslator, LTLTranslator largeFormulaTranslator, int threshold) {
+        this.smallFormulaTranslator = smallFormulaTranslator;
+        this.largeFormulaTranslator = largeFormulaTranslator;
+        this.threshold = threshold;
+    }
+
+    public String getName() {
+        return "Size-based (" + smallFormulaTranslator.getName() + " up to " + threshold + ", "
+                + largeFormulaTranslator.getName() + " beyond)";
+    }
+
+    public Graph translate(LTLFormula formula) throws ParseErrorException {
+        if (formula.getSize() <= threshold) {
+            return smallFormulaTranslator.translate(formula);
+        } else {
+            return largeFormulaTranslator.translate(formula);
+        }
+    }
+}
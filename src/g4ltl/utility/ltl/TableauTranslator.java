@@ -0,0 +1,588 @@
+/* G4LTL: Games for LTL Synthesis
+ *
+ * Copyright (c) 2013, Chih-Hong Cheng, 
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   * Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL Chih-Hong Cheng BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package g4ltl.utility.ltl;
+
+import gov.nasa.ltl.graph.Edge;
+import gov.nasa.ltl.graph.Graph;
+import gov.nasa.ltl.graph.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/**
+ * TableauTranslator.java Purpose: Pure-Java translation of LTL to Buechi
+ * automata by a tableau construction in the style of Gerth, Peled, Vardi and
+ * Wolper, tuned for speed rather than for the smallest automaton:
+ *
+ * - the formula is simplified and brought into negation normal form on the
+ *   shared syntax graph;
+ * - a state is the set of obligations for the current position; its
+ *   successors are enumerated by expanding the obligations into covers
+ *   (literals, obligations for the next position, deferred eventualities),
+ *   and an expansion stops early when a disjunct or an eventuality is already
+ *   satisfied by the branch;
+ * - covers subsumed by another cover of the same state are dropped;
+ * - the generalized acceptance condition (one set per eventuality) is
+ *   degeneralized with a counter while the automaton is explored;
+ * - states which can not reach an accepting cycle are pruned by an SCC
+ *   analysis, and bisimilar states are merged.
+ *
+ * @author Chihhong Cheng
+ * @version 0.1 2013/10/08
+ */
+public class TableauTranslator implements LTLTranslator {
+
+    public String getName() {
+        return "Tableau";
+    }
+
+    public Graph translate(LTLFormula formula) {
+        LTLFormulaFactory factory = formula.getFactory();
+        LTLSimplifier simplifier = new LTLSimplifier(factory);
+        LTLFormula root = toNegationNormalForm(simplifier.simplify(formula), false, new HashMap<LTLFormula, LTLFormula>());
+        return new Construction(factory, root).build();
+    }
+
+    /**
+     * Push negations to the atoms. The result only uses true, false, atoms,
+     * negated atoms, &&, ||, X, U and V.
+     */
+    private static LTLFormula toNegationNormalForm(LTLFormula f, boolean negate, HashMap<LTLFormula, LTLFormula> cache) {
+        LTLFormulaFactory factory = f.factory;
+        LTLFormula key = negate ? factory.not(f) : f;
+        LTLFormula result = cache.get(key);
+        if (result != null) {
+            return result;
+        }
+        LTLFormula a = f.left;
+        LTLFormula b = f.right;
+        switch (f.operator) {
+            case LTLFormula.TRUE:
+            case LTLFormula.FALSE:
+                result = (f.operator == LTLFormula.TRUE) != negate ? factory.getTrue() : factory.getFalse();
+                break;
+            case LTLFormula.ATOM:
+                result = negate ? factory.not(f) : f;
+                break;
+            case LTLFormula.NOT:
+                result = toNegationNormalForm(a, !negate, cache);
+                break;
+            case LTLFormula.NEXT:
+                result = factory.next(toNegationNormalForm(a, negate, cache));
+                break;
+            case LTLFormula.ALWAYS:
+            case LTLFormula.EVENTUALLY:
+                // [] a = false V a, <> a = true U a
+                result = ((f.operator == LTLFormula.ALWAYS) != negate)
+                        ? factory.create(LTLFormula.RELEASE, factory.getFalse(), toNegationNormalForm(a, negate, cache))
+                        : factory.until(factory.getTrue(), toNegationNormalForm(a, negate, cache));
+                break;
+            case LTLFormula.AND:
+            case LTLFormula.OR:
+                result = factory.create((f.operator == LTLFormula.AND) != negate ? LTLFormula.AND : LTLFormula.OR,
+                        toNegationNormalForm(a, negate, cache), toNegationNormalForm(b, negate, cache));
+                break;
+            case LTLFormula.IMPLIES:
+                // a -> b = !a || b
+                result = negate
+                        ? factory.and(toNegationNormalForm(a, false, cache), toNegationNormalForm(b, true, cache))
+                        : factory.or(toNegationNormalForm(a, true, cache), toNegationNormalForm(b, false, cache));
+                break;
+            case LTLFormula.EQUIVALENT:
+                // a <-> b = (a && b) || (!a && !b), !(a <-> b) = (a && !b) || (!a && b)
+                result = factory.or(
+                        factory.and(toNegationNormalForm(a, false, cache), toNegationNormalForm(b, negate, cache)),
+                        factory.and(toNegationNormalForm(a, true, cache), toNegationNormalForm(b, !negate, cache)));
+                break;
+            case LTLFormula.UNTIL:
+            case LTLFormula.RELEASE:
+                // !(a U b) = !a V !b, !(a V b) = !a U !b
+                result = factory.create((f.operator == LTLFormula.UNTIL) != negate ? LTLFormula.UNTIL : LTLFormula.RELEASE,
+                        toNegationNormalForm(a, negate, cache), toNegationNormalForm(b, negate, cache));
+                break;
+            case LTLFormula.WEAK_UNTIL:
+                // a W b = b V (a || b), !(a W b) = !b U (!a && !b)
+                result = negate
+                        ? factory.until(toNegationNormalForm(b, true, cache),
+                        factory.and(toNegationNormalForm(a, true, cache), toNegationNormalForm(b, true, cache)))
+                        : factory.create(LTLFormula.RELEASE, toNegationNormalForm(b, false, cache),
+                        factory.or(toNegationNormalForm(a, false, cache), toNegationNormalForm(b, false, cache)));
+                break;
+            case LTLFormula.STRONG_RELEASE:
+                // a M b = b U (a && b), !(a M b) = !b V (!a || !b)
+                result = negate
+                        ? factory.create(LTLFormula.RELEASE, toNegationNormalForm(b, true, cache),
+                        factory.or(toNegationNormalForm(a, true, cache), toNegationNormalForm(b, true, cache)))
+                        : factory.until(toNegationNormalForm(b, false, cache),
+                        factory.and(toNegationNormalForm(a, false, cache), toNegationNormalForm(b, false, cache)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operator " + f.operator);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * One successor of a tableau state.
+     */
+    private static class Cover {
+
+        /**
+         * Literals (atoms and negated atoms) which hold at the current position.
+         */
+        final BitSet literals = new BitSet();
+        /**
+         * Obligations for the next position.
+         */
+        final BitSet next = new BitSet();
+        /**
+         * Eventualities (U, <>) postponed to the next position.
+         */
+        final BitSet deferred = new BitSet();
+
+        Cover copy() {
+            Cover c = new Cover();
+            c.literals.or(literals);
+            c.next.or(next);
+            c.deferred.or(deferred);
+            return c;
+        }
+
+        boolean subsumes(Cover other) {
+            return isSubset(literals, other.literals) && isSubset(next, other.next) && isSubset(deferred, other.deferred);
+        }
+    }
+
+    private static boolean isSubset(BitSet a, BitSet b) {
+        BitSet d = (BitSet) a.clone();
+        d.andNot(b);
+        return d.isEmpty();
+    }
+
+    /**
+     * Exploration of the degeneralized automaton of one formula.
+     */
+    private static class Construction {
+
+        private final LTLFormulaFactory factory;
+        private final LTLFormula root;
+        /**
+         * Subformulas by id; only those reachable from the root are set.
+         */
+        private final LTLFormula[] formulas;
+        /**
+         * Ids of the eventualities, one acceptance set each.
+         */
+        private final int[] eventualities;
+        /**
+         * Index of the negated atom (or of the atom, for a negated atom), -1 if
+         * it does not occur.
+         */
+        private final int[] complement;
+        // Explored states: obligations and counter level; level == number of
+        // eventualities marks an accepting copy.
+        private final ArrayList<BitSet> stateObligations = new ArrayList<BitSet>();
+        private final ArrayList<Integer> stateLevel = new ArrayList<Integer>();
+        private final HashMap<BitSet, int[]> stateIndex = new HashMap<BitSet, int[]>();
+        private final ArrayList<int[]> successors = new ArrayList<int[]>();
+        private final ArrayList<String[]> guards = new ArrayList<String[]>();
+
+        Construction(LTLFormulaFactory factory, LTLFormula root) {
+            this.factory = factory;
+            this.root = root;
+            ArrayList<LTLFormula> subformulas = root.getSubformulas();
+            formulas = new LTLFormula[root.id + 1];
+            complement = new int[root.id + 1];
+            Arrays.fill(complement, -1);
+            int count = 0;
+            for (LTLFormula f : subformulas) {
+                formulas[f.id] = f;
+                if (f.operator == LTLFormula.UNTIL) {
+                    count++;
+                }
+            }
+            eventualities = new int[count];
+            count = 0;
+            for (LTLFormula f : subformulas) {
+                if (f.operator == LTLFormula.UNTIL) {
+                    eventualities[count++] = f.id;
+                }
+                if (f.operator == LTLFormula.NOT && f.left.operator == LTLFormula.ATOM) {
+                    complement[f.id] = f.left.id;
+                    complement[f.left.id] = f.id;
+                }
+            }
+        }
+
+        Graph build() {
+            BitSet initial = new BitSet();
+            initial.set(root.id);
+            int initialState = getState(initial, 0);
+            for (int s = 0; s < stateObligations.size(); s++) {
+                ArrayList<Cover> covers = expand(stateObligations.get(s));
+                int level = stateLevel.get(s).intValue();
+                if (level == eventualities.length) {
+                    level = 0;
+                }
+                int[] targets = new int[covers.size()];
+                String[] labels = new String[covers.size()];
+                for (int c = 0; c < covers.size(); c++) {
+                    Cover cover = covers.get(c);
+                    int nextLevel = level;
+                    while (nextLevel < eventualities.length && !cover.deferred.get(eventualities[nextLevel])) {
+                        nextLevel++;
+                    }
+                    targets[c] = getState(cover.next, nextLevel);
+                    labels[c] = guard(cover.literals);
+                }
+                successors.add(targets);
+                guards.add(labels);
+            }
+            return toGraph(initialState);
+        }
+
+        private int getState(BitSet obligations, int level) {
+            int[] indices = stateIndex.get(obligations);
+            if (indices == null) {
+                indices = new int[eventualities.length + 1];
+                Arrays.fill(indices, -1);
+                stateIndex.put(obligations, indices);
+            }
+            if (indices[level] < 0) {
+                indices[level] = stateObligations.size();
+                stateObligations.add(obligations);
+                stateLevel.add(Integer.valueOf(level));
+            }
+            return indices[level];
+        }
+
+        private boolean isAccepting(int state) {
+            return stateLevel.get(state).intValue() == eventualities.length;
+        }
+
+        private String guard(BitSet literals) {
+            if (literals.isEmpty()) {
+                return "-";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = literals.nextSetBit(0); i >= 0; i = literals.nextSetBit(i + 1)) {
+                LTLFormula f = formulas[i];
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(f.operator == LTLFormula.NOT ? "!" + f.left.name : f.name);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Expand the obligations of a state into its covers, without subsumed
+         * ones.
+         */
+        private ArrayList<Cover> expand(BitSet obligations) {
+            ArrayList<Cover> covers = new ArrayList<Cover>();
+            ArrayList<LTLFormula> todo = new ArrayList<LTLFormula>();
+            for (int i = obligations.nextSetBit(0); i >= 0; i = obligations.nextSetBit(i + 1)) {
+                todo.add(formulas[i]);
+            }
+            expand(todo, new BitSet(), new Cover(), covers);
+
+            ArrayList<Cover> result = new ArrayList<Cover>();
+            for (int i = 0; i < covers.size(); i++) {
+                boolean subsumed = false;
+                for (int j = 0; j < covers.size() && !subsumed; j++) {
+                    if (i != j && covers.get(j).subsumes(covers.get(i))
+                            && (j < i || !covers.get(i).subsumes(covers.get(j)))) {
+                        subsumed = true;
+                    }
+                }
+                if (!subsumed) {
+                    result.add(covers.get(i));
+                }
+            }
+            return result;
+        }
+
+        private void expand(ArrayList<LTLFormula> todo, BitSet processed, Cover cover, ArrayList<Cover> covers) {
+            while (!todo.isEmpty()) {
+                LTLFormula f = todo.remove(todo.size() - 1);
+                if (processed.get(f.id)) {
+                    continue;
+                }
+                processed.set(f.id);
+                switch (f.operator) {
+                    case LTLFormula.TRUE:
+                        break;
+                    case LTLFormula.FALSE:
+                        return;
+                    case LTLFormula.ATOM:
+                    case LTLFormula.NOT:
+                        if (complement[f.id] >= 0 && processed.get(complement[f.id])) {
+                            return;
+                        }
+                        cover.literals.set(f.id);
+                        break;
+                    case LTLFormula.AND:
+                        todo.add(f.right);
+                        todo.add(f.left);
+                        break;
+                    case LTLFormula.OR:
+                        if (!processed.get(f.left.id) && !processed.get(f.right.id)) {
+                            ArrayList<LTLFormula> branch = new ArrayList<LTLFormula>(todo);
+                            branch.add(f.right);
+                            expand(branch, (BitSet) processed.clone(), cover.copy(), covers);
+                            todo.add(f.left);
+                        }
+                        break;
+                    case LTLFormula.NEXT:
+                        cover.next.set(f.left.id);
+                        break;
+                    case LTLFormula.UNTIL:
+                        // a U b = b || (a && X (a U b))
+                        if (!processed.get(f.right.id)) {
+                            ArrayList<LTLFormula> branch = new ArrayList<LTLFormula>(todo);
+                            branch.add(f.left);
+                            Cover deferred = cover.copy();
+                            deferred.next.set(f.id);
+                            deferred.deferred.set(f.id);
+                            expand(branch, (BitSet) processed.clone(), deferred, covers);
+                            todo.add(f.right);
+                        }
+                        break;
+                    case LTLFormula.RELEASE:
+                        // a V b = b && (a || X (a V b))
+                        todo.add(f.right);
+                        if (!processed.get(f.left.id)) {
+                            if (f.left.operator != LTLFormula.FALSE) {
+                                ArrayList<LTLFormula> branch = new ArrayList<LTLFormula>(todo);
+                                branch.add(f.left);
+                                expand(branch, (BitSet) processed.clone(), cover.copy(), covers);
+                            }
+                            cover.next.set(f.id);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Formula not in negation normal form: " + f);
+                }
+            }
+            covers.add(cover);
+        }
+
+        /**
+         * Create the automaton, keeping only the states which can reach an
+         * accepting cycle, and merging bisimilar states.
+         */
+        private Graph toGraph(int initialState) {
+            int n = stateObligations.size();
+            BitSet live = liveStates(n);
+            Graph graph = new Graph();
+            if (!live.get(initialState)) {
+                // Empty language
+                graph.setInit(new Node(graph));
+                return graph;
+            }
+
+            // Partition refinement, starting from accepting / non-accepting.
+            int[] block = new int[n];
+            int blocks = 0;
+            for (int s = 0; s < n; s++) {
+                block[s] = isAccepting(s) ? 1 : 0;
+            }
+            while (true) {
+                HashMap<String, Integer> signatures = new HashMap<String, Integer>();
+                int[] refined = new int[n];
+                for (int s = 0; s < n; s++) {
+                    if (live.get(s)) {
+                        String signature = signature(s, block, live);
+                        Integer b = signatures.get(signature);
+                        if (b == null) {
+                            b = Integer.valueOf(signatures.size());
+                            signatures.put(signature, b);
+                        }
+                        refined[s] = b.intValue();
+                    }
+                }
+                block = refined;
+                if (signatures.size() == blocks) {
+                    break;
+                }
+                blocks = signatures.size();
+            }
+
+            Node[] nodes = new Node[blocks];
+            int[] representative = new int[blocks];
+            for (int s = n - 1; s >= 0; s--) {
+                if (live.get(s)) {
+                    representative[block[s]] = s;
+                }
+            }
+            for (int b = 0; b < blocks; b++) {
+                nodes[b] = new Node(graph);
+                if (isAccepting(representative[b])) {
+                    nodes[b].setBooleanAttribute("accepting", true);
+                }
+            }
+            graph.setInit(nodes[block[initialState]]);
+            for (int b = 0; b < blocks; b++) {
+                int s = representative[b];
+                int[] targets = successors.get(s);
+                String[] labels = guards.get(s);
+                HashSet<String> created = new HashSet<String>();
+                for (int c = 0; c < targets.length; c++) {
+                    if (live.get(targets[c]) && created.add(labels[c] + "->" + block[targets[c]])) {
+                        new Edge(nodes[b], nodes[block[targets[c]]], labels[c]);
+                    }
+                }
+            }
+            return graph;
+        }
+
+        /**
+         * Acceptance and the set of (guard, successor block) pairs of a state.
+         */
+        private String signature(int s, int[] block, BitSet live) {
+            int[] targets = successors.get(s);
+            String[] labels = guards.get(s);
+            TreeSet<String> edges = new TreeSet<String>();
+            for (int c = 0; c < targets.length; c++) {
+                if (live.get(targets[c])) {
+                    edges.add(labels[c] + "->" + block[targets[c]]);
+                }
+            }
+            return (isAccepting(s) ? "*" : "") + edges;
+        }
+
+        /**
+         * States from which a cycle through an accepting state is reachable,
+         * computed from the strongly connected components (Tarjan, iterative).
+         */
+        private BitSet liveStates(int n) {
+            int[] index = new int[n];
+            int[] lowLink = new int[n];
+            int[] component = new int[n];
+            Arrays.fill(index, -1);
+            boolean[] onStack = new boolean[n];
+            int[] stack = new int[n];
+            int stackSize = 0;
+            int[] callState = new int[n];
+            int[] callEdge = new int[n];
+            int counter = 0;
+            int components = 0;
+            BitSet goodComponents = new BitSet();
+
+            for (int start = 0; start < n; start++) {
+                if (index[start] >= 0) {
+                    continue;
+                }
+                int depth = 0;
+                callState[0] = start;
+                callEdge[0] = 0;
+                index[start] = lowLink[start] = counter++;
+                stack[stackSize++] = start;
+                onStack[start] = true;
+                while (depth >= 0) {
+                    int s = callState[depth];
+                    int[] targets = successors.get(s);
+                    if (callEdge[depth] < targets.length) {
+                        int t = targets[callEdge[depth]++];
+                        if (index[t] < 0) {
+                            index[t] = lowLink[t] = counter++;
+                            stack[stackSize++] = t;
+                            onStack[t] = true;
+                            depth++;
+                            callState[depth] = t;
+                            callEdge[depth] = 0;
+                        } else if (onStack[t]) {
+                            lowLink[s] = Math.min(lowLink[s], index[t]);
+                        }
+                        continue;
+                    }
+                    if (lowLink[s] == index[s]) {
+                        // Pop the component rooted at s.
+                        boolean accepting = false;
+                        int size = 0;
+                        int t;
+                        do {
+                            t = stack[--stackSize];
+                            onStack[t] = false;
+                            component[t] = components;
+                            accepting |= isAccepting(t);
+                            size++;
+                        } while (t != s);
+                        boolean cyclic = size > 1;
+                        for (int u : successors.get(s)) {
+                            cyclic |= u == s;
+                        }
+                        if (accepting && cyclic) {
+                            goodComponents.set(components);
+                        }
+                        components++;
+                    }
+                    depth--;
+                    if (depth >= 0) {
+                        int parent = callState[depth];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[s]);
+                    }
+                }
+            }
+
+            // Components are completed in reverse topological order, so a
+            // state is live if its component is good or one of its successors
+            // (in an earlier completed component or the same one) is live.
+            BitSet liveComponents = (BitSet) goodComponents.clone();
+            ArrayList<ArrayList<Integer>> members = new ArrayList<ArrayList<Integer>>();
+            for (int c = 0; c < components; c++) {
+                members.add(new ArrayList<Integer>());
+            }
+            for (int s = 0; s < n; s++) {
+                members.get(component[s]).add(Integer.valueOf(s));
+            }
+            for (int c = 0; c < components; c++) {
+                for (int k = 0; k < members.get(c).size() && !liveComponents.get(c); k++) {
+                    for (int t : successors.get(members.get(c).get(k).intValue())) {
+                        if (component[t] != c && liveComponents.get(component[t])) {
+                            liveComponents.set(c);
+                            break;
+                        }
+                    }
+                }
+            }
+            BitSet live = new BitSet(n);
+            for (int s = 0; s < n; s++) {
+                if (liveComponents.get(component[s])) {
+                    live.set(s);
+                }
+            }
+            return live;
+        }
+    }
+}
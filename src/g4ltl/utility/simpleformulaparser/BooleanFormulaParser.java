@@ -23,16 +23,16 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.io.Reader;
-import jdd.bdd.BDD;
+import g4ltl.utility.bdd.DecisionDiagram;
 
 public class BooleanFormulaParser implements BooleanFormulaParserConstants {
 
     static boolean debug;
-    static BDD bdd;
+    static DecisionDiagram bdd;
     static int[] variableArray;
     static ArrayList<String> variableIndex;
 
-    public BooleanFormulaParser(String s, BDD bdd, int[] variableArray, ArrayList<String> variableIndex, boolean debug) {
+    public BooleanFormulaParser(String s, DecisionDiagram bdd, int[] variableArray, ArrayList<String> variableIndex, boolean debug) {
             this((Reader) (new StringReader(s)));
             this.bdd = bdd;
             this.variableArray = variableArray;
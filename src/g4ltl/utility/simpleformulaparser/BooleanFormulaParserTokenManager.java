@@ -23,7 +23,7 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.io.Reader;
-import jdd.bdd.BDD;
+import g4ltl.utility.bdd.DecisionDiagram;
 
 /** Token Manager. */
 public class BooleanFormulaParserTokenManager implements BooleanFormulaParserConstants